@@ -0,0 +1,23 @@
+package org.opendaylight.yang.gen.v1.gnpy.path.rev200202;
+import java.lang.String;
+import java.lang.UnsupportedOperationException;
+
+/**
+ * The purpose of generated class in src/main/java for Union types is to create new instances of unions from a string representation.
+ * In some cases it is very difficult to automate it since there can be unions such as (uint32 - uint16), or (string - uint32).
+ *
+ * The reason behind putting it under src/main/java is:
+ * This class is generated in form of a stub and needs to be finished by the user. This class is generated only once to prevent
+ * loss of user code.
+ *
+ */
+public class AccumulatedMetricTypeBuilder {
+    private AccumulatedMetricTypeBuilder() {
+        //Exists only to defeat instantiation.
+    }
+
+    public static AccumulatedMetricType getDefaultInstance(String defaultValue) {
+        throw new UnsupportedOperationException("Not yet implemented");
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.common.device;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Readers-writer lock of a device.
+ *
+ * <p>
+ * Reads share the device, writes are exclusive and granted in the order they are requested. A read waits
+ * while a write holds the device or waits for it, so that a steady flow of reads cannot starve the writes.
+ * Unlike {@link java.util.concurrent.locks.ReentrantReadWriteLock}, the write lock is not owned by a thread:
+ * it is taken by the executor creating a {@link DeviceTransaction} and released by whatever thread commits
+ * or cancels it.
+ * </p>
+ */
+final class DeviceLock {
+
+    // tickets of the writes, the write holding or next holding the device is servedWrite
+    private long nextWrite;
+    private long servedWrite;
+    private boolean writing;
+    private int readers;
+    private final Set<Long> abandonedWrites = new HashSet<>();
+    // calls holding or about to take the lock, the lock being kept by DeviceSessionRegistry while there are some
+    private int users;
+
+    synchronized void pin() {
+        users++;
+    }
+
+    synchronized boolean isIdle() {
+        return users == 0;
+    }
+
+    synchronized int getWaitingWrites() {
+        return (int) (nextWrite - servedWrite - (writing ? 1 : 0)) - abandonedWrites.size();
+    }
+
+    /**
+     * Wait until no other write holds or waits for the device, and no read holds it.
+     *
+     * @throws InterruptedException if interrupted while waiting, the lock not being taken
+     */
+    synchronized void lockWrite() throws InterruptedException {
+        long ticket = nextWrite++;
+        try {
+            while (ticket != servedWrite || readers > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            abandonWrite(ticket);
+            users--;
+            throw e;
+        }
+        writing = true;
+    }
+
+    synchronized void unlockWrite() {
+        if (!writing) {
+            throw new IllegalStateException("Device not locked for writing");
+        }
+        writing = false;
+        users--;
+        servedWrite++;
+        skipAbandonedWrites();
+        notifyAll();
+    }
+
+    /**
+     * Wait until no write holds or waits for the device.
+     *
+     * @throws InterruptedException if interrupted while waiting, the lock not being taken
+     */
+    synchronized void lockRead() throws InterruptedException {
+        try {
+            while (servedWrite != nextWrite) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            users--;
+            throw e;
+        }
+        readers++;
+    }
+
+    synchronized void unlockRead() {
+        if (readers == 0) {
+            throw new IllegalStateException("Device not locked for reading");
+        }
+        readers--;
+        users--;
+        if (readers == 0) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DeviceLock[readers=" + readers + ", writing=" + writing + ", waitingWrites=" + getWaitingWrites()
+            + ", users=" + users + "]";
+    }
+
+    private void abandonWrite(long ticket) {
+        if (ticket == servedWrite) {
+            servedWrite++;
+            skipAbandonedWrites();
+        } else {
+            abandonedWrites.add(ticket);
+        }
+        notifyAll();
+    }
+
+    private void skipAbandonedWrites() {
+        while (abandonedWrites.remove(servedWrite)) {
+            servedWrite++;
+        }
+    }
+}
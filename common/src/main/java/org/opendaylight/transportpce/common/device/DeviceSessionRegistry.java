@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.common.device;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.jdt.annotation.NonNull;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.DataObjectModification;
+import org.opendaylight.mdsal.binding.api.DataTreeChangeListener;
+import org.opendaylight.mdsal.binding.api.DataTreeModification;
+import org.opendaylight.mdsal.binding.api.MountPoint;
+import org.opendaylight.mdsal.binding.api.MountPointService;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netconf.node.topology.rev150114.NetconfNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netconf.node.topology.rev150114.NetconfNodeConnectionStatus;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sessions and locks of the devices used by {@link DeviceTransactionManagerImpl}.
+ *
+ * <p>
+ * Listening to the netconf topology, the registry caches the mount point and the data broker of the connected
+ * devices, and evicts them as soon as a device is no longer connected. The mount point of a device not known to be
+ * connected is looked up on every call and never cached, so that a data broker of a closed session is never reused.
+ * The lock of a device is kept while the device is connected or the lock is used, and dropped otherwise.
+ * </p>
+ */
+final class DeviceSessionRegistry implements DataTreeChangeListener<Node> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceSessionRegistry.class);
+
+    private final MountPointService mountPointService;
+    private final ConcurrentMap<String, DeviceSession> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DeviceLock> deviceLocks = new ConcurrentHashMap<>();
+
+    DeviceSessionRegistry(MountPointService mountPointService) {
+        this.mountPointService = mountPointService;
+    }
+
+    Optional<MountPoint> getMountPoint(String deviceId) {
+        DeviceSession session = sessions.get(deviceId);
+        return session == null ? lookupMountPoint(deviceId) : session.getMountPoint();
+    }
+
+    Optional<DataBroker> getDataBroker(String deviceId) {
+        DeviceSession session = sessions.get(deviceId);
+        return session == null ? lookupMountPoint(deviceId).flatMap(DeviceSessionRegistry::dataBrokerOf)
+            : session.getDataBroker();
+    }
+
+    /**
+     * Get the lock of a device, pinned in the registry until it is unlocked by the caller.
+     *
+     * <p>
+     * The caller must lock it, then unlock it and call {@link #releaseDeviceLock(String)}.
+     * </p>
+     *
+     * @param deviceId the device
+     * @return the lock
+     */
+    DeviceLock getDeviceLock(String deviceId) {
+        return deviceLocks.compute(deviceId, (id, lock) -> {
+            DeviceLock deviceLock = lock == null ? new DeviceLock() : lock;
+            deviceLock.pin();
+            return deviceLock;
+        });
+    }
+
+    void releaseDeviceLock(String deviceId) {
+        if (!sessions.containsKey(deviceId)) {
+            dropIdleLock(deviceId);
+        }
+    }
+
+    void evict(String deviceId) {
+        if (sessions.remove(deviceId) != null) {
+            LOG.debug("Session of device {} evicted", deviceId);
+        }
+        dropIdleLock(deviceId);
+    }
+
+    int getSessionCount() {
+        return sessions.size();
+    }
+
+    int getLockCount() {
+        return deviceLocks.size();
+    }
+
+    int getWaitingWrites(String deviceId) {
+        DeviceLock deviceLock = deviceLocks.get(deviceId);
+        return deviceLock == null ? 0 : deviceLock.getWaitingWrites();
+    }
+
+    @Override
+    public void onDataTreeChanged(@NonNull Collection<DataTreeModification<Node>> changes) {
+        for (DataTreeModification<Node> change : changes) {
+            DataObjectModification<Node> rootNode = change.getRootNode();
+            Node node = rootNode.getDataAfter() == null ? rootNode.getDataBefore() : rootNode.getDataAfter();
+            if (node == null) {
+                continue;
+            }
+            String deviceId = node.key().getNodeId().getValue();
+            if (!isConnected(rootNode.getDataAfter())) {
+                evict(deviceId);
+            } else if (!isConnected(rootNode.getDataBefore())) {
+                // a new netconf session of the device, with a new mount point
+                LOG.debug("Session of device {} registered", deviceId);
+                sessions.put(deviceId, new DeviceSession(deviceId));
+            }
+        }
+    }
+
+    private static boolean isConnected(Node node) {
+        if (node == null) {
+            return false;
+        }
+        NetconfNode netconfNode = node.augmentation(NetconfNode.class);
+        return netconfNode != null
+            && netconfNode.getConnectionStatus() == NetconfNodeConnectionStatus.ConnectionStatus.Connected;
+    }
+
+    private void dropIdleLock(String deviceId) {
+        deviceLocks.computeIfPresent(deviceId, (id, lock) -> lock.isIdle() ? null : lock);
+    }
+
+    private Optional<MountPoint> lookupMountPoint(String deviceId) {
+        return mountPointService.getMountPoint(InstanceIdentifiers.NETCONF_TOPOLOGY_II.child(Node.class,
+            new NodeKey(new NodeId(deviceId))));
+    }
+
+    private static Optional<DataBroker> dataBrokerOf(MountPoint mountPoint) {
+        return mountPoint.getService(DataBroker.class);
+    }
+
+    private final class DeviceSession {
+        private final String deviceId;
+        private MountPoint mountPoint;
+        private DataBroker dataBroker;
+
+        DeviceSession(String deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        synchronized Optional<MountPoint> getMountPoint() {
+            if (mountPoint == null) {
+                mountPoint = lookupMountPoint(deviceId).orElse(null);
+            }
+            return Optional.ofNullable(mountPoint);
+        }
+
+        synchronized Optional<DataBroker> getDataBroker() {
+            if (dataBroker == null) {
+                dataBroker = getMountPoint().flatMap(DeviceSessionRegistry::dataBrokerOf).orElse(null);
+            }
+            return Optional.ofNullable(dataBroker);
+        }
+    }
+}
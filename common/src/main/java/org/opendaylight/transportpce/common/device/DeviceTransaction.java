@@ -12,7 +12,6 @@ import com.google.common.util.concurrent.FluentFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.Optional;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -42,13 +41,15 @@ public class DeviceTransaction {
     private static final Logger LOG = LoggerFactory.getLogger(DeviceTransaction.class);
 
     private final ReadWriteTransaction rwTx;
-    private final CountDownLatch deviceLock;
+    private final DeviceLock deviceLock;
+    private final Runnable releaseLock;
     private final ScheduledExecutorService scheduledExecutorService;
     private final AtomicBoolean wasSubmittedOrCancelled = new AtomicBoolean(false);
 
-    DeviceTransaction(ReadWriteTransaction rwTx, CountDownLatch deviceLock) {
+    DeviceTransaction(ReadWriteTransaction rwTx, DeviceLock deviceLock, Runnable releaseLock) {
         this.rwTx = rwTx;
         this.deviceLock = deviceLock;
+        this.releaseLock = releaseLock;
         this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
         LOG.debug("Device transaction created. Lock: {}", deviceLock);
     }
@@ -87,13 +88,12 @@ public class DeviceTransaction {
      * @return true if cancel was successful.
      */
     public boolean cancel() {
-        if (wasSubmittedOrCancelled.get()) {
+        if (!wasSubmittedOrCancelled.compareAndSet(false, true)) {
             LOG.warn("Transaction was already submitted or canceled!");
             return false;
         }
 
         LOG.debug("Transaction cancelled. Lock: {}", deviceLock);
-        wasSubmittedOrCancelled.set(true);
         afterClose();
         return rwTx.cancel();
     }
@@ -107,14 +107,13 @@ public class DeviceTransaction {
      * @return FluentFuture which indicates when the commit is completed.
      */
     public FluentFuture<? extends @NonNull CommitInfo> commit(long timeout, TimeUnit timeUnit) {
-        if (wasSubmittedOrCancelled.get()) {
+        if (!wasSubmittedOrCancelled.compareAndSet(false, true)) {
             String msg = "Transaction was already submitted or canceled!";
             LOG.error(msg);
             return FluentFutures.immediateFailedFluentFuture(new IllegalStateException(msg));
         }
 
         LOG.debug("Transaction committed. Lock: {}", deviceLock);
-        wasSubmittedOrCancelled.set(true);
         FluentFuture<? extends @NonNull CommitInfo> future =
                 rwTx.commit().withTimeout(timeout, timeUnit, scheduledExecutorService);
 
@@ -145,6 +144,7 @@ public class DeviceTransaction {
 
     private void afterClose() {
         scheduledExecutorService.shutdown();
-        deviceLock.countDown();
+        deviceLock.unlockWrite();
+        releaseLock.run();
     }
 }
@@ -31,8 +31,9 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
  * <p>
  *     Method
  *  {@link DeviceTransactionManager#getDataFromDevice(String, LogicalDatastoreType, InstanceIdentifier, long, TimeUnit)}
- *     is 'shortcut' to get data from device. It creates {@link DeviceTransaction}, gets data via it and then closes
- *     the transaction.
+ *     is 'shortcut' to get data from device. It reads the data with a read-only transaction on the device. Reads of a
+ *     device run concurrently with each other but never while a {@link DeviceTransaction} is opened on the device,
+ *     and a read waits for the device transactions requested before it.
  * </p>
  *
  * <p>
@@ -58,7 +59,7 @@ import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
  * <p>
  *     If there is only need to read from device
  *  {@link DeviceTransactionManager#getDataFromDevice(String, LogicalDatastoreType, InstanceIdentifier, long, TimeUnit)}
- *     method can be used. It will automatically take care of {@link DeviceTransaction} and it will return data.
+ *     method can be used. It will automatically take care of the read-only transaction and it will return data.
  *     This method <b>SHOULD NOT BE USED TOGETHER WITH DEVICE TRANSACTION ON THE SAME DEVICE IN THE SAME TIME</b>.
  *     In case that {@link DeviceTransaction} is created on device and before committing it
  *  {@link DeviceTransactionManager#getDataFromDevice(String, LogicalDatastoreType, InstanceIdentifier, long, TimeUnit)}
@@ -134,18 +135,18 @@ public interface DeviceTransactionManager {
     Optional<MountPoint> getDeviceMountPoint(String deviceId);
 
     /**
-     * Returns data from device from specified path. Creates new device transaction, gets data via it and closes
-     * transaction.
+     * Returns data from device from specified path. Creates new read-only transaction on the device, gets data via
+     * it and closes transaction.
      *
      * <p>
-     * This method is blocking - it's waiting until it receives {@link DeviceTransaction} and then the data from device.
+     * This method is blocking - it's waiting until the {@link DeviceTransaction}s opened or requested on the device
+     * are closed and then for the data from device. Other reads of the device do not block it.
      * </p>
      *
      * @param deviceId Device identifier from which will be data read.
      * @param logicalDatastoreType Datastore type.
      * @param path Path to data in device's datastore.
-     * @param timeout Timeout to automatically close transaction AND to get data from device (sets both timeouts to
-     *                same value).
+     * @param timeout Timeout to get data from device.
      * @param timeUnit Time unit of timeout.
      * @param <T> Type of data to be returned.
      * @return Optional of data obtained from device. If device does not contain data or device does not exists then
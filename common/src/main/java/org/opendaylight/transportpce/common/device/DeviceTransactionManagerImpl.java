@@ -14,9 +14,6 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -24,13 +21,14 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.DataTreeIdentifier;
 import org.opendaylight.mdsal.binding.api.MountPoint;
 import org.opendaylight.mdsal.binding.api.MountPointService;
+import org.opendaylight.mdsal.binding.api.ReadTransaction;
 import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
 import org.opendaylight.transportpce.common.InstanceIdentifiers;
-import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
 import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
-import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeKey;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.slf4j.Logger;
@@ -39,26 +37,46 @@ import org.slf4j.LoggerFactory;
 
 public class DeviceTransactionManagerImpl implements DeviceTransactionManager {
 
-    // TODO cache device data brokers
-    // TODO remove disconnected devices from maps
-
     private static final Logger LOG = LoggerFactory.getLogger(DeviceTransactionManagerImpl.class);
-    private static final int NUMBER_OF_THREADS = 4;
-    private static final long GET_DATA_SUBMIT_TIMEOUT = 3000;
-    private static final TimeUnit GET_DATA_SUBMIT_TIME_UNIT = TimeUnit.MILLISECONDS;
+    static final int NUMBER_OF_THREADS = 4;
     private static final TimeUnit MAX_DURATION_TO_SUBMIT_TIMEUNIT = TimeUnit.MILLISECONDS;
 
-    private final MountPointService mountPointService;
+    private final DeviceSessionRegistry sessionRegistry;
     private final ScheduledExecutorService checkingExecutor;
     private final ListeningExecutorService listeningExecutor;
-    private final ConcurrentMap<String, CountDownLatch> deviceLocks;
     // TODO set reasonable value in blueprint for maxDurationToSubmitTransaction
     private final long maxDurationToSubmitTransaction;
-
+    private ListenerRegistration<DeviceSessionRegistry> sessionListenerRegistration;
+
+    /**
+     * Create a manager looking up the mount point of a device on every access.
+     *
+     * @param mountPointService the mount point service
+     * @param maxDurationToSubmitTransaction the time given to submit a device transaction, in milliseconds
+     */
     public DeviceTransactionManagerImpl(MountPointService mountPointService, long maxDurationToSubmitTransaction) {
-        this.mountPointService = mountPointService;
+        this(new DeviceSessionRegistry(mountPointService), maxDurationToSubmitTransaction);
+    }
+
+    /**
+     * Create a manager caching the mount point and the data broker of the devices connected in the netconf topology
+     * of the datastore.
+     *
+     * @param mountPointService the mount point service
+     * @param maxDurationToSubmitTransaction the time given to submit a device transaction, in milliseconds
+     * @param dataBroker the data broker of the controller datastore
+     */
+    public DeviceTransactionManagerImpl(MountPointService mountPointService, long maxDurationToSubmitTransaction,
+            DataBroker dataBroker) {
+        this(new DeviceSessionRegistry(mountPointService), maxDurationToSubmitTransaction);
+        this.sessionListenerRegistration = dataBroker.registerDataTreeChangeListener(
+            DataTreeIdentifier.create(LogicalDatastoreType.OPERATIONAL,
+                InstanceIdentifiers.NETCONF_TOPOLOGY_II.child(Node.class)), sessionRegistry);
+    }
+
+    DeviceTransactionManagerImpl(DeviceSessionRegistry sessionRegistry, long maxDurationToSubmitTransaction) {
+        this.sessionRegistry = sessionRegistry;
         this.maxDurationToSubmitTransaction = maxDurationToSubmitTransaction;
-        this.deviceLocks = new ConcurrentHashMap<>();
         this.checkingExecutor = Executors.newScheduledThreadPool(NUMBER_OF_THREADS);
         this.listeningExecutor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(NUMBER_OF_THREADS));
     }
@@ -71,26 +89,33 @@ public class DeviceTransactionManagerImpl implements DeviceTransactionManager {
     @Override
     public Future<Optional<DeviceTransaction>> getDeviceTransaction(String deviceId, long timeoutToSubmit,
             TimeUnit timeUnit) {
-        CountDownLatch newLock = new CountDownLatch(1);
         ListenableFuture<Optional<DeviceTransaction>> future = listeningExecutor.submit(() -> {
             LOG.debug("Starting creation of transaction for device {}.", deviceId);
-            // get current lock from device and set new lock
-            CountDownLatch actualLock = swapActualLock(deviceId, newLock);
-            if (actualLock != null) {
-                // if lock was present on device wait until it unlocks
-                actualLock.await();
+            // pinned by the task, so that the lock is not kept when the task is cancelled before running
+            DeviceLock deviceLock = sessionRegistry.getDeviceLock(deviceId);
+            // wait until the transactions requested before and the reads in progress are done
+            try {
+                deviceLock.lockWrite();
+            } catch (InterruptedException e) {
+                sessionRegistry.releaseDeviceLock(deviceId);
+                throw e;
             }
-
-            Optional<DataBroker> deviceDataBrokerOpt = getDeviceDataBroker(deviceId);
-            DataBroker deviceDataBroker;
-            if (deviceDataBrokerOpt.isPresent()) {
-                deviceDataBroker = deviceDataBrokerOpt.get();
-            } else {
-                newLock.countDown();
-                return Optional.empty();
+            DeviceTransaction deviceTx = null;
+            try {
+                Optional<DataBroker> deviceDataBrokerOpt = getDeviceDataBroker(deviceId);
+                if (deviceDataBrokerOpt.isEmpty()) {
+                    return Optional.empty();
+                }
+                deviceTx = new DeviceTransaction(deviceDataBrokerOpt.get().newReadWriteTransaction(), deviceLock,
+                    () -> sessionRegistry.releaseDeviceLock(deviceId));
+                LOG.debug("Created transaction for device {}.", deviceId);
+                return Optional.of(deviceTx);
+            } finally {
+                if (deviceTx == null) {
+                    deviceLock.unlockWrite();
+                    sessionRegistry.releaseDeviceLock(deviceId);
+                }
             }
-            LOG.debug("Created transaction for device {}.", deviceId);
-            return Optional.of(new DeviceTransaction(deviceDataBroker.newReadWriteTransaction(), newLock));
         });
 
         Futures.addCallback(future, new FutureCallback<Optional<DeviceTransaction>>() {
@@ -115,57 +140,52 @@ public class DeviceTransactionManagerImpl implements DeviceTransactionManager {
 
             @Override
             public void onFailure(Throwable throwable) {
-                LOG.error("Exception thrown while getting device transaction for device {}! Unlocking device.",
-                        deviceId, throwable);
-                newLock.countDown();
+                LOG.error("Exception thrown while getting device transaction for device {}!", deviceId, throwable);
             }
         }, checkingExecutor);
 
         return future;
     }
 
-    private synchronized CountDownLatch swapActualLock(String deviceId, CountDownLatch newLock) {
-        return deviceLocks.put(deviceId, newLock);
-    }
-
     private Optional<DataBroker> getDeviceDataBroker(String deviceId) {
-        Optional<MountPoint> netconfNode = getDeviceMountPoint(deviceId);
-        if (netconfNode.isPresent()) {
-            return netconfNode.get().getService(DataBroker.class);
-        } else {
+        Optional<DataBroker> dataBroker = sessionRegistry.getDataBroker(deviceId);
+        if (dataBroker.isEmpty()) {
             LOG.error("Device mount point not found for : {}", deviceId);
-            return Optional.empty();
         }
+        return dataBroker;
     }
 
     @Override
     public Optional<MountPoint> getDeviceMountPoint(String deviceId) {
-        InstanceIdentifier<Node> netconfNodeIID = InstanceIdentifiers.NETCONF_TOPOLOGY_II.child(Node.class,
-                new NodeKey(new NodeId(deviceId)));
-        return mountPointService.getMountPoint(netconfNodeIID);
+        return sessionRegistry.getMountPoint(deviceId);
     }
 
     @Override
     public <T extends DataObject> Optional<T> getDataFromDevice(String deviceId,
             LogicalDatastoreType logicalDatastoreType, InstanceIdentifier<T> path, long timeout, TimeUnit timeUnit) {
-        Optional<DeviceTransaction> deviceTxOpt;
+        DeviceLock deviceLock = sessionRegistry.getDeviceLock(deviceId);
         try {
-            deviceTxOpt = getDeviceTransaction(deviceId, timeout, timeUnit).get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOG.error("Exception thrown while getting transaction for device {}!", deviceId, e);
+            deviceLock.lockRead();
+        } catch (InterruptedException e) {
+            LOG.error("Interrupted while waiting for transactions on device {}!", deviceId, e);
+            sessionRegistry.releaseDeviceLock(deviceId);
+            Thread.currentThread().interrupt();
             return Optional.empty();
         }
-        if (deviceTxOpt.isPresent()) {
-            DeviceTransaction deviceTx = deviceTxOpt.get();
-            try {
-                return deviceTx.read(logicalDatastoreType, path).get(timeout, timeUnit);
+        try {
+            Optional<DataBroker> deviceDataBrokerOpt = getDeviceDataBroker(deviceId);
+            if (deviceDataBrokerOpt.isEmpty()) {
+                LOG.error("Could not obtain transaction for device {}!", deviceId);
+                return Optional.empty();
+            }
+            try (ReadTransaction readTx = deviceDataBrokerOpt.get().newReadOnlyTransaction()) {
+                return readTx.read(logicalDatastoreType, path).get(timeout, timeUnit);
             } catch (InterruptedException | ExecutionException | TimeoutException e) {
                 LOG.error("Exception thrown while reading data from device {}! IID: {}", deviceId, path, e);
-            } finally {
-                deviceTx.commit(GET_DATA_SUBMIT_TIMEOUT, GET_DATA_SUBMIT_TIME_UNIT);
             }
-        } else {
-            LOG.error("Could not obtain transaction for device {}!", deviceId);
+        } finally {
+            deviceLock.unlockRead();
+            sessionRegistry.releaseDeviceLock(deviceId);
         }
         return Optional.empty();
     }
@@ -176,6 +196,9 @@ public class DeviceTransactionManagerImpl implements DeviceTransactionManager {
     }
 
     public void preDestroy() {
+        if (sessionListenerRegistration != null) {
+            sessionListenerRegistration.close();
+        }
         checkingExecutor.shutdown();
         listeningExecutor.shutdown();
     }
@@ -99,8 +99,9 @@ public class RequestProcessor {
         acquireLock();
         FluentFuture<? extends @NonNull CommitInfo> future = null;
         future = rwTx.commit();
-        releaseLock();
+        // reset before releasing the lock, the next writer would otherwise lose its first operations
         resetRwTx();
+        releaseLock();
         return future;
     }
 
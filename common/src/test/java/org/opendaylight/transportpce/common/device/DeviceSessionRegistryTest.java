@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.common.device;
+
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.DataObjectModification;
+import org.opendaylight.mdsal.binding.api.DataTreeModification;
+import org.opendaylight.mdsal.binding.api.MountPoint;
+import org.opendaylight.mdsal.binding.api.MountPointService;
+import org.opendaylight.mdsal.binding.api.ReadTransaction;
+import org.opendaylight.mdsal.binding.api.ReadWriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.NetworkBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netconf.node.topology.rev150114.NetconfNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netconf.node.topology.rev150114.NetconfNodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.netconf.node.topology.rev150114.NetconfNodeConnectionStatus;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.NodeId;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.Node;
+import org.opendaylight.yang.gen.v1.urn.tbd.params.xml.ns.yang.network.topology.rev131021.network.topology.topology.NodeBuilder;
+import org.opendaylight.yangtools.util.concurrent.FluentFutures;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class DeviceSessionRegistryTest {
+
+    private static final int DEVICES = 8;
+    private static final int CYCLES = 1000;
+    private static final InstanceIdentifier<Network> IID = InstanceIdentifier.create(Network.class);
+    private static final Network DATA = new NetworkBuilder().build();
+
+    // mount points of the device sessions opened in the mount point service, by device
+    private final Map<String, MountPoint> mountPoints = new ConcurrentHashMap<>();
+    private final Map<String, DataBroker> dataBrokers = new ConcurrentHashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger staleUses = new AtomicInteger();
+    private ReadTransaction readTx;
+    private ReadWriteTransaction rwTx;
+    private DeviceSessionRegistry sessionRegistry;
+    private DeviceTransactionManagerImpl transactionManager;
+
+    private static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    private static Node node(String deviceId, NetconfNodeConnectionStatus.ConnectionStatus connectionStatus) {
+        return new NodeBuilder().setNodeId(new NodeId(deviceId))
+            .addAugmentation(NetconfNode.class, new NetconfNodeBuilder().setConnectionStatus(connectionStatus).build())
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<DataTreeModification<Node>> change(Node before, Node after) {
+        DataObjectModification<Node> rootNode = stub(DataObjectModification.class);
+        Mockito.when(rootNode.getDataBefore()).thenReturn(before);
+        Mockito.when(rootNode.getDataAfter()).thenReturn(after);
+        DataTreeModification<Node> change = stub(DataTreeModification.class);
+        Mockito.when(change.getRootNode()).thenReturn(rootNode);
+        return List.of(change);
+    }
+
+    @Before
+    public void setUp() {
+        readTx = stub(ReadTransaction.class);
+        Mockito.doReturn(FluentFutures.immediateFluentFuture(Optional.of(DATA))).when(readTx).read(any(), any());
+        rwTx = stub(ReadWriteTransaction.class);
+        Mockito.doReturn(FluentFutures.immediateNullFluentFuture()).when(rwTx).commit();
+        MountPointService mountPointService = stub(MountPointService.class);
+        Mockito.when(mountPointService.getMountPoint(any())).then(invocation -> {
+            lookups.incrementAndGet();
+            InstanceIdentifier<?> path = invocation.getArgument(0);
+            return Optional.ofNullable(mountPoints.get(path.firstKeyOf(Node.class).getNodeId().getValue()));
+        });
+        sessionRegistry = new DeviceSessionRegistry(mountPointService);
+        transactionManager = new DeviceTransactionManagerImpl(sessionRegistry, 3000);
+    }
+
+    @After
+    public void tearDown() {
+        transactionManager.preDestroy();
+    }
+
+    /**
+     * Create the mount point of a device session, its data broker counting the uses while the session is closed.
+     */
+    private MountPoint mountPoint(String deviceId) {
+        DataBroker dataBroker = stub(DataBroker.class);
+        Mockito.when(dataBroker.newReadOnlyTransaction()).then(invocation -> {
+            checkSession(deviceId, dataBroker);
+            return readTx;
+        });
+        Mockito.when(dataBroker.newReadWriteTransaction()).then(invocation -> {
+            checkSession(deviceId, dataBroker);
+            return rwTx;
+        });
+        MountPoint mountPoint = stub(MountPoint.class);
+        Mockito.when(mountPoint.getService(DataBroker.class)).thenReturn(Optional.of(dataBroker));
+        return mountPoint;
+    }
+
+    private void checkSession(String deviceId, DataBroker dataBroker) {
+        if (dataBroker != dataBrokers.get(deviceId)) {
+            staleUses.incrementAndGet();
+        }
+    }
+
+    private void connect(String deviceId, MountPoint mountPoint) {
+        mountPoints.put(deviceId, mountPoint);
+        dataBrokers.put(deviceId, mountPoint.getService(DataBroker.class).get());
+    }
+
+    private void disconnect(String deviceId) {
+        dataBrokers.remove(deviceId);
+        mountPoints.remove(deviceId);
+    }
+
+    private Optional<Network> read(String deviceId) {
+        return transactionManager.getDataFromDevice(deviceId, LogicalDatastoreType.OPERATIONAL, IID, 1000,
+            TimeUnit.MILLISECONDS);
+    }
+
+    private void write(String deviceId) throws Exception {
+        DeviceTransaction deviceTx = transactionManager.getDeviceTransaction(deviceId).get().get();
+        deviceTx.put(LogicalDatastoreType.CONFIGURATION, IID, DATA);
+        deviceTx.commit(1000, TimeUnit.MILLISECONDS).get();
+    }
+
+    private void assertLockCount(int expected) throws InterruptedException {
+        // device transactions release their lock once the commit callbacks ran
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sessionRegistry.getLockCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, sessionRegistry.getLockCount());
+    }
+
+    private Void churn(String deviceId) throws Exception {
+        Node connecting = node(deviceId, NetconfNodeConnectionStatus.ConnectionStatus.Connecting);
+        Node connected = node(deviceId, NetconfNodeConnectionStatus.ConnectionStatus.Connected);
+        List<DataTreeModification<Node>> connection = change(connecting, connected);
+        List<DataTreeModification<Node>> disconnection = change(connected, connecting);
+        // sessions alternate between two mount points, a cached data broker of the previous session being stale
+        MountPoint[] sessions = {mountPoint(deviceId), mountPoint(deviceId)};
+        for (int cycle = 0; cycle < CYCLES; cycle++) {
+            connect(deviceId, sessions[cycle % 2]);
+            sessionRegistry.onDataTreeChanged(connection);
+            Assert.assertTrue(transactionManager.isDeviceMounted(deviceId));
+            Assert.assertEquals(Optional.of(DATA), read(deviceId));
+            write(deviceId);
+            Assert.assertEquals(Optional.of(DATA), read(deviceId));
+
+            disconnect(deviceId);
+            sessionRegistry.onDataTreeChanged(disconnection);
+            Assert.assertFalse(transactionManager.isDeviceMounted(deviceId));
+            Assert.assertEquals(Optional.empty(), read(deviceId));
+        }
+        return null;
+    }
+
+    @Test
+    public void connectDisconnectCycles() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(DEVICES);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int device = 0; device < DEVICES; device++) {
+                String deviceId = "device-" + device;
+                results.add(executor.submit(() -> churn(deviceId)));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(0, staleUses.get());
+        Assert.assertEquals(0, sessionRegistry.getSessionCount());
+        assertLockCount(0);
+        // one lookup per session, then one per access to a disconnected device
+        Assert.assertEquals(DEVICES * CYCLES * 3, lookups.get());
+    }
+
+    @Test
+    public void sessionCachedWhileConnected() throws Exception {
+        String deviceId = "device";
+        connect(deviceId, mountPoint(deviceId));
+        sessionRegistry.onDataTreeChanged(change(null,
+            node(deviceId, NetconfNodeConnectionStatus.ConnectionStatus.Connected)));
+        for (int i = 0; i < 10; i++) {
+            read(deviceId);
+            write(deviceId);
+        }
+        Assert.assertEquals(1, lookups.get());
+        Assert.assertEquals(1, sessionRegistry.getSessionCount());
+        Assert.assertEquals(1, sessionRegistry.getLockCount());
+
+        sessionRegistry.onDataTreeChanged(change(
+            node(deviceId, NetconfNodeConnectionStatus.ConnectionStatus.Connected), null));
+        Assert.assertEquals(0, sessionRegistry.getSessionCount());
+        assertLockCount(0);
+        Assert.assertEquals(0, staleUses.get());
+    }
+
+    @Test
+    public void unknownDeviceNotCached() throws Exception {
+        String deviceId = "device";
+        connect(deviceId, mountPoint(deviceId));
+        for (int i = 0; i < 10; i++) {
+            read(deviceId);
+            write(deviceId);
+        }
+        Assert.assertEquals(20, lookups.get());
+        Assert.assertEquals(0, sessionRegistry.getSessionCount());
+        assertLockCount(0);
+    }
+
+    @Test
+    public void lockKeptUntilReleased() throws Exception {
+        String deviceId = "device";
+        Node connected = node(deviceId, NetconfNodeConnectionStatus.ConnectionStatus.Connected);
+        connect(deviceId, mountPoint(deviceId));
+        sessionRegistry.onDataTreeChanged(change(null, connected));
+        final DeviceTransaction deviceTx = transactionManager.getDeviceTransaction(deviceId).get().get();
+
+        disconnect(deviceId);
+        sessionRegistry.onDataTreeChanged(change(connected,
+            node(deviceId, NetconfNodeConnectionStatus.ConnectionStatus.UnableToConnect)));
+        Assert.assertEquals(0, sessionRegistry.getSessionCount());
+        Assert.assertEquals(1, sessionRegistry.getLockCount());
+
+        deviceTx.cancel();
+        assertLockCount(0);
+    }
+
+    @Test
+    public void lockNotKeptByCancelledRequest() throws Exception {
+        String deviceId = "device";
+        connect(deviceId, mountPoint(deviceId));
+        final DeviceTransaction deviceTx = transactionManager.getDeviceTransaction(deviceId).get().get();
+        // requests waiting for the device on every thread of the manager, the next one staying queued
+        List<Future<Optional<DeviceTransaction>>> waiting = new ArrayList<>();
+        for (int i = 0; i < DeviceTransactionManagerImpl.NUMBER_OF_THREADS; i++) {
+            waiting.add(transactionManager.getDeviceTransaction(deviceId));
+        }
+        Future<Optional<DeviceTransaction>> queued = transactionManager.getDeviceTransaction(deviceId);
+        Assert.assertTrue(queued.cancel(false));
+
+        deviceTx.cancel();
+        for (Future<Optional<DeviceTransaction>> request : waiting) {
+            request.get().get().cancel();
+        }
+        assertLockCount(0);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.common.device;
+
+import static org.mockito.ArgumentMatchers.any;
+
+import com.google.common.util.concurrent.FluentFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.MountPoint;
+import org.opendaylight.mdsal.binding.api.MountPointService;
+import org.opendaylight.mdsal.binding.api.ReadTransaction;
+import org.opendaylight.mdsal.binding.api.ReadWriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.NetworkBuilder;
+import org.opendaylight.yangtools.util.concurrent.FluentFutures;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DeviceTransactionManagerConcurrencyTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceTransactionManagerConcurrencyTest.class);
+    private static final String DEVICE_ID = "device-id";
+    private static final InstanceIdentifier<Network> IID = InstanceIdentifier.create(Network.class);
+    private static final Network DATA = new NetworkBuilder().build();
+    private static final long READ_DELAY = 20;
+    private static final int THREADS = 8;
+
+    private final AtomicInteger activeReads = new AtomicInteger();
+    private final AtomicInteger activeWrites = new AtomicInteger();
+    private final AtomicInteger maxActiveReads = new AtomicInteger();
+    private final AtomicInteger readTransactions = new AtomicInteger();
+    private final AtomicInteger violations = new AtomicInteger();
+    private final ScheduledExecutorService deviceExecutor = Executors.newScheduledThreadPool(THREADS);
+    private final ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+    private volatile Supplier<SettableFuture<Optional<Network>>> readReplies = this::delayedRead;
+    private DeviceSessionRegistry sessionRegistry;
+    private DeviceTransactionManagerImpl transactionManager;
+
+    @Before
+    public void setUp() {
+        // device whose datastore checks that no read or write runs while another write runs
+        ReadTransaction readTx = Mockito.mock(ReadTransaction.class);
+        Mockito.doAnswer(invocation -> FluentFuture.from(readReplies.get())).when(readTx).read(any(), any());
+        Mockito.doAnswer(invocation -> activeReads.decrementAndGet()).when(readTx).close();
+        ReadWriteTransaction rwTx = Mockito.mock(ReadWriteTransaction.class);
+        Mockito.doAnswer(invocation -> {
+            activeWrites.decrementAndGet();
+            return FluentFutures.immediateNullFluentFuture();
+        }).when(rwTx).commit();
+        DataBroker dataBroker = Mockito.mock(DataBroker.class);
+        Mockito.when(dataBroker.newReadOnlyTransaction()).then(invocation -> {
+            readTransactions.incrementAndGet();
+            maxActiveReads.accumulateAndGet(activeReads.incrementAndGet(), Math::max);
+            if (activeWrites.get() > 0) {
+                violations.incrementAndGet();
+            }
+            return readTx;
+        });
+        Mockito.when(dataBroker.newReadWriteTransaction()).then(invocation -> {
+            if (activeWrites.incrementAndGet() > 1 || activeReads.get() > 0) {
+                violations.incrementAndGet();
+            }
+            return rwTx;
+        });
+        MountPoint mountPoint = Mockito.mock(MountPoint.class);
+        Mockito.when(mountPoint.getService(any())).thenReturn(Optional.of(dataBroker));
+        MountPointService mountPointService = Mockito.mock(MountPointService.class);
+        Mockito.when(mountPointService.getMountPoint(any())).thenReturn(Optional.of(mountPoint));
+        sessionRegistry = new DeviceSessionRegistry(mountPointService);
+        transactionManager = new DeviceTransactionManagerImpl(sessionRegistry, 3000);
+    }
+
+    @After
+    public void tearDown() {
+        clients.shutdownNow();
+        deviceExecutor.shutdownNow();
+        transactionManager.preDestroy();
+    }
+
+    private SettableFuture<Optional<Network>> delayedRead() {
+        SettableFuture<Optional<Network>> future = SettableFuture.create();
+        deviceExecutor.schedule(() -> future.set(Optional.of(DATA)), READ_DELAY, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    private Optional<Network> read() {
+        return transactionManager.getDataFromDevice(DEVICE_ID, LogicalDatastoreType.OPERATIONAL, IID, 1000,
+            TimeUnit.MILLISECONDS);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("condition not reached", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void parallelReads() throws Exception {
+        // the first reads are only answered once THREADS of them hold the device together
+        CountDownLatch started = new CountDownLatch(THREADS);
+        readReplies = () -> {
+            started.countDown();
+            SettableFuture<Optional<Network>> future = SettableFuture.create();
+            deviceExecutor.submit(() -> {
+                started.await();
+                return future.set(Optional.of(DATA));
+            });
+            return future;
+        };
+        int reads = 16 * THREADS;
+        List<Future<Optional<Network>>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            results.add(clients.submit(this::read));
+        }
+        for (Future<Optional<Network>> result : results) {
+            Assert.assertEquals(Optional.of(DATA), result.get());
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOG.info("{} reads by {} threads in {} ms: {} reads/s", reads, THREADS, elapsed,
+            reads * 1000 / Math.max(1, elapsed));
+        Assert.assertEquals(THREADS, maxActiveReads.get());
+        Assert.assertEquals(0, activeReads.get());
+        Assert.assertEquals(0, violations.get());
+    }
+
+    @Test
+    public void writesAreExclusive() throws Exception {
+        List<Future<?>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean writer = thread % 2 == 0;
+            results.add(clients.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    if (writer) {
+                        DeviceTransaction deviceTx = transactionManager.getDeviceTransaction(DEVICE_ID).get().get();
+                        deviceTx.put(LogicalDatastoreType.CONFIGURATION, IID, DATA);
+                        Thread.sleep(2);
+                        deviceTx.commit(1000, TimeUnit.MILLISECONDS).get();
+                    } else {
+                        Assert.assertEquals(Optional.of(DATA), read());
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        Assert.assertEquals(THREADS / 2 * 20, readTransactions.get());
+        Assert.assertEquals(0, activeReads.get());
+        Assert.assertEquals(0, activeWrites.get());
+        Assert.assertEquals(0, violations.get());
+    }
+
+    @Test
+    public void writerPreference() throws Exception {
+        SettableFuture<Optional<Network>> firstRead = SettableFuture.create();
+        readReplies = () -> firstRead;
+        final Future<Optional<Network>> firstResult = clients.submit(this::read);
+        await(() -> readTransactions.get() == 1);
+        Future<Optional<DeviceTransaction>> deviceTxFuture = transactionManager.getDeviceTransaction(DEVICE_ID);
+        await(() -> sessionRegistry.getWaitingWrites(DEVICE_ID) == 1);
+        Assert.assertFalse(deviceTxFuture.isDone());
+
+        // a read requested after the write waits for it even though the device is only held by a read
+        readReplies = this::delayedRead;
+        AtomicReference<Thread> secondReader = new AtomicReference<>();
+        final Future<Optional<Network>> secondResult = clients.submit(() -> {
+            secondReader.set(Thread.currentThread());
+            return read();
+        });
+        await(() -> secondReader.get() != null && secondReader.get().getState() == Thread.State.WAITING);
+        Assert.assertEquals(1, readTransactions.get());
+
+        firstRead.set(Optional.of(DATA));
+        Assert.assertEquals(Optional.of(DATA), firstResult.get());
+        final DeviceTransaction deviceTx = deviceTxFuture.get().get();
+        Assert.assertFalse(secondResult.isDone());
+        Assert.assertEquals(1, readTransactions.get());
+
+        deviceTx.commit(1000, TimeUnit.MILLISECONDS).get();
+        Assert.assertEquals(Optional.of(DATA), secondResult.get());
+        Assert.assertEquals(0, violations.get());
+    }
+}
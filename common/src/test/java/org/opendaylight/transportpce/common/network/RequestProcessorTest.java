@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.common.network;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.ReadWriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.NetworkBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class RequestProcessorTest {
+
+    private static final InstanceIdentifier<Network> IID = InstanceIdentifier.create(Network.class);
+    private static final Network DATA = new NetworkBuilder().build();
+
+    private final List<ReadWriteTransaction> committedTransactions = new CopyOnWriteArrayList<>();
+    private final AtomicReference<RequestProcessor> processor = new AtomicReference<>();
+    private final AtomicReference<Thread> secondWriter = new AtomicReference<>();
+    private final CountDownLatch secondCommit = new CountDownLatch(1);
+
+    /*
+     * A second writer puts its data while the first writer resets the shared transaction at the end of its
+     * commit. The second writer must commit the transaction holding its data.
+     */
+    @Test
+    public void writerDuringCommitKeepsItsOperations() throws Exception {
+        DataBroker dataBroker = Mockito.mock(DataBroker.class);
+        Mockito.when(dataBroker.newReadWriteTransaction()).thenAnswer(invocation -> {
+            if (committedTransactions.size() == 1 && secondWriter.get() == null) {
+                startSecondWriter();
+            }
+            ReadWriteTransaction rwTx = Mockito.mock(ReadWriteTransaction.class);
+            Mockito.when(rwTx.commit()).thenAnswer(commit -> {
+                committedTransactions.add(rwTx);
+                return null;
+            });
+            return rwTx;
+        });
+        processor.set(new RequestProcessor(dataBroker));
+
+        processor.get().put(LogicalDatastoreType.OPERATIONAL, IID, DATA);
+        processor.get().commit();
+        secondCommit.countDown();
+        secondWriter.get().join(TimeUnit.SECONDS.toMillis(5));
+        Assert.assertFalse("second writer blocked", secondWriter.get().isAlive());
+
+        Assert.assertEquals(2, committedTransactions.size());
+        Mockito.verify(committedTransactions.get(1)).put(eq(LogicalDatastoreType.OPERATIONAL), eq(IID),
+            any(Network.class));
+    }
+
+    // start the second writer during the reset of the first one, once the second writer has put its data or
+    // waits for the write lock
+    private void startSecondWriter() throws InterruptedException {
+        Thread writer = new Thread(() -> {
+            processor.get().put(LogicalDatastoreType.OPERATIONAL, IID, DATA);
+            try {
+                secondCommit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            processor.get().commit();
+        }, "second-writer");
+        secondWriter.set(writer);
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.getState() != Thread.State.WAITING) {
+            Assert.assertTrue("second writer did not wait", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -118,7 +118,8 @@ public class TransportPCEImpl extends AbstractLightyModule implements TransportP
 
     public TransportPCEImpl(LightyServices lightyServices) {
         LOG.info("Creating common beans ...");
-        deviceTransactionManager = new DeviceTransactionManagerImpl(lightyServices.getBindingMountPointService(), MaxDurationToSubmitTransaction);
+        deviceTransactionManager = new DeviceTransactionManagerImpl(lightyServices.getBindingMountPointService(), MaxDurationToSubmitTransaction,
+                lightyServices.getBindingDataBroker());
         mappingUtils = new MappingUtilsImpl(lightyServices.getBindingDataBroker());
         openRoadmInterfacesImpl121 = new OpenRoadmInterfacesImpl121(deviceTransactionManager);
         openRoadmInterfacesImpl221 = new OpenRoadmInterfacesImpl221(deviceTransactionManager);
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.gnpy.GnpyJsonParser;
+import org.opendaylight.transportpce.pce.gnpy.GnpyJsonWriter;
+import org.opendaylight.transportpce.pce.gnpy.ServiceDataStoreOperationsImpl;
+import org.opendaylight.transportpce.pce.utils.GnpyApiGenerator;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.GnpyApi;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Elements;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.Result;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of a GNPy API request with {@link GnpyJsonWriter} and with the former binding codec
+ * round-trip followed by the removal of the module prefixes, and parsing of a GNPy result going
+ * through every element of the topology with {@link GnpyJsonParser}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+@State(Scope.Benchmark)
+public class GnpyJsonBenchmark {
+
+    @Param({"500"})
+    public int elements;
+
+    private GnpyApi gnpyApi;
+    private String result;
+    private ServiceDataStoreOperationsImpl serviceDataStoreOperations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gnpyApi = GnpyApiGenerator.generate(elements, 0);
+        serviceDataStoreOperations = new ServiceDataStoreOperationsImpl(null);
+        StringBuilder json = new StringBuilder("{\"result\":{\"response\":[{\"response-id\":1,\"path-properties\":{")
+            .append("\"path-metric\":[{\"metric-type\":\"SNR-bandwidth\",\"accumulative-value\":20.38},")
+            .append("{\"metric-type\":\"OSNR-0.1nm\",\"accumulative-value\":24.82}],\"path-route-objects\":[");
+        int index = 0;
+        for (Elements element : gnpyApi.getTopologyFile().getElements()) {
+            json.append(index == 0 ? "" : ",").append("{\"path-route-object\":{\"index\":").append(index++)
+                .append(",\"num-unnum-hop\":{\"node-id\":\"").append(element.getUid())
+                .append("\",\"link-tp-id\":\"").append(element.getUid()).append("\"}}}");
+        }
+        result = json.append("]}}]}}").toString();
+    }
+
+    @Benchmark
+    public String streamingWriter() throws Exception {
+        return GnpyJsonWriter.toJson(gnpyApi);
+    }
+
+    @Benchmark
+    public String codecRoundTrip() throws Exception {
+        return serviceDataStoreOperations
+            .createJsonStringFromDataObject(InstanceIdentifier.create(GnpyApi.class), gnpyApi)
+            .replace("gnpy-eqpt-config:", "")
+            .replace("gnpy-path-computation-simplified:", "")
+            .replace("gnpy-network-topology:", "");
+    }
+
+    @Benchmark
+    public Result streamingParser() throws Exception {
+        return GnpyJsonParser.parseResult(new StringReader(result));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.PceConfiguration;
+import org.opendaylight.transportpce.pce.PceDependencies;
+import org.opendaylight.transportpce.pce.PceSendingPceRPCs;
+import org.opendaylight.transportpce.pce.graph.PceGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full path computation request: constraints, network retrieval, graph and path description. No GNPy
+ * client is given, GNPy is not called.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+@State(Scope.Benchmark)
+public class PathComputationBenchmark {
+
+    @Param({"CSR"})
+    public PceGraph.GraphEngine engine;
+
+    private final PceConfiguration configuration = new PceConfiguration();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        configuration.setGraphEngine(engine);
+    }
+
+    @Benchmark
+    public PceSendingPceRPCs pathComputation(TopologyState topology) throws Exception {
+        PceSendingPceRPCs sendingPce = new PceSendingPceRPCs(topology.getRequest(),
+            PceDependencies.builder(topology.getNetworkTransaction()).setConfiguration(configuration)
+                .setTopologySnapshotService(topology.getTopologySnapshotService()).build());
+        sendingPce.pathComputation();
+        if (!sendingPce.getSuccess()) {
+            throw new IllegalStateException("path computation failed: " + sendingPce.getMessage());
+        }
+        return sendingPce;
+    }
+}
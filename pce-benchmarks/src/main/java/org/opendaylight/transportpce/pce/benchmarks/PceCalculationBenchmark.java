@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceCalculation;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read of the openroadm-topology and otn-topology and build of the PCE nodes and links.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+public class PceCalculationBenchmark {
+
+    @Benchmark
+    public PceCalculation retrieveOpenRoadmNetwork(TopologyState topology) {
+        return retrievePceNetwork(topology, topology.getRequest());
+    }
+
+    @Benchmark
+    public PceCalculation retrieveOtnNetwork(TopologyState topology) {
+        return retrievePceNetwork(topology, topology.getOtnRequest());
+    }
+
+    private static PceCalculation retrievePceNetwork(TopologyState topology, PathComputationRequestInput request) {
+        PceCalculation calculation = new PceCalculation(request, topology.getNetworkTransaction(),
+            new PceConstraints(), new PceConstraints(), new PceResult(), topology.getTopologySnapshotService());
+        calculation.retrievePceNetwork();
+        return calculation;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Check of the SRLGs of the links against the excluded SRLGs of the hard constraints, with the sorted
+ * array of {@link PceConstraints} and with the former {@code retainAll} on lists, and computation of the
+ * canonical form used as cache key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+@State(Scope.Benchmark)
+public class PceConstraintsBenchmark {
+
+    private static final int LINKS = 1024;
+    private static final int SRLGS_PER_LINK = 4;
+
+    @Param({"10", "1000", "10000"})
+    public int excludedSrlgs;
+
+    private final List<List<Long>> linkSrlgs = new ArrayList<>();
+    private List<Long> excludedSrlgList;
+    private PceConstraints constraints;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(0);
+        excludedSrlgList = new ArrayList<>();
+        for (int srlg = 0; srlg < excludedSrlgs; srlg++) {
+            excludedSrlgList.add((long) random.nextInt(excludedSrlgs * 10));
+        }
+        constraints = new PceConstraints();
+        constraints.setExcludeSRLG(excludedSrlgList);
+        for (int link = 0; link < LINKS; link++) {
+            List<Long> srlgs = new ArrayList<>();
+            for (int srlg = 0; srlg < SRLGS_PER_LINK; srlg++) {
+                srlgs.add((long) random.nextInt(excludedSrlgs * 10));
+            }
+            linkSrlgs.add(srlgs);
+        }
+    }
+
+    @Benchmark
+    public boolean sortedArray() {
+        index = (index + 1) % LINKS;
+        return constraints.isSrlgExcluded(linkSrlgs.get(index));
+    }
+
+    @Benchmark
+    public boolean retainAll() {
+        index = (index + 1) % LINKS;
+        List<Long> excluded = new ArrayList<>(excludedSrlgList);
+        excluded.retainAll(linkSrlgs.get(index));
+        return !excluded.isEmpty();
+    }
+
+    @Benchmark
+    public String canonicalForm() {
+        PceConstraints copy = new PceConstraints();
+        copy.setExcludeSRLG(excludedSrlgList);
+        copy.setExcludeNodes(Collections.singletonList("node"));
+        return copy.getCanonicalForm();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.graph.PceGraph;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceCalculation;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Path computation on the PCE nodes built once per trial by {@link PceCalculation#retrievePceNetwork()}.
+ * The JGRAPHT engine takes seconds per path above a few hundred ROADMs and is not run by default, use
+ * {@code -p engine=JGRAPHT -p roadms=10,100} to compare with it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+@State(Scope.Benchmark)
+public class PceGraphBenchmark {
+
+    @Param({"CSR", "CONSTRAINED"})
+    public PceGraph.GraphEngine engine;
+
+    private PceCalculation calculation;
+
+    @Setup(Level.Trial)
+    public void setUp(TopologyState topology) {
+        calculation = new PceCalculation(topology.getRequest(), topology.getNetworkTransaction(),
+            new PceConstraints(), new PceConstraints(), new PceResult(), topology.getTopologySnapshotService());
+        calculation.retrievePceNetwork();
+        if (!calculation.getReturnStructure().getStatus()) {
+            throw new IllegalStateException("PCE network not retrieved: " + calculation.getReturnStructure());
+        }
+    }
+
+    @Benchmark
+    public PceResult calcPath() {
+        PceGraph graph = new PceGraph(calculation.getaendPceNode(), calculation.getzendPceNode(),
+            calculation.getAllPceNodes(), new PceConstraints(), new PceConstraints(), new PceResult(),
+            calculation.getServiceType());
+        graph.setGraphEngine(engine);
+        graph.calcPath();
+        return graph.getReturnStructure();
+    }
+}
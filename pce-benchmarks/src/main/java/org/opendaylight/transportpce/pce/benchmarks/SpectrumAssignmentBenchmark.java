@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.graph.SpectrumAssignment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Spectrum assignment of a 6 slot (37.5 GHz) block on synthetic occupancy patterns of the
+ * {@value SpectrumAssignment#FIXED_GRID_SLOTS} slots of the C band, and fixed-grid wavelength assignment
+ * for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+@State(Scope.Benchmark)
+public class SpectrumAssignmentBenchmark {
+
+    public enum Occupancy {
+        // each slot used with a probability of 1/2
+        RANDOM,
+        // ranges of 1 to 24 slots alternately free and used
+        FRAGMENTED,
+        // the lower half of the band used
+        FILLED
+    }
+
+    private static final int PATTERNS = 1024;
+    private static final int WIDTH = 6;
+
+    @Param({"FIRST_FIT", "BEST_FIT", "MIN_FRAGMENTATION"})
+    public SpectrumAssignment.Policy policy;
+
+    @Param({"RANDOM", "FRAGMENTED", "FILLED"})
+    public Occupancy occupancy;
+
+    private final List<BitSet> patterns = new ArrayList<>();
+    private final List<BitSet> wavelengths = new ArrayList<>();
+    private SpectrumAssignment engine;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new SpectrumAssignment(SpectrumAssignment.FIXED_GRID_SLOTS, 1, policy, Map.of("100GE", WIDTH));
+        Random random = new Random(0);
+        for (int pattern = 0; pattern < PATTERNS; pattern++) {
+            BitSet slots = new BitSet();
+            int slot = 1;
+            while (slot <= SpectrumAssignment.FIXED_GRID_SLOTS) {
+                int length = occupancy == Occupancy.FRAGMENTED ? 1 + random.nextInt(24) : 1;
+                boolean free = occupancy == Occupancy.FILLED ? slot > SpectrumAssignment.FIXED_GRID_SLOTS / 2
+                    : random.nextBoolean();
+                if (free) {
+                    slots.set(slot, Math.min(slot + length, SpectrumAssignment.FIXED_GRID_SLOTS + 1));
+                }
+                slot += length;
+            }
+            patterns.add(slots);
+            BitSet channels = new BitSet();
+            for (int wl = 1; wl <= SpectrumAssignment.FIXED_GRID_SLOTS / SpectrumAssignment.SLOTS_PER_WAVELENGTH;
+                    wl++) {
+                if (slots.get(wl * SpectrumAssignment.SLOTS_PER_WAVELENGTH)) {
+                    channels.set(wl);
+                }
+            }
+            wavelengths.add(channels);
+        }
+    }
+
+    @Benchmark
+    public int assign() {
+        index = (index + 1) % PATTERNS;
+        return engine.assign(patterns.get(index), WIDTH);
+    }
+
+    @Benchmark
+    public long assignWavelength() {
+        index = (index + 1) % PATTERNS;
+        return engine.assignWavelength(wavelengths.get(index));
+    }
+}
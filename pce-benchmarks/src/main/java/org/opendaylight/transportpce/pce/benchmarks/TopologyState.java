@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.concurrent.ExecutionException;
+import org.opendaylight.transportpce.common.DataStoreContextImpl;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Generated topology loaded in an in-memory datastore, shared by all the benchmark threads.
+ * The 100GE request goes from the first ROADM to the opposite ROADM of the ring. The ODU4 request
+ * goes between the XPONDERs of the first two ROADMs, the PCE keeping only the A and Z nodes of the
+ * otn-topology. The nodes and links analyzed by a request are only reused by the next ones with both the
+ * topology snapshot and the network cache.
+ */
+@State(Scope.Benchmark)
+public class TopologyState {
+
+    @Param({"10", "100", "500", "2000"})
+    public int roadms;
+
+    @Param({"0.0", "0.5"})
+    public double occupancy;
+
+    @Param({"false", "true"})
+    public boolean topologySnapshot;
+
+    @Param({"false", "true"})
+    public boolean networkCache;
+
+    @Param("1")
+    public long seed;
+
+    private NetworkTransactionService networkTransaction;
+    private PceTopologySnapshotService topologySnapshotService;
+    private PathComputationRequestInput request;
+    private PathComputationRequestInput otnRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ExecutionException, InterruptedException {
+        OpenRoadmTopologyGenerator generator = new OpenRoadmTopologyGenerator(roadms, occupancy, seed);
+        DataStoreContextImpl dataStoreContext = new DataStoreContextImpl();
+        generator.writeTo(dataStoreContext.getDataBroker());
+        networkTransaction = new NetworkTransactionImpl(new RequestProcessor(dataStoreContext.getDataBroker()));
+        if (topologySnapshot) {
+            topologySnapshotService = new PceTopologySnapshotService(dataStoreContext.getDataBroker(),
+                networkCache);
+            topologySnapshotService.init();
+        }
+        request = OpenRoadmTopologyGenerator.createRequest(1, 1 + roadms / 2);
+        otnRequest = OpenRoadmTopologyGenerator.createOtnRequest(1, 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (topologySnapshotService != null) {
+            topologySnapshotService.close();
+            topologySnapshotService = null;
+        }
+    }
+
+    public NetworkTransactionService getNetworkTransaction() {
+        return networkTransaction;
+    }
+
+    /**
+     * Get the topology snapshot service.
+     *
+     * @return the service, null when the benchmark reads the datastore on each request
+     */
+    public PceTopologySnapshotService getTopologySnapshotService() {
+        return topologySnapshotService;
+    }
+
+    public PathComputationRequestInput getRequest() {
+        return request;
+    }
+
+    public PathComputationRequestInput getOtnRequest() {
+        return otnRequest;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.transportpce.pce.networkanalyzer.OtnTribAllocator;
+import org.opendaylight.transportpce.pce.utils.TribSlotListChooser;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Choice of the tributary slots of a link between two termination points, with the bitmaps of
+ * {@link OtnTribAllocator} and with the former lists of slots. The lower the density of free slots,
+ * the more fragmented the tributary slot maps.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = PceBenchmarks.FORK_JVM_ARGS)
+@State(Scope.Benchmark)
+public class TribSlotAllocationBenchmark {
+
+    private static final int MAPS = 1024;
+
+    @Param({"0.2", "0.5", "0.9"})
+    public double density;
+
+    @Param({"1", "10"})
+    public int nbSlot;
+
+    private final List<List<Uint16>> srcPools = new ArrayList<>();
+    private final List<List<Uint16>> destPools = new ArrayList<>();
+    private final List<BitSet> srcBitmaps = new ArrayList<>();
+    private final List<BitSet> destBitmaps = new ArrayList<>();
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(0);
+        for (int map = 0; map < MAPS; map++) {
+            srcPools.add(randomPool(random));
+            destPools.add(randomPool(random));
+            srcBitmaps.add(OtnTribAllocator.toBitmap(srcPools.get(map)));
+            destBitmaps.add(OtnTribAllocator.toBitmap(destPools.get(map)));
+        }
+    }
+
+    @Benchmark
+    public BitSet bitmap() {
+        index = (index + 1) % MAPS;
+        return OtnTribAllocator.allocate(
+            OtnTribAllocator.intersection(Arrays.asList(srcBitmaps.get(index), destBitmaps.get(index))),
+            nbSlot, OtnTribAllocator.Policy.CONTIGUOUS);
+    }
+
+    @Benchmark
+    public List<Uint16> list() {
+        index = (index + 1) % MAPS;
+        return TribSlotListChooser.chooseTribSlot(srcPools.get(index), destPools.get(index), nbSlot);
+    }
+
+    private List<Uint16> randomPool(Random random) {
+        List<Uint16> pool = new ArrayList<>();
+        for (int slot = 1; slot <= OtnTribAllocator.ODU4_TRIB_SLOTS; slot++) {
+            if (random.nextDouble() < density) {
+                pool.add(Uint16.valueOf(slot));
+            }
+        }
+        return pool;
+    }
+}
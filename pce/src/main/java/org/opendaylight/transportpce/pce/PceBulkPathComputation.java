@@ -0,0 +1,296 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.constraints.PceConstraintsCalc;
+import org.opendaylight.transportpce.pce.graph.PceGraph;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceCalculation;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNodeView;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Path computation of a list of requests, typically the services of a feasibility check bulk.
+ *
+ * <p>
+ * The openroadm-topology is read and analyzed once for all the 100GE and OTU4 requests sharing the same
+ * service type, the XPONDERs of all their end nodes being kept. Each request then gets its own view of the
+ * analyzed nodes, without the XPONDERs of the other requests and without the nodes excluded by its
+ * constraints, and its path is computed on this view. Without virtual reservation the requests are computed
+ * in parallel. With virtual reservation they are computed one after the other in the order of the list, the
+ * wavelength and the XPONDER ports used by each path being hidden from the following requests, so that a
+ * resource is never used twice.
+ * </p>
+ *
+ * <p>
+ * The other requests (OTN services, SRLG or node diversity) need their own network analysis and are computed
+ * individually, as by {@link PceSendingPceRPCs}, without virtual reservation. GNPy is not called.
+ * </p>
+ */
+public class PceBulkPathComputation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PceBulkPathComputation.class);
+
+    private final List<PathComputationRequestInput> inputs;
+    private final PceDependencies dependencies;
+    private final NetworkTransactionService networkTransaction;
+    private final PceTopologySnapshotService topologySnapshotService;
+    private boolean virtualReservation = false;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    // resources virtually reserved by the paths already computed
+    private final Map<NodeId, BitSet> reservedWavelengths = new HashMap<>();
+    private final Set<String> reservedPorts = new HashSet<>();
+    private final Set<NodeId> reservedNodes = new HashSet<>();
+
+    public PceBulkPathComputation(List<PathComputationRequestInput> inputs, PceDependencies dependencies) {
+        this.inputs = inputs;
+        // a feasibility check holds no resources, records no metrics and does not call GNPy
+        this.dependencies = PceDependencies.builder(dependencies.getNetworkTransaction())
+            .setConfiguration(dependencies.getConfiguration())
+            .setTopologySnapshotService(dependencies.getTopologySnapshotService()).build();
+        this.networkTransaction = dependencies.getNetworkTransaction();
+        this.topologySnapshotService = dependencies.getTopologySnapshotService();
+    }
+
+    /**
+     * Reserve virtually the resources of each path for the following requests.
+     *
+     * @param virtualReservation true to compute the requests one after the other, each one seeing the resources
+     *     used by the previous ones as unavailable
+     */
+    public void setVirtualReservation(boolean virtualReservation) {
+        this.virtualReservation = virtualReservation;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Compute the paths of all the requests.
+     *
+     * @return the result of each request, in the order of the requests, with the path description when a
+     *     path is found
+     */
+    public List<PceResult> pathComputation() {
+        LOG.info("PceBulkPathComputation: {} requests, virtual reservation {}", inputs.size(), virtualReservation);
+        List<Request> requests = new ArrayList<>();
+        Map<String, List<Request>> sharedRequests = new LinkedHashMap<>();
+        for (PathComputationRequestInput input : inputs) {
+            Request request = new Request(input);
+            requests.add(request);
+            if (request.isShareable()) {
+                sharedRequests.computeIfAbsent(request.serviceType, k -> new ArrayList<>()).add(request);
+            }
+        }
+        for (List<Request> group : sharedRequests.values()) {
+            PceCalculation analysis = analyzeNetwork(group);
+            for (Request request : group) {
+                request.analysis = analysis;
+            }
+        }
+
+        List<PceResult> results = new ArrayList<>();
+        if (virtualReservation) {
+            for (Request request : requests) {
+                results.add(request.compute());
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, requests.size())),
+            new ThreadFactoryBuilder().setNameFormat("pce-bulk-%d").setDaemon(true).build());
+        try {
+            List<Future<PceResult>> futures = new ArrayList<>();
+            for (Request request : requests) {
+                futures.add(executor.submit((Callable<PceResult>) request::compute));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(getResult(futures.get(i), requests.get(i)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private PceCalculation analyzeNetwork(List<Request> group) {
+        Set<String> endNodeIds = new HashSet<>();
+        for (Request request : group) {
+            endNodeIds.add(request.input.getServiceAEnd().getNodeId());
+            endNodeIds.add(request.input.getServiceZEnd().getNodeId());
+        }
+        PceResult rc = new PceResult();
+        PceCalculation analysis = new PceCalculation(group.get(0).input, networkTransaction, endNodeIds, rc,
+            topologySnapshotService);
+        analysis.setMetricFallback(dependencies.getConfiguration().getMetricFallback());
+        analysis.retrievePceNetwork();
+        if (!rc.getStatus()) {
+            LOG.warn("PceBulkPathComputation: network analysis of {} requests {} failed, computing them "
+                + "individually", group.size(), group.get(0).serviceType);
+            return null;
+        }
+        LOG.info("PceBulkPathComputation: {} requests {} share a network analysis of {} nodes", group.size(),
+            group.get(0).serviceType, analysis.getAllPceNodes().size());
+        return analysis;
+    }
+
+    private static PceResult getResult(Future<PceResult> future, Request request) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            LOG.error("PceBulkPathComputation: interrupted while computing {}", request.input.getServiceName(), e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error("PceBulkPathComputation: failed to compute {}", request.input.getServiceName(), e);
+        }
+        request.rc.setRC(ResponseCodes.RESPONSE_FAILED);
+        return request.rc;
+    }
+
+    private final class Request {
+
+        private final PathComputationRequestInput input;
+        private final PceConstraints hardConstraints;
+        private final PceConstraints softConstraints;
+        private final PceResult rc = new PceResult();
+        private final String serviceType;
+        private PceCalculation analysis;
+
+        Request(PathComputationRequestInput input) {
+            this.input = input;
+            PceConstraintsCalc constraints = new PceConstraintsCalc(input, networkTransaction);
+            this.hardConstraints = constraints.getPceHardConstraints();
+            this.softConstraints = constraints.getPceSoftConstraints();
+            // only parses the request, setting the rate and the format of the result
+            this.serviceType = new PceCalculation(input, networkTransaction, hardConstraints, softConstraints, rc)
+                .getServiceType();
+        }
+
+        boolean isShareable() {
+            return ("100GE".equals(serviceType) || "OTU4".equals(serviceType))
+                && hardConstraints.getExcludeSRLG().isEmpty() && hardConstraints.getExcludeNodes().isEmpty()
+                && hardConstraints.getExcludeClliNodes().isEmpty() && hardConstraints.getExcludeSrlgLinks().isEmpty();
+        }
+
+        PceResult compute() {
+            if (analysis == null) {
+                PceSendingPceRPCs sendingPce = new PceSendingPceRPCs(input, dependencies);
+                sendingPce.pathComputationWithConstraints(hardConstraints, softConstraints);
+                return sendingPce.getReturnStructure();
+            }
+            PceNode aend = analysis.getEndPceNode(input.getServiceAEnd().getNodeId());
+            PceNode zend = analysis.getEndPceNode(input.getServiceZEnd().getNodeId());
+            if (aend == null || zend == null) {
+                return endNotFound();
+            }
+            Map<NodeId, PceNode> nodes = nodesView(analysis, aend, zend);
+            if (!nodes.containsKey(aend.getNodeId()) || !nodes.containsKey(zend.getNodeId())) {
+                return endNotFound();
+            }
+            PceGraph graph = PceSendingPceRPCs.calcPath(nodes.get(aend.getNodeId()), nodes.get(zend.getNodeId()),
+                nodes, hardConstraints, softConstraints, rc, serviceType, dependencies.getConfiguration());
+            PceResult result = graph.getReturnStructure();
+            if (!result.getStatus()) {
+                LOG.warn("PceBulkPathComputation: no path for {}: {}", input.getServiceName(), result);
+                return result;
+            }
+            PcePathDescription description = new PcePathDescription(graph.getPathAtoZ(), analysis.getAllPceLinks(),
+                result);
+            description.buildDescriptions();
+            result = description.getReturnStructure();
+            if (virtualReservation && result.getStatus()) {
+                reserve(analysis, graph.getPathAtoZ(), result.getResultWavelength());
+            }
+            return result;
+        }
+
+        // nodes seen by this request: not the XPONDERs and SRGs of the other requests nor the excluded nodes, each node
+        // hiding the links towards the nodes not seen and the reserved resources
+        private Map<NodeId, PceNode> nodesView(PceCalculation shared, PceNode aend, PceNode zend) {
+            Set<NodeId> endNodes = new HashSet<>();
+            for (PceNode endNode : new PceNode[] {aend, zend}) {
+                endNodes.add(endNode.getNodeId());
+                for (PceLink link : endNode.getOutgoingLinks()) {
+                    endNodes.add(link.getDestId());
+                }
+            }
+            Set<NodeId> excludedNodes = shared.getTopologyIndex().getExcludedNodes(
+                hardConstraints.getExcludeSupNodes(), hardConstraints.getExcludeCLLI());
+            Set<NodeId> visibleNodes = new HashSet<>();
+            for (PceNode node : shared.getAllPceNodes().values()) {
+                NodeId nodeId = node.getNodeId();
+                if ((!endNodes.contains(nodeId)
+                        && (shared.getEndXponderIds().contains(nodeId) || shared.getAzSrgIds().contains(nodeId)))
+                        || excludedNodes.contains(nodeId)) {
+                    continue;
+                }
+                visibleNodes.add(nodeId);
+            }
+            Map<NodeId, PceNode> nodes = new HashMap<>();
+            for (NodeId nodeId : visibleNodes) {
+                PceNode node = shared.getAllPceNodes().get(nodeId);
+                BitSet wavelengths = reservedWavelengths.get(nodeId);
+                if (wavelengths != null || reservedNodes.contains(nodeId) || !node.getOutgoingLinks().stream()
+                        .allMatch(link -> visibleNodes.contains(link.getDestId()))) {
+                    node = new PceNodeView(node, visibleNodes, wavelengths == null ? new BitSet() : wavelengths,
+                        reservedPorts);
+                }
+                nodes.put(nodeId, node);
+            }
+            return nodes;
+        }
+
+        private void reserve(PceCalculation shared, List<PceLink> path, long wavelength) {
+            for (PceLink link : path) {
+                for (NodeId nodeId : new NodeId[] {link.getSourceId(), link.getDestId()}) {
+                    if (!shared.getEndXponderIds().contains(nodeId)) {
+                        reservedWavelengths.computeIfAbsent(nodeId, k -> new BitSet()).set((int) wavelength);
+                    }
+                }
+            }
+            PceLink first = path.get(0);
+            reservedPorts.add(PceNodeView.port(first.getSourceId(), first.getSourceTP()));
+            reservedNodes.add(first.getSourceId());
+            reservedNodes.add(first.getDestId());
+            PceLink last = path.get(path.size() - 1);
+            reservedPorts.add(PceNodeView.port(last.getDestId(), last.getDestTP()));
+            reservedNodes.add(last.getSourceId());
+            reservedNodes.add(last.getDestId());
+        }
+
+        private PceResult endNotFound() {
+            LOG.error("PceBulkPathComputation: A or Z end of {} not found", input.getServiceName());
+            rc.setRC(ResponseCodes.RESPONSE_FAILED);
+            return rc;
+        }
+    }
+}
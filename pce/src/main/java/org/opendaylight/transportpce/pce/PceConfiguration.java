@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import org.opendaylight.transportpce.pce.gnpy.GnpyClient;
+import org.opendaylight.transportpce.pce.graph.OsnrModel;
+import org.opendaylight.transportpce.pce.graph.PceGraph;
+import org.opendaylight.transportpce.pce.metrics.PceMetrics;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+
+/**
+ * Settings of the PCE, given by the properties of the pceConfiguration bean of the PCE blueprint.
+ * A new configuration has the default settings.
+ */
+public class PceConfiguration {
+
+    private PceGraph.GraphEngine graphEngine = PceGraph.GraphEngine.JGRAPHT;
+    private int validationParallelism = 1;
+    private PceLink.MetricFallback metricFallback = PceLink.MetricFallback.LENGTH;
+    private String osnrThresholds;
+    private double osnrMargin = OsnrModel.DEFAULT_MARGIN;
+    private OsnrModel osnrModel = OsnrModel.DEFAULT;
+    private long reservationTtl = PceReservationLedger.DEFAULT_TTL;
+    private int resultCacheSize = PceResultCache.DEFAULT_MAX_SIZE;
+    private int metricsTraces = PceMetrics.DEFAULT_TRACES;
+    private long metricsExportPeriod = PceMetrics.DEFAULT_EXPORT_PERIOD;
+    private String gnpyUrl = GnpyClient.DEFAULT_URL;
+    private String gnpyCredentials = GnpyClient.DEFAULT_CREDENTIALS;
+    private long gnpyTimeout = GnpyClient.DEFAULT_TIMEOUT;
+    private int gnpyConcurrency = GnpyClient.DEFAULT_CONCURRENCY;
+    private long gnpyProbePeriod = GnpyClient.DEFAULT_PROBE_PERIOD;
+    private long gnpyCoolDown = GnpyClient.DEFAULT_COOL_DOWN;
+
+    public PceGraph.GraphEngine getGraphEngine() {
+        return graphEngine;
+    }
+
+    public void setGraphEngine(PceGraph.GraphEngine graphEngine) {
+        this.graphEngine = graphEngine;
+    }
+
+    /**
+     * Get the number of candidate paths validated at the same time.
+     *
+     * @return the number of paths, 1 for a sequential validation
+     */
+    public int getValidationParallelism() {
+        return validationParallelism;
+    }
+
+    public void setValidationParallelism(int validationParallelism) {
+        this.validationParallelism = validationParallelism;
+    }
+
+    public PceLink.MetricFallback getMetricFallback() {
+        return metricFallback;
+    }
+
+    public void setMetricFallback(PceLink.MetricFallback metricFallback) {
+        this.metricFallback = metricFallback;
+    }
+
+    public String getOsnrThresholds() {
+        return osnrThresholds;
+    }
+
+    /**
+     * Override the minimal OSNR of the transceivers.
+     *
+     * @param osnrThresholds comma separated list of rate/modulation=OSNR in dB, for example
+     *        "100G/dp-qpsk=17,400G/dp-16qam=24"
+     */
+    public void setOsnrThresholds(String osnrThresholds) {
+        this.osnrThresholds = osnrThresholds;
+        this.osnrModel = OsnrModel.create(osnrThresholds, osnrMargin);
+    }
+
+    public double getOsnrMargin() {
+        return osnrMargin;
+    }
+
+    /**
+     * Set the system margin added to the OSNR of the paths.
+     *
+     * @param osnrMargin the margin in dB
+     */
+    public void setOsnrMargin(double osnrMargin) {
+        this.osnrMargin = osnrMargin;
+        this.osnrModel = OsnrModel.create(osnrThresholds, osnrMargin);
+    }
+
+    public OsnrModel getOsnrModel() {
+        return osnrModel;
+    }
+
+    public long getReservationTtl() {
+        return reservationTtl;
+    }
+
+    /**
+     * Set the time to live of the resources held for a service that is not implemented.
+     *
+     * @param reservationTtl the time in seconds
+     */
+    public void setReservationTtl(long reservationTtl) {
+        this.reservationTtl = reservationTtl;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+
+    public int getMetricsTraces() {
+        return metricsTraces;
+    }
+
+    public void setMetricsTraces(int metricsTraces) {
+        this.metricsTraces = metricsTraces;
+    }
+
+    public long getMetricsExportPeriod() {
+        return metricsExportPeriod;
+    }
+
+    /**
+     * Set the period of the export of the metrics to the datastore.
+     *
+     * @param metricsExportPeriod the period in milliseconds, 0 to disable the export
+     */
+    public void setMetricsExportPeriod(long metricsExportPeriod) {
+        this.metricsExportPeriod = metricsExportPeriod;
+    }
+
+    public String getGnpyUrl() {
+        return gnpyUrl;
+    }
+
+    public void setGnpyUrl(String gnpyUrl) {
+        this.gnpyUrl = gnpyUrl;
+    }
+
+    public String getGnpyCredentials() {
+        return gnpyCredentials;
+    }
+
+    /**
+     * Set the credentials of the GNPy server.
+     *
+     * @param gnpyCredentials the user and password, as user:password
+     */
+    public void setGnpyCredentials(String gnpyCredentials) {
+        this.gnpyCredentials = gnpyCredentials;
+    }
+
+    public long getGnpyTimeout() {
+        return gnpyTimeout;
+    }
+
+    /**
+     * Set the timeout of the GNPy calls and of the health probes.
+     *
+     * @param gnpyTimeout the timeout in milliseconds
+     */
+    public void setGnpyTimeout(long gnpyTimeout) {
+        this.gnpyTimeout = gnpyTimeout;
+    }
+
+    public int getGnpyConcurrency() {
+        return gnpyConcurrency;
+    }
+
+    /**
+     * Set the maximum number of GNPy calls in flight.
+     *
+     * @param gnpyConcurrency the number of calls
+     */
+    public void setGnpyConcurrency(int gnpyConcurrency) {
+        this.gnpyConcurrency = gnpyConcurrency;
+    }
+
+    public long getGnpyProbePeriod() {
+        return gnpyProbePeriod;
+    }
+
+    /**
+     * Set the period of the health probe of the GNPy server.
+     *
+     * @param gnpyProbePeriod the period in milliseconds, 0 to disable the probe
+     */
+    public void setGnpyProbePeriod(long gnpyProbePeriod) {
+        this.gnpyProbePeriod = gnpyProbePeriod;
+    }
+
+    public long getGnpyCoolDown() {
+        return gnpyCoolDown;
+    }
+
+    /**
+     * Set the time before a trial GNPy call once the GNPy server is known down.
+     *
+     * @param gnpyCoolDown the time in milliseconds
+     */
+    public void setGnpyCoolDown(long gnpyCoolDown) {
+        this.gnpyCoolDown = gnpyCoolDown;
+    }
+}
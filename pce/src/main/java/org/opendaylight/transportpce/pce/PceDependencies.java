@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import java.net.URI;
+import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.pce.gnpy.GnpyClient;
+import org.opendaylight.transportpce.pce.gnpy.GnpyTopologyCache;
+import org.opendaylight.transportpce.pce.metrics.PceMetrics;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+
+/**
+ * Services used by the path computations of the PCE, shared by {@link PceSendingPceRPCs},
+ * {@link PceBulkPathComputation} and the path computation service.
+ *
+ * <p>
+ * Only the network transaction service is mandatory, a computation done without the other services reads
+ * the topology from the datastore, holds no resources, records no metrics and does not call GNPy. Without
+ * configuration, the computations use the default settings.
+ * </p>
+ */
+public final class PceDependencies {
+
+    private final NetworkTransactionService networkTransaction;
+    private final PceConfiguration configuration;
+    private final PceTopologySnapshotService topologySnapshotService;
+    private final PceResultCache resultCache;
+    private final PceReservationLedger reservationLedger;
+    private final PceMetrics metrics;
+    private final GnpyTopologyCache gnpyTopologyCache;
+    private final GnpyClient gnpyClient;
+
+    private PceDependencies(Builder builder) {
+        this.networkTransaction = builder.networkTransaction;
+        this.configuration = builder.configuration;
+        this.topologySnapshotService = builder.topologySnapshotService;
+        this.resultCache = builder.resultCache;
+        this.reservationLedger = builder.reservationLedger;
+        this.metrics = builder.metrics;
+        this.gnpyTopologyCache = builder.gnpyTopologyCache;
+        this.gnpyClient = builder.gnpyClient;
+    }
+
+    /**
+     * Create the services of the PCE of the controller, with the default configuration.
+     *
+     * @param networkTransaction the network transaction service
+     * @param topologySnapshotService the topology snapshot, may be null
+     * @param gnpyTopologyCache the GNPy topology cache, may be null
+     * @return the dependencies
+     */
+    public static PceDependencies create(NetworkTransactionService networkTransaction,
+            PceTopologySnapshotService topologySnapshotService, GnpyTopologyCache gnpyTopologyCache) {
+        return create(networkTransaction, topologySnapshotService, gnpyTopologyCache, new PceConfiguration());
+    }
+
+    /**
+     * Create the services of the PCE of the controller: a reservation ledger, a result cache when the
+     * topology snapshot is given, the metrics and the GNPy client.
+     *
+     * @param networkTransaction the network transaction service
+     * @param topologySnapshotService the topology snapshot, may be null
+     * @param gnpyTopologyCache the GNPy topology cache, may be null
+     * @param configuration the settings of the services and of the computations
+     * @return the dependencies
+     */
+    public static PceDependencies create(NetworkTransactionService networkTransaction,
+            PceTopologySnapshotService topologySnapshotService, GnpyTopologyCache gnpyTopologyCache,
+            PceConfiguration configuration) {
+        PceReservationLedger reservationLedger = new PceReservationLedger(networkTransaction,
+            topologySnapshotService, configuration.getReservationTtl());
+        return builder(networkTransaction)
+            .setConfiguration(configuration)
+            .setTopologySnapshotService(topologySnapshotService)
+            .setResultCache(topologySnapshotService == null ? null
+                : new PceResultCache(topologySnapshotService, reservationLedger, configuration.getResultCacheSize()))
+            .setReservationLedger(reservationLedger)
+            .setMetrics(new PceMetrics(networkTransaction, configuration.getMetricsTraces(),
+                configuration.getMetricsExportPeriod()))
+            .setGnpyTopologyCache(gnpyTopologyCache)
+            .setGnpyClient(new GnpyClient(URI.create(configuration.getGnpyUrl()), configuration.getGnpyCredentials(),
+                configuration.getGnpyTimeout(), configuration.getGnpyConcurrency(),
+                configuration.getGnpyProbePeriod(), configuration.getGnpyCoolDown()))
+            .build();
+    }
+
+    public static Builder builder(NetworkTransactionService networkTransaction) {
+        return new Builder(networkTransaction);
+    }
+
+    public Builder toBuilder() {
+        return builder(networkTransaction)
+            .setConfiguration(configuration)
+            .setTopologySnapshotService(topologySnapshotService)
+            .setResultCache(resultCache)
+            .setReservationLedger(reservationLedger)
+            .setMetrics(metrics)
+            .setGnpyTopologyCache(gnpyTopologyCache)
+            .setGnpyClient(gnpyClient);
+    }
+
+    public NetworkTransactionService getNetworkTransaction() {
+        return networkTransaction;
+    }
+
+    public PceConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public PceTopologySnapshotService getTopologySnapshotService() {
+        return topologySnapshotService;
+    }
+
+    public PceResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public PceReservationLedger getReservationLedger() {
+        return reservationLedger;
+    }
+
+    public PceMetrics getMetrics() {
+        return metrics;
+    }
+
+    public GnpyTopologyCache getGnpyTopologyCache() {
+        return gnpyTopologyCache;
+    }
+
+    public GnpyClient getGnpyClient() {
+        return gnpyClient;
+    }
+
+    public static final class Builder {
+
+        private final NetworkTransactionService networkTransaction;
+        private PceConfiguration configuration = new PceConfiguration();
+        private PceTopologySnapshotService topologySnapshotService;
+        private PceResultCache resultCache;
+        private PceReservationLedger reservationLedger;
+        private PceMetrics metrics;
+        private GnpyTopologyCache gnpyTopologyCache;
+        private GnpyClient gnpyClient;
+
+        private Builder(NetworkTransactionService networkTransaction) {
+            this.networkTransaction = networkTransaction;
+        }
+
+        public Builder setConfiguration(PceConfiguration configuration) {
+            this.configuration = configuration;
+            return this;
+        }
+
+        public Builder setTopologySnapshotService(PceTopologySnapshotService topologySnapshotService) {
+            this.topologySnapshotService = topologySnapshotService;
+            return this;
+        }
+
+        public Builder setResultCache(PceResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        public Builder setReservationLedger(PceReservationLedger reservationLedger) {
+            this.reservationLedger = reservationLedger;
+            return this;
+        }
+
+        public Builder setMetrics(PceMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder setGnpyTopologyCache(GnpyTopologyCache gnpyTopologyCache) {
+            this.gnpyTopologyCache = gnpyTopologyCache;
+            return this;
+        }
+
+        public Builder setGnpyClient(GnpyClient gnpyClient) {
+            this.gnpyClient = gnpyClient;
+            return this;
+        }
+
+        public PceDependencies build() {
+            return new PceDependencies(this);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.Timeouts;
+import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNodeView;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathDescriptionList;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.description.list.PathDescriptions;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.description.list.PathDescriptionsBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.description.list.PathDescriptionsKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resources held by the paths computed by the PCE for the requests with resource-reserve, until the renderer
+ * has ended the implementation of the service, the network model being then updated by the renderer. A hold is
+ * also released by cancel-resource-reserve, and expires if its service is never implemented.
+ *
+ * <p>
+ * A hold is taken per service name and records the wavelength used on the nodes of the path, the XPONDER
+ * network ports at both ends of the path and the tributary port and slots used on the termination points of
+ * the OTN links. The path computations hide the resources held by the other services.
+ * </p>
+ *
+ * <p>
+ * The computations are optimistic: each one reads the topology epoch before its network analysis and
+ * {@link #commit} atomically checks that the topology has not changed and that no other service holds the
+ * chosen resources before holding them, so that a resource is never given twice. The holds are also written
+ * to the path-description-list of the configuration datastore.
+ * </p>
+ *
+ * <p>
+ * The datastore writes are made by a single writer thread, in the order of the changes of the holds, so that
+ * the computations never wait for the datastore while holding the ledger. A hold whose path description
+ * cannot be written is given up and its commit returns {@link Commit#NOT_PERSISTED}. A path description that
+ * cannot be deleted is deleted again before the next write.
+ * </p>
+ */
+public class PceReservationLedger {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PceReservationLedger.class);
+
+    /* time to live of the holds, in seconds. */
+    public static final long DEFAULT_TTL = 600;
+
+    /* Result of a commit. */
+    public enum Commit {
+        HELD,
+        CONFLICT,
+        STALE_TOPOLOGY,
+        NOT_PERSISTED
+    }
+
+    /* number of attempts of a datastore write. */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final NetworkTransactionService networkTransaction;
+    private final LongSupplier topologyEpoch;
+    private final LongSupplier clock;
+    private final long ttl;
+    private final Map<String, Hold> holds = new HashMap<>();
+    private final AtomicLong reservationEpoch = new AtomicLong();
+    private final ExecutorService writer;
+    /* path descriptions whose deletion failed, only used by the writer thread. */
+    private final Set<String> failedDeletions = new HashSet<>();
+
+    public PceReservationLedger() {
+        this(null, null, DEFAULT_TTL);
+    }
+
+    /**
+     * Create the ledger.
+     *
+     * @param networkTransaction the service writing the holds to the datastore, null to keep them in memory
+     * @param topologySnapshotService the service giving the topology epoch, null if the topology is read from
+     *        the datastore by each computation
+     * @param ttl the time to live of the holds, in seconds
+     */
+    public PceReservationLedger(NetworkTransactionService networkTransaction,
+            PceTopologySnapshotService topologySnapshotService, long ttl) {
+        this(networkTransaction, topologySnapshotService == null ? () -> 0 : topologySnapshotService::getEpoch,
+            System::nanoTime, TimeUnit.SECONDS.toNanos(ttl));
+    }
+
+    PceReservationLedger(NetworkTransactionService networkTransaction, LongSupplier topologyEpoch,
+            LongSupplier clock, long ttl) {
+        this.networkTransaction = networkTransaction;
+        this.topologyEpoch = topologyEpoch;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.writer = networkTransaction == null ? null : Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("pce-reservation-writer-%d").setDaemon(true).build());
+    }
+
+    public void close() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * Get the topology epoch, to be read before the network analysis of a computation.
+     *
+     * @return the current epoch
+     */
+    public long getTopologyEpoch() {
+        return topologyEpoch.getAsLong();
+    }
+
+    /**
+     * Get the reservation epoch, increased on every change of the holds so that the results cached before
+     * are dropped.
+     *
+     * @return the current epoch
+     */
+    public long getReservationEpoch() {
+        return reservationEpoch.get();
+    }
+
+    /**
+     * Hold the resources of a path for a service, replacing the previous hold of the service, if the topology
+     * has not changed since the network analysis and if the resources are not held by another service.
+     *
+     * @param serviceName the name of the service
+     * @param epoch the topology epoch read before the network analysis
+     * @param path the links of the path from A to Z
+     * @param result the result of the path computation, giving the wavelength or the tributary slots and the
+     *        path description
+     * @param xponders the XPONDER nodes, on which the wavelength is not held
+     * @return {@link Commit#HELD}, or why the hold was not taken
+     */
+    public Commit commit(String serviceName, long epoch, List<PceLink> path, PceResult result,
+            Set<NodeId> xponders) {
+        Hold hold = new Hold(path, result, xponders, clock.getAsLong() + ttl);
+        Hold previous;
+        Future<Boolean> write;
+        synchronized (this) {
+            if (epoch != topologyEpoch.getAsLong()) {
+                LOG.info("PceReservationLedger: topology changed during the computation of {}", serviceName);
+                return Commit.STALE_TOPOLOGY;
+            }
+            removeExpiredHolds();
+            for (Map.Entry<String, Hold> other : holds.entrySet()) {
+                if (!other.getKey().equals(serviceName) && hold.conflictsWith(other.getValue())) {
+                    LOG.info("PceReservationLedger: resources of {} already held by {}", serviceName,
+                        other.getKey());
+                    return Commit.CONFLICT;
+                }
+            }
+            previous = holds.put(serviceName, hold);
+            reservationEpoch.incrementAndGet();
+            write = writePathDescription(serviceName, result);
+        }
+        LOG.debug("PceReservationLedger: {} held for {}", hold, serviceName);
+        if (awaitWrite(write, serviceName)) {
+            return Commit.HELD;
+        }
+        synchronized (this) {
+            // give the hold up, unless the service has been computed again or released in the meantime
+            if (holds.get(serviceName) == hold) {
+                if (previous == null) {
+                    holds.remove(serviceName);
+                } else {
+                    holds.put(serviceName, previous);
+                }
+                reservationEpoch.incrementAndGet();
+            }
+        }
+        LOG.error("PceReservationLedger: path description of {} not written, resources not held", serviceName);
+        return Commit.NOT_PERSISTED;
+    }
+
+    /**
+     * Release the resources held for a service.
+     *
+     * @param serviceName the name of the service
+     * @return true if resources were held for the service
+     */
+    public boolean release(String serviceName) {
+        Future<Boolean> write;
+        synchronized (this) {
+            removeExpiredHolds();
+            if (holds.remove(serviceName) == null) {
+                return false;
+            }
+            reservationEpoch.incrementAndGet();
+            write = deletePathDescription(serviceName);
+        }
+        if (!awaitWrite(write, serviceName)) {
+            LOG.error("PceReservationLedger: path description of {} not deleted, deleted again at the next write",
+                serviceName);
+        }
+        return true;
+    }
+
+    /**
+     * Wait for the datastore writes of the changes already made to the holds.
+     */
+    void flush() throws InterruptedException, ExecutionException {
+        if (writer != null) {
+            writer.submit(() -> { }).get();
+        }
+    }
+
+    public synchronized boolean isHeld(String serviceName) {
+        removeExpiredHolds();
+        return holds.containsKey(serviceName);
+    }
+
+    public synchronized int size() {
+        removeExpiredHolds();
+        return holds.size();
+    }
+
+    /**
+     * Hide the resources held by the other services from the nodes of a network analysis.
+     *
+     * @param allPceNodes the nodes of the network analysis, left unchanged
+     * @param serviceName the name of the service computed, whose resources are not hidden
+     * @return the nodes, with a read only view in place of the nodes having held resources
+     */
+    public Map<NodeId, PceNode> hideHeldResources(Map<NodeId, PceNode> allPceNodes, String serviceName) {
+        Map<NodeId, BitSet> wavelengths = new HashMap<>();
+        Map<NodeId, Map<String, BitSet>> tribPorts = new HashMap<>();
+        Map<NodeId, Map<String, BitSet>> tribSlots = new HashMap<>();
+        Set<String> ports = new HashSet<>();
+        synchronized (this) {
+            removeExpiredHolds();
+            for (Map.Entry<String, Hold> hold : holds.entrySet()) {
+                if (!hold.getKey().equals(serviceName)) {
+                    hold.getValue().addTo(wavelengths, tribPorts, tribSlots, ports);
+                }
+            }
+        }
+        if (wavelengths.isEmpty() && tribPorts.isEmpty() && tribSlots.isEmpty() && ports.isEmpty()) {
+            return allPceNodes;
+        }
+        Set<NodeId> heldNodes = new HashSet<>(wavelengths.keySet());
+        heldNodes.addAll(tribPorts.keySet());
+        heldNodes.addAll(tribSlots.keySet());
+        for (String port : ports) {
+            heldNodes.add(new NodeId(port.substring(0, port.lastIndexOf('/'))));
+        }
+        Map<NodeId, PceNode> nodes = new HashMap<>();
+        for (PceNode node : allPceNodes.values()) {
+            if (heldNodes.contains(node.getNodeId())
+                    || node.getOutgoingLinks().stream().anyMatch(link -> heldNodes.contains(link.getDestId()))) {
+                node = new PceNodeView(node, allPceNodes.keySet(),
+                    wavelengths.getOrDefault(node.getNodeId(), new BitSet()), ports,
+                    tribPorts.getOrDefault(node.getNodeId(), Collections.emptyMap()),
+                    tribSlots.getOrDefault(node.getNodeId(), Collections.emptyMap()));
+            }
+            nodes.put(node.getNodeId(), node);
+        }
+        return nodes;
+    }
+
+    private void removeExpiredHolds() {
+        long now = clock.getAsLong();
+        for (Iterator<Map.Entry<String, Hold>> it = holds.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Hold> hold = it.next();
+            if (now - hold.getValue().expiry >= 0) {
+                LOG.info("PceReservationLedger: hold of {} expired", hold.getKey());
+                it.remove();
+                reservationEpoch.incrementAndGet();
+                deletePathDescription(hold.getKey());
+            }
+        }
+    }
+
+    /* Queue the write of a path description, to be called with the ledger held to keep the writes in order. */
+    private Future<Boolean> writePathDescription(String serviceName, PceResult result) {
+        if (writer == null) {
+            return Futures.immediateFuture(true);
+        }
+        PathDescriptions description = new PathDescriptionsBuilder().setPathName(serviceName)
+            .setAToZDirection(result.getAtoZDirection()).setZToADirection(result.getZtoADirection()).build();
+        return writer.submit(() -> {
+            failedDeletions.remove(serviceName);
+            retryFailedDeletions();
+            return write(serviceName, MAX_WRITE_ATTEMPTS, () -> networkTransaction.put(
+                LogicalDatastoreType.CONFIGURATION, pathDescriptionIid(serviceName), description));
+        });
+    }
+
+    /* Queue the deletion of a path description, to be called with the ledger held. */
+    private Future<Boolean> deletePathDescription(String serviceName) {
+        if (writer == null) {
+            return Futures.immediateFuture(true);
+        }
+        return writer.submit(() -> {
+            retryFailedDeletions();
+            if (write(serviceName, MAX_WRITE_ATTEMPTS, () -> networkTransaction.delete(
+                    LogicalDatastoreType.CONFIGURATION, pathDescriptionIid(serviceName)))) {
+                return true;
+            }
+            failedDeletions.add(serviceName);
+            return false;
+        });
+    }
+
+    private void retryFailedDeletions() {
+        for (String serviceName : new ArrayList<>(failedDeletions)) {
+            if (write(serviceName, 1, () -> networkTransaction.delete(LogicalDatastoreType.CONFIGURATION,
+                    pathDescriptionIid(serviceName)))) {
+                failedDeletions.remove(serviceName);
+            }
+        }
+    }
+
+    private boolean write(String serviceName, int attempts, Runnable operation) {
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            operation.run();
+            try {
+                networkTransaction.commit().get(Timeouts.DATASTORE_WRITE, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException | TimeoutException e) {
+                LOG.warn("PceReservationLedger: attempt {} to update the path description of {} failed", attempt,
+                    serviceName, e);
+            }
+        }
+        return false;
+    }
+
+    private static boolean awaitWrite(Future<Boolean> write, String serviceName) {
+        try {
+            return write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            LOG.warn("PceReservationLedger: path description of {} not updated", serviceName, e);
+            return false;
+        }
+    }
+
+    public static InstanceIdentifier<PathDescriptions> pathDescriptionIid(String serviceName) {
+        return InstanceIdentifier.create(PathDescriptionList.class)
+            .child(PathDescriptions.class, new PathDescriptionsKey(serviceName));
+    }
+
+    private static final class Hold {
+
+        private final Map<NodeId, BitSet> wavelengths = new HashMap<>();
+        private final Map<NodeId, Map<String, BitSet>> tribPorts = new HashMap<>();
+        private final Map<NodeId, Map<String, BitSet>> tribSlots = new HashMap<>();
+        private final Set<String> ports = new HashSet<>();
+        private final long expiry;
+
+        Hold(List<PceLink> path, PceResult result, Set<NodeId> xponders, long expiry) {
+            this.expiry = expiry;
+            long wavelength = result.getResultWavelength();
+            if (wavelength > 0 && wavelength <= Integer.MAX_VALUE && !path.isEmpty()) {
+                for (PceLink link : path) {
+                    for (NodeId nodeId : new NodeId[] {link.getSourceId(), link.getDestId()}) {
+                        if (!xponders.contains(nodeId)) {
+                            wavelengths.computeIfAbsent(nodeId, k -> new BitSet()).set((int) wavelength);
+                        }
+                    }
+                }
+                PceLink first = path.get(0);
+                ports.add(PceNodeView.port(first.getSourceId(), first.getSourceTP()));
+                PceLink last = path.get(path.size() - 1);
+                ports.add(PceNodeView.port(last.getDestId(), last.getDestTP()));
+            }
+            Map<String, Uint16> resultTribPorts = result.getResultTribPort();
+            Map<String, List<Uint16>> resultTribSlots = result.getResultTribSlot();
+            for (PceLink link : path) {
+                Uint16 tribPort = resultTribPorts == null ? null : resultTribPorts.get(link.getLinkId().getValue());
+                if (tribPort != null) {
+                    addTpBits(tribPorts, link.getSourceId(), link.getSourceTP(), Collections.singletonList(tribPort));
+                    addTpBits(tribPorts, link.getDestId(), link.getDestTP(), Collections.singletonList(tribPort));
+                }
+                List<Uint16> slots = resultTribSlots == null ? null : resultTribSlots.get(link.getLinkId().getValue());
+                if (slots != null) {
+                    addTpBits(tribSlots, link.getSourceId(), link.getSourceTP(), slots);
+                    addTpBits(tribSlots, link.getDestId(), link.getDestTP(), slots);
+                }
+            }
+        }
+
+        private static void addTpBits(Map<NodeId, Map<String, BitSet>> tpBitmaps, NodeId nodeId, Object tp,
+                List<Uint16> bits) {
+            BitSet bitmap = tpBitmaps.computeIfAbsent(nodeId, k -> new HashMap<>())
+                .computeIfAbsent(tp.toString(), k -> new BitSet());
+            for (Uint16 bit : bits) {
+                bitmap.set(bit.toJava());
+            }
+        }
+
+        boolean conflictsWith(Hold other) {
+            if (!Collections.disjoint(ports, other.ports)) {
+                return true;
+            }
+            for (Map.Entry<NodeId, BitSet> wavelength : wavelengths.entrySet()) {
+                BitSet otherWavelengths = other.wavelengths.get(wavelength.getKey());
+                if (otherWavelengths != null && otherWavelengths.intersects(wavelength.getValue())) {
+                    return true;
+                }
+            }
+            return intersects(tribPorts, other.tribPorts) || intersects(tribSlots, other.tribSlots);
+        }
+
+        private static boolean intersects(Map<NodeId, Map<String, BitSet>> tpBitmaps,
+                Map<NodeId, Map<String, BitSet>> otherTpBitmaps) {
+            for (Map.Entry<NodeId, Map<String, BitSet>> nodeBitmaps : tpBitmaps.entrySet()) {
+                Map<String, BitSet> otherNodeBitmaps = otherTpBitmaps.get(nodeBitmaps.getKey());
+                if (otherNodeBitmaps == null) {
+                    continue;
+                }
+                for (Map.Entry<String, BitSet> bitmap : nodeBitmaps.getValue().entrySet()) {
+                    BitSet otherBitmap = otherNodeBitmaps.get(bitmap.getKey());
+                    if (otherBitmap != null && otherBitmap.intersects(bitmap.getValue())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void addTo(Map<NodeId, BitSet> allWavelengths, Map<NodeId, Map<String, BitSet>> allTribPorts,
+                Map<NodeId, Map<String, BitSet>> allTribSlots, Set<String> allPorts) {
+            for (Map.Entry<NodeId, BitSet> wavelength : wavelengths.entrySet()) {
+                allWavelengths.computeIfAbsent(wavelength.getKey(), k -> new BitSet()).or(wavelength.getValue());
+            }
+            merge(tribPorts, allTribPorts);
+            merge(tribSlots, allTribSlots);
+            allPorts.addAll(ports);
+        }
+
+        private static void merge(Map<NodeId, Map<String, BitSet>> tpBitmaps,
+                Map<NodeId, Map<String, BitSet>> allTpBitmaps) {
+            for (Map.Entry<NodeId, Map<String, BitSet>> nodeBitmaps : tpBitmaps.entrySet()) {
+                Map<String, BitSet> allNodeBitmaps = allTpBitmaps.computeIfAbsent(nodeBitmaps.getKey(),
+                    k -> new HashMap<>());
+                for (Map.Entry<String, BitSet> bitmap : nodeBitmaps.getValue().entrySet()) {
+                    allNodeBitmaps.computeIfAbsent(bitmap.getKey(), k -> new BitSet()).or(bitmap.getValue());
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Hold [wavelengths=" + wavelengths + ", ports=" + ports + ", tribPorts=" + tribPorts
+                + ", tribSlots=" + tribSlots + "]";
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.service.types.rev200128.ServiceEndpointSp;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded LRU cache of the results of {@link PceSendingPceRPCs#pathComputationWithConstraints}, keyed by
+ * the service format and rate, the end points and the normalized constraints of the request.
+ *
+ * <p>
+ * Each result is stored with the topology epoch read before it was computed. The epoch is increased on
+ * any change of openroadm-topology or otn-topology, which includes the wavelengths and tributary slots
+ * reserved by the network model, and on any change of the holds of the {@link PceReservationLedger}. Once
+ * the epoch has moved, all the results are dropped so that a result computed on an older topology is never
+ * returned.
+ * </p>
+ *
+ * <p>
+ * The path and the end XPONDER nodes are stored with the result, so that a result found in the cache can
+ * be held by the ledger like a computed one.
+ * </p>
+ */
+public class PceResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PceResultCache.class);
+
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final LongSupplier topologyEpoch;
+    private final int maxSize;
+    private final Map<String, Entry> results;
+    private long epoch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public PceResultCache(PceTopologySnapshotService topologySnapshotService) {
+        this(topologySnapshotService::getEpoch, DEFAULT_MAX_SIZE);
+    }
+
+    public PceResultCache(PceTopologySnapshotService topologySnapshotService,
+            PceReservationLedger reservationLedger, int maxSize) {
+        this(() -> topologySnapshotService.getEpoch() + reservationLedger.getReservationEpoch(), maxSize);
+    }
+
+    PceResultCache(LongSupplier topologyEpoch, int maxSize) {
+        this.topologyEpoch = topologyEpoch;
+        this.maxSize = maxSize;
+        this.results = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (super.size() > PceResultCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.epoch = topologyEpoch.getAsLong();
+    }
+
+    /**
+     * Get the current epoch, to be read before computing a result to cache.
+     *
+     * @return the topology epoch, increased by the reservation epoch when the holds are cached
+     */
+    public long getEpoch() {
+        return topologyEpoch.getAsLong();
+    }
+
+    /**
+     * Get a result computed on the current topology.
+     *
+     * @param key key built by {@link #key}
+     * @return a copy of the result, null if there is none
+     */
+    public PceResult get(String key) {
+        Entry entry = getEntry(key);
+        return entry == null ? null : entry.getResult();
+    }
+
+    /**
+     * Get a result computed on the current topology, with its path.
+     *
+     * @param key key built by {@link #key}
+     * @return the entry, null if there is none
+     */
+    public synchronized Entry getEntry(String key) {
+        refreshEpoch(getEpoch());
+        Entry entry = results.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    /**
+     * Store a result, unless the topology has changed since it was computed.
+     *
+     * @param key key built by {@link #key}
+     * @param resultEpoch epoch read before computing the result
+     * @param result the result
+     */
+    public void put(String key, long resultEpoch, PceResult result) {
+        put(key, resultEpoch, result, Collections.emptyList(), Collections.emptySet());
+    }
+
+    /**
+     * Store a result with its path, unless the topology has changed since it was computed.
+     *
+     * @param key key built by {@link #key}
+     * @param resultEpoch epoch read before computing the result
+     * @param result the result
+     * @param path the links of the path from A to Z
+     * @param xponders the XPONDER nodes at the ends of the path
+     */
+    public synchronized void put(String key, long resultEpoch, PceResult result, List<PceLink> path,
+            Set<NodeId> xponders) {
+        refreshEpoch(getEpoch());
+        if (maxSize <= 0 || resultEpoch != epoch) {
+            LOG.debug("PceResultCache: result for {} not stored, epoch {} current {}", key, resultEpoch, epoch);
+            return;
+        }
+        results.put(key, new Entry(result, path, xponders));
+    }
+
+    private void refreshEpoch(long currentEpoch) {
+        if (currentEpoch != epoch) {
+            if (!results.isEmpty()) {
+                invalidations++;
+                results.clear();
+            }
+            epoch = currentEpoch;
+        }
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PceResultCache [size=" + results.size() + ", epoch=" + epoch + ", hits=" + hits + ", misses="
+            + misses + ", evictions=" + evictions + ", invalidations=" + invalidations + "]";
+    }
+
+    /**
+     * Build the key of a request. The constraints are normalized: lists of resources to exclude are
+     * sorted, lists of resources to include keep their order. The results held for a service are kept apart
+     * from the results of the requests without resource-reserve, which must not get a path held by a service.
+     *
+     * @param input path computation request
+     * @param hardConstraints hard constraints computed from the request
+     * @param softConstraints soft constraints computed from the request
+     * @return the key
+     */
+    public static String key(PathComputationRequestInput input, PceConstraints hardConstraints,
+            PceConstraints softConstraints) {
+        StringBuilder key = new StringBuilder();
+        appendEndpoint(key.append("A="), input.getServiceAEnd());
+        appendEndpoint(key.append(";Z="), input.getServiceZEnd());
+        appendConstraints(key.append(";hard="), hardConstraints);
+        appendConstraints(key.append(";soft="), softConstraints);
+        key.append(";reserve=").append(Boolean.TRUE.equals(input.getResourceReserve()));
+        return key.toString();
+    }
+
+    private static void appendEndpoint(StringBuilder key, ServiceEndpointSp endpoint) {
+        if (endpoint == null) {
+            key.append("null");
+            return;
+        }
+        key.append(endpoint.getNodeId()).append('/').append(endpoint.getClli())
+            .append('/').append(endpoint.getServiceFormat()).append('/').append(endpoint.getServiceRate())
+            .append('/').append(endpoint.getOtuServiceRate()).append('/').append(endpoint.getOduServiceRate());
+    }
+
+    private static void appendConstraints(StringBuilder key, PceConstraints constraints) {
+        if (constraints == null) {
+            key.append("null");
+            return;
+        }
+        key.append(constraints.getCanonicalForm());
+    }
+
+    /**
+     * A cached result with its path.
+     */
+    public static final class Entry {
+
+        private final PceResult result;
+        private final List<PceLink> path;
+        private final Set<NodeId> xponders;
+
+        Entry(PceResult result, List<PceLink> path, Set<NodeId> xponders) {
+            this.result = new PceResult(result);
+            this.path = ImmutableList.copyOf(path);
+            this.xponders = ImmutableSet.copyOf(xponders);
+        }
+
+        /**
+         * Get the result.
+         *
+         * @return a copy of the result
+         */
+        public PceResult getResult() {
+            return new PceResult(result);
+        }
+
+        public List<PceLink> getPath() {
+            return path;
+        }
+
+        public Set<NodeId> getXponders() {
+            return xponders;
+        }
+    }
+}
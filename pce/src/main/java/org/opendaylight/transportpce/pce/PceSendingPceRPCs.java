@@ -8,17 +8,25 @@
 
 package org.opendaylight.transportpce.pce;
 
+import java.util.List;
+import java.util.Map;
 import org.opendaylight.transportpce.common.ResponseCodes;
 import org.opendaylight.transportpce.common.network.NetworkTransactionService;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints;
 import org.opendaylight.transportpce.pce.constraints.PceConstraintsCalc;
-import org.opendaylight.transportpce.pce.gnpy.ConnectToGnpyServer;
+import org.opendaylight.transportpce.pce.gnpy.GnpyClient;
 import org.opendaylight.transportpce.pce.gnpy.GnpyException;
 import org.opendaylight.transportpce.pce.gnpy.GnpyResult;
+import org.opendaylight.transportpce.pce.gnpy.GnpyTopologyCache;
 import org.opendaylight.transportpce.pce.gnpy.GnpyUtilitiesImpl;
 import org.opendaylight.transportpce.pce.graph.PceGraph;
+import org.opendaylight.transportpce.pce.metrics.PceMetrics;
+import org.opendaylight.transportpce.pce.metrics.PceTrace;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceCalculation;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInputBuilder;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.service.path.rpc.result.PathDescriptionBuilder;
@@ -26,6 +34,7 @@ import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdes
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.ZToADirection;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp.PceMetric;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.routing.constraints.sp.HardConstraints;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +50,8 @@ public class PceSendingPceRPCs {
 
     /* Logging. */
     private static final Logger LOG = LoggerFactory.getLogger(PceSendingPceRPCs.class);
+    /* number of computations of a request whose commit fails because of concurrent requests or topology changes. */
+    private static final int MAX_COMMIT_ATTEMPTS = 5;
     /* define procedure success (or not ). */
     private PceResult rc = new PceResult();
 
@@ -51,8 +62,15 @@ public class PceSendingPceRPCs {
     private PathDescriptionBuilder pathDescription;
     private PathComputationRequestInput input;
     private NetworkTransactionService networkTransaction;
+    private PceConfiguration configuration = new PceConfiguration();
+    private PceTopologySnapshotService topologySnapshotService;
+    private PceResultCache resultCache;
+    private PceReservationLedger reservationLedger;
+    private PceMetrics metrics;
+    private GnpyTopologyCache gnpyTopologyCache;
+    private GnpyClient gnpyClient;
+    private PceTrace trace = PceTrace.DISABLED;
     private PceConstraints pceHardConstraints = new PceConstraints();
-    private PceConstraints pceSoftConstraints = new PceConstraints();
     private GnpyResult gnpyAtoZ;
     private GnpyResult gnpyZtoA;
     private Boolean success;
@@ -67,62 +85,163 @@ public class PceSendingPceRPCs {
 
     public PceSendingPceRPCs(PathComputationRequestInput input,
         NetworkTransactionService networkTransaction) {
+        this(input, PceDependencies.builder(networkTransaction).build());
+    }
+
+    public PceSendingPceRPCs(PathComputationRequestInput input, PceDependencies dependencies) {
         setPathDescription(null);
 
         // TODO compliance check to check that input is not empty
         this.input = input;
-        this.networkTransaction = networkTransaction;
+        this.networkTransaction = dependencies.getNetworkTransaction();
+        this.configuration = dependencies.getConfiguration();
+        this.topologySnapshotService = dependencies.getTopologySnapshotService();
+        this.resultCache = dependencies.getResultCache();
+        this.reservationLedger = dependencies.getReservationLedger();
+        this.metrics = dependencies.getMetrics();
+        this.gnpyTopologyCache = dependencies.getGnpyTopologyCache();
+        this.gnpyClient = dependencies.getGnpyClient();
     }
 
     public void cancelResourceReserve() {
+        cancelResourceReserve(input == null ? null : input.getServiceName());
+    }
+
+    /**
+     * Release the resources held by the reservation ledger for a service.
+     *
+     * @param serviceName the name of the service
+     */
+    public void cancelResourceReserve(String serviceName) {
         success = false;
-        LOG.info("Wait for 10s til beginning the PCE cancelResourceReserve request");
-        try {
-            // sleep for 10s
-            Thread.sleep(10000);
-        } catch (InterruptedException e) {
-            LOG.error("in PCESendingPceRPC: ",e);
+        if (reservationLedger != null && serviceName != null && reservationLedger.release(serviceName)) {
+            LOG.info("cancelResourceReserve: resources of {} released", serviceName);
+        } else {
+            LOG.info("cancelResourceReserve: no resources held for {}", serviceName);
         }
         success = true;
-        LOG.info("cancelResourceReserve ...");
+    }
+
+    /*
+     * Resources are held only for the requests asking for it with resource-reserve, such as a service create.
+     * The other requests, such as a feasibility check, only avoid the resources held by the other services.
+     */
+    private boolean isResourceReserve() {
+        return reservationLedger != null && input != null && Boolean.TRUE.equals(input.getResourceReserve());
     }
 
     public void pathComputationWithConstraints(PceConstraints hardConstraints, PceConstraints softConstraints) {
 
-        PceCalculation nwAnalizer =
-            new PceCalculation(input, networkTransaction, hardConstraints, softConstraints, rc);
-        nwAnalizer.retrievePceNetwork();
-        rc = nwAnalizer.getReturnStructure();
-        String serviceType = nwAnalizer.getServiceType();
-        if (!rc.getStatus()) {
-            LOG.error("In pathComputationWithConstraints, nwAnalizer: result = {}", rc);
-            return;
+        String cacheKey = null;
+        long cacheEpoch = 0;
+        if (resultCache != null) {
+            cacheKey = PceResultCache.key(input, hardConstraints, softConstraints);
+            // read before the cached result, so that the commit fails if the topology changes in the meantime
+            long topologyEpoch = reservationLedger == null ? 0 : reservationLedger.getTopologyEpoch();
+            PceResultCache.Entry cached = resultCache.getEntry(cacheKey);
+            if (cached != null && holdCachedResult(cacheKey, cached, topologyEpoch)) {
+                return;
+            }
+            cacheEpoch = resultCache.getEpoch();
         }
-        LOG.info("PceGraph ...");
-        PceGraph graph = new PceGraph(nwAnalizer.getaendPceNode(),
-                nwAnalizer.getzendPceNode(), nwAnalizer.getAllPceNodes(),
-                hardConstraints, softConstraints, rc, serviceType);
-        graph.calcPath();
-        rc = graph.getReturnStructure();
-        if (!rc.getStatus()) {
-            LOG.warn("In pathComputationWithConstraints : Graph return without Path ");
-            // TODO fix. This is quick workaround for algorithm problem
-            if ((rc.getLocalCause() == PceResult.LocalCause.TOO_HIGH_LATENCY)
-                && (hardConstraints.getPceMetrics() == PceMetric.HopCount)
-                && (hardConstraints.getMaxLatency() != -1)) {
-                hardConstraints.setPceMetrics(PceMetric.PropagationDelay);
-                graph = patchRerunGraph(graph);
+        PceCalculation nwAnalizer = null;
+        PceResult analysis = null;
+        long topologyEpoch = 0;
+        for (int attempt = 1; attempt <= MAX_COMMIT_ATTEMPTS; attempt++) {
+            if (nwAnalizer == null) {
+                if (reservationLedger != null) {
+                    topologyEpoch = reservationLedger.getTopologyEpoch();
+                }
+                nwAnalizer = new PceCalculation(input, networkTransaction, hardConstraints, softConstraints, rc,
+                    topologySnapshotService);
+                nwAnalizer.setMetricFallback(configuration.getMetricFallback());
+                nwAnalizer.retrievePceNetwork();
+                rc = nwAnalizer.getReturnStructure();
+                if (!rc.getStatus()) {
+                    LOG.error("In pathComputationWithConstraints, nwAnalizer: result = {}", rc);
+                    return;
+                }
+                analysis = new PceResult(rc);
             }
-
-            if (rc.getLocalCause() == PceResult.LocalCause.HD_NODE_INCLUDE) {
-                graph.setKpathsToBring(graph.getKpathsToBring() * 10);
-                graph = patchRerunGraph(graph);
+            List<PceLink> path = computePath(nwAnalizer, hardConstraints, softConstraints);
+            if (path == null) {
+                return;
             }
-
-            if (!rc.getStatus()) {
-                LOG.error("In pathComputationWithConstraints, graph.calcPath: result = {}", rc);
+            if (!isResourceReserve()) {
+                if (resultCache != null) {
+                    resultCache.put(cacheKey, cacheEpoch, rc, path, nwAnalizer.getEndXponderIds());
+                }
                 return;
             }
+            PceReservationLedger.Commit commit = reservationLedger.commit(input.getServiceName(), topologyEpoch,
+                path, rc, nwAnalizer.getEndXponderIds());
+            LOG.info("In pathComputationWithConstraints, commit of {} attempt {}: {}", input.getServiceName(),
+                attempt, commit);
+            switch (commit) {
+                case HELD:
+                    if (resultCache != null) {
+                        // the epoch of the cache is the topology epoch increased by the reservation epoch
+                        resultCache.put(cacheKey, topologyEpoch + reservationLedger.getReservationEpoch(), rc, path,
+                            nwAnalizer.getEndXponderIds());
+                    }
+                    return;
+                case NOT_PERSISTED:
+                    rc.setRC(ResponseCodes.RESPONSE_FAILED);
+                    rc.setCalcMessage("No path available, resources could not be held in the datastore");
+                    return;
+                case CONFLICT:
+                    // recompute without the resources held by a concurrent computation in the meantime
+                    rc = new PceResult(analysis);
+                    break;
+                default:
+                    // analyze the network again
+                    nwAnalizer = null;
+                    rc = new PceResult();
+                    rc.setTrace(trace);
+                    break;
+            }
+        }
+        rc.setRC(ResponseCodes.RESPONSE_FAILED);
+        rc.setCalcMessage("No path available, resources held by concurrent computations");
+    }
+
+    /*
+     * Take the result found in the cache, once its resources are held for the service. A result held by another
+     * service, or computed before a topology change, is computed again.
+     */
+    private boolean holdCachedResult(String cacheKey, PceResultCache.Entry cached, long topologyEpoch) {
+        if (isResourceReserve()) {
+            PceReservationLedger.Commit commit = reservationLedger.commit(input.getServiceName(), topologyEpoch,
+                cached.getPath(), cached.getResult(), cached.getXponders());
+            LOG.info("In pathComputationWithConstraints, commit of the cached result of {}: {}",
+                input.getServiceName(), commit);
+            if (commit != PceReservationLedger.Commit.HELD) {
+                return false;
+            }
+            // the result is still the current one once held again
+            resultCache.put(cacheKey, topologyEpoch + reservationLedger.getReservationEpoch(), cached.getResult(),
+                cached.getPath(), cached.getXponders());
+        }
+        rc = cached.getResult();
+        rc.setTrace(trace);
+        LOG.info("In pathComputationWithConstraints, result found in cache: {}", rc);
+        return true;
+    }
+
+    private List<PceLink> computePath(PceCalculation nwAnalizer, PceConstraints hardConstraints,
+            PceConstraints softConstraints) {
+        Map<NodeId, PceNode> allPceNodes = nwAnalizer.getAllPceNodes();
+        if (reservationLedger != null) {
+            allPceNodes = reservationLedger.hideHeldResources(allPceNodes, input.getServiceName());
+        }
+        LOG.info("PceGraph ...");
+        PceGraph graph = calcPath(allPceNodes.get(nwAnalizer.getaendPceNode().getNodeId()),
+            allPceNodes.get(nwAnalizer.getzendPceNode().getNodeId()), allPceNodes, hardConstraints,
+            softConstraints, rc, nwAnalizer.getServiceType(), configuration);
+        rc = graph.getReturnStructure();
+        if (!rc.getStatus()) {
+            LOG.error("In pathComputationWithConstraints, graph.calcPath: result = {}", rc);
+            return null;
         }
         LOG.info("PcePathDescription ...");
         PcePathDescription description = new PcePathDescription(graph.getPathAtoZ(), nwAnalizer.getAllPceLinks(), rc);
@@ -130,15 +249,20 @@ public class PceSendingPceRPCs {
         rc = description.getReturnStructure();
         if (!rc.getStatus()) {
             LOG.error("In pathComputationWithConstraints, description: result = {}", rc);
+            return null;
         }
+        return graph.getPathAtoZ();
     }
 
     public void pathComputation() throws Exception {
 
+        if (metrics != null) {
+            trace = new PceTrace(input.getServiceName());
+            rc.setTrace(trace);
+        }
         PceConstraintsCalc constraints = new PceConstraintsCalc(input, networkTransaction);
         pceHardConstraints = constraints.getPceHardConstraints();
-        pceSoftConstraints = constraints.getPceSoftConstraints();
-        pathComputationWithConstraints(pceHardConstraints, pceSoftConstraints);
+        pathComputationWithConstraints(pceHardConstraints, constraints.getPceSoftConstraints());
         this.success = rc.getStatus();
         this.message = rc.getMessage();
         this.responseCode = rc.getResponseCode();
@@ -152,9 +276,12 @@ public class PceSendingPceRPCs {
 
         //Connect to Gnpy to check path feasibility and recompute another path in case of path non-feasibility
         try {
-            ConnectToGnpyServer connectToGnpy = new ConnectToGnpyServer();
-            if (connectToGnpy.isGnpyURLExist()) {
-                GnpyUtilitiesImpl gnpy = new GnpyUtilitiesImpl(networkTransaction, input);
+            boolean gnpyUrlExist = gnpyClient != null && gnpyClient.isAvailable();
+            GnpyUtilitiesImpl gnpy = null;
+            if (gnpyUrlExist) {
+                long start = System.nanoTime();
+                gnpy = new GnpyUtilitiesImpl(networkTransaction, input, gnpyTopologyCache, gnpyClient);
+                trace.record(PceTrace.Phase.GNPY, System.nanoTime() - start);
                 if (rc.getStatus() && gnpyToCheckFeasiblity(atoz,ztoa,gnpy)) {
                     setPathDescription(new PathDescriptionBuilder().setAToZDirection(atoz).setZToADirection(ztoa));
                     return;
@@ -167,6 +294,13 @@ public class PceSendingPceRPCs {
         catch (GnpyException e) {
             LOG.error("Exception raised by GNPy {}",e.getMessage());
             setPathDescription(new PathDescriptionBuilder().setAToZDirection(atoz).setZToADirection(ztoa));
+        } finally {
+            if (isResourceReserve() && !Boolean.TRUE.equals(success)) {
+                reservationLedger.release(input.getServiceName());
+            }
+            if (metrics != null) {
+                metrics.publish(trace, Boolean.TRUE.equals(success), message);
+            }
         }
     }
 
@@ -174,7 +308,10 @@ public class PceSendingPceRPCs {
             throws GnpyException, Exception {
 
         //Call GNPy for path verification
-        if (gnpy.verifyComputationByGnpy(atoz, ztoa, pceHardConstraints)) {
+        long start = System.nanoTime();
+        boolean feasible = gnpy.verifyComputationByGnpy(atoz, ztoa, pceHardConstraints);
+        trace.record(PceTrace.Phase.GNPY, System.nanoTime() - start);
+        if (feasible) {
             LOG.info("In pceSendingPceRPC: the path is feasible according to Gnpy");
             gnpyAtoZ = gnpy.getGnpyAtoZ();
             gnpyZtoA = gnpy.getGnpyZtoA();
@@ -187,8 +324,9 @@ public class PceSendingPceRPCs {
 
         //Call GNPy in the case of non feasibility
         LOG.info("In pceSendingPceRPC: the path is not feasible according to Gnpy");
-        HardConstraints gnpyPathAsHC = null;
-        gnpyPathAsHC = gnpy.askNewPathFromGnpy(pceHardConstraints);
+        long start = System.nanoTime();
+        HardConstraints gnpyPathAsHC = gnpy.askNewPathFromGnpy(pceHardConstraints);
+        trace.record(PceTrace.Phase.GNPY, System.nanoTime() - start);
         if (gnpyPathAsHC == null) {
             LOG.info("In pceSendingPceRPC: GNPy failed to find another path");
             this.success = false;
@@ -226,9 +364,51 @@ public class PceSendingPceRPCs {
         }
     }
 
-    private PceGraph patchRerunGraph(PceGraph graph) {
+    /**
+     * Compute the path of a request on the nodes of a network analysis.
+     *
+     * @param aendNode A end node
+     * @param zendNode Z end node
+     * @param allPceNodes nodes of the network analysis
+     * @param hardConstraints hard constraints
+     * @param softConstraints soft constraints
+     * @param rc result of the network analysis
+     * @param serviceType service type
+     * @param configuration settings of the graph
+     * @return the graph, its return structure giving the result
+     */
+    static PceGraph calcPath(PceNode aendNode, PceNode zendNode, Map<NodeId, PceNode> allPceNodes,
+            PceConstraints hardConstraints, PceConstraints softConstraints, PceResult rc, String serviceType,
+            PceConfiguration configuration) {
+        PceGraph graph = new PceGraph(aendNode, zendNode, allPceNodes, hardConstraints, softConstraints, rc,
+            serviceType);
+        graph.setGraphEngine(configuration.getGraphEngine());
+        graph.setValidationParallelism(configuration.getValidationParallelism());
+        graph.setOsnrModel(configuration.getOsnrModel());
+        graph.calcPath();
+        PceResult result = graph.getReturnStructure();
+        if (!result.getStatus()) {
+            LOG.warn("In pathComputationWithConstraints : Graph return without Path ");
+            // TODO fix. This is quick workaround for algorithm problem
+            if ((result.getLocalCause() == PceResult.LocalCause.TOO_HIGH_LATENCY)
+                && (hardConstraints.getPceMetrics() == PceMetric.HopCount)
+                && (hardConstraints.getMaxLatency() != -1)) {
+                hardConstraints.setPceMetrics(PceMetric.PropagationDelay);
+                patchRerunGraph(graph, hardConstraints, softConstraints);
+            }
+
+            if (graph.getReturnStructure().getLocalCause() == PceResult.LocalCause.HD_NODE_INCLUDE) {
+                graph.setKpathsToBring(graph.getKpathsToBring() * 10);
+                patchRerunGraph(graph, hardConstraints, softConstraints);
+            }
+        }
+        return graph;
+    }
+
+    private static PceGraph patchRerunGraph(PceGraph graph, PceConstraints hardConstraints,
+            PceConstraints softConstraints) {
         LOG.info("In pathComputation patchRerunGraph : rerun Graph with metric = PROPAGATION-DELAY ");
-        graph.setConstrains(pceHardConstraints, pceSoftConstraints);
+        graph.setConstrains(hardConstraints, softConstraints);
         graph.calcPath();
         return graph;
     }
@@ -260,4 +440,8 @@ public class PceSendingPceRPCs {
     public GnpyResult getGnpyZtoA() {
         return gnpyZtoA;
     }
+
+    public PceResult getReturnStructure() {
+        return rc;
+    }
 }
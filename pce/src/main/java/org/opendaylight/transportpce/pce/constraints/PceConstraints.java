@@ -7,8 +7,16 @@
  */
 package org.opendaylight.transportpce.pce.constraints;
 
+import com.google.common.primitives.Longs;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceOpticalNode;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp;
 import org.slf4j.Logger;
@@ -28,21 +36,25 @@ public class PceConstraints {
     // e.g.: nodesToExclude - topo-level nodes IDs - comes from diversity constraints
     //     : supNodesToExclude - supporting nodes IDs - comes from exclude list
     // "mapConstraints" class converts diversity elements into correct names
-    private List<String> nodesToExclude = new ArrayList<>();
-    private List<String> supNodesToExclude = new ArrayList<>();
+    private final Set<String> nodesToExclude = new LinkedHashSet<>();
+    private final Set<String> supNodesToExclude = new LinkedHashSet<>();
 
-    private List<Long> srlgToExclude = new ArrayList<>();
-    private List<String> srlgLinksToExclude = new ArrayList<>();
+    // sorted, without duplicates
+    private long[] srlgToExclude = new long[0];
+    private final Set<String> srlgLinksToExclude = new LinkedHashSet<>();
 
-    private List<String> clliToExclude = new ArrayList<>();
-    private List<String> clliNodesToExclude = new ArrayList<>();
+    private final Set<String> clliToExclude = new LinkedHashSet<>();
+    private final Set<String> clliNodesToExclude = new LinkedHashSet<>();
 
     ///Structures related to INCLUDE constraints
-    private List<String> nodesToInclude = new ArrayList<>();
-    private List<PceOpticalNode> pceNodesToInclude = new ArrayList<>();
-    private List<ResourcePair> listToInclude = new ArrayList<>();
+    private final List<String> nodesToInclude = new ArrayList<>();
+    private final List<PceOpticalNode> pceNodesToInclude = new ArrayList<>();
+    private final List<ResourcePair> listToInclude = new ArrayList<>();
 
-    private List<String> srlgNames = new ArrayList<>();
+    private final Set<String> srlgNames = new HashSet<>();
+
+    // null until computed, reset by each change of the constraints it represents
+    private String canonicalForm = null;
 
     public enum ResourceType {
         NONE, NODE, SRLG, CLLI;
@@ -54,6 +66,7 @@ public class PceConstraints {
 
     public void setPceMetrics(RoutingConstraintsSp.PceMetric pceMetrics) {
         this.pceMetrics = pceMetrics;
+        this.canonicalForm = null;
     }
 
     // Latency of path is used by Graph to validate path
@@ -66,87 +79,114 @@ public class PceConstraints {
     public void setMaxLatency(Long maxLatency) {
         LOG.debug("in Pceconstraints setMaxLatency = {}", maxLatency);
         this.maxLatency = maxLatency;
+        this.canonicalForm = null;
     }
 
     // Exclude nodes / SRLD / CLLI
 
-    public List<String> getExcludeSupNodes() {
+    public Set<String> getExcludeSupNodes() {
         LOG.debug("in Pceconstraints getExcludeSupNodes size = {}", supNodesToExclude.size());
-        return supNodesToExclude;
+        return Collections.unmodifiableSet(supNodesToExclude);
     }
 
     public void setExcludeSupNodes(List<String> supNodes) {
         LOG.debug("in Pceconstraints setExcludeSupNodes size = {}", supNodes.size());
         supNodesToExclude.addAll(supNodes);
+        canonicalForm = null;
     }
 
     public List<Long> getExcludeSRLG() {
-        LOG.debug("in Pceconstraints getExcludeSRLG size = {}", srlgToExclude.size());
-        return srlgToExclude;
+        LOG.debug("in Pceconstraints getExcludeSRLG size = {}", srlgToExclude.length);
+        return Collections.unmodifiableList(Longs.asList(srlgToExclude));
     }
 
     public void setExcludeSRLG(List<Long> srlg) {
         LOG.info("in Pceconstraints setExcludeSRLG size = {}", srlg.size());
-        srlgToExclude.addAll(srlg);
+        srlgToExclude = LongStream.concat(Arrays.stream(srlgToExclude), srlg.stream().mapToLong(Long::longValue))
+            .sorted().distinct().toArray();
+        canonicalForm = null;
+    }
+
+    /**
+     * Check if one of the SRLGs of a link is excluded.
+     *
+     * @param srlgs the SRLGs of the link
+     * @return true if one of them is excluded
+     */
+    public boolean isSrlgExcluded(List<Long> srlgs) {
+        if (srlgToExclude.length == 0 || srlgs == null) {
+            return false;
+        }
+        for (Long srlg : srlgs) {
+            if (srlg != null && Arrays.binarySearch(srlgToExclude, srlg) >= 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    public List<String> getExcludeCLLI() {
+    public Set<String> getExcludeCLLI() {
         LOG.debug("in Pceconstraints getExcludeCLLI size = {}", clliToExclude.size());
-        return clliToExclude;
+        return Collections.unmodifiableSet(clliToExclude);
     }
 
     public void setExcludeCLLI(List<String> clli) {
         LOG.debug("in Pceconstraints setExcludeCLLI size = {}", clli.size());
         clliToExclude.addAll(clli);
+        canonicalForm = null;
     }
 
     // CLLI nodes are defined as result of 'diversity 'node'' constraints
     // clliNodesToExclude are saved as nodes, during NW analysis the relevant
     // CLLI IDs are added to clliToExclude
-    public List<String> getExcludeClliNodes() {
+    public Set<String> getExcludeClliNodes() {
         LOG.info("in Pceconstraints getExcludeClliNodes size = {}", clliNodesToExclude.size());
-        return clliNodesToExclude;
+        return Collections.unmodifiableSet(clliNodesToExclude);
     }
 
     public void setExcludeClliNodes(List<String> clli) {
         LOG.debug("in Pceconstraints setExcludeCLLI size = {}", clli.size());
         clliNodesToExclude.addAll(clli);
+        canonicalForm = null;
     }
 
-    public List<String> getExcludeSrlgLinks() {
+    public Set<String> getExcludeSrlgLinks() {
         LOG.info("in Pceconstraints getExcludeSrlgNodes size = {}", srlgLinksToExclude.size());
-        return srlgLinksToExclude;
+        return Collections.unmodifiableSet(srlgLinksToExclude);
     }
 
     public void setExcludeSrlgLinks(List<String> srlg) {
         LOG.debug("in Pceconstraints setExcludeSRLG size = {}", srlg.size());
         srlgLinksToExclude.addAll(srlg);
+        canonicalForm = null;
     }
 
-    public List<String> getExcludeNodes() {
+    public Set<String> getExcludeNodes() {
         LOG.info("in Pceconstraints getExcludeNodes size = {}", nodesToExclude.size());
-        return nodesToExclude;
+        return Collections.unmodifiableSet(nodesToExclude);
     }
 
     public void setExcludeNodes(List<String> nodes) {
         LOG.debug("in Pceconstraints setExcludeNodes size = {}", nodes.size());
         nodesToExclude.addAll(nodes);
+        canonicalForm = null;
     }
 
     // Include nodes
     public List<String> getIncludeNodes() {
         LOG.debug("in Pceconstraints getIncludeNodes size = {}", nodesToInclude.size());
-        return nodesToInclude;
+        return Collections.unmodifiableList(nodesToInclude);
     }
 
     public void setIncludeNodes(List<String> nodes) {
         LOG.debug("in Pceconstraints setIncludeNodes size = {}", nodes.size());
         nodesToInclude.addAll(nodes);
+        canonicalForm = null;
     }
 
     public List<PceOpticalNode> getIncludePceNodes() {
         LOG.debug("in Pceconstraints getIncludePceNodes size = {}", pceNodesToInclude.size());
-        return pceNodesToInclude;
+        return Collections.unmodifiableList(pceNodesToInclude);
     }
 
     public void setIncludePceNode(PceOpticalNode node) {
@@ -162,8 +202,8 @@ public class PceConstraints {
             this.name = name;
         }
 
-        private ResourceType type = ResourceType.NODE;
-        private String name = "";
+        private final ResourceType type;
+        private final String name;
 
         public ResourceType getType() {
             return type;
@@ -176,11 +216,12 @@ public class PceConstraints {
     }
 
     public List<ResourcePair> getListToInclude() {
-        return listToInclude;
+        return Collections.unmodifiableList(listToInclude);
     }
 
     public void setListToInclude(ResourcePair elementToInclude) {
         this.listToInclude.add(elementToInclude);
+        this.canonicalForm = null;
         switch (elementToInclude.type) {
             case SRLG:
                 srlgNames.add(elementToInclude.name);
@@ -190,7 +231,34 @@ public class PceConstraints {
         }
     }
 
-    public List<String> getSRLGnames() {
-        return srlgNames;
+    public Set<String> getSRLGnames() {
+        return Collections.unmodifiableSet(srlgNames);
+    }
+
+    /**
+     * Get a canonical representation of the constraints, independent of the order of the exclusions, to be
+     * used as a cache key. The include nodes resolved during the network analysis are not part of it.
+     *
+     * @return the canonical representation
+     */
+    public String getCanonicalForm() {
+        String form = canonicalForm;
+        if (form == null) {
+            StringBuilder builder = new StringBuilder().append(pceMetrics).append('/').append(maxLatency)
+                .append("/xnode=").append(new TreeSet<>(nodesToExclude))
+                .append("/xsupnode=").append(new TreeSet<>(supNodesToExclude))
+                .append("/xsrlg=").append(Arrays.toString(srlgToExclude))
+                .append("/xsrlglink=").append(new TreeSet<>(srlgLinksToExclude))
+                .append("/xclli=").append(new TreeSet<>(clliToExclude))
+                .append("/xcllinode=").append(new TreeSet<>(clliNodesToExclude))
+                .append("/inode=").append(nodesToInclude)
+                .append("/include=[");
+            for (ResourcePair resource : listToInclude) {
+                builder.append(resource.getType()).append(':').append(resource.getName()).append(',');
+            }
+            form = builder.append(']').toString();
+            canonicalForm = form;
+        }
+        return form;
     }
 }
@@ -54,7 +54,9 @@ public class PceConstraintsCalc {
     public PceConstraintsCalc(PathComputationRequestInput input, NetworkTransactionService networkTransactionService) {
         LOG.debug("In PceconstraintsCalc start");
 
-        pceMetrics = input.getPceMetric();
+        if (input.getPceMetric() != null) {
+            pceMetrics = input.getPceMetric();
+        }
 
         this.networkTransactionService = networkTransactionService;
 
@@ -0,0 +1,458 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.opendaylight.transportpce.pce.metrics.PceLatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Client of the GNPy server.
+ *
+ * <p>
+ * The requests share a pooled {@link HttpClient} and at most a given number of them are in flight at
+ * once, the others waiting in a queue. The health of the server is cached by a circuit breaker: a
+ * background HEAD probe closes it when the server answers and opens it otherwise, and consecutive
+ * failed calls open it. While it is open, the server is reported unavailable and the calls fail
+ * fast, so that path computations do not wait for a server that is down. Until the first probe or
+ * call, the server is tried.
+ * </p>
+ *
+ * <p>
+ * Once the circuit has been open for a cool-down period, it is half-open: the server is reported
+ * available to a single computation, whose calls are a trial closing the circuit if they succeed and
+ * opening it again for another period otherwise. Without background probe, this is how the client
+ * finds that the server is back.
+ * </p>
+ */
+public class GnpyClient implements GnpyClientMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GnpyClient.class);
+
+    public static final String DEFAULT_URL = "http://127.0.0.1:8008/gnpy/api/v1.0/files";
+    public static final String DEFAULT_CREDENTIALS = "gnpy:gnpy";
+    /* timeout of the calls and of the probes, in milliseconds. */
+    public static final long DEFAULT_TIMEOUT = 30000;
+    /* maximum number of calls in flight. */
+    public static final int DEFAULT_CONCURRENCY = 4;
+    /* period of the health probe, in milliseconds. */
+    public static final long DEFAULT_PROBE_PERIOD = 10000;
+    /* time before a trial call once the circuit is open, in milliseconds. */
+    public static final long DEFAULT_COOL_DOWN = 30000;
+    /* number of consecutive failed calls opening the circuit. */
+    static final int FAILURE_THRESHOLD = 3;
+    public static final String OBJECT_NAME = "org.opendaylight.transportpce:type=GnpyClient";
+
+    /* State of the circuit breaker. */
+    public enum State {
+        UNKNOWN,
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final URI uri;
+    private final String authorization;
+    private final Duration timeout;
+    private final int maxConcurrency;
+    private final long probePeriod;
+    private final long coolDown;
+    private final Queue<Call> pending = new ArrayDeque<>();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final PceLatencyHistogram latency = new PceLatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejectedCalls = new LongAdder();
+    private volatile State state = State.UNKNOWN;
+    /* System.nanoTime() after which a trial is allowed, while the circuit is open or half-open. */
+    private volatile long trialTime;
+    private volatile HttpClient httpClient;
+    private ExecutorService httpExecutor;
+    private ScheduledExecutorService probeExecutor;
+    private ObjectName objectName;
+    private int inFlight;
+
+    GnpyClient(URI uri, String credentials, long timeout, int maxConcurrency, long probePeriod) {
+        this(uri, credentials, timeout, maxConcurrency, probePeriod, DEFAULT_COOL_DOWN);
+    }
+
+    /**
+     * Create the client.
+     *
+     * @param uri the URI of the GNPy server
+     * @param credentials the user and password of the GNPy server, as user:password
+     * @param timeout the timeout of the calls and of the probes, in milliseconds
+     * @param maxConcurrency the maximum number of calls in flight
+     * @param probePeriod the period of the health probe, in milliseconds, 0 to disable it
+     * @param coolDown the time before a trial call once the circuit is open, in milliseconds
+     */
+    public GnpyClient(URI uri, String credentials, long timeout, int maxConcurrency, long probePeriod,
+            long coolDown) {
+        this.uri = uri;
+        this.authorization = "Basic "
+            + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        this.timeout = Duration.ofMillis(timeout);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.probePeriod = probePeriod;
+        this.coolDown = TimeUnit.MILLISECONDS.toNanos(coolDown);
+    }
+
+    /**
+     * Create the HTTP client, start the health probe and register the client in JMX.
+     */
+    public synchronized void init() {
+        if (httpClient != null) {
+            return;
+        }
+        httpExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("gnpy-client-%d").setDaemon(true).build());
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(timeout)
+            .executor(httpExecutor).build();
+        if (probePeriod > 0) {
+            probeExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("gnpy-probe-%d").setDaemon(true).build());
+            probeExecutor.scheduleWithFixedDelay(this::probe, 0, probePeriod, TimeUnit.MILLISECONDS);
+        }
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (InstanceAlreadyExistsException e) {
+            LOG.warn("GnpyClient: {} already registered", OBJECT_NAME);
+        } catch (JMException e) {
+            LOG.warn("GnpyClient: registration of {} failed", OBJECT_NAME, e);
+        }
+        LOG.info("GnpyClient: started for {}", uri);
+    }
+
+    public synchronized void close() {
+        if (httpClient == null) {
+            return;
+        }
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+            probeExecutor = null;
+        }
+        httpClient = null;
+        httpExecutor.shutdownNow();
+        httpExecutor = null;
+        state = State.UNKNOWN;
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.warn("GnpyClient: unregistration of {} failed", objectName, e);
+            }
+            objectName = null;
+        }
+        LOG.info("GnpyClient: closed");
+    }
+
+    /**
+     * Whether the GNPy server is used, according to the latest probe and calls.
+     *
+     * @return true if the circuit is closed or not known yet, or for the trial once the cool-down is over
+     */
+    public boolean isAvailable() {
+        if (httpClient == null) {
+            return false;
+        }
+        switch (state) {
+            case CLOSED:
+            case UNKNOWN:
+                return true;
+            default:
+                return startTrial();
+        }
+    }
+
+    private synchronized boolean startTrial() {
+        if (state == State.CLOSED || state == State.UNKNOWN) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - trialTime < 0) {
+            return false;
+        }
+        // a trial not concluded by a call, the computation not calling GNPy, is given up after a cool-down
+        trialTime = now + coolDown;
+        state = State.HALF_OPEN;
+        LOG.info("GnpyClient: trial of GNPy server {}", uri);
+        return true;
+    }
+
+    private synchronized void open() {
+        trialTime = System.nanoTime() + coolDown;
+        state = State.OPEN;
+    }
+
+    public State getCircuitState() {
+        return state;
+    }
+
+    /**
+     * Send a request to the GNPy server and wait for its result.
+     *
+     * @param json the GNPy API request
+     * @return the GNPy result
+     * @throws GnpyException if the server is unavailable or does not return a result
+     */
+    public String send(String json) throws GnpyException {
+        try {
+            return sendAsync(json).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GnpyException("In GnpyClient: interrupted while waiting for GNPy", e);
+        } catch (ExecutionException e) {
+            throw toGnpyException(e);
+        }
+    }
+
+    private static GnpyException toGnpyException(ExecutionException exception) {
+        Throwable cause = exception.getCause();
+        return cause instanceof GnpyException ? (GnpyException) cause
+            : new GnpyException("In GnpyClient: exception", cause);
+    }
+
+    /**
+     * Send a request to the GNPy server.
+     *
+     * @param json the GNPy API request
+     * @return the future GNPy result, failed with a {@link GnpyException}
+     */
+    public CompletableFuture<String> sendAsync(String json) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        if (httpClient == null) {
+            result.completeExceptionally(new GnpyException("In GnpyClient: the client is not started"));
+            return result;
+        }
+        synchronized (pending) {
+            pending.add(new Call(json, result));
+        }
+        drain();
+        return result;
+    }
+
+    /*
+     * Start the pending calls while fewer than the maximum are in flight. A single thread drains the queue at
+     * once, in a loop, so that calls failing at once, as when the circuit is open, never nest.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            for (Call call = nextCall(); call != null; call = nextCall()) {
+                post(call.json, call.result);
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private Call nextCall() {
+        synchronized (pending) {
+            if (inFlight >= maxConcurrency || pending.isEmpty()) {
+                return null;
+            }
+            inFlight++;
+            return pending.poll();
+        }
+    }
+
+    private void callDone() {
+        synchronized (pending) {
+            inFlight--;
+        }
+    }
+
+    private void post(String json, CompletableFuture<String> result) {
+        HttpClient client = httpClient;
+        if (client == null || state == State.OPEN) {
+            rejectedCalls.increment();
+            callDone();
+            result.completeExceptionally(new GnpyException(client == null ? "In GnpyClient: the client is closed"
+                : "In GnpyClient: the GNPy server is unavailable"));
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout)
+            .header("Authorization", authorization)
+            .header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+            .build();
+        long start = System.nanoTime();
+        client.sendAsync(request, BodyHandlers.ofString(StandardCharsets.UTF_8)).whenComplete((httpResponse, error) -> {
+            latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            calls.increment();
+            GnpyException exception = null;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                if (cause instanceof HttpTimeoutException) {
+                    timeouts.increment();
+                }
+                recordFailure();
+                exception = new GnpyException("In GnpyClient: could not connect to GNPy", cause);
+            } else if (httpResponse.statusCode() / 100 == 2) {
+                consecutiveFailures.set(0);
+                state = State.CLOSED;
+            } else {
+                if (httpResponse.statusCode() >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                    recordFailure();
+                }
+                exception = new GnpyException(String.format(
+                    "In GnpyClient: could not connect to GNPy - response code: %s", httpResponse.statusCode()));
+            }
+            // the queued calls are started once the circuit is updated
+            callDone();
+            drain();
+            if (exception == null) {
+                result.complete(httpResponse.body());
+            } else {
+                result.completeExceptionally(exception);
+            }
+        });
+    }
+
+    private void recordFailure() {
+        failures.increment();
+        if (state == State.HALF_OPEN) {
+            open();
+            LOG.warn("GnpyClient: GNPy server {} still unavailable after a trial call", uri);
+        } else if (consecutiveFailures.incrementAndGet() >= FAILURE_THRESHOLD && state != State.OPEN) {
+            open();
+            LOG.warn("GnpyClient: GNPy server {} unavailable after {} failed calls", uri, FAILURE_THRESHOLD);
+        }
+    }
+
+    /**
+     * Check the GNPy server with a HEAD request and update the circuit accordingly.
+     *
+     * @return true if the server answered
+     */
+    boolean probe() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            return false;
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout)
+            .header("Authorization", authorization)
+            .method("HEAD", BodyPublishers.noBody())
+            .build();
+        boolean available;
+        try {
+            available = client.send(request, BodyHandlers.discarding()).statusCode() == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            LOG.debug("GnpyClient: probe of {} failed: {}", uri, e.getMessage());
+            available = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        State previous = state;
+        if (available) {
+            consecutiveFailures.set(0);
+            state = State.CLOSED;
+        } else {
+            open();
+        }
+        if (previous != state) {
+            LOG.info("GnpyClient: GNPy server {} {}", uri, available ? "available" : "unavailable");
+        }
+        return available;
+    }
+
+    public PceLatencyHistogram getLatencyHistogram() {
+        return latency;
+    }
+
+    @Override
+    public String getUrl() {
+        return uri.toString();
+    }
+
+    @Override
+    public String getState() {
+        return state.name();
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    @Override
+    public String getLatency() {
+        return latency.toString();
+    }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        calls.reset();
+        failures.reset();
+        timeouts.reset();
+        rejectedCalls.reset();
+    }
+
+    private static final class Call {
+
+        private final String json;
+        private final CompletableFuture<String> result;
+
+        Call(String json, CompletableFuture<String> result) {
+            this.json = json;
+            this.result = result;
+        }
+    }
+}
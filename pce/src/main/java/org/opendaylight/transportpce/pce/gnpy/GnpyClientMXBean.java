@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+/**
+ * JMX view of the GNPy client.
+ */
+public interface GnpyClientMXBean {
+
+    String getUrl();
+
+    /**
+     * State of the circuit breaker protecting the GNPy server.
+     *
+     * @return UNKNOWN before the first probe, CLOSED when the server is used, OPEN otherwise
+     */
+    String getState();
+
+    long getCalls();
+
+    long getFailures();
+
+    long getTimeouts();
+
+    long getRejectedCalls();
+
+    /**
+     * Latency statistics of the calls to the GNPy server, in microseconds.
+     *
+     * @return the statistics
+     */
+    String getLatency();
+
+    void reset();
+}
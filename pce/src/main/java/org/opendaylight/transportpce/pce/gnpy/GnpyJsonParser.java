@@ -0,0 +1,385 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.OSNR01nm;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.OSNRBandwidth;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.PathBandwidth;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.PathMetricType;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.ReferencePower;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.Result;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.ResultBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.SNR01nm;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.SNRBandwidth;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.TeHopType;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.Type;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.HopAttributeBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.LabelBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.NumUnnumHopBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.label.LabelHopBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.PathProperties;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.PathPropertiesBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.path.properties.PathMetric;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.path.properties.PathMetricBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.path.properties.PathRouteObjects;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.path.properties.PathRouteObjectsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.path.properties.path.route.objects.PathRouteObjectBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.PowBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.RegenBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.TspBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.pow.OpticalPowerBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.regen.RegeneratorBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.tsp.TransponderBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.no.path.info.NoPathBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.Response;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.ResponseBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.response.response.type.NoPathCaseBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.response.response.type.PathCaseBuilder;
+import org.opendaylight.yangtools.yang.common.Uint32;
+
+/**
+ * Streaming JSON parser of the GNPy path computation results.
+ *
+ * <p>
+ * The response is read straight into the binding objects of the result container, without
+ * building a schema context. Member names are accepted with or without their module prefix and
+ * the members unknown to the model are skipped.
+ */
+public final class GnpyJsonParser {
+
+    private static final Map<String, Class<? extends PathMetricType>> METRIC_TYPES = Map.of(
+        SNRBandwidth.QNAME.getLocalName(), SNRBandwidth.class,
+        OSNRBandwidth.QNAME.getLocalName(), OSNRBandwidth.class,
+        SNR01nm.QNAME.getLocalName(), SNR01nm.class,
+        OSNR01nm.QNAME.getLocalName(), OSNR01nm.class,
+        ReferencePower.QNAME.getLocalName(), ReferencePower.class,
+        PathBandwidth.QNAME.getLocalName(), PathBandwidth.class);
+
+    private final JsonReader reader;
+
+    private GnpyJsonParser(Reader in) {
+        this.reader = new JsonReader(in);
+    }
+
+    /**
+     * Parse the result of a GNPy path computation.
+     *
+     * @param in the JSON body of the response
+     * @return the result
+     * @throws GnpyException if the body is not a valid result
+     */
+    public static Result parseResult(Reader in) throws GnpyException {
+        GnpyJsonParser parser = new GnpyJsonParser(in);
+        Result result = null;
+        try {
+            parser.reader.beginObject();
+            while (parser.reader.hasNext()) {
+                if ("result".equals(parser.nextName())) {
+                    result = parser.readResult();
+                } else {
+                    parser.reader.skipValue();
+                }
+            }
+            parser.reader.endObject();
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            throw new GnpyException("In GnpyJsonParser: exception during json parsing", e);
+        }
+        if (result == null) {
+            throw new GnpyException("In GnpyJsonParser: no result in the GNPy response");
+        }
+        return result;
+    }
+
+    private Result readResult() throws IOException, GnpyException {
+        List<Response> responses = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("response".equals(nextName()) && !skipNull()) {
+                responses = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    responses.add(readResponse());
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new ResultBuilder().setResponse(responses).build();
+    }
+
+    private Response readResponse() throws IOException, GnpyException {
+        ResponseBuilder response = new ResponseBuilder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = nextName();
+            if (skipNull()) {
+                continue;
+            }
+            switch (name) {
+                case "response-id":
+                    response.setResponseId(Uint32.valueOf(reader.nextLong()));
+                    break;
+                case "no-path":
+                    response.setResponseType(new NoPathCaseBuilder().setNoPath(readNoPath()).build());
+                    break;
+                case "path-properties":
+                    response.setResponseType(new PathCaseBuilder().setPathProperties(readPathProperties()).build());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return response.build();
+    }
+
+    private org.opendaylight.yang.gen.v1.gnpy.path.rev200202.no.path.info.NoPath readNoPath()
+            throws IOException, GnpyException {
+        NoPathBuilder noPath = new NoPathBuilder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = nextName();
+            if (skipNull()) {
+                continue;
+            }
+            if ("no-path".equals(name)) {
+                noPath.setNoPath(reader.nextString());
+            } else if ("path-properties".equals(name)) {
+                noPath.setPathProperties(readPathProperties());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return noPath.build();
+    }
+
+    private PathProperties readPathProperties() throws IOException, GnpyException {
+        List<PathMetric> pathMetrics = null;
+        List<PathRouteObjects> pathRouteObjects = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = nextName();
+            if (skipNull()) {
+                continue;
+            }
+            if ("path-metric".equals(name)) {
+                pathMetrics = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    pathMetrics.add(readPathMetric());
+                }
+                reader.endArray();
+            } else if ("path-route-objects".equals(name)) {
+                pathRouteObjects = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    pathRouteObjects.add(readPathRouteObjects());
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new PathPropertiesBuilder().setPathMetric(pathMetrics).setPathRouteObjects(pathRouteObjects).build();
+    }
+
+    private PathMetric readPathMetric() throws IOException, GnpyException {
+        PathMetricBuilder pathMetric = new PathMetricBuilder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = nextName();
+            if (skipNull()) {
+                continue;
+            }
+            if ("metric-type".equals(name)) {
+                String metricType = localName(reader.nextString());
+                if (!METRIC_TYPES.containsKey(metricType)) {
+                    throw new GnpyException(String.format("In GnpyJsonParser: unknown metric type %s", metricType));
+                }
+                pathMetric.setMetricType(METRIC_TYPES.get(metricType));
+            } else if ("accumulative-value".equals(name)) {
+                pathMetric.setAccumulativeValue(new BigDecimal(reader.nextString()));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return pathMetric.build();
+    }
+
+    private PathRouteObjects readPathRouteObjects() throws IOException, GnpyException {
+        PathRouteObjectsBuilder pathRouteObjects = new PathRouteObjectsBuilder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("path-route-object".equals(nextName()) && !skipNull()) {
+                pathRouteObjects.setPathRouteObject(readPathRouteObject());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return pathRouteObjects.build();
+    }
+
+    private org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.path.properties.path.route
+            .objects.PathRouteObject readPathRouteObject() throws IOException, GnpyException {
+        PathRouteObjectBuilder pathRouteObject = new PathRouteObjectBuilder();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = nextName();
+            if (skipNull()) {
+                continue;
+            }
+            if ("index".equals(name)) {
+                pathRouteObject.setIndex(Uint32.valueOf(reader.nextLong()));
+            } else {
+                Type type = readHopType(name);
+                if (type != null) {
+                    pathRouteObject.setType(type);
+                }
+            }
+        }
+        reader.endObject();
+        return pathRouteObject.build();
+    }
+
+    private Type readHopType(String name) throws IOException, GnpyException {
+        switch (name) {
+            case "num-unnum-hop":
+                return new NumUnnumHopBuilder().setNumUnnumHop(readNumUnnumHop()).build();
+            case "label-hop":
+                LabelHopBuilder labelHop = new LabelHopBuilder();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String member = nextName();
+                    if (skipNull()) {
+                        continue;
+                    }
+                    if ("N".equals(member)) {
+                        labelHop.setN(reader.nextInt());
+                    } else if ("M".equals(member)) {
+                        labelHop.setM(reader.nextInt());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return new LabelBuilder().setLabelHop(labelHop.build()).build();
+            case "transponder":
+                TransponderBuilder transponder = new TransponderBuilder();
+                readObject((member, value) -> {
+                    if ("transponder-type".equals(member)) {
+                        transponder.setTransponderType(value);
+                    } else if ("transponder-mode".equals(member)) {
+                        transponder.setTransponderMode(value);
+                    }
+                });
+                return new HopAttributeBuilder().setHopType(new TspBuilder().setTransponder(transponder.build())
+                    .build()).build();
+            case "regenerator":
+                RegeneratorBuilder regenerator = new RegeneratorBuilder();
+                readObject((member, value) -> {
+                    if ("regenerator-id".equals(member)) {
+                        regenerator.setRegeneratorId(value);
+                    } else if ("transponder-type".equals(member)) {
+                        regenerator.setTransponderType(value);
+                    } else if ("transponder-mode".equals(member)) {
+                        regenerator.setTransponderMode(value);
+                    }
+                });
+                return new HopAttributeBuilder().setHopType(new RegenBuilder().setRegenerator(regenerator.build())
+                    .build()).build();
+            case "optical-power":
+                OpticalPowerBuilder opticalPower = new OpticalPowerBuilder();
+                readObject((member, value) -> {
+                    if ("optical-power".equals(member)) {
+                        opticalPower.setOpticalPower(new BigDecimal(value));
+                    }
+                });
+                return new HopAttributeBuilder().setHopType(new PowBuilder().setOpticalPower(opticalPower.build())
+                    .build()).build();
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.num.unnum.hop.NumUnnumHop
+            readNumUnnumHop() throws IOException, GnpyException {
+        org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.num.unnum.hop.NumUnnumHopBuilder
+            numUnnumHop = new org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.num.unnum
+                .hop.NumUnnumHopBuilder();
+        List<String> hopTypes = new ArrayList<>();
+        readObject((member, value) -> {
+            if ("node-id".equals(member)) {
+                numUnnumHop.setNodeId(value);
+            } else if ("link-tp-id".equals(member)) {
+                numUnnumHop.setLinkTpId(value);
+            } else if ("hop-type".equals(member)) {
+                hopTypes.add(value);
+            }
+        });
+        for (String hopType : hopTypes) {
+            numUnnumHop.setHopType(TeHopType.forName(hopType).orElseThrow(() -> new GnpyException(
+                String.format("In GnpyJsonParser: unknown hop type %s", hopType))));
+        }
+        return numUnnumHop.build();
+    }
+
+    // Read an object of string or number leaves
+    private void readObject(LeafConsumer consumer) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = nextName();
+            if (skipNull()) {
+                continue;
+            }
+            JsonToken token = reader.peek();
+            if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                consumer.accept(name, reader.nextString());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private String nextName() throws IOException {
+        return localName(reader.nextName());
+    }
+
+    private boolean skipNull() throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static String localName(String name) {
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    @FunctionalInterface
+    private interface LeafConsumer {
+        void accept(String name, String value);
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.opendaylight.mdsal.binding.spec.reflect.BindingReflections;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.GnpyApi;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.gnpy.api.ServiceFile;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.gnpy.api.TopologyFile;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.edfa.params.Operational;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.ElementType;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.Edfa;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.FiberRoadm;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.Fiberroadm;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.Fiber;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.Roadm;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.location.attributes.Location;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Connections;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Elements;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.TePathDisjointness;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.Transponder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.common.constraints_config.TeBandwidth;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.Type;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.HopAttribute;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.Label;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.NumUnnumHop;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.gnpy.specific.parameters.EffectiveFreqSlot;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.HopType;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.Pow;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.Regen;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.Tsp;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.path.route.objects.explicit.route.objects.RouteObjectIncludeExclude;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.service.PathRequest;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.synchronization.info.Synchronization;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.synchronization.info.synchronization.Svec;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yangtools.yang.binding.BaseIdentity;
+import org.opendaylight.yangtools.yang.binding.Enumeration;
+
+/**
+ * Streaming JSON writer of the GNPy API requests.
+ *
+ * <p>
+ * The body is written directly from the binding objects in the layout the GNPy server expects,
+ * i.e. the JSON encoding of the gnpy-api container with unqualified identities, without going
+ * through the normalized nodes of the binding codec. Members are written in schema order and,
+ * like the codec does, containers and lists without any value are left out.
+ */
+public final class GnpyJsonWriter {
+
+    private final JsonWriter writer;
+    // containers and lists started but not written yet, because no value has been found in them so far
+    private final List<Scope> scopes = new ArrayList<>();
+
+    private GnpyJsonWriter(Writer out, String indent) {
+        this.writer = new JsonWriter(out);
+        this.writer.setIndent(indent);
+    }
+
+    /**
+     * Serialize a GNPy API request in compact form.
+     *
+     * @param gnpyApi the request
+     * @return the JSON body
+     * @throws GnpyException if the request cannot be serialized
+     */
+    public static String toJson(GnpyApi gnpyApi) throws GnpyException {
+        StringWriter out = new StringWriter();
+        write(gnpyApi, out, "");
+        return out.toString();
+    }
+
+    /**
+     * Serialize a GNPy API request.
+     *
+     * @param gnpyApi the request
+     * @param out the destination
+     * @param indent the indentation of the nested members, empty for a compact output
+     * @throws GnpyException if the request cannot be serialized
+     */
+    public static void write(GnpyApi gnpyApi, Writer out, String indent) throws GnpyException {
+        try {
+            GnpyJsonWriter jsonWriter = new GnpyJsonWriter(out, indent);
+            jsonWriter.writer.beginObject();
+            jsonWriter.writeGnpyApi(gnpyApi);
+            jsonWriter.writer.endObject();
+            jsonWriter.writer.flush();
+        } catch (IOException e) {
+            throw new GnpyException("In GnpyJsonWriter: exception during json serialization", e);
+        }
+    }
+
+    private void writeGnpyApi(GnpyApi gnpyApi) throws IOException {
+        beginObject("gnpy-api");
+        TopologyFile topologyFile = gnpyApi.getTopologyFile();
+        if (topologyFile != null) {
+            beginObject("topology-file");
+            if (topologyFile.getElements() != null) {
+                beginArray("elements");
+                for (Elements elements : topologyFile.getElements()) {
+                    writeElements(elements);
+                }
+                end();
+            }
+            if (topologyFile.getConnections() != null) {
+                beginArray("connections");
+                for (Connections connections : topologyFile.getConnections()) {
+                    beginObject(null);
+                    value("from_node", connections.getFromNode());
+                    value("to_node", connections.getToNode());
+                    end();
+                }
+                end();
+            }
+            end();
+        }
+        ServiceFile serviceFile = gnpyApi.getServiceFile();
+        if (serviceFile != null) {
+            beginObject("service-file");
+            if (serviceFile.getPathRequest() != null) {
+                beginArray("path-request");
+                for (PathRequest pathRequest : serviceFile.getPathRequest()) {
+                    writePathRequest(pathRequest);
+                }
+                end();
+            }
+            if (serviceFile.getSynchronization() != null) {
+                beginArray("synchronization");
+                for (Synchronization synchronization : serviceFile.getSynchronization()) {
+                    writeSynchronization(synchronization);
+                }
+                end();
+            }
+            end();
+        }
+        end();
+    }
+
+    private void writeElements(Elements elements) throws IOException {
+        beginObject(null);
+        value("uid", elements.getUid());
+        identity("type", elements.getType());
+        value("type_variety", elements.getTypeVariety());
+        if (elements.getMetadata() != null && elements.getMetadata().getLocation() != null) {
+            Location location = elements.getMetadata().getLocation();
+            beginObject("metadata");
+            beginObject("location");
+            value("city", location.getCity());
+            value("region", location.getRegion());
+            value("latitude", location.getLatitude() == null ? null : location.getLatitude().getValue());
+            value("longitude", location.getLongitude() == null ? null : location.getLongitude().getValue());
+            end();
+            end();
+        }
+        ElementType elementType = elements.getElementType();
+        if (elementType instanceof Edfa && ((Edfa) elementType).getOperational() != null) {
+            Operational operational = ((Edfa) elementType).getOperational();
+            beginObject("operational");
+            value("gain-target", operational.getGainTarget());
+            value("tilt-target", operational.getTiltTarget());
+            value("out-voa", operational.getOutVoa());
+            end();
+        } else if (elementType instanceof FiberRoadm && ((FiberRoadm) elementType).getParams() != null) {
+            Fiberroadm fiberroadm = ((FiberRoadm) elementType).getParams().getFiberroadm();
+            beginObject("params");
+            if (fiberroadm instanceof Fiber) {
+                Fiber fiber = (Fiber) fiberroadm;
+                value("length", fiber.getLength());
+                value("loss_coef", fiber.getLossCoef());
+                identity("length_units", fiber.getLengthUnits());
+                value("att_in", fiber.getAttIn());
+                value("con_in", fiber.getConIn());
+                value("con_out", fiber.getConOut());
+            } else if (fiberroadm instanceof Roadm) {
+                value("target_pch_out_db", ((Roadm) fiberroadm).getTargetPchOutDb());
+            }
+            end();
+        }
+        end();
+    }
+
+    private void writePathRequest(PathRequest pathRequest) throws IOException {
+        beginObject(null);
+        value("request-id", pathRequest.getRequestId());
+        value("bidirectional", pathRequest.isBidirectional());
+        value("source", address(pathRequest.getSource()));
+        value("destination", address(pathRequest.getDestination()));
+        value("src-tp-id", binary(pathRequest.getSrcTpId()));
+        value("dst-tp-id", binary(pathRequest.getDstTpId()));
+        if (pathRequest.getExplicitRouteObjects() != null
+                && pathRequest.getExplicitRouteObjects().getRouteObjectIncludeExclude() != null) {
+            beginObject("explicit-route-objects");
+            beginArray("route-object-include-exclude");
+            for (RouteObjectIncludeExclude routeObject
+                    : pathRequest.getExplicitRouteObjects().getRouteObjectIncludeExclude()) {
+                beginObject(null);
+                identity("explicit-route-usage", routeObject.getExplicitRouteUsage());
+                value("index", routeObject.getIndex());
+                writeHopType(routeObject.getType());
+                end();
+            }
+            end();
+            end();
+        }
+        if (pathRequest.getPathConstraints() != null && pathRequest.getPathConstraints().getTeBandwidth() != null) {
+            TeBandwidth teBandwidth = pathRequest.getPathConstraints().getTeBandwidth();
+            beginObject("path-constraints");
+            beginObject("te-bandwidth");
+            value("technology", teBandwidth.getTechnology());
+            value("trx_type", teBandwidth.getTrxType());
+            value("trx_mode", teBandwidth.getTrxMode());
+            if (teBandwidth.getEffectiveFreqSlot() != null) {
+                beginArray("effective-freq-slot");
+                for (EffectiveFreqSlot effectiveFreqSlot : teBandwidth.getEffectiveFreqSlot()) {
+                    beginObject(null);
+                    value("N", effectiveFreqSlot.getN());
+                    value("M", effectiveFreqSlot.getM());
+                    end();
+                }
+                end();
+            }
+            value("spacing", teBandwidth.getSpacing());
+            value("max-nb-of-channel", teBandwidth.getMaxNbOfChannel());
+            value("output-power", teBandwidth.getOutputPower());
+            value("path_bandwidth", teBandwidth.getPathBandwidth());
+            end();
+            end();
+        }
+        end();
+    }
+
+    private void writeHopType(Type type) throws IOException {
+        if (type instanceof NumUnnumHop) {
+            org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.num.unnum.hop.NumUnnumHop hop =
+                ((NumUnnumHop) type).getNumUnnumHop();
+            if (hop != null) {
+                beginObject("num-unnum-hop");
+                value("node-id", hop.getNodeId());
+                value("link-tp-id", hop.getLinkTpId());
+                enumeration("hop-type", hop.getHopType());
+                end();
+            }
+        } else if (type instanceof Label) {
+            if (((Label) type).getLabelHop() != null) {
+                beginObject("label-hop");
+                value("N", ((Label) type).getLabelHop().getN());
+                value("M", ((Label) type).getLabelHop().getM());
+                end();
+            }
+        } else if (type instanceof HopAttribute) {
+            HopType hopType = ((HopAttribute) type).getHopType();
+            if (hopType instanceof Tsp && ((Tsp) hopType).getTransponder() != null) {
+                beginObject("transponder");
+                writeTransponder(((Tsp) hopType).getTransponder());
+                end();
+            } else if (hopType instanceof Regen && ((Regen) hopType).getRegenerator() != null) {
+                beginObject("regenerator");
+                value("regenerator-id", ((Regen) hopType).getRegenerator().getRegeneratorId());
+                writeTransponder(((Regen) hopType).getRegenerator());
+                end();
+            } else if (hopType instanceof Pow && ((Pow) hopType).getOpticalPower() != null) {
+                beginObject("optical-power");
+                value("optical-power", ((Pow) hopType).getOpticalPower().getOpticalPower());
+                end();
+            }
+        }
+    }
+
+    private void writeTransponder(Transponder transponder) throws IOException {
+        value("transponder-type", transponder.getTransponderType());
+        value("transponder-mode", transponder.getTransponderMode());
+    }
+
+    private void writeSynchronization(Synchronization synchronization) throws IOException {
+        beginObject(null);
+        value("synchronization-id", synchronization.getSynchronizationId());
+        Svec svec = synchronization.getSvec();
+        if (svec != null) {
+            beginObject("svec");
+            value("relaxable", svec.isRelaxable());
+            value("disjointness", bits(svec.getDisjointness()));
+            if (svec.getRequestIdNumber() != null) {
+                beginArray("request-id-number");
+                for (Number requestIdNumber : svec.getRequestIdNumber()) {
+                    value(null, requestIdNumber);
+                }
+                end();
+            }
+            end();
+        }
+        end();
+    }
+
+    private void beginObject(String name) {
+        scopes.add(new Scope(name, false));
+    }
+
+    private void beginArray(String name) {
+        scopes.add(new Scope(name, true));
+    }
+
+    private void end() throws IOException {
+        Scope scope = scopes.remove(scopes.size() - 1);
+        if (scope.written) {
+            if (scope.array) {
+                writer.endArray();
+            } else {
+                writer.endObject();
+            }
+        }
+    }
+
+    private void value(String name, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        // the enclosing containers and lists now have some content
+        for (Scope scope : scopes) {
+            if (!scope.written) {
+                if (scope.name != null) {
+                    writer.name(scope.name);
+                }
+                if (scope.array) {
+                    writer.beginArray();
+                } else {
+                    writer.beginObject();
+                }
+                scope.written = true;
+            }
+        }
+        if (name != null) {
+            writer.name(name);
+        }
+        if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else {
+            writer.value(value.toString());
+        }
+    }
+
+    private void identity(String name, Class<? extends BaseIdentity> identity) throws IOException {
+        value(name, identity == null ? null : BindingReflections.findQName(identity).getLocalName());
+    }
+
+    private void enumeration(String name, Enumeration enumeration) throws IOException {
+        value(name, enumeration == null ? null : enumeration.getName());
+    }
+
+    private static String address(IpAddress address) {
+        return address == null ? null : address.stringValue();
+    }
+
+    private static String binary(byte[] binary) {
+        return binary == null ? null : Base64.getEncoder().encodeToString(binary);
+    }
+
+    private static String bits(TePathDisjointness disjointness) {
+        if (disjointness == null) {
+            return null;
+        }
+        List<String> bits = new ArrayList<>();
+        if (Boolean.TRUE.equals(disjointness.isNode())) {
+            bits.add("node");
+        }
+        if (Boolean.TRUE.equals(disjointness.isLink())) {
+            bits.add("link");
+        }
+        if (Boolean.TRUE.equals(disjointness.isSrlg())) {
+            bits.add("srlg");
+        }
+        return String.join(" ", bits);
+    }
+
+    private static final class Scope {
+        private final String name;
+        private final boolean array;
+        private boolean written;
+
+        Scope(String name, boolean array) {
+            this.name = name;
+            this.array = array;
+        }
+    }
+}
@@ -0,0 +1,732 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.DataObjectModification;
+import org.opendaylight.mdsal.binding.api.DataTreeChangeListener;
+import org.opendaylight.mdsal.binding.api.DataTreeIdentifier;
+import org.opendaylight.mdsal.binding.api.DataTreeModification;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.transportpce.common.NetworkUtils;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Coordinate;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Km;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.edfa.params.Operational;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.edfa.params.OperationalBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.Edfa;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.EdfaBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.FiberRoadmBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.Transceiver;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.TransceiverBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.Params;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.ParamsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.Fiber;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.FiberBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.Roadm;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.RoadmBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.location.attributes.Location;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.location.attributes.LocationBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Connections;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ConnectionsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Elements;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ElementsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.elements.Metadata;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.elements.MetadataBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.SpanAttributes;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.AmplifiedLink;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.amplified.link.section.element.section.element.Span;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.amplified.link.section.element.section.element.ila.Ila;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenation;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.OMSAttributes;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the GNPy topology of openroadm-topology and openroadm-network up to date by listening to the
+ * configuration datastore, so that the GNPy requests do not rebuild it. The elements and connections are
+ * extracted per node and per link, and only extracted again when the node or the link changes. The fibers and
+ * amplifiers of a link keep their identifiers as long as the link exists.
+ */
+public class GnpyTopologyCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GnpyTopologyCache.class);
+    //32-bit identifiers of the fibers (243.x.x.x) and of the edfas (244.x.x.x).
+    //They are imposed by the GNPy yang model to identify network elements and not used for any routing purposes.
+    private static final Ipv4Address FIRST_FIBER_ID = new Ipv4Address("243.0.0.1");
+    private static final Ipv4Address FIRST_EDFA_ID = new Ipv4Address("244.0.0.1");
+    private static final double LATITUDE = 0;
+    private static final double LONGITUTE = 0;
+    private static final String REGION = "N/A";
+    private static final String CITY = "N/A";
+    private static final int CONVERT_KM_M = 1000;
+    private static final double TARGET_PCH_OUT_DB = -20;
+    // 1:EXPRESS-LINK    2:ADD-LINK       3:DROP-LINK
+    // 4:ROADM-To-ROADM  5:XPONDER-INPUT  6:XPONDER-OUTPUT
+    private static final int[] EXTERNAL_LINKS = {OpenroadmLinkType.ROADMTOROADM.getIntValue(),
+        OpenroadmLinkType.XPONDERINPUT.getIntValue(), OpenroadmLinkType.XPONDEROUTPUT.getIntValue()};
+
+    private final DataBroker dataBroker;
+    private final List<ListenerRegistration<TopologyListener>> registrations = new ArrayList<>();
+    // openroadm-network node supporting each openroadm-topology node
+    private final Map<String, String> nodeRefs = new TreeMap<>();
+    // ROADM or transceiver element of each openroadm-network node
+    private final Map<String, NodeElement> nodeElements = new HashMap<>();
+    // elements and connections of each openroadm-topology link
+    private final Map<String, LinkElements> linkElements = new TreeMap<>();
+    private Ipv4Address nextFiberId = FIRST_FIBER_ID;
+    private Ipv4Address nextEdfaId = FIRST_EDFA_ID;
+    private long version;
+    private GnpyTopoImpl topology;
+
+    /**
+     * Create a cache fed by {@link #replace(String, Network)} and {@link #update} only.
+     */
+    public GnpyTopologyCache() {
+        this(null);
+    }
+
+    public GnpyTopologyCache(DataBroker dataBroker) {
+        this.dataBroker = dataBroker;
+    }
+
+    /*
+     * Method called when the blueprint container is created.
+     */
+    public void init() {
+        LOG.info("GnpyTopologyCache init ...");
+        register(NetworkUtils.OVERLAY_NETWORK_ID, InstanceIdentifiers.OVERLAY_NETWORK_II);
+        register(NetworkUtils.UNDERLAY_NETWORK_ID, InstanceIdentifiers.UNDERLAY_NETWORK_II);
+    }
+
+    /*
+     * Method called when the blueprint container is destroyed.
+     */
+    public void close() {
+        LOG.info("GnpyTopologyCache closed");
+        for (ListenerRegistration<TopologyListener> registration : registrations) {
+            registration.close();
+        }
+        registrations.clear();
+    }
+
+    private void register(String networkId, InstanceIdentifier<Network> networkIid) {
+        registrations.add(dataBroker.registerDataTreeChangeListener(
+            DataTreeIdentifier.create(LogicalDatastoreType.CONFIGURATION, networkIid),
+            new TopologyListener(networkId)));
+        LOG.info("GnpyTopologyCache: {} change listener was successfully registered", networkId);
+    }
+
+    /**
+     * Build the GNPy topology of openroadm-topology and openroadm-network without keeping it.
+     *
+     * @param openRoadmTopo openroadm-topology
+     * @param openRoadmNet openroadm-network
+     * @return the GNPy topology
+     * @throws GnpyException if the topology is not supported by GNPy
+     */
+    public static GnpyTopoImpl build(Network openRoadmTopo, Network openRoadmNet) throws GnpyException {
+        GnpyTopologyCache cache = new GnpyTopologyCache();
+        cache.replace(NetworkUtils.OVERLAY_NETWORK_ID, openRoadmTopo);
+        cache.replace(NetworkUtils.UNDERLAY_NETWORK_ID, openRoadmNet);
+        return cache.getTopology();
+    }
+
+    /**
+     * Get the GNPy topology of the latest openroadm-topology and openroadm-network. Its lists and maps are
+     * unmodifiable and shared between the requests.
+     *
+     * @return the topology
+     * @throws GnpyException if the topology is not supported by GNPy
+     */
+    public synchronized GnpyTopoImpl getTopology() throws GnpyException {
+        if (topology == null) {
+            topology = assemble();
+            LOG.debug("GnpyTopologyCache: version {} assembled with {} elements and {} connections", version,
+                topology.getElements().size(), topology.getConnections().size());
+        }
+        return topology;
+    }
+
+    /**
+     * Get a counter increased each time openroadm-topology or openroadm-network changes.
+     *
+     * @return the version of the cache
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Replace the content of a network.
+     *
+     * @param networkId openroadm-topology or openroadm-network
+     * @param network the network, null if deleted
+     */
+    public synchronized void replace(String networkId, Network network) {
+        List<NodeId> removedNodes = new ArrayList<>();
+        Set<String> previousNodes = NetworkUtils.OVERLAY_NETWORK_ID.equals(networkId) ? nodeRefs.keySet()
+            : nodeElements.keySet();
+        previousNodes.forEach(nodeId -> removedNodes.add(new NodeId(nodeId)));
+        List<LinkId> removedLinks = linkElements.keySet().stream().map(LinkId::new).collect(Collectors.toList());
+        List<Node> nodes = new ArrayList<>();
+        List<Link> links = new ArrayList<>();
+        if (network != null) {
+            if (network.getNode() != null) {
+                nodes.addAll(network.getNode());
+            }
+            Network1 nw1 = network.augmentation(Network1.class);
+            if (nw1 != null && nw1.getLink() != null) {
+                links.addAll(nw1.getLink());
+            }
+        }
+        update(networkId, nodes, removedNodes, links,
+            NetworkUtils.OVERLAY_NETWORK_ID.equals(networkId) ? removedLinks : Collections.emptyList());
+    }
+
+    /**
+     * Apply the modifications of a network. Only the modified nodes and links are extracted again.
+     *
+     * @param networkId openroadm-topology or openroadm-network
+     * @param updatedNodes nodes created or modified
+     * @param removedNodes ids of deleted nodes
+     * @param updatedLinks links created or modified
+     * @param removedLinks ids of deleted links
+     */
+    public synchronized void update(String networkId, Collection<Node> updatedNodes, Collection<NodeId> removedNodes,
+            Collection<Link> updatedLinks, Collection<LinkId> removedLinks) {
+        Set<String> updatedNodeIds = updatedNodes.stream().map(node -> node.getNodeId().getValue())
+            .collect(Collectors.toSet());
+        if (NetworkUtils.OVERLAY_NETWORK_ID.equals(networkId)) {
+            removedNodes.stream().map(NodeId::getValue).filter(nodeId -> !updatedNodeIds.contains(nodeId))
+                .forEach(nodeRefs::remove);
+            for (Node node : updatedNodes) {
+                String nodeRef = getNodeRef(node);
+                if (nodeRef == null) {
+                    nodeRefs.remove(node.getNodeId().getValue());
+                } else {
+                    nodeRefs.put(node.getNodeId().getValue(), nodeRef);
+                }
+            }
+            Set<String> updatedLinkIds = updatedLinks.stream().map(link -> link.getLinkId().getValue())
+                .collect(Collectors.toSet());
+            removedLinks.stream().map(LinkId::getValue).filter(linkId -> !updatedLinkIds.contains(linkId))
+                .forEach(linkElements::remove);
+            for (Link link : updatedLinks) {
+                String linkId = link.getLinkId().getValue();
+                linkElements.put(linkId, extractLink(link, linkElements.get(linkId)));
+            }
+        } else if (NetworkUtils.UNDERLAY_NETWORK_ID.equals(networkId)) {
+            removedNodes.stream().map(NodeId::getValue).filter(nodeId -> !updatedNodeIds.contains(nodeId))
+                .forEach(nodeElements::remove);
+            for (Node node : updatedNodes) {
+                nodeElements.put(node.getNodeId().getValue(), extractNode(node));
+            }
+        } else {
+            return;
+        }
+        version++;
+        topology = null;
+    }
+
+    private static String getNodeRef(Node openRoadmTopoNode) {
+        String nodeRef = null;
+        if (openRoadmTopoNode.getSupportingNode() == null) {
+            return null;
+        }
+        for (SupportingNode supportingNode : openRoadmTopoNode.getSupportingNode()) {
+            if (NetworkUtils.UNDERLAY_NETWORK_ID.equals(supportingNode.getNetworkRef().getValue())) {
+                nodeRef = supportingNode.getNodeRef().getValue();
+            }
+        }
+        return nodeRef;
+    }
+
+    private GnpyTopoImpl assemble() throws GnpyException {
+        if (nodeRefs.isEmpty() || nodeElements.isEmpty()) {
+            throw new GnpyException("In gnpyTopoImpl: no nodes in the openradm topology or openroadm network");
+        }
+        List<Elements> elements = new ArrayList<>();
+        Map<String, String> mapDisgNodeRefNode = new HashMap<>();
+        Map<String, IpAddress> mapNodeRefIp = new HashMap<>();
+        List<String> trxList = new ArrayList<>();
+        Set<String> nodesList = new HashSet<>();
+        for (Map.Entry<String, String> nodeRef : nodeRefs.entrySet()) {
+            mapDisgNodeRefNode.put(nodeRef.getKey(), nodeRef.getValue());
+            NodeElement node = nodeElements.get(nodeRef.getValue());
+            if (node == null) {
+                throw new GnpyException(String.format("In gnpyTopoImpl: the node type of %s is null",
+                    nodeRef.getValue()));
+            }
+            if (node.error != null) {
+                throw node.error;
+            }
+            mapNodeRefIp.put(nodeRef.getValue(), node.ipAddress);
+            if (nodesList.add(nodeRef.getValue())) {
+                elements.add(node.element);
+                if (node.transceiver) {
+                    trxList.add(nodeRef.getValue());
+                }
+            }
+        }
+
+        if (linkElements.isEmpty()) {
+            throw new GnpyException("In gnpyTopoImpl: no links in the network");
+        }
+        List<Connections> connections = new ArrayList<>();
+        Map<String, List<String>> mapLinkFiber = new HashMap<>();
+        Map<String, IpAddress> mapFiberIp = new HashMap<>();
+        for (Map.Entry<String, LinkElements> entry : linkElements.entrySet()) {
+            LinkElements link = entry.getValue();
+            if (link.error != null) {
+                throw link.error;
+            }
+            if (!link.external) {
+                continue;
+            }
+            elements.addAll(link.elements);
+            for (Map.Entry<String, IpAddress> edfa : link.edfaIps.entrySet()) {
+                mapDisgNodeRefNode.put(edfa.getKey(), edfa.getKey());
+                mapNodeRefIp.put(edfa.getKey(), edfa.getValue());
+            }
+            if (!link.subLinks.isEmpty()) {
+                mapLinkFiber.put(entry.getKey(), Collections.unmodifiableList(link.subLinks));
+                mapFiberIp.putAll(link.fiberIps);
+            }
+            IpAddress srcIp = mapNodeRefIp.get(mapDisgNodeRefNode.get(link.srcNodeId));
+            for (IpAddress destIp : link.hops) {
+                if (createNewConnection(connections, srcIp, destIp)) {
+                    srcIp = destIp;
+                }
+            }
+            createNewConnection(connections, srcIp, mapNodeRefIp.get(mapDisgNodeRefNode.get(link.destNodeId)));
+        }
+        return new GnpyTopoImpl(Collections.unmodifiableList(elements), Collections.unmodifiableList(connections),
+            Collections.unmodifiableMap(mapDisgNodeRefNode), Collections.unmodifiableMap(mapNodeRefIp),
+            Collections.unmodifiableMap(mapLinkFiber), Collections.unmodifiableMap(mapFiberIp),
+            Collections.unmodifiableList(trxList));
+    }
+
+    private static NodeElement extractNode(Node openRoadmNetNode) {
+        String nodeRef = openRoadmNetNode.getNodeId().getValue();
+        try {
+            Node1 openRoadmNetNode1 = openRoadmNetNode.augmentation(Node1.class);
+            org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130
+                .Node1 commonNetworkNode1 = openRoadmNetNode.augmentation(org.opendaylight.yang.gen.v1
+                .http.org.openroadm.common.network.rev181130.Node1.class);
+            IpAddress ipAddress = openRoadmNetNode1.getIp();
+            if (ipAddress == null) {
+                throw new GnpyException(String.format("In gnpyTopoImpl: ipAddress of node %s is null", nodeRef));
+            }
+            if (commonNetworkNode1 == null) {
+                throw new GnpyException(String.format("In gnpyTopoImpl: the node type of %s is null", nodeRef));
+            }
+            if (commonNetworkNode1.getNodeType().getName().equals("ROADM")) {
+                return new NodeElement(ipAddress, createElementsRoadm(LATITUDE, LONGITUTE, nodeRef,
+                    openRoadmNetNode1.getShelf(), TARGET_PCH_OUT_DB, ipAddress.getIpv4Address().getValue()), false);
+            } else if (commonNetworkNode1.getNodeType().getName().equals("XPONDER")) {
+                return new NodeElement(ipAddress, createElementsTransceiver(LATITUDE, LONGITUTE, nodeRef,
+                    openRoadmNetNode1.getShelf(), ipAddress.getIpv4Address().getValue()), true);
+            } else {
+                throw new GnpyException("In gnpyTopoImpl: the type is not implemented");
+            }
+        } catch (GnpyException e) {
+            return new NodeElement(e);
+        } catch (NullPointerException e) {
+            return new NodeElement(new GnpyException("In GnpyTopoImpl: one of the elements is null", e));
+        }
+    }
+
+    private LinkElements extractLink(Link link, LinkElements previous) {
+        LinkElements linkElts = new LinkElements();
+        String linkId = link.getLinkId().getValue();
+        try {
+            Link1 link1 = link.augmentation(Link1.class);
+            if (link1.getLinkType() == null) {
+                throw new GnpyException("In gnpyTopoImpl: the link type is null");
+            }
+            int linkType = link1.getLinkType().getIntValue();
+            if (!IntStream.of(EXTERNAL_LINKS).anyMatch(x -> x == linkType)) {
+                return linkElts;
+            }
+            linkElts.external = true;
+            linkElts.srcNodeId = link.getSource().getSourceNode().getValue();
+            linkElts.destNodeId = link.getDestination().getDestNode().getValue();
+            if (linkType == OpenroadmLinkType.ROADMTOROADM.getIntValue()) {
+                OMSAttributes omsAttributes = link.augmentation(org.opendaylight.yang.gen.v1.http.org.openroadm
+                    .network.topology.rev181130.Link1.class).getOMSAttributes();
+                if (omsAttributes == null) {
+                    throw new GnpyException(String.format(
+                        "In gnpyTopoImpl: OMS attributes do not exit for ROADM to ROADM link: %s",linkId));
+                }
+                //Case of amplified link
+                if (omsAttributes.getAmplifiedLink() != null) {
+                    extractAmplifiedLink(linkElts, omsAttributes, linkId, previous);
+                }
+                //Case of one span link
+                if (omsAttributes.getSpan() != null) {
+                    linkElts.hops.add(extractSpan(linkElts, omsAttributes.getSpan(), linkId, linkId, previous));
+                }
+            }
+        } catch (GnpyException e) {
+            linkElts.error = e;
+        } catch (NullPointerException e) {
+            linkElts.error = new GnpyException("In GnpyTopoImpl: one of the elements is null", e);
+        }
+        return linkElts;
+    }
+
+    private void extractAmplifiedLink(LinkElements linkElts, OMSAttributes omsAttributes, String linkId,
+            LinkElements previous) throws GnpyException {
+        List<AmplifiedLink> amplifiedLinkList = omsAttributes.getAmplifiedLink().getAmplifiedLink();
+        IpAddress destIp = null;
+        for (AmplifiedLink amplifiedLink : amplifiedLinkList) {
+            String secElt = amplifiedLink.getSectionEltNumber().toString();
+            //Case of ILA
+            if (amplifiedLink.getSectionElement().getSectionElement() instanceof org.opendaylight.yang.gen.v1.http
+                    .org.openroadm.link.rev181130.amplified.link.attributes.amplified.link.section.element
+                    .section.element.Ila) {
+                Ila ila = ((org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes
+                    .amplified.link.section.element.section.element.Ila) amplifiedLink.getSectionElement()
+                    .getSectionElement()).getIla();
+                destIp = extractILAFromAmpLink(linkElts, ila, previous);
+            }
+            //Case of Span
+            if (amplifiedLink.getSectionElement().getSectionElement() instanceof Span) {
+                Span span = (Span) amplifiedLink.getSectionElement().getSectionElement();
+                destIp = extractSpan(linkElts, span.getSpan(), linkId, secElt, previous);
+            }
+            linkElts.hops.add(destIp);
+        }
+    }
+
+    private IpAddress extractILAFromAmpLink(LinkElements linkElts, Ila ila, LinkElements previous)
+            throws GnpyException {
+        String nodeId = ila.getNodeId().getValue();
+        IpAddress ipEdfa = new IpAddress(allocate(linkElts.edfaIds, previous == null ? null : previous.edfaIds,
+            false));
+        linkElts.edfaIps.put(nodeId, ipEdfa);
+        linkElts.elements.add(createElementsEdfa(LATITUDE, LONGITUTE, REGION, CITY,
+                ila.getGain().getValue(), ila.getTilt().getValue(),
+                ila.getOutVoaAtt().getValue(), "std_medium_gain",
+                ipEdfa.getIpv4Address().getValue()));
+        return ipEdfa;
+    }
+
+    private IpAddress extractSpan(LinkElements linkElts, SpanAttributes span, String linkId, String subLinkId,
+            LinkElements previous) throws GnpyException {
+        IpAddress ipFiber = new IpAddress(allocate(linkElts.fiberIds, previous == null ? null : previous.fiberIds,
+            true));
+        linkElts.subLinks.add(subLinkId);
+        linkElts.fiberIps.put(subLinkId, ipFiber);
+        double attIn = 0;
+        double connIn = 0;
+        double connOut = 0;
+        String typeVariety = "SSMF";
+        double length = 0;
+        // Compute the length of the link
+        List<LinkConcatenation> linkConcatenationList = span.getLinkConcatenation();
+        for (LinkConcatenation linkConcatenation : linkConcatenationList) {
+            double srlgLength = linkConcatenation.getSRLGLength().toJava();
+            //convert to kilometer
+            length += srlgLength / CONVERT_KM_M;
+        }
+        if (length == 0) {
+            throw new GnpyException(String.format(
+                "In gnpyTopoImpl: length of the link %s is equal to zero",linkId));
+        }
+        double lossCoef = span.getSpanlossCurrent().getValue().doubleValue() / length;
+        linkElts.elements.add(createElementsFiber(LATITUDE, LONGITUTE, REGION, CITY,
+            ipFiber.getIpv4Address().getValue(), length, attIn, lossCoef, connIn, connOut, typeVariety));
+        return ipFiber;
+    }
+
+    /*
+     * Reuse the identifier of the same fiber or edfa of the previous version of the link, if any.
+     */
+    private Ipv4Address allocate(List<Ipv4Address> ids, List<Ipv4Address> previousIds, boolean fiber)
+            throws GnpyException {
+        Ipv4Address id;
+        if (previousIds != null && ids.size() < previousIds.size()) {
+            id = previousIds.get(ids.size());
+        } else if (fiber) {
+            id = nextFiberId;
+            nextFiberId = incrementIdentifier(nextFiberId);
+        } else {
+            id = nextEdfaId;
+            nextEdfaId = incrementIdentifier(nextEdfaId);
+        }
+        ids.add(id);
+        return id;
+    }
+
+    /*
+     * Method to create Fiber
+     */
+    private static Elements createElementsFiber(double latitude, double longitude, String region, String city,
+            String uidFiber, double length, double attIn, double lossCoef, double connIn, double connOut,
+            String typeVariety) {
+        // Create an amplifier after the ROADM
+        Coordinate c1 = new Coordinate(BigDecimal.valueOf(latitude));
+        Coordinate c2 = new Coordinate(BigDecimal.valueOf(longitude));
+        Location location1 = new LocationBuilder().setRegion(region).setCity(city).setLatitude(c1).setLongitude(c2)
+                .build();
+        Metadata metadata1 = new MetadataBuilder().setLocation(location1).build();
+        Fiber fiber = new FiberBuilder().setLength(BigDecimal.valueOf(length)).setLengthUnits(Km.class)
+                .setAttIn(BigDecimal.valueOf(attIn)).setLossCoef(BigDecimal.valueOf(lossCoef))
+                .setConIn(BigDecimal.valueOf(connIn))
+                .setConOut(BigDecimal.valueOf(connOut)).build();
+        Params params1 = new ParamsBuilder().setFiberroadm(fiber).build();
+        return new ElementsBuilder().setUid(uidFiber)
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Fiber.class)
+                .setTypeVariety(typeVariety).setMetadata(metadata1)
+                .setElementType(new FiberRoadmBuilder().setParams(params1).build()).build();
+    }
+
+    /*
+     * Method to create EDFA
+     */
+    private static Elements createElementsEdfa(double latitude, double longitude, String region, String city,
+            BigDecimal gainTarget, BigDecimal tiltTarget, BigDecimal outVoa, String typeVariety, String uidEdfa) {
+        // Create an amplifier after the ROADM
+        Coordinate c1 = new Coordinate(BigDecimal.valueOf(latitude));
+        Coordinate c2 = new Coordinate(BigDecimal.valueOf(longitude));
+        Location location1 = new LocationBuilder().setRegion(region).setCity(city).setLatitude(c1).setLongitude(c2)
+                .build();
+        Metadata metadata1 = new MetadataBuilder().setLocation(location1).build();
+        Operational operational = new OperationalBuilder().setGainTarget(gainTarget).setTiltTarget(tiltTarget)
+                .setOutVoa(outVoa).build();
+        Edfa edfa = new EdfaBuilder()
+                .setOperational(operational).build();
+        return new ElementsBuilder().setUid(uidEdfa)
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Edfa.class)
+                .setMetadata(metadata1).setElementType(edfa).setTypeVariety(typeVariety).build();
+    }
+
+    /*
+     * Method to create ROADM
+     */
+    private static Elements createElementsRoadm(double latitude, double longitude, String region, String city,
+            double targetPchOutDb, String uidRoadm) {
+
+        Coordinate c1 = new Coordinate(BigDecimal.valueOf(latitude));
+        Coordinate c2 = new Coordinate(BigDecimal.valueOf(longitude));
+        Location location1 = new LocationBuilder().setRegion(region).setCity(city).setLatitude(c1).setLongitude(c2)
+                .build();
+        Metadata metadata1 = new MetadataBuilder().setLocation(location1).build();
+        Roadm roadm = new RoadmBuilder().setTargetPchOutDb(BigDecimal.valueOf(targetPchOutDb)).build();
+        Params params1 = new ParamsBuilder().setFiberroadm(roadm).build();
+        return new ElementsBuilder().setUid(uidRoadm)
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Roadm.class)
+                .setMetadata(metadata1).setElementType(new FiberRoadmBuilder().setParams(params1).build()).build();
+    }
+
+    /*
+     * Method to create Transceiver
+     */
+    private static Elements createElementsTransceiver(double latitude, double longitude, String region, String city,
+            String uidTrans) {
+        Coordinate c1 = new Coordinate(BigDecimal.valueOf(latitude));
+        Coordinate c2 = new Coordinate(BigDecimal.valueOf(longitude));
+        Location location1 = new LocationBuilder().setRegion(region).setCity(city).setLatitude(c1).setLongitude(c2)
+                .build();
+        Metadata metadata1 = new MetadataBuilder().setLocation(location1).build();
+        Transceiver transceiver = new TransceiverBuilder().build();
+        return new ElementsBuilder().setUid(uidTrans)
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Transceiver.class)
+                .setMetadata(metadata1).setElementType(transceiver).build();
+    }
+
+    /*
+     * Method to create Connection
+     */
+    private static boolean createNewConnection(List<Connections> connections, IpAddress srcIp, IpAddress destIp)
+            throws GnpyException {
+        if (srcIp == null || destIp == null) {
+            throw new GnpyException("create new connection : null node IpAddress");
+        }
+        String fromNode = srcIp.getIpv4Address().getValue();
+        String toNode = destIp.getIpv4Address().getValue();
+        if (fromNode.equals(toNode)) {
+            return false;
+        }
+        connections.add(new ConnectionsBuilder().setFromNode(fromNode).setToNode(toNode).build());
+        return true;
+    }
+
+    /*
+     * Increment 32-bit identifier
+     */
+    private static Ipv4Address incrementIdentifier(Ipv4Address id)  throws GnpyException {
+        String ips = id.getValue();
+        String [] fields = ips.split(Pattern.quote("."));
+        int intF1 = Integer.parseInt(fields[1]);
+        int intF2 = Integer.parseInt(fields[2]);
+        int intF3 = Integer.parseInt(fields[3]);
+        if (intF3 < 255) {
+            intF3++;
+        } else {
+            if (intF2 < 255) {
+                intF2++;
+                intF3 = 0;
+            } else {
+                if (intF1 < 255) {
+                    intF1++;
+                    intF2 = 0;
+                    intF3 = 0;
+                } else {
+                    throw new GnpyException("GnpyTopoImpl : the topology is not supported by gnpy");
+                }
+                fields[1] = Integer.toString(intF1);
+            }
+            fields[2] = Integer.toString(intF2);
+        }
+        fields[3] = Integer.toString(intF3);
+        String nidString = fields[0] + "." + fields[1] + "." + fields[2] + "." + fields[3];
+        return new Ipv4Address(nidString);
+    }
+
+    private static final class NodeElement {
+        private final IpAddress ipAddress;
+        private final Elements element;
+        private final boolean transceiver;
+        private final GnpyException error;
+
+        NodeElement(IpAddress ipAddress, Elements element, boolean transceiver) {
+            this.ipAddress = ipAddress;
+            this.element = element;
+            this.transceiver = transceiver;
+            this.error = null;
+        }
+
+        NodeElement(GnpyException error) {
+            this.ipAddress = null;
+            this.element = null;
+            this.transceiver = false;
+            this.error = error;
+        }
+    }
+
+    private static final class LinkElements {
+        private boolean external;
+        private String srcNodeId;
+        private String destNodeId;
+        // fibers and edfas crossed from the source to the destination node, null if unknown
+        private final List<IpAddress> hops = new ArrayList<>();
+        private final List<Elements> elements = new ArrayList<>();
+        private final List<String> subLinks = new ArrayList<>();
+        private final Map<String, IpAddress> fiberIps = new LinkedHashMap<>();
+        private final Map<String, IpAddress> edfaIps = new LinkedHashMap<>();
+        private final List<Ipv4Address> fiberIds = new ArrayList<>();
+        private final List<Ipv4Address> edfaIds = new ArrayList<>();
+        private GnpyException error;
+    }
+
+    final class TopologyListener implements DataTreeChangeListener<Network> {
+
+        private final String networkId;
+
+        TopologyListener(String networkId) {
+            this.networkId = networkId;
+        }
+
+        @Override
+        public void onDataTreeChanged(Collection<DataTreeModification<Network>> changes) {
+            for (DataTreeModification<Network> change : changes) {
+                DataObjectModification<Network> rootNode = change.getRootNode();
+                switch (rootNode.getModificationType()) {
+                    case DELETE:
+                        replace(networkId, null);
+                        break;
+                    case WRITE:
+                        replace(networkId, rootNode.getDataAfter());
+                        break;
+                    case SUBTREE_MODIFIED:
+                        applyModification(rootNode);
+                        break;
+                    default:
+                        LOG.warn("GnpyTopologyCache: unsupported modification type {} on {}",
+                            rootNode.getModificationType(), networkId);
+                        continue;
+                }
+                LOG.debug("GnpyTopologyCache: {} updated", networkId);
+            }
+        }
+
+        private void applyModification(DataObjectModification<Network> rootNode) {
+            List<Node> updatedNodes = new ArrayList<>();
+            List<NodeId> removedNodes = new ArrayList<>();
+            for (DataObjectModification<Node> nodeMod : rootNode.getModifiedChildren(Node.class)) {
+                if (nodeMod.getModificationType() == DataObjectModification.ModificationType.DELETE) {
+                    if (nodeMod.getDataBefore() != null) {
+                        removedNodes.add(nodeMod.getDataBefore().getNodeId());
+                    }
+                } else if (nodeMod.getDataAfter() != null) {
+                    updatedNodes.add(nodeMod.getDataAfter());
+                }
+            }
+
+            List<Link> updatedLinks = new ArrayList<>();
+            List<LinkId> removedLinks = new ArrayList<>();
+            DataObjectModification<Network1> linksMod = rootNode.getModifiedAugmentation(Network1.class);
+            if (linksMod != null) {
+                if (linksMod.getModificationType() == DataObjectModification.ModificationType.SUBTREE_MODIFIED) {
+                    for (DataObjectModification<Link> linkMod : linksMod.getModifiedChildren(Link.class)) {
+                        if (linkMod.getModificationType() == DataObjectModification.ModificationType.DELETE) {
+                            if (linkMod.getDataBefore() != null) {
+                                removedLinks.add(linkMod.getDataBefore().getLinkId());
+                            }
+                        } else if (linkMod.getDataAfter() != null) {
+                            updatedLinks.add(linkMod.getDataAfter());
+                        }
+                    }
+                } else {
+                    // the whole link list has been replaced or deleted
+                    Network1 nw1 = linksMod.getDataBefore();
+                    if (nw1 != null && nw1.getLink() != null) {
+                        nw1.getLink().forEach(link -> removedLinks.add(link.getLinkId()));
+                    }
+                    nw1 = linksMod.getDataAfter();
+                    if (nw1 != null && nw1.getLink() != null) {
+                        updatedLinks.addAll(nw1.getLink());
+                    }
+                }
+            }
+            update(networkId, updatedNodes, removedNodes, updatedLinks, removedLinks);
+        }
+    }
+}
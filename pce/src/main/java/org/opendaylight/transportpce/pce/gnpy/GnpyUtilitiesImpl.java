@@ -25,7 +25,6 @@ import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdes
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.AToZDirectionBuilder;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.ZToADirection;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.routing.constraints.sp.HardConstraints;
-import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.opendaylight.yangtools.yang.common.Uint32;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,15 +42,33 @@ public class GnpyUtilitiesImpl {
     private NetworkTransactionService networkTransaction;
     private PathComputationRequestInput input;
     private GnpyTopoImpl gnpyTopo = null;
+    private GnpyClient gnpyClient;
     private GnpyResult gnpyAtoZ;
     private GnpyResult gnpyZtoA;
     private Uint32 requestId;
 
-    public GnpyUtilitiesImpl(NetworkTransactionService networkTransaction, PathComputationRequestInput input)
-        throws GnpyException {
+    /**
+     * Create the GNPy requests of a path computation on the topology of a cache.
+     *
+     * @param networkTransaction the network transaction service
+     * @param input the path computation request
+     * @param gnpyTopologyCache the cache of the GNPy topology
+     * @param gnpyClient the client of the GNPy server
+     * @throws GnpyException if the topology is not supported by GNPy
+     */
+    public GnpyUtilitiesImpl(NetworkTransactionService networkTransaction, PathComputationRequestInput input,
+        GnpyTopologyCache gnpyTopologyCache, GnpyClient gnpyClient) throws GnpyException {
+
+        this(networkTransaction, input, gnpyTopologyCache == null ? new GnpyTopoImpl(networkTransaction)
+            : gnpyTopologyCache.getTopology(), gnpyClient);
+    }
+
+    private GnpyUtilitiesImpl(NetworkTransactionService networkTransaction, PathComputationRequestInput input,
+        GnpyTopoImpl gnpyTopo, GnpyClient gnpyClient) {
 
         this.networkTransaction = networkTransaction;
-        this.gnpyTopo = new GnpyTopoImpl(networkTransaction);
+        this.gnpyTopo = gnpyTopo;
+        this.gnpyClient = gnpyClient;
         this.input = input;
         this.gnpyAtoZ = null;
         this.gnpyZtoA = null;
@@ -122,18 +139,12 @@ public class GnpyUtilitiesImpl {
             .setServiceFile(
                 new ServiceFileBuilder().setPathRequest(pathRequestList).build())
             .build();
-        InstanceIdentifier<GnpyApi> idGnpyApi = InstanceIdentifier.builder(GnpyApi.class).build();
-        String gnpyJson;
-        ServiceDataStoreOperationsImpl sd = new ServiceDataStoreOperationsImpl(networkTransaction);
-        gnpyJson = sd.createJsonStringFromDataObject(idGnpyApi, gnpyApi);
-        LOG.debug("GNPy Id: {} / json created : {}", idGnpyApi, gnpyJson);
-        ConnectToGnpyServer connect = new ConnectToGnpyServer();
-        String gnpyJsonModified = gnpyJson
-            .replace("gnpy-eqpt-config:", "")
-            .replace("gnpy-path-computation-simplified:", "")
-            .replace("gnpy-network-topology:", "");
-
-        return connect.returnGnpyResponse(gnpyJsonModified);
+        String gnpyJson = GnpyJsonWriter.toJson(gnpyApi);
+        LOG.debug("GNPy: json created : {}", gnpyJson);
+        if (gnpyClient == null) {
+            throw new GnpyException("In GnpyUtilities: no client of the GNPy server");
+        }
+        return gnpyClient.send(gnpyJson);
     }
 
     public GnpyResult getGnpyAtoZ() {
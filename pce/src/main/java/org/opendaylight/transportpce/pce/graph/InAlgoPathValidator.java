@@ -34,7 +34,7 @@ public class InAlgoPathValidator implements PathValidator<String, PceGraphEdge>
         return (checkTurn(partialPath.getEdgeList().get(size - 1).link().getlinkType(), edge.link().getlinkType()));
     }
 
-    private boolean checkTurn(OpenroadmLinkType prevType, OpenroadmLinkType nextType) {
+    static boolean checkTurn(OpenroadmLinkType prevType, OpenroadmLinkType nextType) {
 
         if (nextType == OpenroadmLinkType.ADDLINK && prevType != OpenroadmLinkType.XPONDEROUTPUT) {
             LOG.debug("in checkPath dropped {} {} ", prevType, nextType);
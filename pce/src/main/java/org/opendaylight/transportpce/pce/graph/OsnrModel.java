@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OSNR of the paths, from the transmitter and add path OSNR and from the noise of the ROADM to ROADM
+ * links. The noise contributions are added in linear units, each link providing its inverse OSNR computed
+ * once with the link, so the OSNR of a path is accumulated in constant time per hop. The OSNR of a path
+ * is compared, with a margin, to the minimal OSNR of the transceiver for the rate and modulation format
+ * of the service.
+ */
+public final class OsnrModel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OsnrModel.class);
+
+    public static final String RATE_100G = "100G";
+    public static final String RATE_200G = "200G";
+    public static final String RATE_400G = "400G";
+    public static final String DP_QPSK = "dp-qpsk";
+    public static final String DP_16QAM = "dp-16qam";
+
+    // OSNR of the transmitter and incremental OSNR of the add path, in dB
+    static final double TRX_OSNR = 33;
+    static final double ADD_OSNR = 30;
+    public static final double DEFAULT_MARGIN = 0;
+
+    private static final Map<String, Double> DEFAULT_THRESHOLDS;
+    // model with the default thresholds and margin
+    public static final OsnrModel DEFAULT;
+
+    static {
+        Map<String, Double> thresholds = new LinkedHashMap<>();
+        thresholds.put(key(RATE_100G, DP_QPSK), 17.0);
+        thresholds.put(key(RATE_200G, DP_QPSK), 20.0);
+        thresholds.put(key(RATE_200G, DP_16QAM), 23.0);
+        thresholds.put(key(RATE_400G, DP_16QAM), 24.0);
+        DEFAULT_THRESHOLDS = Collections.unmodifiableMap(thresholds);
+        DEFAULT = new OsnrModel(DEFAULT_THRESHOLDS, DEFAULT_MARGIN);
+    }
+
+    private final Map<String, Double> thresholds;
+    private final double margin;
+    private final double startInverseOsnr;
+
+    /**
+     * Create a model.
+     *
+     * @param thresholds minimal OSNR in dB per {@link #key(String, String)} of rate and modulation format
+     * @param margin system margin in dB
+     */
+    public OsnrModel(Map<String, Double> thresholds, double margin) {
+        this.thresholds = Collections.unmodifiableMap(new LinkedHashMap<>(thresholds));
+        this.margin = margin;
+        this.startInverseOsnr = inverseOsnr(TRX_OSNR) + inverseOsnr(ADD_OSNR);
+    }
+
+    /**
+     * Create the model with the default thresholds overridden by the given ones.
+     *
+     * @param thresholds minimal OSNR of the transceivers in dB, as a comma separated list of
+     *        rate/modulation=OSNR, for example "100G/dp-qpsk=17,400G/dp-16qam=24", may be null
+     * @param margin system margin in dB
+     * @return the model
+     */
+    public static OsnrModel create(String thresholds, double margin) {
+        Map<String, Double> allThresholds = new LinkedHashMap<>(DEFAULT_THRESHOLDS);
+        allThresholds.putAll(parseThresholds(thresholds));
+        return new OsnrModel(allThresholds, margin);
+    }
+
+    static Map<String, Double> parseThresholds(String list) {
+        Map<String, Double> thresholds = new LinkedHashMap<>();
+        if (list == null || list.isBlank()) {
+            return thresholds;
+        }
+        for (String entry : list.split(",")) {
+            String[] keyValue = entry.split("=");
+            String[] rateModulation = keyValue[0].split("/");
+            if (keyValue.length != 2 || rateModulation.length != 2) {
+                LOG.warn("Invalid OSNR threshold {} ignored", entry);
+                continue;
+            }
+            try {
+                thresholds.put(key(rateModulation[0], rateModulation[1]), Double.parseDouble(keyValue[1].trim()));
+            } catch (NumberFormatException e) {
+                LOG.warn("Invalid OSNR threshold {} ignored", entry);
+            }
+        }
+        return thresholds;
+    }
+
+    static String key(String rate, String modulation) {
+        return rate.trim().toUpperCase(Locale.ROOT) + "/" + modulation.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Map<String, Double> getThresholds() {
+        return thresholds;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    /**
+     * Get the minimal OSNR of a transceiver.
+     *
+     * @param rate the rate, for example 100G
+     * @param modulation the modulation format, for example dp-qpsk
+     * @return the minimal OSNR in dB, null if the table does not contain the rate and modulation format
+     */
+    public Double getMinOsnr(String rate, String modulation) {
+        return thresholds.get(key(rate, modulation));
+    }
+
+    // 1 over the OSNR, in linear units
+    public static double inverseOsnr(double osnrDb) {
+        return 1 / Math.pow(10, osnrDb / 10.0);
+    }
+
+    public static double toDb(double inverseOsnr) {
+        return 10 * Math.log10(1 / inverseOsnr);
+    }
+
+    /**
+     * Get the inverse OSNR at the source of a path, due to the transmitter and the add path.
+     *
+     * @return the inverse OSNR in linear units
+     */
+    public double getStartInverseOsnr() {
+        return startInverseOsnr;
+    }
+
+    /**
+     * Add the noise of a link to the inverse OSNR of a path.
+     *
+     * @param inverseOsnr the inverse OSNR of the path up to the link, in linear units
+     * @param link the next link of the path
+     * @return the inverse OSNR of the path including the link
+     */
+    public double accumulate(double inverseOsnr, PceLink link) {
+        if (link.getlinkType() != OpenroadmLinkType.ROADMTOROADM) {
+            return inverseOsnr;
+        }
+        return inverseOsnr + link.getInverseOsnr();
+    }
+
+    /**
+     * Get the OSNR of a path.
+     *
+     * @param links the links of the path
+     * @return the OSNR in dB
+     */
+    public double getPathOsnr(List<PceLink> links) {
+        double inverseOsnr = startInverseOsnr;
+        for (PceLink link : links) {
+            inverseOsnr = accumulate(inverseOsnr, link);
+        }
+        return toDb(inverseOsnr);
+    }
+
+    /**
+     * Check if the OSNR of a path is high enough for a transceiver.
+     *
+     * @param osnrDb the OSNR of the path in dB
+     * @param rate the rate of the transceiver
+     * @param modulation the modulation format of the transceiver
+     * @return false if the OSNR plus the margin is not above the minimal OSNR or if the minimal OSNR is unknown
+     */
+    public boolean isOsnrSufficient(double osnrDb, String rate, String modulation) {
+        Double minOsnr = getMinOsnr(rate, modulation);
+        if (minOsnr == null) {
+            LOG.warn("No minimal OSNR for {} {}", rate, modulation);
+            return false;
+        }
+        return osnrDb + margin > minOsnr;
+    }
+}
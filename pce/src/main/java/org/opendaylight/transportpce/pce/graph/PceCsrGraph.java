@@ -0,0 +1,613 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Directed weighted graph of the PCE network stored in compressed sparse row arrays.
+ *
+ * <p>
+ * Node ids are interned to ints. The outgoing edges of vertex v are the indexes
+ * offsets[v] to offsets[v + 1] - 1 of the sources, targets, weights, linkTypes and edges arrays.
+ * As with the JGraphT DefaultDirectedWeightedGraph used by {@link PceGraph}, parallel
+ * edges are ignored and only the first link between two nodes is kept.
+ * </p>
+ *
+ * <p>
+ * K shortest simple paths are computed with Yen's algorithm. Each spur path is searched
+ * with a Dijkstra over edges rather than vertices so that the turn rules of
+ * {@link InAlgoPathValidator} can be applied at every relaxation.
+ * </p>
+ *
+ * <p>
+ * When hard constraints are given, spur paths are searched with a label-setting algorithm instead:
+ * partial paths carry their latency, their common available wavelengths and the resources to include
+ * they have met, and are pruned as soon as the latency budget is exceeded or no wavelength is left.
+ * Only paths meeting all the include constraints reach the destination, so the paths returned already
+ * pass these checks of {@link PostAlgoPathValidator}. Dominance between labels does not take into
+ * account the vertices already visited, which makes the search a heuristic on some corner cases
+ * where the only feasible path needs to go through a vertex of a better partial path.
+ * </p>
+ */
+public final class PceCsrGraph {
+    /* Logging. */
+    private static final Logger LOG = LoggerFactory.getLogger(PceCsrGraph.class);
+    private static final int[] NO_PATH = new int[0];
+
+    private final Map<String, Integer> vertexIndex;
+    private final String[] vertices;
+    private final PceNode[] nodes;
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] weights;
+    private final OpenroadmLinkType[] linkTypes;
+    private final PceGraphEdge[] edges;
+
+    // search state, reused between spur searches to limit allocations
+    private final double[] dist;
+    private final int[] pred;
+    private final int[] hops;
+    private final int[] reached;
+    private final int[] settled;
+    private final boolean[] blockedVertices;
+    private final boolean[] blockedEdges;
+    private final PrimitiveMinHeap heap;
+    private PceCsrLabels labels = null;
+    private int stamp = 0;
+
+    public PceCsrGraph(Map<NodeId, PceNode> allPceNodes, ToDoubleFunction<PceLink> weightFunction) {
+        int nbVertices = allPceNodes.size();
+        this.vertexIndex = new HashMap<>(2 * nbVertices);
+        this.vertices = new String[nbVertices];
+        this.nodes = new PceNode[nbVertices];
+        for (PceNode pceNode : allPceNodes.values()) {
+            String nodeId = pceNode.getNodeId().getValue();
+            if (!vertexIndex.containsKey(nodeId)) {
+                vertices[vertexIndex.size()] = nodeId;
+                nodes[vertexIndex.size()] = pceNode;
+                vertexIndex.put(nodeId, vertexIndex.size());
+            }
+        }
+
+        // keep the links accepted by the JGraphT graph, grouped by source vertex in insertion order
+        List<List<PceLink>> outLinks = new ArrayList<>(nbVertices);
+        for (int i = 0; i < nbVertices; i++) {
+            outLinks.add(new ArrayList<>());
+        }
+        Set<Long> vertexPairs = new HashSet<>();
+        int nbEdges = 0;
+        for (PceNode pceNode : allPceNodes.values()) {
+            for (PceLink link : pceNode.getOutgoingLinks()) {
+                Integer source = vertexIndex.get(link.getSourceId().getValue());
+                Integer dest = vertexIndex.get(link.getDestId().getValue());
+                if (source == null || dest == null || !allPceNodes.containsKey(link.getSourceId())
+                        || !allPceNodes.containsKey(link.getDestId())) {
+                    LOG.debug("PceCsrGraph: link {} ignored, one of its nodes is not in the graph", link);
+                    continue;
+                }
+                if (!vertexPairs.add(((long) source << 32) | dest)) {
+                    LOG.debug("PceCsrGraph: parallel link {} ignored", link);
+                    continue;
+                }
+                outLinks.get(source).add(link);
+                nbEdges++;
+            }
+        }
+
+        this.offsets = new int[nbVertices + 1];
+        this.sources = new int[nbEdges];
+        this.targets = new int[nbEdges];
+        this.weights = new double[nbEdges];
+        this.linkTypes = new OpenroadmLinkType[nbEdges];
+        this.edges = new PceGraphEdge[nbEdges];
+        int edge = 0;
+        for (int v = 0; v < nbVertices; v++) {
+            offsets[v] = edge;
+            for (PceLink link : outLinks.get(v)) {
+                sources[edge] = v;
+                targets[edge] = vertexIndex.get(link.getDestId().getValue());
+                weights[edge] = weightFunction.applyAsDouble(link);
+                linkTypes[edge] = link.getlinkType();
+                edges[edge] = new PceGraphEdge(link);
+                edge++;
+            }
+        }
+        offsets[nbVertices] = edge;
+
+        this.dist = new double[nbEdges];
+        this.pred = new int[nbEdges];
+        this.hops = new int[nbEdges];
+        this.reached = new int[nbEdges];
+        this.settled = new int[nbEdges];
+        this.blockedVertices = new boolean[nbVertices];
+        this.blockedEdges = new boolean[nbEdges];
+        this.heap = new PrimitiveMinHeap(nbEdges);
+    }
+
+    public int vertexCount() {
+        return vertices.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Compute the k shortest simple paths between two nodes, in increasing weight order.
+     *
+     * @param source source node id
+     * @param target target node id
+     * @param kpaths maximum number of paths to return
+     * @param maxHops maximum number of edges of a path
+     * @return the paths found, empty if none
+     */
+    public List<GraphPath<String, PceGraphEdge>> getPaths(String source, String target, int kpaths, int maxHops) {
+        return getPaths(source, target, kpaths, maxHops, null);
+    }
+
+    /**
+     * Compute the k shortest simple paths between two nodes meeting the latency, wavelength and
+     * include constraints, in increasing weight order.
+     *
+     * @param source source node id
+     * @param target target node id
+     * @param kpaths maximum number of paths to return
+     * @param maxHops maximum number of edges of a path
+     * @param pceHardConstraints constraints applied during the search, null for none
+     * @return the paths found, empty if none
+     */
+    public List<GraphPath<String, PceGraphEdge>> getPaths(String source, String target, int kpaths, int maxHops,
+            PceConstraints pceHardConstraints) {
+        List<GraphPath<String, PceGraphEdge>> paths = new ArrayList<>();
+        Iterator<GraphPath<String, PceGraphEdge>> iterator =
+            pathIterator(source, target, maxHops, pceHardConstraints);
+        while (paths.size() < kpaths && iterator.hasNext()) {
+            paths.add(iterator.next());
+        }
+        return paths;
+    }
+
+    /**
+     * Iterate lazily over the simple paths between two nodes, in increasing weight order.
+     * A path is only computed when the previous one has been consumed, so that a caller
+     * looking for the first path passing some validation does not pay for the next ones.
+     * The iterators of a graph share its search state and must be used from a single thread.
+     *
+     * @param source source node id
+     * @param target target node id
+     * @param maxHops maximum number of edges of a path
+     * @return an iterator over the paths, empty if there is none
+     */
+    public Iterator<GraphPath<String, PceGraphEdge>> pathIterator(String source, String target, int maxHops) {
+        return pathIterator(source, target, maxHops, null);
+    }
+
+    /**
+     * Iterate lazily over the simple paths between two nodes meeting the latency, wavelength and
+     * include constraints, in increasing weight order.
+     *
+     * @param source source node id
+     * @param target target node id
+     * @param maxHops maximum number of edges of a path
+     * @param pceHardConstraints constraints applied during the search, null for none
+     * @return an iterator over the paths, empty if there is none
+     */
+    public Iterator<GraphPath<String, PceGraphEdge>> pathIterator(String source, String target, int maxHops,
+            PceConstraints pceHardConstraints) {
+        Integer src = vertexIndex.get(source);
+        Integer dst = vertexIndex.get(target);
+        if (src == null || dst == null || src.equals(dst)) {
+            return Collections.emptyIterator();
+        }
+        if (pceHardConstraints == null) {
+            return new YenIterator(src, dst, maxHops, null);
+        }
+        PceLink[] links = new PceLink[edges.length];
+        for (int e = 0; e < edges.length; e++) {
+            links[e] = edges[e].link();
+        }
+        if (labels == null) {
+            labels = new PceCsrLabels(edges.length);
+        }
+        return new YenIterator(src, dst, maxHops, new PceCsrResources(nodes, links, pceHardConstraints));
+    }
+
+    void unblock(List<CsrPath> found, CsrPath previous, int src, int index) {
+        for (CsrPath path : found) {
+            if (path.edgeIds.length > index) {
+                blockedEdges[path.edgeIds[index]] = false;
+            }
+        }
+        blockedVertices[src] = false;
+        for (int j = 0; j < index; j++) {
+            blockedVertices[targets[previous.edgeIds[j]]] = false;
+        }
+    }
+
+    /*
+     * Dijkstra over edges: the label of an edge is the weight of the best simple path from the spur
+     * vertex ending with this edge, which is what the turn rules need to know.
+     */
+    int[] spurSearch(int spurVertex, int lastEdge, int dst, int maxHops) {
+        if (maxHops <= 0) {
+            return NO_PATH;
+        }
+        stamp++;
+        heap.clear();
+        for (int edge = offsets[spurVertex]; edge < offsets[spurVertex + 1]; edge++) {
+            if (isAllowed(lastEdge, edge)) {
+                relax(edge, weights[edge], -1, 1);
+            }
+        }
+        while (!heap.isEmpty()) {
+            int edge = heap.poll();
+            settled[edge] = stamp;
+            int vertex = targets[edge];
+            if (vertex == dst) {
+                int[] spur = new int[hops[edge]];
+                for (int e = edge, i = spur.length - 1; e >= 0; e = pred[e], i--) {
+                    spur[i] = e;
+                }
+                return spur;
+            }
+            if (hops[edge] >= maxHops) {
+                continue;
+            }
+            for (int next = offsets[vertex]; next < offsets[vertex + 1]; next++) {
+                if (settled[next] != stamp && isAllowed(edge, next) && !isOnPath(edge, targets[next])) {
+                    relax(next, dist[edge] + weights[next], edge, hops[edge] + 1);
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    /*
+     * Label-setting search of the lightest spur path meeting the constraints. The resources used by
+     * the root path, its first rootLength edges, are accumulated first.
+     */
+    int[] constrainedSpurSearch(PceCsrResources resources, int src, int[] root, int rootLength, int dst,
+            int maxHops) {
+        if (maxHops <= 0) {
+            return NO_PATH;
+        }
+        double latency = 0;
+        long wlLow = PceCsrResources.ALL_WL_LOW;
+        long wlHigh = PceCsrResources.ALL_WL_HIGH;
+        int include = resources.advanceInclude(0, src, -1);
+        for (int i = 0; i < rootLength; i++) {
+            int edge = root[i];
+            latency += resources.edgeLatency(edge);
+            wlLow &= resources.wlLow(sources[edge]);
+            wlHigh &= resources.wlHigh(sources[edge]);
+            include = resources.advanceInclude(include, targets[edge], edge);
+        }
+        int lastEdge = rootLength == 0 ? -1 : root[rootLength - 1];
+        int spurVertex = rootLength == 0 ? src : targets[lastEdge];
+
+        labels.clear();
+        for (int edge = offsets[spurVertex]; edge < offsets[spurVertex + 1]; edge++) {
+            if (isAllowed(lastEdge, edge)) {
+                extend(resources, -1, edge, 0, latency, wlLow, wlHigh, include, 0);
+            }
+        }
+        for (int label = labels.poll(); label >= 0; label = labels.poll()) {
+            int edge = labels.edge(label);
+            int vertex = targets[edge];
+            if (vertex == dst) {
+                if (!resources.isIncludeComplete(labels.include(label))) {
+                    continue;
+                }
+                int[] spur = new int[labels.hops(label)];
+                for (int l = label, i = spur.length - 1; l >= 0; l = labels.pred(l), i--) {
+                    spur[i] = labels.edge(l);
+                }
+                return spur;
+            }
+            if (labels.hops(label) >= maxHops) {
+                continue;
+            }
+            for (int next = offsets[vertex]; next < offsets[vertex + 1]; next++) {
+                if (isAllowed(edge, next) && !isOnLabelPath(label, targets[next])) {
+                    extend(resources, label, next, labels.weight(label), labels.latency(label),
+                        labels.wlLow(label), labels.wlHigh(label), labels.include(label), labels.hops(label));
+                }
+            }
+        }
+        return NO_PATH;
+    }
+
+    private void extend(PceCsrResources resources, int predLabel, int edge, double weight, double latency, long wlLow,
+            long wlHigh, int include, int nbHops) {
+        // chooseWavelength uses the wavelengths of the source node of each edge
+        long newWlLow = wlLow & resources.wlLow(sources[edge]);
+        long newWlHigh = wlHigh & resources.wlHigh(sources[edge]);
+        double newLatency = latency + resources.edgeLatency(edge);
+        if ((newWlLow == 0 && newWlHigh == 0) || resources.isLatencyExceeded(newLatency)) {
+            return;
+        }
+        labels.add(edge, predLabel, weight + weights[edge], newLatency, newWlLow, newWlHigh,
+            resources.advanceInclude(include, targets[edge], edge), nbHops + 1);
+    }
+
+    private boolean isOnLabelPath(int label, int vertex) {
+        for (int l = label; l >= 0; l = labels.pred(l)) {
+            if (targets[labels.edge(l)] == vertex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAllowed(int previousEdge, int edge) {
+        if (blockedEdges[edge] || blockedVertices[targets[edge]]) {
+            return false;
+        }
+        return previousEdge < 0 || InAlgoPathValidator.checkTurn(linkTypes[previousEdge], linkTypes[edge]);
+    }
+
+    // the label of an edge must stay a simple path, otherwise Yen would have to drop the spur path
+    private boolean isOnPath(int lastEdge, int vertex) {
+        for (int e = lastEdge; e >= 0; e = pred[e]) {
+            if (targets[e] == vertex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void relax(int edge, double weight, int previousEdge, int nbHops) {
+        if (reached[edge] != stamp || weight < dist[edge]) {
+            reached[edge] = stamp;
+            dist[edge] = weight;
+            pred[edge] = previousEdge;
+            hops[edge] = nbHops;
+            heap.insertOrDecrease(edge, weight);
+        }
+    }
+
+    boolean isSimple(int src, int[] edgeIds) {
+        Set<Integer> visited = new HashSet<>();
+        visited.add(src);
+        for (int edge : edgeIds) {
+            if (!visited.add(targets[edge])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    double pathWeight(int[] edgeIds, int length) {
+        double weight = 0;
+        for (int i = 0; i < length; i++) {
+            weight += weights[edgeIds[i]];
+        }
+        return weight;
+    }
+
+    GraphPath<String, PceGraphEdge> toGraphPath(CsrPath path) {
+        List<String> vertexList = new ArrayList<>(path.edgeIds.length + 1);
+        List<PceGraphEdge> edgeList = new ArrayList<>(path.edgeIds.length);
+        vertexList.add(vertices[sources[path.edgeIds[0]]]);
+        for (int edge : path.edgeIds) {
+            vertexList.add(vertices[targets[edge]]);
+            edgeList.add(edges[edge]);
+        }
+        return new CsrGraphPath(vertexList, edgeList, path.weight);
+    }
+
+    /*
+     * Yen's algorithm, one path at a time. The spur paths of the last path found are only
+     * searched when the next path is requested.
+     */
+    private final class YenIterator implements Iterator<GraphPath<String, PceGraphEdge>> {
+        private final int src;
+        private final int dst;
+        private final int maxHops;
+        private final PceCsrResources resources;
+        private final List<CsrPath> found = new ArrayList<>();
+        private final PriorityQueue<CsrPath> candidates = new PriorityQueue<>(CsrPath.ORDER);
+        private final Set<CsrPath> known = new HashSet<>();
+        private CsrPath nextPath = null;
+        private boolean exhausted = false;
+
+        YenIterator(int src, int dst, int maxHops, PceCsrResources resources) {
+            this.src = src;
+            this.dst = dst;
+            this.maxHops = maxHops;
+            this.resources = resources;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextPath == null && !exhausted) {
+                nextPath = found.isEmpty() ? shortestPath() : nextShortestPath();
+                if (nextPath == null) {
+                    exhausted = true;
+                } else {
+                    found.add(nextPath);
+                }
+            }
+            return nextPath != null;
+        }
+
+        @Override
+        public GraphPath<String, PceGraphEdge> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CsrPath path = nextPath;
+            nextPath = null;
+            return toGraphPath(path);
+        }
+
+        private CsrPath shortestPath() {
+            blockedVertices[src] = true;
+            int[] first = search(NO_PATH, 0);
+            blockedVertices[src] = false;
+            if (first.length == 0) {
+                return null;
+            }
+            if (!isSimple(src, first)) {
+                LOG.warn("PceCsrGraph: shortest path from {} to {} is not simple", vertices[src], vertices[dst]);
+                return null;
+            }
+            CsrPath firstPath = new CsrPath(first, pathWeight(first, first.length));
+            known.add(firstPath);
+            return firstPath;
+        }
+
+        private CsrPath nextShortestPath() {
+            CsrPath previous = found.get(found.size() - 1);
+            for (int i = 0; i < previous.edgeIds.length; i++) {
+                // forbid the next edge of the paths already found that share this root
+                for (CsrPath path : found) {
+                    if (path.edgeIds.length > i && path.sharesPrefix(previous, i)) {
+                        blockedEdges[path.edgeIds[i]] = true;
+                    }
+                }
+                // forbid the vertices of the root path, spur vertex included
+                blockedVertices[src] = true;
+                for (int j = 0; j < i; j++) {
+                    blockedVertices[targets[previous.edgeIds[j]]] = true;
+                }
+                int[] spur = search(previous.edgeIds, i);
+                unblock(found, previous, src, i);
+                if (spur.length == 0) {
+                    continue;
+                }
+                int[] edgeIds = Arrays.copyOf(previous.edgeIds, i + spur.length);
+                System.arraycopy(spur, 0, edgeIds, i, spur.length);
+                if (!isSimple(src, edgeIds)) {
+                    continue;
+                }
+                CsrPath candidate = new CsrPath(edgeIds, pathWeight(edgeIds, edgeIds.length));
+                if (known.add(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+            return candidates.poll();
+        }
+
+        // search a spur path from the end of the first rootLength edges of root
+        private int[] search(int[] root, int rootLength) {
+            if (resources != null) {
+                return constrainedSpurSearch(resources, src, root, rootLength, dst, maxHops - rootLength);
+            }
+            int spurVertex = (rootLength == 0) ? src : targets[root[rootLength - 1]];
+            return spurSearch(spurVertex, (rootLength == 0) ? -1 : root[rootLength - 1], dst, maxHops - rootLength);
+        }
+    }
+
+    private static final class CsrPath {
+        static final Comparator<CsrPath> ORDER = Comparator.<CsrPath>comparingDouble(p -> p.weight)
+            .thenComparingInt(p -> p.edgeIds.length)
+            .thenComparing((p1, p2) -> Arrays.compare(p1.edgeIds, p2.edgeIds));
+
+        private final int[] edgeIds;
+        private final double weight;
+
+        CsrPath(int[] edgeIds, double weight) {
+            this.edgeIds = edgeIds;
+            this.weight = weight;
+        }
+
+        boolean sharesPrefix(CsrPath other, int length) {
+            return Arrays.equals(edgeIds, 0, length, other.edgeIds, 0, length);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CsrPath && Arrays.equals(edgeIds, ((CsrPath) obj).edgeIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(edgeIds);
+        }
+    }
+
+    /*
+     * Path returned to PceGraph and PostAlgoPathValidator. It is not backed by a JGraphT graph.
+     */
+    private static final class CsrGraphPath implements GraphPath<String, PceGraphEdge> {
+        private final List<String> vertexList;
+        private final List<PceGraphEdge> edgeList;
+        private final double weight;
+
+        CsrGraphPath(List<String> vertexList, List<PceGraphEdge> edgeList, double weight) {
+            this.vertexList = Collections.unmodifiableList(vertexList);
+            this.edgeList = Collections.unmodifiableList(edgeList);
+            this.weight = weight;
+        }
+
+        @Override
+        public Graph<String, PceGraphEdge> getGraph() {
+            return null;
+        }
+
+        @Override
+        public String getStartVertex() {
+            return vertexList.get(0);
+        }
+
+        @Override
+        public String getEndVertex() {
+            return vertexList.get(vertexList.size() - 1);
+        }
+
+        @Override
+        public List<PceGraphEdge> getEdgeList() {
+            return edgeList;
+        }
+
+        @Override
+        public List<String> getVertexList() {
+            return vertexList;
+        }
+
+        @Override
+        public double getWeight() {
+            return weight;
+        }
+
+        @Override
+        public int getLength() {
+            return edgeList.size();
+        }
+
+        @Override
+        public String toString() {
+            return vertexList.toString();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.Arrays;
+
+/**
+ * Labels of the constrained search of {@link PceCsrGraph}. A label is a partial path ending with an
+ * edge, with its weight and the resources accumulated along it. Each edge keeps only the labels which
+ * are not dominated by another one: a label dominates another one when it is not heavier, has no more
+ * latency and hops, has included at least as many resources and offers at least the same wavelengths.
+ *
+ * <p>
+ * Labels are stored in growable primitive arrays and ordered by weight in a binary heap. Dominated
+ * labels are not removed from the heap but skipped when polled.
+ * </p>
+ */
+final class PceCsrLabels {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private int[] edges = new int[INITIAL_CAPACITY];
+    private int[] preds = new int[INITIAL_CAPACITY];
+    private int[] hops = new int[INITIAL_CAPACITY];
+    private int[] includes = new int[INITIAL_CAPACITY];
+    private double[] weights = new double[INITIAL_CAPACITY];
+    private double[] latencies = new double[INITIAL_CAPACITY];
+    private long[] wlLows = new long[INITIAL_CAPACITY];
+    private long[] wlHighs = new long[INITIAL_CAPACITY];
+    private boolean[] dominated = new boolean[INITIAL_CAPACITY];
+    // next label ending with the same edge, -1 at the end of the list
+    private int[] nextOnEdge = new int[INITIAL_CAPACITY];
+
+    // first label of each edge, valid when edgeStamps[edge] == stamp
+    private final int[] edgeHeads;
+    private final int[] edgeStamps;
+    private int stamp = 0;
+
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int heapSize;
+
+    PceCsrLabels(int nbEdges) {
+        this.edgeHeads = new int[nbEdges];
+        this.edgeStamps = new int[nbEdges];
+    }
+
+    void clear() {
+        size = 0;
+        heapSize = 0;
+        stamp++;
+    }
+
+    boolean isEmpty() {
+        return heapSize == 0;
+    }
+
+    /**
+     * Add a label unless it is dominated by a label ending with the same edge.
+     * The labels it dominates are discarded.
+     *
+     * @return true if the label was added
+     */
+    boolean add(int edge, int pred, double weight, double latency, long wlLow, long wlHigh, int include,
+            int nbHops) {
+        int head = edgeStamps[edge] == stamp ? edgeHeads[edge] : -1;
+        for (int label = head; label >= 0; label = nextOnEdge[label]) {
+            if (!dominated[label] && weights[label] <= weight && latencies[label] <= latency
+                    && hops[label] <= nbHops && includes[label] >= include
+                    && (wlLow & ~wlLows[label]) == 0 && (wlHigh & ~wlHighs[label]) == 0) {
+                return false;
+            }
+        }
+        for (int label = head; label >= 0; label = nextOnEdge[label]) {
+            if (!dominated[label] && weight <= weights[label] && latency <= latencies[label]
+                    && nbHops <= hops[label] && include >= includes[label]
+                    && (wlLows[label] & ~wlLow) == 0 && (wlHighs[label] & ~wlHigh) == 0) {
+                dominated[label] = true;
+            }
+        }
+        if (size == edges.length) {
+            grow();
+        }
+        int label = size++;
+        edges[label] = edge;
+        preds[label] = pred;
+        weights[label] = weight;
+        latencies[label] = latency;
+        wlLows[label] = wlLow;
+        wlHighs[label] = wlHigh;
+        includes[label] = include;
+        hops[label] = nbHops;
+        dominated[label] = false;
+        nextOnEdge[label] = head;
+        edgeHeads[edge] = label;
+        edgeStamps[edge] = stamp;
+        push(label);
+        return true;
+    }
+
+    /**
+     * Remove the lightest label which is not dominated.
+     *
+     * @return the label, -1 if there is none
+     */
+    int poll() {
+        while (heapSize > 0) {
+            int top = heap[0];
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                siftDown(0);
+            }
+            if (!dominated[top]) {
+                return top;
+            }
+        }
+        return -1;
+    }
+
+    int edge(int label) {
+        return edges[label];
+    }
+
+    int pred(int label) {
+        return preds[label];
+    }
+
+    int hops(int label) {
+        return hops[label];
+    }
+
+    int include(int label) {
+        return includes[label];
+    }
+
+    double weight(int label) {
+        return weights[label];
+    }
+
+    double latency(int label) {
+        return latencies[label];
+    }
+
+    long wlLow(int label) {
+        return wlLows[label];
+    }
+
+    long wlHigh(int label) {
+        return wlHighs[label];
+    }
+
+    private void grow() {
+        int capacity = 2 * edges.length;
+        edges = Arrays.copyOf(edges, capacity);
+        preds = Arrays.copyOf(preds, capacity);
+        hops = Arrays.copyOf(hops, capacity);
+        includes = Arrays.copyOf(includes, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        latencies = Arrays.copyOf(latencies, capacity);
+        wlLows = Arrays.copyOf(wlLows, capacity);
+        wlHighs = Arrays.copyOf(wlHighs, capacity);
+        dominated = Arrays.copyOf(dominated, capacity);
+        nextOnEdge = Arrays.copyOf(nextOnEdge, capacity);
+    }
+
+    private void push(int label) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heap.length);
+        }
+        int pos = heapSize++;
+        double weight = weights[label];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (weights[heap[parent]] <= weight) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = label;
+    }
+
+    private void siftDown(int pos) {
+        int label = heap[pos];
+        double weight = weights[label];
+        int half = heapSize >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < heapSize && weights[heap[right]] < weights[heap[child]]) {
+                child = right;
+            }
+            if (weight <= weights[heap[child]]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = label;
+    }
+}
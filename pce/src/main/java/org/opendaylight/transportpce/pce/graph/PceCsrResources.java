@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints.ResourcePair;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+
+/**
+ * Resources checked by {@link PostAlgoPathValidator} for a wavelength service, indexed like the
+ * vertices and edges of a {@link PceCsrGraph} so that they can be accumulated along partial paths:
+ * the latency budget, the wavelengths available on the source node of each edge and the ordered
+ * list of nodes, CLLI and SRLG to include.
+ *
+ * <p>
+ * Wavelengths 1 to 96 are stored as two longs per vertex, bit i - 1 of the pair for wavelength i.
+ * </p>
+ */
+final class PceCsrResources {
+
+    static final long ALL_WL_LOW = -1L;
+    static final long ALL_WL_HIGH = (1L << (PostAlgoPathValidator.MAX_WAWELENGTH - Long.SIZE)) - 1;
+
+    private final double maxLatency;
+    private final double[] edgeLatencies;
+    private final long[] wlLow;
+    private final long[] wlHigh;
+    private final List<ResourcePair> listToInclude;
+    private final String[] supNodeIds;
+    private final String[] cllis;
+    private final List<List<String>> edgeSrlgs;
+
+    PceCsrResources(PceNode[] nodes, PceLink[] links, PceConstraints pceHardConstraints) {
+        this.maxLatency = pceHardConstraints.getMaxLatency() == -1
+            ? Double.POSITIVE_INFINITY : pceHardConstraints.getMaxLatency();
+        this.listToInclude = new ArrayList<>(pceHardConstraints.getListToInclude());
+
+        this.wlLow = new long[nodes.length];
+        this.wlHigh = new long[nodes.length];
+        this.supNodeIds = new String[nodes.length];
+        this.cllis = new String[nodes.length];
+        for (int v = 0; v < nodes.length; v++) {
+            BitSet wavelengths = nodes[v].getAvailableWavelengths();
+            long[] words = wavelengths.get(1, PostAlgoPathValidator.MAX_WAWELENGTH + 1).toLongArray();
+            wlLow[v] = words.length > 0 ? words[0] : 0L;
+            wlHigh[v] = words.length > 1 ? words[1] : 0L;
+            supNodeIds[v] = nodes[v].getSupNetworkNodeId();
+            cllis[v] = nodes[v].getSupClliNodeId();
+        }
+
+        this.edgeLatencies = new double[links.length];
+        this.edgeSrlgs = new ArrayList<>(links.length);
+        Set<String> srlgNames = pceHardConstraints.getSRLGnames();
+        for (int e = 0; e < links.length; e++) {
+            Double latency = links[e].getLatency();
+            edgeLatencies[e] = latency == null ? 0 : latency;
+            List<String> srlgs = new ArrayList<>();
+            if (links[e].getlinkType() == OpenroadmLinkType.ROADMTOROADM && links[e].getsrlgList() != null) {
+                for (Long srlg : links[e].getsrlgList()) {
+                    if (srlgNames.contains(String.valueOf(srlg))) {
+                        srlgs.add(String.valueOf(srlg));
+                    }
+                }
+            }
+            edgeSrlgs.add(srlgs);
+        }
+    }
+
+    boolean isLatencyExceeded(double latency) {
+        return latency >= maxLatency;
+    }
+
+    double edgeLatency(int edge) {
+        return edgeLatencies[edge];
+    }
+
+    long wlLow(int vertex) {
+        return wlLow[vertex];
+    }
+
+    long wlHigh(int vertex) {
+        return wlHigh[vertex];
+    }
+
+    boolean isIncludeComplete(int includeIndex) {
+        return includeIndex >= listToInclude.size();
+    }
+
+    /**
+     * Advance in the list of resources to include, in order, as {@link PostAlgoPathValidator} does.
+     *
+     * @param includeIndex number of resources already included
+     * @param vertex vertex reached
+     * @param edge edge used to reach the vertex, -1 for the source of the path
+     * @return number of resources included once the vertex is reached
+     */
+    int advanceInclude(int includeIndex, int vertex, int edge) {
+        int index = includeIndex;
+        while (index < listToInclude.size() && isIncluded(listToInclude.get(index), vertex, edge)) {
+            index++;
+        }
+        return index;
+    }
+
+    private boolean isIncluded(ResourcePair resource, int vertex, int edge) {
+        switch (resource.getType()) {
+            case NODE:
+                return resource.getName().equals(supNodeIds[vertex]);
+            case CLLI:
+                return resource.getName().equals(cllis[vertex]);
+            case SRLG:
+                return edge >= 0 && edgeSrlgs.get(edge).contains(resource.getName());
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNodeView;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Joint computation of a working and a protect path between two XPONDERs of openroadm-topology.
+ *
+ * <p>
+ * The pair is searched on the graph of the ROADMs, whose edges are the ROADM-TO-ROADM links, with
+ * Bhandari's version of Suurballe's algorithm: the shortest path is computed first, its links are
+ * reversed with a negative weight and, for node-disjointness, its intermediate ROADMs are split,
+ * then the second shortest path is computed with Bellman-Ford and the links used in both directions
+ * are removed. Unlike a sequential computation, the pair is found whenever one exists, even when the
+ * shortest path is a trap cutting all the other routes. Both directions of a link count as the same
+ * fiber, and the ROADMs of the XPONDERs are shared by the two paths.
+ * </p>
+ *
+ * <p>
+ * SRLG-disjointness is NP-hard in general. The link-disjoint pair is kept when it shares no SRLG,
+ * otherwise the links of the shared SRLGs are penalized and the pair is computed again, each pair
+ * found also being completed by the shortest path avoiding the SRLGs of one of its paths. The lightest
+ * SRLG-disjoint pair is returned.
+ * </p>
+ *
+ * <p>
+ * Each path is then routed between its ROADMs by {@link PceGraph} on a view of the nodes that only
+ * keeps its links, so that the turn rules and the post algo validations, wavelength assignment
+ * included, are applied to both paths. When one of them has no wavelength, the pair is searched
+ * again one wavelength at a time on the links where it is available.
+ * </p>
+ */
+public class PceDisjointPathPair {
+    /* Logging. */
+    private static final Logger LOG = LoggerFactory.getLogger(PceDisjointPathPair.class);
+
+    public enum Disjointness {
+        // no ROADM-TO-ROADM link in common
+        LINK,
+        // no ROADM in common except the ones of the XPONDERs, hence no link in common
+        NODE,
+        // no SRLG in common, hence no link in common
+        SRLG
+    }
+
+    private static final int MAX_SRLG_ITERATIONS = 10;
+
+    // input
+    private final PceNode apceNode;
+    private final PceNode zpceNode;
+    private final Map<NodeId, PceNode> allPceNodes;
+    private final PceConstraints pceHardConstraints;
+    private final PceConstraints pceSoftConstraints;
+    private final String serviceType;
+    private final Disjointness disjointness;
+
+    // ROADM graph, arcs being stored in parallel lists
+    private final Map<String, Integer> vertexIndex = new HashMap<>();
+    private final List<Integer> arcSources = new ArrayList<>();
+    private final List<Integer> arcTargets = new ArrayList<>();
+    private final List<Double> arcWeights = new ArrayList<>();
+    // index of the fiber of a ROADM-TO-ROADM arc shared by its two directions, -1 for the XPONDER arcs
+    private final List<Integer> arcFibers = new ArrayList<>();
+    private final List<PceLink> arcLinks = new ArrayList<>();
+    private final Set<Integer> accessVertices = new HashSet<>();
+    private int source = -1;
+    private int target = -1;
+
+    // results
+    private PceResult workingResult = null;
+    private PceResult protectResult = null;
+    private List<PceLink> workingPath = null;
+    private List<PceLink> protectPath = null;
+
+    public PceDisjointPathPair(PceNode aendNode, PceNode zendNode, Map<NodeId, PceNode> allPceNodes,
+            PceConstraints pceHardConstraints, PceConstraints pceSoftConstraints, String serviceType,
+            Disjointness disjointness) {
+        this.apceNode = aendNode;
+        this.zpceNode = zendNode;
+        this.allPceNodes = allPceNodes;
+        this.pceHardConstraints = pceHardConstraints;
+        this.pceSoftConstraints = pceSoftConstraints;
+        this.serviceType = serviceType;
+        this.disjointness = disjointness;
+    }
+
+    /**
+     * Compute the working and protect paths.
+     *
+     * @return true when both paths are found, the working path being the lightest one
+     */
+    public boolean calcPaths() {
+        LOG.info("In PceDisjointPathPair calcPaths: {} disjoint paths between {} and {}", disjointness,
+            apceNode.getNodeId().getValue(), zpceNode.getNodeId().getValue());
+        if (!"100GE".equals(serviceType) && !"OTU4".equals(serviceType)) {
+            LOG.warn("In PceDisjointPathPair calcPaths: unsupported serviceType {}", serviceType);
+            return false;
+        }
+        buildRoadmGraph(new PceGraph(apceNode, zpceNode, allPceNodes, pceHardConstraints, pceSoftConstraints,
+            new PceResult(), serviceType)::chooseWeight);
+        if (source < 0 || target < 0) {
+            LOG.info("In PceDisjointPathPair calcPaths: XPONDERs not connected to the ROADMs");
+            return false;
+        }
+
+        BitSet enabledArcs = new BitSet(arcLinks.size());
+        enabledArcs.set(0, arcLinks.size());
+        List<List<Integer>> pair = findPair(enabledArcs);
+        if (pair == null) {
+            LOG.info("In PceDisjointPathPair calcPaths: no {} disjoint pair of paths", disjointness);
+            return false;
+        }
+        if (routePair(pair)) {
+            return true;
+        }
+
+        // one of the paths is dropped by the post algo validations, try each wavelength on its own
+        for (int wavelength = 1; wavelength <= PostAlgoPathValidator.MAX_WAWELENGTH; wavelength++) {
+            BitSet wavelengthArcs = wavelengthArcs(wavelength);
+            if (wavelengthArcs.equals(enabledArcs)) {
+                continue;
+            }
+            pair = findPair(wavelengthArcs);
+            if (pair != null && routePair(pair)) {
+                return true;
+            }
+        }
+        LOG.info("In PceDisjointPathPair calcPaths: no {} disjoint pair of paths passing the validations",
+            disjointness);
+        return false;
+    }
+
+    private void buildRoadmGraph(ToDoubleFunction<PceLink> weightFunction) {
+        Map<String, Integer> fiberIndex = new HashMap<>();
+        for (PceNode node : allPceNodes.values()) {
+            for (PceLink link : node.getOutgoingLinks()) {
+                if (!allPceNodes.containsKey(link.getDestId())) {
+                    continue;
+                }
+                if (link.getlinkType() == OpenroadmLinkType.ROADMTOROADM) {
+                    String linkId = link.getLinkId().getValue();
+                    String fiber = link.getOppositeLink() == null
+                        || linkId.compareTo(link.getOppositeLink().getValue()) < 0 ? linkId
+                        : link.getOppositeLink().getValue();
+                    Integer fiberId = fiberIndex.computeIfAbsent(fiber, f -> fiberIndex.size());
+                    addArc(vertex(link.getsourceNetworkSupNodeId()), vertex(link.getdestNetworkSupNodeId()),
+                        weightFunction.applyAsDouble(link), fiberId, link);
+                } else if (link.getlinkType() == OpenroadmLinkType.XPONDEROUTPUT
+                        && link.getSourceId().equals(apceNode.getNodeId())) {
+                    source = vertex(link.getsourceNetworkSupNodeId());
+                    int roadm = vertex(link.getdestNetworkSupNodeId());
+                    accessVertices.add(roadm);
+                    // one arc per path
+                    addArc(source, roadm, 0, -1, link);
+                    addArc(source, roadm, 0, -1, link);
+                } else if (link.getlinkType() == OpenroadmLinkType.XPONDERINPUT
+                        && link.getDestId().equals(zpceNode.getNodeId())) {
+                    target = vertex(link.getdestNetworkSupNodeId());
+                    int roadm = vertex(link.getsourceNetworkSupNodeId());
+                    accessVertices.add(roadm);
+                    addArc(roadm, target, 0, -1, link);
+                    addArc(roadm, target, 0, -1, link);
+                }
+            }
+        }
+        LOG.debug("In PceDisjointPathPair: ROADM graph of {} vertices and {} arcs", vertexIndex.size(),
+            arcLinks.size());
+    }
+
+    private int vertex(String supNodeId) {
+        return vertexIndex.computeIfAbsent(supNodeId, id -> vertexIndex.size());
+    }
+
+    private void addArc(int from, int to, double weight, int fiber, PceLink link) {
+        arcSources.add(from);
+        arcTargets.add(to);
+        arcWeights.add(weight);
+        arcFibers.add(fiber);
+        arcLinks.add(link);
+    }
+
+    // arcs whose nodes all have the wavelength available
+    private BitSet wavelengthArcs(long wavelength) {
+        BitSet arcs = new BitSet(arcLinks.size());
+        for (int arc = 0; arc < arcLinks.size(); arc++) {
+            PceLink link = arcLinks.get(arc);
+            PceNode roadmNode = arcFibers.get(arc) >= 0 || link.getlinkType() == OpenroadmLinkType.XPONDERINPUT
+                ? allPceNodes.get(link.getSourceId()) : allPceNodes.get(link.getDestId());
+            if (roadmNode.checkWL(wavelength)
+                    && (arcFibers.get(arc) < 0 || allPceNodes.get(link.getDestId()).checkWL(wavelength))) {
+                arcs.set(arc);
+            }
+        }
+        return arcs;
+    }
+
+    /*
+     * Disjoint pair of paths of the ROADM graph as lists of arcs, the lightest one first, or null.
+     */
+    private List<List<Integer>> findPair(BitSet enabledArcs) {
+        double[] weights = arcWeights();
+        List<List<Integer>> pair = suurballe(enabledArcs, weights);
+        if (disjointness != Disjointness.SRLG || pair == null || sharedSrlgs(pair.get(0), pair.get(1)).isEmpty()) {
+            return pair;
+        }
+
+        List<List<Integer>> bestPair = null;
+        for (int iteration = 0; iteration < MAX_SRLG_ITERATIONS && pair != null; iteration++) {
+            Set<Long> sharedSrlgs = sharedSrlgs(pair.get(0), pair.get(1));
+            if (sharedSrlgs.isEmpty()) {
+                bestPair = lightestPair(bestPair, pair);
+                break;
+            }
+            for (List<Integer> path : pair) {
+                List<Integer> otherPath = shortestPath(srlgDisjointArcs(enabledArcs, path), arcWeights());
+                if (otherPath != null) {
+                    bestPair = lightestPair(bestPair, Arrays.asList(path, otherPath));
+                }
+            }
+            double penalty = weight(pair.get(0)) + weight(pair.get(1)) + 1;
+            for (int arc = 0; arc < weights.length; arc++) {
+                List<Long> srlgs = arcLinks.get(arc).getsrlgList();
+                if (arcFibers.get(arc) >= 0 && srlgs != null && !Collections.disjoint(srlgs, sharedSrlgs)) {
+                    weights[arc] += penalty;
+                }
+            }
+            pair = suurballe(enabledArcs, weights);
+        }
+        return bestPair;
+    }
+
+    private List<List<Integer>> suurballe(BitSet enabledArcs, double[] weights) {
+        List<Integer> firstPath = shortestPath(enabledArcs, weights);
+        if (firstPath == null) {
+            return null;
+        }
+        // residual graph, the intermediate ROADMs of the first path being split into in and out vertices
+        int nbVertices = vertexIndex.size();
+        int[] outVertex = new int[nbVertices];
+        for (int vertex = 0; vertex < nbVertices; vertex++) {
+            outVertex[vertex] = vertex;
+        }
+        Set<Integer> firstPathFibers = new HashSet<>();
+        for (int arc : firstPath) {
+            firstPathFibers.add(arcFibers.get(arc));
+            int vertex = arcTargets.get(arc);
+            if (disjointness == Disjointness.NODE && vertex != target && !accessVertices.contains(vertex)) {
+                outVertex[vertex] = nbVertices++;
+            }
+        }
+        firstPathFibers.remove(-1);
+        Set<Integer> firstPathArcs = new HashSet<>(firstPath);
+        ResidualGraph residual = new ResidualGraph(nbVertices);
+        for (int arc = enabledArcs.nextSetBit(0); arc >= 0; arc = enabledArcs.nextSetBit(arc + 1)) {
+            if (firstPathArcs.contains(arc)) {
+                residual.add(arcTargets.get(arc), outVertex[arcSources.get(arc)], -weights[arc], arc, true);
+            } else if (!firstPathFibers.contains(arcFibers.get(arc))) {
+                residual.add(outVertex[arcSources.get(arc)], arcTargets.get(arc), weights[arc], arc, false);
+            }
+        }
+        for (int vertex = 0; vertex < outVertex.length; vertex++) {
+            if (outVertex[vertex] != vertex) {
+                residual.add(outVertex[vertex], vertex, 0, -1, false);
+            }
+        }
+        List<Integer> secondPath = residual.shortestPath(source, target);
+        if (secondPath == null) {
+            return null;
+        }
+
+        // remove the arcs of the first path cancelled by the second one and split the remaining arcs
+        Set<Integer> pairArcs = new HashSet<>(firstPath);
+        for (int residualArc : secondPath) {
+            int arc = residual.arcs.get(residualArc);
+            if (residual.reversed.get(residualArc)) {
+                pairArcs.remove(arc);
+            } else if (arc >= 0) {
+                pairArcs.add(arc);
+            }
+        }
+        List<Integer> path1 = extractPath(pairArcs);
+        List<Integer> path2 = extractPath(pairArcs);
+        if (path1 == null || path2 == null) {
+            LOG.warn("In PceDisjointPathPair: pair of paths not split");
+            return null;
+        }
+        return weight(path1) <= weight(path2) ? Arrays.asList(path1, path2) : Arrays.asList(path2, path1);
+    }
+
+    private List<Integer> extractPath(Set<Integer> pairArcs) {
+        List<Integer> path = new ArrayList<>();
+        int vertex = source;
+        while (vertex != target) {
+            Integer next = null;
+            for (Integer arc : pairArcs) {
+                if (arcSources.get(arc) == vertex) {
+                    next = arc;
+                    break;
+                }
+            }
+            if (next == null) {
+                return null;
+            }
+            pairArcs.remove(next);
+            path.add(next);
+            vertex = arcTargets.get(next);
+        }
+        return path;
+    }
+
+    /*
+     * Bellman-Ford shortest path on the enabled arcs of the ROADM graph, as a list of arcs, or null.
+     */
+    private List<Integer> shortestPath(BitSet enabledArcs, double[] weights) {
+        ResidualGraph graph = new ResidualGraph(vertexIndex.size());
+        for (int arc = enabledArcs.nextSetBit(0); arc >= 0; arc = enabledArcs.nextSetBit(arc + 1)) {
+            graph.add(arcSources.get(arc), arcTargets.get(arc), weights[arc], arc, false);
+        }
+        List<Integer> path = graph.shortestPath(source, target);
+        if (path == null) {
+            return null;
+        }
+        List<Integer> arcs = new ArrayList<>(path.size());
+        for (int residualArc : path) {
+            arcs.add(graph.arcs.get(residualArc));
+        }
+        return arcs;
+    }
+
+    private double[] arcWeights() {
+        double[] weights = new double[arcWeights.size()];
+        for (int arc = 0; arc < weights.length; arc++) {
+            weights[arc] = arcWeights.get(arc);
+        }
+        return weights;
+    }
+
+    private BitSet srlgDisjointArcs(BitSet enabledArcs, List<Integer> path) {
+        Set<Integer> pathFibers = new HashSet<>();
+        Set<Long> pathSrlgs = new HashSet<>();
+        for (int arc : path) {
+            if (arcFibers.get(arc) >= 0) {
+                pathFibers.add(arcFibers.get(arc));
+                if (arcLinks.get(arc).getsrlgList() != null) {
+                    pathSrlgs.addAll(arcLinks.get(arc).getsrlgList());
+                }
+            }
+        }
+        BitSet arcs = (BitSet) enabledArcs.clone();
+        for (int arc = arcs.nextSetBit(0); arc >= 0; arc = arcs.nextSetBit(arc + 1)) {
+            List<Long> srlgs = arcLinks.get(arc).getsrlgList();
+            if (pathFibers.contains(arcFibers.get(arc))
+                    || (arcFibers.get(arc) >= 0 && srlgs != null && !Collections.disjoint(srlgs, pathSrlgs))) {
+                arcs.clear(arc);
+            }
+        }
+        return arcs;
+    }
+
+    private Set<Long> sharedSrlgs(List<Integer> path1, List<Integer> path2) {
+        Set<Long> srlgs1 = srlgs(path1);
+        srlgs1.retainAll(srlgs(path2));
+        return srlgs1;
+    }
+
+    private Set<Long> srlgs(List<Integer> path) {
+        Set<Long> srlgs = new HashSet<>();
+        for (int arc : path) {
+            if (arcFibers.get(arc) >= 0 && arcLinks.get(arc).getsrlgList() != null) {
+                srlgs.addAll(arcLinks.get(arc).getsrlgList());
+            }
+        }
+        return srlgs;
+    }
+
+    private double weight(List<Integer> path) {
+        double weight = 0;
+        for (int arc : path) {
+            weight += arcWeights.get(arc);
+        }
+        return weight;
+    }
+
+    private List<List<Integer>> lightestPair(List<List<Integer>> bestPair, List<List<Integer>> pair) {
+        if (bestPair != null && weight(bestPair.get(0)) + weight(bestPair.get(1))
+                <= weight(pair.get(0)) + weight(pair.get(1))) {
+            return bestPair;
+        }
+        return weight(pair.get(0)) <= weight(pair.get(1)) ? pair : Arrays.asList(pair.get(1), pair.get(0));
+    }
+
+    /*
+     * Route both paths on the nodes of their links, the ports of the working path being reserved for the
+     * protect path.
+     */
+    private boolean routePair(List<List<Integer>> pair) {
+        PceGraph working = routePath(pair.get(0), Collections.emptySet());
+        if (working == null) {
+            return false;
+        }
+        List<PceLink> workingLinks = working.getPathAtoZ();
+        Set<String> workingPorts = new HashSet<>();
+        workingPorts.add(PceNodeView.port(workingLinks.get(0).getSourceId(), workingLinks.get(0).getSourceTP()));
+        PceLink lastLink = workingLinks.get(workingLinks.size() - 1);
+        workingPorts.add(PceNodeView.port(lastLink.getDestId(), lastLink.getDestTP()));
+        PceGraph protect = routePath(pair.get(1), workingPorts);
+        if (protect == null) {
+            return false;
+        }
+        workingPath = workingLinks;
+        workingResult = working.getReturnStructure();
+        protectPath = protect.getPathAtoZ();
+        protectResult = protect.getReturnStructure();
+        LOG.info("In PceDisjointPathPair: working path for wl [{}] {}, protect path for wl [{}] {}",
+            workingResult.getResultWavelength(), workingPath, protectResult.getResultWavelength(), protectPath);
+        return true;
+    }
+
+    private PceGraph routePath(List<Integer> path, Set<String> reservedPorts) {
+        Set<NodeId> visibleNodes = new HashSet<>();
+        visibleNodes.add(apceNode.getNodeId());
+        visibleNodes.add(zpceNode.getNodeId());
+        for (int arc : path) {
+            visibleNodes.add(arcLinks.get(arc).getSourceId());
+            visibleNodes.add(arcLinks.get(arc).getDestId());
+        }
+        Map<NodeId, PceNode> nodes = new HashMap<>();
+        for (NodeId nodeId : visibleNodes) {
+            nodes.put(nodeId, new PceNodeView(allPceNodes.get(nodeId), visibleNodes, new BitSet(), reservedPorts));
+        }
+        PceResult pceResult = new PceResult();
+        PceGraph graph = new PceGraph(nodes.get(apceNode.getNodeId()), nodes.get(zpceNode.getNodeId()), nodes,
+            pceHardConstraints, pceSoftConstraints, pceResult, serviceType);
+        if (!graph.calcPath()) {
+            LOG.info("In PceDisjointPathPair: path through {} dropped, {}", visibleNodes,
+                graph.getReturnStructure().getLocalCause());
+            return null;
+        }
+        return graph;
+    }
+
+    public List<PceLink> getWorkingPath() {
+        return workingPath;
+    }
+
+    public List<PceLink> getProtectPath() {
+        return protectPath;
+    }
+
+    public PceResult getWorkingResult() {
+        return workingResult;
+    }
+
+    public PceResult getProtectResult() {
+        return protectResult;
+    }
+
+    /*
+     * Arcs of a graph searched with Bellman-Ford, each one pointing to an arc of the ROADM graph.
+     */
+    private static final class ResidualGraph {
+        private final int nbVertices;
+        private final List<Integer> sources = new ArrayList<>();
+        private final List<Integer> targets = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+        private final List<Integer> arcs = new ArrayList<>();
+        private final List<Boolean> reversed = new ArrayList<>();
+
+        ResidualGraph(int nbVertices) {
+            this.nbVertices = nbVertices;
+        }
+
+        void add(int from, int to, double weight, int arc, boolean reversedArc) {
+            sources.add(from);
+            targets.add(to);
+            weights.add(weight);
+            arcs.add(arc);
+            reversed.add(reversedArc);
+        }
+
+        // queue based Bellman-Ford, the residual graphs of Suurballe's algorithm have no negative cycle
+        List<Integer> shortestPath(int from, int to) {
+            List<List<Integer>> outArcs = new ArrayList<>(nbVertices);
+            for (int vertex = 0; vertex < nbVertices; vertex++) {
+                outArcs.add(new ArrayList<>());
+            }
+            for (int arc = 0; arc < sources.size(); arc++) {
+                outArcs.get(sources.get(arc)).add(arc);
+            }
+            double[] dist = new double[nbVertices];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            int[] pred = new int[nbVertices];
+            Arrays.fill(pred, -1);
+            boolean[] queued = new boolean[nbVertices];
+            Deque<Integer> queue = new ArrayDeque<>();
+            dist[from] = 0;
+            queue.add(from);
+            queued[from] = true;
+            while (!queue.isEmpty()) {
+                int vertex = queue.poll();
+                queued[vertex] = false;
+                for (int arc : outArcs.get(vertex)) {
+                    int next = targets.get(arc);
+                    if (dist[vertex] + weights.get(arc) < dist[next]) {
+                        dist[next] = dist[vertex] + weights.get(arc);
+                        pred[next] = arc;
+                        if (!queued[next]) {
+                            queue.add(next);
+                            queued[next] = true;
+                        }
+                    }
+                }
+            }
+            if (pred[to] < 0) {
+                return null;
+            }
+            List<Integer> path = new ArrayList<>();
+            for (int vertex = to; vertex != from; vertex = sources.get(pred[vertex])) {
+                path.add(pred[vertex]);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+}
@@ -8,17 +8,24 @@
 
 package org.opendaylight.transportpce.pce.graph;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.jgrapht.GraphPath;
 import org.jgrapht.alg.shortestpath.KShortestSimplePaths;
 import org.jgrapht.alg.shortestpath.PathValidator;
 import org.jgrapht.graph.DefaultDirectedWeightedGraph;
 import org.opendaylight.transportpce.common.ResponseCodes;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.metrics.PceTrace;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
@@ -31,6 +38,31 @@ public class PceGraph {
     /* Logging. */
     private static final Logger LOG = LoggerFactory.getLogger(PceGraph.class);
 
+    /**
+     * Graph used by the k shortest paths search.
+     *
+     * <p>
+     * Only the CSR engines generate the paths lazily. The jgrapht 1.2.0 version used by the PCE has no public
+     * Yen iterator (YenShortestPathIterator comes with jgrapht 1.4), so the JGRAPHT engine still computes the
+     * k paths at once with {@link KShortestSimplePaths#getPaths} before they are validated.
+     * </p>
+     */
+    public enum GraphEngine {
+        // JGraphT DefaultDirectedWeightedGraph and KShortestSimplePaths, paths computed at once
+        JGRAPHT,
+        // int indexed compressed sparse row graph and Yen k shortest paths, see PceCsrGraph
+        CSR,
+        // CSR graph with latency, wavelength and include constraints applied during the search
+        CONSTRAINED
+    }
+
+    // post algo validations shared by all graphs, bounded by the number of processors
+    private static final class ValidationExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            new ThreadFactoryBuilder().setNameFormat("pce-path-validation-%d").setDaemon(true).build());
+    }
+
     ////////////////////////// for Graph ///////////////////////////
     // how many paths to bring
     private int kpathsToBring = 10;
@@ -38,6 +70,8 @@ public class PceGraph {
     // max #hops
     private int mhopsPerPath = 50;
 
+    private GraphEngine graphEngine = GraphEngine.JGRAPHT;
+
     // input
     private Map<NodeId, PceNode> allPceNodes = new HashMap<>();
     private PceNode apceNode = null;
@@ -53,6 +87,19 @@ public class PceGraph {
 
     // for path calculation
     List<GraphPath<String, PceGraphEdge>> allWPaths = null;
+    private Iterator<GraphPath<String, PceGraphEdge>> candidatePaths = Collections.emptyIterator();
+    private int generatedPaths = 0;
+
+    private int validatedPaths = 0;
+
+    // with the CSR engines, compute the next path only when the previous one fails the post algo validation,
+    // ignored by the JGRAPHT engine
+    private boolean lazyPathValidation = true;
+
+    // number of candidate paths validated at the same time, 1 for a sequential validation
+    private int validationParallelism = 1;
+
+    private OsnrModel osnrModel = OsnrModel.DEFAULT;
 
     private List<PceLink> pathAtoZ = new ArrayList<>();
 
@@ -74,31 +121,39 @@ public class PceGraph {
 
     public boolean calcPath() {
 
-        LOG.info(" In PCE GRAPH calcPath : K SHORT PATHS algorithm ");
-
-        DefaultDirectedWeightedGraph<String, PceGraphEdge> weightedGraph =
-                new DefaultDirectedWeightedGraph<>(PceGraphEdge.class);
-        populateWithNodes(weightedGraph);
-        populateWithLinks(weightedGraph);
-
-        if (!runKgraphs(weightedGraph)) {
+        LOG.info(" In PCE GRAPH calcPath : K SHORT PATHS algorithm with {} engine", graphEngine);
+
+        PceTrace trace = pceResult.getTrace();
+        long start = System.nanoTime();
+        boolean pathsFound;
+        if (graphEngine != GraphEngine.JGRAPHT) {
+            PceCsrGraph csrGraph = new PceCsrGraph(allPceNodes, this::chooseWeight);
+            start = recordPhase(trace, PceTrace.Phase.GRAPH_BUILD, start);
+            pathsFound = runKgraphs(csrGraph);
+        } else {
+            DefaultDirectedWeightedGraph<String, PceGraphEdge> weightedGraph =
+                    new DefaultDirectedWeightedGraph<>(PceGraphEdge.class);
+            populateWithNodes(weightedGraph);
+            populateWithLinks(weightedGraph);
+            start = recordPhase(trace, PceTrace.Phase.GRAPH_BUILD, start);
+            pathsFound = runKgraphs(weightedGraph);
+        }
+        // with lazy path validation, the paths after the first one are generated during the validation
+        start = recordPhase(trace, PceTrace.Phase.K_PATHS, start);
+        if (!pathsFound) {
+            trace.reject(apceNode.getNodeId().getValue() + " -> " + zpceNode.getNodeId().getValue(),
+                PceTrace.Rejection.NO_PATH);
             LOG.info("In calcPath : pceResult {}", pceResult);
             return false;
         }
 
-        // validate found paths
+        // validate found paths, lazily generated ones are only computed when the previous ones are dropped
         pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
-        for (GraphPath<String, PceGraphEdge> path : allWPaths) {
-            PostAlgoPathValidator papv = new PostAlgoPathValidator();
-            pceResult = papv.checkPath(path, allPceNodes, pceResult, pceHardConstraints, serviceType);
-            LOG.info("In calcPath after PostAlgoPathValidator {} {}",
-                    pceResult.getResponseCode(), ResponseCodes.RESPONSE_OK);
-
-            if (!pceResult.getResponseCode().equals(ResponseCodes.RESPONSE_OK)) {
-                LOG.info("In calcPath: post algo validations DROPPED the path {}", path);
-                continue;
-            }
-
+        validatedPaths = 0;
+        GraphPath<String, PceGraphEdge> path = validationParallelism > 1 ? validateConcurrently()
+            : validateSequentially();
+        recordPhase(trace, PceTrace.Phase.POST_VALIDATION, start);
+        if (path != null) {
             // build pathAtoZ
             pathAtoZ.clear();
             for (PceGraphEdge edge : path.getEdgeList()) {
@@ -109,15 +164,14 @@ public class PceGraph {
             if (("100GE".equals(serviceType)) || ("OTU4".equals(serviceType))) {
                 LOG.info("In calcPath Path FOUND path for wl [{}], hops {}, distance per metrics {}, path AtoZ {}",
                         pceResult.getResultWavelength(), pathAtoZ.size(), path.getWeight(), pathAtoZ);
-                break;
             } else {
                 // Service is at OTN layer and is relying on a supporting wavelength service
                 LOG.info("In calcPath Path FOUND path for hops {}, distance per metrics {}, path AtoZ {}",
                         pathAtoZ.size(), path.getWeight(), pathAtoZ);
-                break;
             }
-
         }
+        pceResult.setGeneratedPaths(generatedPaths);
+        pceResult.setValidatedPaths(validatedPaths);
 
         if (shortestPathAtoZ != null) {
             LOG.info("In calcPath CHOOSEN PATH for wl [{}], hops {}, path AtoZ {}",
@@ -127,6 +181,92 @@ public class PceGraph {
         return (pceResult.getStatus());
     }
 
+    private static long recordPhase(PceTrace trace, PceTrace.Phase phase, long start) {
+        long end = System.nanoTime();
+        trace.record(phase, end - start);
+        return end;
+    }
+
+    private void dropPath(GraphPath<String, PceGraphEdge> path) {
+        LOG.debug("In calcPath: post algo validations DROPPED the path {}", path);
+        if (pceResult.getRejection() != null) {
+            pceResult.getTrace().reject(path.getVertexList().toString(), pceResult.getRejection());
+        }
+    }
+
+    private GraphPath<String, PceGraphEdge> validateSequentially() {
+        while (validatedPaths < kpathsToBring && candidatePaths.hasNext()) {
+            GraphPath<String, PceGraphEdge> path = candidatePaths.next();
+            validatedPaths++;
+            generatedPaths = Math.max(generatedPaths, validatedPaths);
+            PostAlgoPathValidator papv = new PostAlgoPathValidator(osnrModel);
+            pceResult = papv.checkPath(path, allPceNodes, pceResult, pceHardConstraints, serviceType);
+            LOG.debug("In calcPath after PostAlgoPathValidator {} {}",
+                    pceResult.getResponseCode(), ResponseCodes.RESPONSE_OK);
+
+            if (pceResult.getResponseCode().equals(ResponseCodes.RESPONSE_OK)) {
+                return path;
+            }
+            dropPath(path);
+        }
+        return null;
+    }
+
+    /*
+     * Validate up to validationParallelism candidates at a time on the shared executor, each one on its own
+     * copy of pceResult. Results are consumed in the order of the candidates so that the lightest valid path
+     * is chosen, as with the sequential validation.
+     */
+    private GraphPath<String, PceGraphEdge> validateConcurrently() {
+        ExecutorService executor = ValidationExecutorHolder.EXECUTOR;
+        PceResult initialResult = pceResult;
+        List<GraphPath<String, PceGraphEdge>> paths = new ArrayList<>();
+        List<Future<PceResult>> results = new ArrayList<>();
+        try {
+            while (true) {
+                while (results.size() - validatedPaths < validationParallelism && results.size() < kpathsToBring
+                        && candidatePaths.hasNext()) {
+                    GraphPath<String, PceGraphEdge> candidate = candidatePaths.next();
+                    paths.add(candidate);
+                    results.add(executor.submit(() -> new PostAlgoPathValidator(osnrModel).checkPath(candidate,
+                        allPceNodes, new PceResult(initialResult), pceHardConstraints, serviceType)));
+                }
+                generatedPaths = Math.max(generatedPaths, results.size());
+                if (validatedPaths == results.size()) {
+                    return null;
+                }
+                GraphPath<String, PceGraphEdge> path = paths.get(validatedPaths);
+                pceResult = getValidationResult(results.get(validatedPaths), initialResult);
+                validatedPaths++;
+                LOG.debug("In calcPath after PostAlgoPathValidator {} {}",
+                        pceResult.getResponseCode(), ResponseCodes.RESPONSE_OK);
+                if (pceResult.getResponseCode().equals(ResponseCodes.RESPONSE_OK)) {
+                    return path;
+                }
+                dropPath(path);
+            }
+        } finally {
+            for (int i = validatedPaths; i < results.size(); i++) {
+                results.get(i).cancel(true);
+            }
+        }
+    }
+
+    private static PceResult getValidationResult(Future<PceResult> future, PceResult initialResult) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("In calcPath: interrupted during post algo validations", e);
+        } catch (ExecutionException e) {
+            LOG.error("In calcPath: post algo validations failed", e);
+        }
+        PceResult failed = new PceResult(initialResult);
+        failed.setRC(ResponseCodes.RESPONSE_FAILED);
+        failed.setRejection(null);
+        return failed;
+    }
+
     private boolean runKgraphs(DefaultDirectedWeightedGraph<String, PceGraphEdge> weightedGraph) {
 
         if (weightedGraph.edgeSet().isEmpty() || weightedGraph.vertexSet().isEmpty()) {
@@ -137,9 +277,39 @@ public class PceGraph {
         // KShortestPaths on weightedGraph
         KShortestSimplePaths<String, PceGraphEdge> swp =
             new KShortestSimplePaths<>(weightedGraph, mhopsPerPath, wpv);
-        allWPaths = swp.getPaths(apceNode.getNodeId().getValue(), zpceNode.getNodeId().getValue(), kpathsToBring);
+        setCandidatePaths(swp.getPaths(apceNode.getNodeId().getValue(), zpceNode.getNodeId().getValue(),
+            kpathsToBring));
+        return checkKpaths();
+    }
+
+    private boolean runKgraphs(PceCsrGraph csrGraph) {
 
-        if (allWPaths.isEmpty()) {
+        if (csrGraph.edgeCount() == 0 || csrGraph.vertexCount() == 0) {
+            return false;
+        }
+        // these constraints are only checked by PostAlgoPathValidator for wavelength services
+        PceConstraints searchConstraints = (graphEngine == GraphEngine.CONSTRAINED
+            && ("100GE".equals(serviceType) || "OTU4".equals(serviceType))) ? pceHardConstraints : null;
+        if (lazyPathValidation) {
+            allWPaths = null;
+            generatedPaths = 0;
+            candidatePaths = csrGraph.pathIterator(apceNode.getNodeId().getValue(),
+                zpceNode.getNodeId().getValue(), mhopsPerPath, searchConstraints);
+        } else {
+            setCandidatePaths(csrGraph.getPaths(apceNode.getNodeId().getValue(), zpceNode.getNodeId().getValue(),
+                kpathsToBring, mhopsPerPath, searchConstraints));
+        }
+        return checkKpaths();
+    }
+
+    private void setCandidatePaths(List<GraphPath<String, PceGraphEdge>> paths) {
+        allWPaths = paths;
+        generatedPaths = paths.size();
+        candidatePaths = paths.iterator();
+    }
+
+    private boolean checkKpaths() {
+        if (!candidatePaths.hasNext()) {
             LOG.info(" In runKgraphs : algorithm didn't find any path");
             pceResult.setLocalCause(LocalCause.NO_PATH_EXISTS);
             pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
@@ -147,8 +317,10 @@ public class PceGraph {
         }
 
         // debug print
-        for (GraphPath<String, PceGraphEdge> path : allWPaths) {
-            LOG.debug("path Weight: {} : {}", path.getWeight(), path.getVertexList());
+        if (allWPaths != null) {
+            for (GraphPath<String, PceGraphEdge> path : allWPaths) {
+                LOG.debug("path Weight: {} : {}", path.getWeight(), path.getVertexList());
+            }
         }
 
         return true;
@@ -208,7 +380,7 @@ public class PceGraph {
         return true;
     }
 
-    private double chooseWeight(PceLink link) {
+    double chooseWeight(PceLink link) {
         // HopCount is default
         double weight = 1;
         switch (pceHardConstraints.getPceMetrics()) {
@@ -225,9 +397,14 @@ public class PceGraph {
                         link);
                 }
                 break;
-            // TODO implement IGPMetric and TEMetric - low priority.
             case IGPMetric :
+                weight = link.getIgpMetric();
+                LOG.debug("In PceGraph IGPMetric is used as a metrics. {}", link);
+                break;
             case TEMetric :
+                weight = link.getTeMetric();
+                LOG.debug("In PceGraph TEMetric is used as a metrics. {}", link);
+                break;
             default:
                 LOG.warn("In PceGraph {} not implemented. HopCount works as a default",
                     pceHardConstraints.getPceMetrics());
@@ -244,6 +421,38 @@ public class PceGraph {
         this.kpathsToBring = kpathsToBring;
     }
 
+    public GraphEngine getGraphEngine() {
+        return graphEngine;
+    }
+
+    public void setGraphEngine(GraphEngine graphEngine) {
+        this.graphEngine = graphEngine;
+    }
+
+    public boolean isLazyPathValidation() {
+        return lazyPathValidation;
+    }
+
+    public void setLazyPathValidation(boolean lazyPathValidation) {
+        this.lazyPathValidation = lazyPathValidation;
+    }
+
+    public int getValidationParallelism() {
+        return validationParallelism;
+    }
+
+    public void setValidationParallelism(int validationParallelism) {
+        this.validationParallelism = validationParallelism;
+    }
+
+    public OsnrModel getOsnrModel() {
+        return osnrModel;
+    }
+
+    public void setOsnrModel(OsnrModel osnrModel) {
+        this.osnrModel = osnrModel;
+    }
+
     public void setMhopsPerPath(int mhopsPerPath) {
         this.mhopsPerPath = mhopsPerPath;
     }
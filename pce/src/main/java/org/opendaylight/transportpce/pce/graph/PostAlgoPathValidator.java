@@ -10,14 +10,17 @@ package org.opendaylight.transportpce.pce.graph;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import org.jgrapht.GraphPath;
 import org.opendaylight.transportpce.common.ResponseCodes;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints.ResourcePair;
+import org.opendaylight.transportpce.pce.metrics.PceTrace.Rejection;
+import org.opendaylight.transportpce.pce.networkanalyzer.OtnTribAllocator;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
@@ -30,12 +33,19 @@ public class PostAlgoPathValidator {
     /* Logging. */
     private static final Logger LOG = LoggerFactory.getLogger(PostAlgoPathValidator.class);
 
-    private static final int MAX_WAWELENGTH = 96;
-    private static final double MIN_OSNR_W100G = 17;
-    private static final double TRX_OSNR = 33;
-    private static final double ADD_OSNR = 30;
-    public static final Long CONST_OSNR = 1L;
-    public static final double SYS_MARGIN = 0;
+    static final int MAX_WAWELENGTH = 96;
+    private static final SpectrumAssignment FIXED_GRID = SpectrumAssignment.fixedGrid();
+    private static final OtnTribAllocator.Policy TRIB_ALLOCATION_POLICY = OtnTribAllocator.Policy.CONTIGUOUS;
+
+    private final OsnrModel osnrModel;
+
+    public PostAlgoPathValidator() {
+        this(OsnrModel.DEFAULT);
+    }
+
+    public PostAlgoPathValidator(OsnrModel osnrModel) {
+        this.osnrModel = osnrModel;
+    }
 
     @SuppressFBWarnings(
         value = "SF_SWITCH_FALLTHROUGH",
@@ -43,9 +53,11 @@ public class PostAlgoPathValidator {
     public PceResult checkPath(GraphPath<String, PceGraphEdge> path, Map<NodeId, PceNode> allPceNodes,
         PceResult pceResult, PceConstraints pceHardConstraints, String serviceType) {
 
+        pceResult.setRejection(null);
         // check if the path is empty
         if (path.getEdgeList().isEmpty()) {
             pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
+            pceResult.setRejection(Rejection.EMPTY_PATH);
             return pceResult;
         }
 
@@ -61,15 +73,17 @@ public class PostAlgoPathValidator {
                 if (waveL < 0) {
                     pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
                     pceResult.setLocalCause(PceResult.LocalCause.NO_PATH_EXISTS);
+                    pceResult.setRejection(Rejection.NO_WAVELENGTH);
                     return pceResult;
                 }
                 pceResult.setResultWavelength(waveL);
-                LOG.info("In PostAlgoPathValidator: chooseWavelength WL found {} {}", waveL, path);
+                LOG.debug("In PostAlgoPathValidator: chooseWavelength WL found {} {}", waveL, path);
 
                 // Check the OSNR
                 if (!checkOSNR(path)) {
                     pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
                     pceResult.setLocalCause(PceResult.LocalCause.OUT_OF_SPEC_OSNR);
+                    pceResult.setRejection(Rejection.OUT_OF_SPEC_OSNR);
                     return pceResult;
                 }
 
@@ -78,6 +92,7 @@ public class PostAlgoPathValidator {
                         && (!checkLatency(pceHardConstraints.getMaxLatency(), path))) {
                     pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
                     pceResult.setLocalCause(PceResult.LocalCause.TOO_HIGH_LATENCY);
+                    pceResult.setRejection(Rejection.TOO_HIGH_LATENCY);
                     return pceResult;
                 }
 
@@ -85,6 +100,7 @@ public class PostAlgoPathValidator {
                 if (!checkInclude(path, pceHardConstraints)) {
                     pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
                     pceResult.setLocalCause(PceResult.LocalCause.HD_NODE_INCLUDE);
+                    pceResult.setRejection(Rejection.HD_NODE_INCLUDE);
                     return pceResult;
                 }
 
@@ -105,23 +121,28 @@ public class PostAlgoPathValidator {
                 Map<String, Uint16> tribPort = chooseTribPort(path, allPceNodes);
                 Map<String, List<Uint16>> tribSlot = chooseTribSlot(path, allPceNodes, tribSlotNb);
 
-                if (tribPort != null && tribSlot != null) {
+                if (tribPort == null) {
+                    pceResult.setRejection(Rejection.NO_TRIB_PORT);
+                } else if (tribSlot == null) {
+                    pceResult.setRejection(Rejection.NO_TRIB_SLOT);
+                } else {
                     pceResult.setResultTribPort(tribPort);
                     pceResult.setResultTribSlot(tribSlot);
                     pceResult.setResultTribSlotNb(tribSlotNb);
                     pceResult.setRC(ResponseCodes.RESPONSE_OK);
-                    LOG.info("In PostAlgoPathValidator: found TribPort {} - tribSlot {} - tribSlotNb {}",
+                    LOG.debug("In PostAlgoPathValidator: found TribPort {} - tribSlot {} - tribSlotNb {}",
                         tribPort, tribSlot, tribSlotNb);
                 }
                 break;
 
             case "ODU4":
                 pceResult.setRC(ResponseCodes.RESPONSE_OK);
-                LOG.info("In PostAlgoPathValidator: ODU4 path found {}", path);
+                LOG.debug("In PostAlgoPathValidator: ODU4 path found {}", path);
                 break;
 
             default:
                 pceResult.setRC(ResponseCodes.RESPONSE_FAILED);
+                pceResult.setRejection(Rejection.UNSUPPORTED_SERVICE_TYPE);
                 LOG.warn("In PostAlgoPathValidator checkPath: unsupported serviceType {} found {}",
                     serviceType, path);
                 break;
@@ -131,25 +152,19 @@ public class PostAlgoPathValidator {
     }
 
     // Choose the first available wavelength from the source to the destination
-    private Long chooseWavelength(GraphPath<String, PceGraphEdge> path, Map<NodeId, PceNode> allPceNodes) {
-        Long wavelength = -1L;
-        for (long i = 1; i <= MAX_WAWELENGTH; i++) {
-            boolean completed = true;
-            LOG.debug("In chooseWavelength: {} {}", path.getLength(), path);
-            for (PceGraphEdge edge : path.getEdgeList()) {
-                LOG.debug("In chooseWavelength: source {} ", edge.link().getSourceId());
-                PceNode pceNode = allPceNodes.get(edge.link().getSourceId());
-                if (!pceNode.checkWL(i)) {
-                    completed = false;
-                    break;
-                }
-            }
-            if (completed) {
-                wavelength = i;
-                break;
+    static Long chooseWavelength(GraphPath<String, PceGraphEdge> path, Map<NodeId, PceNode> allPceNodes) {
+        LOG.debug("In chooseWavelength: {} {}", path.getLength(), path);
+        BitSet commonWL = new BitSet(MAX_WAWELENGTH + 1);
+        commonWL.set(1, MAX_WAWELENGTH + 1);
+        for (PceGraphEdge edge : path.getEdgeList()) {
+            LOG.debug("In chooseWavelength: source {} ", edge.link().getSourceId());
+            PceNode pceNode = allPceNodes.get(edge.link().getSourceId());
+            commonWL.and(pceNode.getAvailableWavelengths());
+            if (commonWL.isEmpty()) {
+                return -1L;
             }
         }
-        return wavelength;
+        return FIXED_GRID.assignWavelength(commonWL);
     }
 
     // Check the latency
@@ -194,24 +209,19 @@ public class PostAlgoPathValidator {
         listOfElementsSRLG.addAll(listOfElementsBuild(pathEdges, PceConstraints.ResourceType.SRLG,
             pceHardConstraintsInput));
 
-        // validation: check each type for each element
+        // validation: check each type for each element, in order, from the position of the previous one
+        int position = 0;
         for (ResourcePair next : listToInclude) {
             int indx = -1;
             switch (next.getType()) {
                 case NODE:
-                    if (listOfElementsSubNode.contains(next.getName())) {
-                        indx = listOfElementsSubNode.indexOf(next.getName());
-                    }
+                    indx = indexOf(listOfElementsSubNode, next.getName(), position);
                     break;
                 case SRLG:
-                    if (listOfElementsSRLG.contains(next.getName())) {
-                        indx = listOfElementsSRLG.indexOf(next.getName());
-                    }
+                    indx = indexOf(listOfElementsSRLG, next.getName(), position);
                     break;
                 case CLLI:
-                    if (listOfElementsCLLI.contains(next.getName())) {
-                        indx = listOfElementsCLLI.indexOf(next.getName());
-                    }
+                    indx = indexOf(listOfElementsCLLI, next.getName(), position);
                     break;
                 default:
                     LOG.warn(" in checkInclude vertex list unsupported resource type: [{}]", next.getType());
@@ -223,16 +233,22 @@ public class PostAlgoPathValidator {
             }
 
             LOG.debug(" in checkInclude next found {} in {}", next.getName(), path.getVertexList());
-
-            listOfElementsSubNode.subList(0, indx).clear();
-            listOfElementsCLLI.subList(0, indx).clear();
-            listOfElementsSRLG.subList(0, indx).clear();
+            position = indx;
         }
 
-        LOG.info(" in checkInclude passed : {} ", path.getVertexList());
+        LOG.debug(" in checkInclude passed : {} ", path.getVertexList());
         return true;
     }
 
+    private static int indexOf(List<String> elements, String name, int from) {
+        for (int i = from; i < elements.size(); i++) {
+            if (name.equals(elements.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     private List<String> listOfElementsBuild(List<PceGraphEdge> pathEdges, PceConstraints.ResourceType type,
         PceConstraints pceHardConstraints) {
 
@@ -259,7 +275,7 @@ public class PostAlgoPathValidator {
                         String srlgStr = String.valueOf(srlg);
                         if (pceHardConstraints.getSRLGnames().contains(srlgStr)) {
                             listOfElements.add(srlgStr);
-                            LOG.info("listOfElementsBuild. FOUND SRLG {} in link {}", srlgStr, link.link());
+                            LOG.debug("listOfElementsBuild. FOUND SRLG {} in link {}", srlgStr, link.link());
                             found = true;
                         }
                     }
@@ -277,115 +293,62 @@ public class PostAlgoPathValidator {
 
     private Map<String, Uint16> chooseTribPort(GraphPath<String,
         PceGraphEdge> path, Map<NodeId, PceNode> allPceNodes) {
-        LOG.info("In choosetribPort: edgeList = {} ", path.getEdgeList());
+        LOG.debug("In choosetribPort: edgeList = {} ", path.getEdgeList());
+        BitSet tribPorts = OtnTribAllocator.intersection(
+            pathTpBitmaps(path, allPceNodes, PceNode::getAvailableTribPorts));
+        BitSet tribPort = OtnTribAllocator.allocate(tribPorts, 1, TRIB_ALLOCATION_POLICY);
+        if (tribPort == null) {
+            LOG.warn("In choosetribPort: no tributary port available on the whole path");
+            return null;
+        }
         Map<String, Uint16> tribPortMap = new HashMap<>();
-
         for (PceGraphEdge edge : path.getEdgeList()) {
-            NodeId linkSrcNode = edge.link().getSourceId();
-            String linkSrcTp = edge.link().getSourceTP().toString();
-            NodeId linkDestNode = edge.link().getDestId();
-            String linkDestTp = edge.link().getDestTP().toString();
-            PceNode pceOtnNodeSrc = allPceNodes.get(linkSrcNode);
-            PceNode pceOtnNodeDest = allPceNodes.get(linkDestNode);
-            List<Uint16> srcTpnPool = pceOtnNodeSrc.getAvailableTribPorts().get(linkSrcTp);
-            List<Uint16> destTpnPool = pceOtnNodeDest.getAvailableTribPorts().get(linkDestTp);
-            List<Uint16> commonEdgeTpnPool = new ArrayList<>();
-            for (Uint16 integer : srcTpnPool) {
-                if (destTpnPool.contains(integer)) {
-                    commonEdgeTpnPool.add(integer);
-                }
-            }
-            Collections.sort(commonEdgeTpnPool);
-            if (!commonEdgeTpnPool.isEmpty()) {
-                tribPortMap.put(edge.link().getLinkId().getValue(), commonEdgeTpnPool.get(0));
-            }
+            tribPortMap.put(edge.link().getLinkId().getValue(), Uint16.valueOf(tribPort.nextSetBit(1)));
         }
-        tribPortMap.forEach((k,v) -> LOG.info("TribPortMap : k = {}, v = {}", k, v));
+        tribPortMap.forEach((k,v) -> LOG.debug("TribPortMap : k = {}, v = {}", k, v));
         return tribPortMap;
     }
 
     private Map<String, List<Uint16>> chooseTribSlot(GraphPath<String,
         PceGraphEdge> path, Map<NodeId, PceNode> allPceNodes, int nbSlot) {
-        LOG.info("In choosetribSlot2: edgeList = {} ", path.getEdgeList());
+        LOG.debug("In choosetribSlot: edgeList = {} ", path.getEdgeList());
+        BitSet tribSlots = OtnTribAllocator.intersection(
+            pathTpBitmaps(path, allPceNodes, PceNode::getAvailableTribSlots));
+        BitSet allocated = OtnTribAllocator.allocate(tribSlots, nbSlot, TRIB_ALLOCATION_POLICY);
+        if (allocated == null) {
+            LOG.warn("In choosetribSlot: no block of {} tributary slots available on the whole path", nbSlot);
+            return null;
+        }
         Map<String, List<Uint16>> tribSlotMap = new HashMap<>();
-
         for (PceGraphEdge edge : path.getEdgeList()) {
-            NodeId linkSrcNode = edge.link().getSourceId();
-            String linkSrcTp = edge.link().getSourceTP().toString();
-            NodeId linkDestNode = edge.link().getDestId();
-            String linkDestTp = edge.link().getDestTP().toString();
-            PceNode pceOtnNodeSrc = allPceNodes.get(linkSrcNode);
-            PceNode pceOtnNodeDest = allPceNodes.get(linkDestNode);
-            List<Uint16> srcTsPool = pceOtnNodeSrc.getAvailableTribSlots().get(linkSrcTp);
-            List<Uint16> destTsPool = pceOtnNodeDest.getAvailableTribSlots().get(linkDestTp);
-            List<Uint16> commonEdgeTsPool = new ArrayList<>();
-            List<Uint16> tribSlotList = new ArrayList<>();
-            for (Uint16 integer : srcTsPool) {
-                if (destTsPool.contains(integer)) {
-                    commonEdgeTsPool.add(integer);
-                }
-            }
-            Collections.sort(commonEdgeTsPool);
-            boolean discontinue = true;
-            int index = 0;
-            while (discontinue && (commonEdgeTsPool.size() - index >= nbSlot)) {
-                discontinue = false;
-                Integer val = commonEdgeTsPool.get(index).toJava();
-                for (int i = 0; i < nbSlot; i++) {
-                    if (commonEdgeTsPool.get(index + i).equals(Uint16.valueOf(val + i))) {
-                        tribSlotList.add(commonEdgeTsPool.get(index + i));
-                    } else {
-                        discontinue = true;
-                        tribSlotList.clear();
-                        index += i;
-                        break;
-                    }
-                }
-            }
-            tribSlotMap.put(edge.link().getLinkId().getValue(), tribSlotList);
+            tribSlotMap.put(edge.link().getLinkId().getValue(), OtnTribAllocator.toList(allocated));
         }
-        tribSlotMap.forEach((k,v) -> LOG.info("TribSlotMap : k = {}, v = {}", k, v));
+        tribSlotMap.forEach((k,v) -> LOG.debug("TribSlotMap : k = {}, v = {}", k, v));
         return tribSlotMap;
     }
 
-    // Check the path OSNR
-    private boolean checkOSNR(GraphPath<String, PceGraphEdge> path) {
-        double linkOsnrDb;
-        double osnrDb = 0;
-        LOG.info("- In checkOSNR: OSNR of the transmitter = {} dB", TRX_OSNR);
-        LOG.info("- In checkOSNR: add-path incremental OSNR = {} dB", ADD_OSNR);
-        double inverseLocalOsnr = getInverseOsnrLinkLu(TRX_OSNR) + getInverseOsnrLinkLu(ADD_OSNR);
+    // bitmaps of both ends of each link, the renderer configures the same tributary port and slots on the path
+    private static List<BitSet> pathTpBitmaps(GraphPath<String, PceGraphEdge> path,
+            Map<NodeId, PceNode> allPceNodes, Function<PceNode, Map<String, BitSet>> tpBitmaps) {
+        List<BitSet> bitmaps = new ArrayList<>();
         for (PceGraphEdge edge : path.getEdgeList()) {
-            if (edge.link().getlinkType() == OpenroadmLinkType.ROADMTOROADM) {
-                // link OSNR in dB
-                linkOsnrDb = edge.link().getosnr();
-                LOG.info("- In checkOSNR: OSNR of {} = {} dB", edge.link().getLinkId().getValue(), linkOsnrDb);
-                // 1 over the local OSNR, in linear units
-                inverseLocalOsnr += getInverseOsnrLinkLu(linkOsnrDb);
-            }
+            Map<String, BitSet> srcBitmaps = tpBitmaps.apply(allPceNodes.get(edge.link().getSourceId()));
+            Map<String, BitSet> destBitmaps = tpBitmaps.apply(allPceNodes.get(edge.link().getDestId()));
+            bitmaps.add(srcBitmaps == null ? null : srcBitmaps.get(edge.link().getSourceTP().toString()));
+            bitmaps.add(destBitmaps == null ? null : destBitmaps.get(edge.link().getDestTP().toString()));
         }
-        try {
-            osnrDb = getOsnrDb(1 / inverseLocalOsnr);
-        } catch (ArithmeticException e) {
-            LOG.debug("In checkOSNR: OSNR is equal to 0 and the number of links is: {}", path.getEdgeList().size());
-            return false;
-        }
-        LOG.info("In checkOSNR: OSNR of the path is {} dB", osnrDb);
-        return ((osnrDb + SYS_MARGIN) > MIN_OSNR_W100G);
-    }
-
-    private double getOsnrDb(double osnrLu) {
-        double osnrDb;
-        osnrDb = 10 * Math.log10(osnrLu);
-        return osnrDb;
+        return bitmaps;
     }
 
-    private double getInverseOsnrLinkLu(double linkOsnrDb) {
-        // 1 over the link OSNR, in linear units
-        double linkOsnrLu;
-        linkOsnrLu = Math.pow(10, (linkOsnrDb / 10.0));
-        LOG.debug("In retrieveosnr: the inverse of link osnr is {} (Linear Unit)", linkOsnrLu);
-        return (CONST_OSNR / linkOsnrLu);
+    // Check the path OSNR
+    private boolean checkOSNR(GraphPath<String, PceGraphEdge> path) {
+        double inverseOsnr = osnrModel.getStartInverseOsnr();
+        for (PceGraphEdge edge : path.getEdgeList()) {
+            inverseOsnr = osnrModel.accumulate(inverseOsnr, edge.link());
+        }
+        double osnrDb = OsnrModel.toDb(inverseOsnr);
+        LOG.debug("In checkOSNR: OSNR of the path is {} dB", osnrDb);
+        return osnrModel.isOsnrSufficient(osnrDb, OsnrModel.RATE_100G, OsnrModel.DP_QPSK);
     }
 
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int items in [0, capacity) keyed by a double, with decrease-key support.
+ * Items and keys are stored in primitive arrays so that no boxing happens during a search.
+ */
+final class PrimitiveMinHeap {
+
+    private final int[] heap;
+    private final double[] keys;
+    // position of each item in heap, -1 when absent
+    private final int[] positions;
+    private int size;
+
+    PrimitiveMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(this.positions, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int item) {
+        return positions[item] >= 0;
+    }
+
+    double key(int item) {
+        return keys[item];
+    }
+
+    /**
+     * Insert an item or decrease its key if it is already present with a higher key.
+     *
+     * @param item the item
+     * @param key its key
+     */
+    void insertOrDecrease(int item, double key) {
+        int pos = positions[item];
+        if (pos < 0) {
+            keys[item] = key;
+            heap[size] = item;
+            positions[item] = size;
+            size++;
+            siftUp(size - 1);
+        } else if (key < keys[item]) {
+            keys[item] = key;
+            siftUp(pos);
+        }
+    }
+
+    int poll() {
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int item = heap[pos];
+        double key = keys[item];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            int parentItem = heap[parent];
+            if (keys[parentItem] <= key) {
+                break;
+            }
+            heap[pos] = parentItem;
+            positions[parentItem] = pos;
+            pos = parent;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int item = heap[pos];
+        double key = keys[item];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            heap[pos] = heap[child];
+            positions[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = item;
+        positions[item] = pos;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+
+/**
+ * Spectrum assignment on a grid of 6.25 GHz slots. The spectrum availability is a bitmap where bit i is set
+ * when slot i (1 to {@link #getNbSlots()}) is free, slot 1 being the highest frequency like wavelength
+ * index 1 of the fixed grid. Fixed-grid wavelength i covers the {@value #SLOTS_PER_WAVELENGTH} slots from
+ * (i - 1) * {@value #SLOTS_PER_WAVELENGTH} + 1.
+ *
+ * <p>
+ * The fixed grid of {@link PostAlgoPathValidator#MAX_WAWELENGTH} channels of 50 GHz is the special case of
+ * {@link #fixedGrid()}: first-fit blocks of 8 slots aligned on the channels.
+ * </p>
+ */
+public final class SpectrumAssignment {
+
+    public static final double SLOT_WIDTH_GHZ = 6.25;
+    public static final int SLOTS_PER_WAVELENGTH = 8;
+    public static final int FIXED_GRID_SLOTS = PostAlgoPathValidator.MAX_WAWELENGTH * SLOTS_PER_WAVELENGTH;
+    // center frequency in THz of the upper edge of slot 1, 196.1 THz being the center of wavelength 1
+    private static final double HIGHEST_FREQUENCY = 196.125;
+
+    public enum Policy {
+        /** Lowest free block. */
+        FIRST_FIT,
+        /** Lowest free block at an edge of the smallest range of free slots wide enough. */
+        BEST_FIT,
+        /** Free block at an edge of a range of free slots leaving the lowest fragmentation index. */
+        MIN_FRAGMENTATION
+    }
+
+    private final int nbSlots;
+    private final int alignment;
+    private final Policy policy;
+    private final Map<String, Integer> slotWidths;
+
+    /**
+     * Create a spectrum assignment engine.
+     *
+     * @param nbSlots the number of slots of the grid
+     * @param alignment the granularity, in slots, of the first slot of a block
+     * @param policy the assignment policy
+     * @param slotWidths the number of slots needed by each service type
+     */
+    public SpectrumAssignment(int nbSlots, int alignment, Policy policy, Map<String, Integer> slotWidths) {
+        if (nbSlots <= 0 || alignment <= 0) {
+            throw new IllegalArgumentException("invalid grid of " + nbSlots + " slots aligned on " + alignment);
+        }
+        this.nbSlots = nbSlots;
+        this.alignment = alignment;
+        this.policy = policy;
+        this.slotWidths = new HashMap<>(slotWidths);
+    }
+
+    /**
+     * Get the fixed grid engine, which assigns the same wavelength as {@link PostAlgoPathValidator} did on
+     * 50 GHz channels.
+     *
+     * @return the engine
+     */
+    public static SpectrumAssignment fixedGrid() {
+        return new SpectrumAssignment(FIXED_GRID_SLOTS, SLOTS_PER_WAVELENGTH, Policy.FIRST_FIT,
+            Map.of("100GE", SLOTS_PER_WAVELENGTH, "OTU4", SLOTS_PER_WAVELENGTH));
+    }
+
+    public int getNbSlots() {
+        return nbSlots;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Get the number of slots used by a service type.
+     *
+     * @param serviceType the service type
+     * @return the number of slots, or -1 if the service type has no spectrum width
+     */
+    public int getSlotWidth(String serviceType) {
+        return slotWidths.getOrDefault(serviceType, -1);
+    }
+
+    /**
+     * Choose a block of free slots.
+     *
+     * @param available the spectrum availability, left unchanged
+     * @param width the number of slots of the block
+     * @return the first slot of the block, or -1 if no block is free
+     */
+    public int assign(BitSet available, int width) {
+        return assign(available, width, alignment);
+    }
+
+    private int assign(BitSet available, int width, int align) {
+        if (width <= 0 || width > nbSlots) {
+            return -1;
+        }
+        int best = -1;
+        double bestCost = Double.MAX_VALUE;
+        BitSet grid = available.get(0, nbSlots + 1);
+        grid.clear(0);
+        int start = grid.nextSetBit(1);
+        while (start >= 0) {
+            int end = grid.nextClearBit(start);
+            // first and last aligned blocks of the range of free slots
+            int first = start + (align - (start - 1) % align) % align;
+            int last = end - width - (end - width - 1) % align;
+            if (end - start >= width && first <= last) {
+                switch (policy) {
+                    case FIRST_FIT:
+                        return first;
+                    case BEST_FIT:
+                        if (end - start < bestCost) {
+                            best = first;
+                            bestCost = end - start;
+                        }
+                        break;
+                    case MIN_FRAGMENTATION:
+                        for (int candidate : new int[] {first, last}) {
+                            grid.clear(candidate, candidate + width);
+                            double cost = fragmentation(grid);
+                            grid.set(candidate, candidate + width);
+                            if (cost < bestCost) {
+                                best = candidate;
+                                bestCost = cost;
+                            }
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("unsupported spectrum assignment policy " + policy);
+                }
+            }
+            start = grid.nextSetBit(end);
+        }
+        return best;
+    }
+
+    /**
+     * Choose a fixed-grid wavelength with the policy of this engine.
+     *
+     * @param wavelengths the available wavelengths, bit i for wavelength index i
+     * @return the wavelength index, or -1 if no wavelength is free
+     */
+    public long assignWavelength(BitSet wavelengths) {
+        int slot = assign(toSlots(wavelengths), SLOTS_PER_WAVELENGTH, SLOTS_PER_WAVELENGTH);
+        return slot < 0 ? -1L : (slot - 1) / SLOTS_PER_WAVELENGTH + 1;
+    }
+
+    /**
+     * Get the slots of fixed-grid wavelengths.
+     *
+     * @param wavelengths the available wavelengths, bit i for wavelength index i
+     * @return the available slots
+     */
+    public static BitSet toSlots(BitSet wavelengths) {
+        BitSet slots = new BitSet(FIXED_GRID_SLOTS + 1);
+        for (int wl = wavelengths.nextSetBit(1); wl >= 0 && wl <= PostAlgoPathValidator.MAX_WAWELENGTH;
+                wl = wavelengths.nextSetBit(wl + 1)) {
+            slots.set((wl - 1) * SLOTS_PER_WAVELENGTH + 1, wl * SLOTS_PER_WAVELENGTH + 1);
+        }
+        return slots;
+    }
+
+    /**
+     * Get the external fragmentation of a spectrum, 1 - largest free range / free slots.
+     *
+     * @param available the spectrum availability
+     * @return 0 when the free slots are contiguous or when there is no free slot, close to 1 when they are
+     *         scattered
+     */
+    public static double fragmentation(BitSet available) {
+        int free = 0;
+        int largest = 0;
+        int start = available.nextSetBit(1);
+        while (start >= 0) {
+            int end = available.nextClearBit(start);
+            free += end - start;
+            largest = Math.max(largest, end - start);
+            start = available.nextSetBit(end);
+        }
+        return free == 0 ? 0 : 1 - (double) largest / free;
+    }
+
+    /**
+     * Get the fragmentation index of a ROADM-to-ROADM link, from the wavelengths available on both of its
+     * degrees.
+     *
+     * @param link the link
+     * @param allPceNodes the nodes of the link
+     * @return the fragmentation index of the spectrum of the link
+     */
+    public static double fragmentation(PceLink link, Map<NodeId, PceNode> allPceNodes) {
+        BitSet wavelengths = allPceNodes.get(link.getSourceId()).getAvailableWavelengths();
+        wavelengths.and(allPceNodes.get(link.getDestId()).getAvailableWavelengths());
+        return fragmentation(toSlots(wavelengths));
+    }
+
+    /**
+     * Get the center frequency of a block of slots.
+     *
+     * @param firstSlot the first slot of the block
+     * @param width the number of slots of the block
+     * @return the center frequency in THz
+     */
+    public static double centerFrequency(int firstSlot, int width) {
+        double frequency = HIGHEST_FREQUENCY - (firstSlot - 1 + width / 2.0) * SLOT_WIDTH_GHZ / 1000;
+        return Math.round(frequency * 100_000) / 100_000.0;
+    }
+}
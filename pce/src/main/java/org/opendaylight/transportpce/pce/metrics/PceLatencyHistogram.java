@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies with a bounded relative error, in the manner of HdrHistogram: values are
+ * counted in buckets whose width doubles every {@value #SUB_BUCKETS} buckets, so that the values of a bucket
+ * differ by less than 1/{@value #SUB_BUCKETS} of its lower bound.
+ */
+public class PceLatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // exact buckets for the values below SUB_BUCKETS, then SUB_BUCKETS buckets per power of two
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value the value, negative values being recorded as 0
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        counts.incrementAndGet(index(recorded));
+        sum.add(recorded);
+        max.accumulateAndGet(recorded, Math::max);
+        count.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : sum.sum() / recorded;
+    }
+
+    /**
+     * Value below or equal to which a percentage of the recorded values are.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the highest value of the bucket of the percentile, 0 if no value was recorded
+     */
+    public long getPercentile(double percentile) {
+        long recorded = count.sum();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * Math.min(100, percentile) / 100));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += counts.get(i);
+            if (cumulated >= rank) {
+                return Math.min(highestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - shift * SUB_BUCKETS;
+        long highest = ((mantissa + 1) << shift) - 1;
+        // the shift overflows for the last bucket, which ends at Long.MAX_VALUE
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " mean=" + getMean() + " p50=" + getPercentile(50) + " p90="
+            + getPercentile(90) + " p99=" + getPercentile(99) + " max=" + getMax();
+    }
+}
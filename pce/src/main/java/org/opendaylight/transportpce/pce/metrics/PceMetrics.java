@@ -0,0 +1,330 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.Timeouts;
+import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.pce.metrics.PceTrace.Phase;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.PceComputationMetrics;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.PhaseLatency;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.PhaseLatencyBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.PhaseLatencyKey;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.RequestTrace;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.RequestTraceBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.RequestTraceKey;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.request.trace.PhaseDuration;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.request.trace.PhaseDurationBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.request.trace.Rejection;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.request.trace.RejectionBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.opendaylight.yangtools.yang.common.Uint64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms of the phases of the path computations and traces of the latest computations, exposed
+ * through JMX and written to the pce-computation-metrics container of the operational datastore.
+ *
+ * <p>
+ * Publishing a computation only updates the metrics in memory. The changes are written to the datastore in
+ * a single transaction by a background export, every transportpce.pce.metrics.export.period milliseconds,
+ * so that the computations never wait for the datastore.
+ * </p>
+ */
+public class PceMetrics implements PceMetricsMXBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PceMetrics.class);
+
+    /* number of traces kept. */
+    public static final int DEFAULT_TRACES = 100;
+    /* period of the export to the datastore, in milliseconds. */
+    public static final long DEFAULT_EXPORT_PERIOD = 5000;
+    public static final String OBJECT_NAME = "org.opendaylight.transportpce:type=PceMetrics";
+
+    private final NetworkTransactionService networkTransaction;
+    private final Map<Phase, PceLatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final int maxTraces;
+    private final long exportPeriod;
+    // latest traces by service name, the oldest first
+    private final Map<String, TracedComputation> traces = new LinkedHashMap<>();
+    // changes not exported yet, guarded by traces
+    private final Map<String, TracedComputation> unexportedTraces = new LinkedHashMap<>();
+    private final Set<String> evictedTraces = new HashSet<>();
+    private final EnumSet<Phase> updatedPhases = EnumSet.noneOf(Phase.class);
+    private boolean cleared;
+    private final LongAdder computations = new LongAdder();
+    private final LongAdder failedComputations = new LongAdder();
+    private ScheduledExecutorService exporter;
+    private ObjectName objectName;
+
+    public PceMetrics() {
+        this(null, DEFAULT_TRACES, DEFAULT_EXPORT_PERIOD);
+    }
+
+    /**
+     * Create the metrics.
+     *
+     * @param networkTransaction the service exporting the metrics to the datastore, null to keep them in memory
+     * @param maxTraces the number of traces kept
+     * @param exportPeriod the period of the export to the datastore, in milliseconds, 0 to disable it
+     */
+    public PceMetrics(NetworkTransactionService networkTransaction, int maxTraces, long exportPeriod) {
+        this.networkTransaction = networkTransaction;
+        this.maxTraces = Math.max(1, maxTraces);
+        this.exportPeriod = exportPeriod;
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new PceLatencyHistogram());
+        }
+    }
+
+    /**
+     * Record the phases of a computation in the histograms and keep its trace.
+     *
+     * @param trace the trace of the computation
+     * @param success true if a path was found
+     * @param message the message of the result
+     */
+    public void publish(PceTrace trace, boolean success, String message) {
+        if (!trace.isEnabled()) {
+            return;
+        }
+        trace.getPhaseNanos().forEach((phase, nanos) ->
+            histograms.get(phase).record(TimeUnit.NANOSECONDS.toMicros(nanos)));
+        computations.increment();
+        if (!success) {
+            failedComputations.increment();
+        }
+        String serviceName = String.valueOf(trace.getServiceName());
+        TracedComputation computation = new TracedComputation(trace, success, message);
+        synchronized (traces) {
+            traces.remove(serviceName);
+            traces.put(serviceName, computation);
+            unexportedTraces.remove(serviceName);
+            unexportedTraces.put(serviceName, computation);
+            evictedTraces.remove(serviceName);
+            updatedPhases.addAll(trace.getPhaseNanos().keySet());
+            if (traces.size() > maxTraces) {
+                Iterator<String> oldest = traces.keySet().iterator();
+                String evicted = oldest.next();
+                oldest.remove();
+                unexportedTraces.remove(evicted);
+                evictedTraces.add(evicted);
+            }
+        }
+        LOG.debug("PceMetrics: computation {} {}", success ? "succeeded" : "failed", trace);
+    }
+
+    public PceLatencyHistogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    /**
+     * Trace of the latest computation of a service.
+     *
+     * @param serviceName the name of the service
+     * @return the trace, null if not kept
+     */
+    public PceTrace getTrace(String serviceName) {
+        synchronized (traces) {
+            TracedComputation computation = traces.get(serviceName);
+            return computation == null ? null : computation.trace;
+        }
+    }
+
+    @Override
+    public long getComputations() {
+        return computations.sum();
+    }
+
+    @Override
+    public long getFailedComputations() {
+        return failedComputations.sum();
+    }
+
+    @Override
+    public String[] getPhaseLatencies() {
+        List<String> latencies = new ArrayList<>();
+        histograms.forEach((phase, histogram) -> {
+            if (histogram.getCount() > 0) {
+                latencies.add(phase + " " + histogram);
+            }
+        });
+        return latencies.toArray(new String[0]);
+    }
+
+    @Override
+    public String[] getRecentTraces() {
+        synchronized (traces) {
+            return traces.values().stream().map(TracedComputation::toString).toArray(String[]::new);
+        }
+    }
+
+    @Override
+    public void reset() {
+        histograms.values().forEach(PceLatencyHistogram::reset);
+        computations.reset();
+        failedComputations.reset();
+        synchronized (traces) {
+            traces.clear();
+            unexportedTraces.clear();
+            evictedTraces.clear();
+            updatedPhases.clear();
+            cleared = true;
+        }
+    }
+
+    /**
+     * Register the metrics in JMX and start the export to the datastore.
+     */
+    public synchronized void init() {
+        if (networkTransaction != null && exportPeriod > 0 && exporter == null) {
+            exporter = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("pce-metrics-export-%d").setDaemon(true).build());
+            exporter.scheduleWithFixedDelay(this::export, exportPeriod, exportPeriod, TimeUnit.MILLISECONDS);
+        }
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (InstanceAlreadyExistsException e) {
+            LOG.warn("PceMetrics: {} already registered", OBJECT_NAME);
+        } catch (JMException e) {
+            LOG.warn("PceMetrics: registration of {} failed", OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Stop the export, after a last one, and unregister the metrics from JMX.
+     */
+    public synchronized void close() {
+        if (exporter != null) {
+            exporter.shutdown();
+            exporter = null;
+            export();
+        }
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            LOG.warn("PceMetrics: unregistration of {} failed", objectName, e);
+        }
+        objectName = null;
+    }
+
+    /**
+     * Write the changes published since the previous export to the datastore, in a single transaction.
+     */
+    synchronized void export() {
+        if (networkTransaction == null) {
+            return;
+        }
+        List<TracedComputation> exported;
+        List<String> evicted;
+        Set<Phase> phases;
+        boolean clear;
+        synchronized (traces) {
+            exported = new ArrayList<>(unexportedTraces.values());
+            evicted = new ArrayList<>(evictedTraces);
+            phases = EnumSet.copyOf(updatedPhases);
+            clear = cleared;
+            unexportedTraces.clear();
+            evictedTraces.clear();
+            updatedPhases.clear();
+            cleared = false;
+        }
+        if (exported.isEmpty() && evicted.isEmpty() && phases.isEmpty() && !clear) {
+            return;
+        }
+        InstanceIdentifier<PceComputationMetrics> metricsIid = InstanceIdentifier.create(PceComputationMetrics.class);
+        if (clear) {
+            networkTransaction.delete(LogicalDatastoreType.OPERATIONAL, metricsIid);
+        }
+        for (Phase phase : phases) {
+            PceLatencyHistogram histogram = histograms.get(phase);
+            networkTransaction.put(LogicalDatastoreType.OPERATIONAL,
+                metricsIid.child(PhaseLatency.class, new PhaseLatencyKey(phase.name())),
+                new PhaseLatencyBuilder().setPhase(phase.name()).setCount(Uint64.valueOf(histogram.getCount()))
+                    .setMeanUs(Uint64.valueOf(histogram.getMean()))
+                    .setP50Us(Uint64.valueOf(histogram.getPercentile(50)))
+                    .setP90Us(Uint64.valueOf(histogram.getPercentile(90)))
+                    .setP99Us(Uint64.valueOf(histogram.getPercentile(99)))
+                    .setMaxUs(Uint64.valueOf(histogram.getMax())).build());
+        }
+        for (TracedComputation computation : exported) {
+            String serviceName = String.valueOf(computation.trace.getServiceName());
+            List<PhaseDuration> phaseDurations = new ArrayList<>();
+            computation.trace.getPhaseNanos().forEach((phase, nanos) -> phaseDurations.add(
+                new PhaseDurationBuilder().setPhase(phase.name())
+                    .setDurationUs(Uint64.valueOf(TimeUnit.NANOSECONDS.toMicros(nanos))).build()));
+            List<Rejection> rejections = new ArrayList<>();
+            for (PceTrace.RejectedCandidate rejected : computation.trace.getRejections()) {
+                rejections.add(new RejectionBuilder().setIndex(Uint32.valueOf(rejections.size()))
+                    .setCandidate(rejected.getCandidate()).setReason(rejected.getReason().name()).build());
+            }
+            networkTransaction.put(LogicalDatastoreType.OPERATIONAL,
+                metricsIid.child(RequestTrace.class, new RequestTraceKey(serviceName)),
+                new RequestTraceBuilder().setServiceName(serviceName).setSuccess(computation.success)
+                    .setMessage(computation.message).setPhaseDuration(phaseDurations).setRejection(rejections)
+                    .build());
+        }
+        for (String serviceName : evicted) {
+            networkTransaction.delete(LogicalDatastoreType.OPERATIONAL,
+                metricsIid.child(RequestTrace.class, new RequestTraceKey(serviceName)));
+        }
+        try {
+            networkTransaction.commit().get(Timeouts.DATASTORE_WRITE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("PceMetrics: export to the datastore interrupted");
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.warn("PceMetrics: metrics not updated in the datastore", e);
+        }
+    }
+
+    private static final class TracedComputation {
+        private final PceTrace trace;
+        private final boolean success;
+        private final String message;
+
+        TracedComputation(PceTrace trace, boolean success, String message) {
+            this.trace = trace;
+            this.success = success;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return (success ? "[OK] " : "[FAILED] ") + trace + " : " + message;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.metrics;
+
+/**
+ * JMX view of the path computation metrics.
+ */
+public interface PceMetricsMXBean {
+
+    long getComputations();
+
+    long getFailedComputations();
+
+    /**
+     * Latency statistics of the phases of the path computations, in microseconds.
+     *
+     * @return one line per phase run at least once
+     */
+    String[] getPhaseLatencies();
+
+    /**
+     * Traces of the latest path computations.
+     *
+     * @return one line per computation, the oldest first
+     */
+    String[] getRecentTraces();
+
+    void reset();
+}
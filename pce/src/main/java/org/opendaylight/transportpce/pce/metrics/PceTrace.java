@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trace of the path computation of a request: time spent in each phase and candidate paths rejected, with
+ * the reason of the rejection. The trace is carried by the PceResult of the request and is thread safe, the
+ * candidate paths being possibly validated concurrently.
+ */
+public class PceTrace {
+
+    /* Phases of a path computation, a phase run several times being accumulated. */
+    public enum Phase {
+        READ_MD_SAL,
+        ANALYZE_NW,
+        GRAPH_BUILD,
+        K_PATHS,
+        POST_VALIDATION,
+        GNPY
+    }
+
+    /* Reasons of the rejection of a candidate path. */
+    public enum Rejection {
+        EMPTY_PATH,
+        NO_WAVELENGTH,
+        OUT_OF_SPEC_OSNR,
+        TOO_HIGH_LATENCY,
+        HD_NODE_INCLUDE,
+        NO_TRIB_PORT,
+        NO_TRIB_SLOT,
+        UNSUPPORTED_SERVICE_TYPE,
+        // no candidate path between the end nodes
+        NO_PATH
+    }
+
+    /* Trace of the computations that are not traced, recording nothing. */
+    public static final PceTrace DISABLED = new PceTrace(null);
+
+    // beyond it the rejections are only counted
+    static final int MAX_REJECTIONS = 50;
+
+    private final String serviceName;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final List<RejectedCandidate> rejections = new ArrayList<>();
+    private int rejectionCount = 0;
+
+    public PceTrace(String serviceName) {
+        this.serviceName = serviceName;
+        Arrays.fill(phaseNanos, -1);
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    /**
+     * Add the duration of a run of a phase.
+     *
+     * @param phase the phase
+     * @param nanos the duration of the run, in nanoseconds
+     */
+    public void record(Phase phase, long nanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (phaseNanos) {
+            phaseNanos[phase.ordinal()] = Math.max(0, phaseNanos[phase.ordinal()]) + nanos;
+        }
+    }
+
+    /**
+     * Record the rejection of a candidate path.
+     *
+     * @param candidate the candidate, usually the list of its vertices
+     * @param reason why the candidate is rejected
+     */
+    public void reject(String candidate, Rejection reason) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (rejections) {
+            rejectionCount++;
+            if (rejections.size() < MAX_REJECTIONS) {
+                rejections.add(new RejectedCandidate(candidate, reason));
+            }
+        }
+    }
+
+    /**
+     * Durations of the phases run by the computation.
+     *
+     * @return the duration in nanoseconds of each phase, in the order of the phases
+     */
+    public Map<Phase, Long> getPhaseNanos() {
+        Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+        synchronized (phaseNanos) {
+            for (Phase phase : Phase.values()) {
+                if (phaseNanos[phase.ordinal()] >= 0) {
+                    phases.put(phase, phaseNanos[phase.ordinal()]);
+                }
+            }
+        }
+        return phases;
+    }
+
+    public List<RejectedCandidate> getRejections() {
+        synchronized (rejections) {
+            return Collections.unmodifiableList(new ArrayList<>(rejections));
+        }
+    }
+
+    public int getRejectionCount() {
+        synchronized (rejections) {
+            return rejectionCount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder trace = new StringBuilder(String.valueOf(serviceName));
+        getPhaseNanos().forEach((phase, nanos) -> trace.append(' ').append(phase).append('=')
+            .append(nanos / 1000).append("us"));
+        trace.append(" rejections=").append(getRejectionCount()).append(' ').append(getRejections());
+        return trace.toString();
+    }
+
+    /* A rejected candidate path. */
+    public static final class RejectedCandidate {
+        private final String candidate;
+        private final Rejection reason;
+
+        RejectedCandidate(String candidate, Rejection reason) {
+            this.candidate = candidate;
+            this.reason = reason;
+        }
+
+        public String getCandidate() {
+            return candidate;
+        }
+
+        public Rejection getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return reason + " " + candidate;
+        }
+    }
+}
@@ -10,6 +10,7 @@ package org.opendaylight.transportpce.pce.networkanalyzer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeMap;
 import org.opendaylight.transportpce.common.NetworkUtils;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints;
@@ -33,35 +34,45 @@ public final class MapUtils {
 
     public static void mapDiversityConstraints(List<Node> allNodes, List<Link> allLinks,
             PceConstraints pceHardConstraints) {
-        List<String> excClliNodes = pceHardConstraints.getExcludeClliNodes();
-        List<String> excNodes = pceHardConstraints.getExcludeNodes();
-        List<String> excSrlgLinks = pceHardConstraints.getExcludeSrlgLinks();
+        mapDiversityConstraints(new PceTopologyIndex(allNodes), allLinks, pceHardConstraints);
+    }
+
+    public static void mapDiversityConstraints(PceTopologyIndex index, List<Link> allLinks,
+            PceConstraints pceHardConstraints) {
+        Set<String> excClliNodes = pceHardConstraints.getExcludeClliNodes();
+        Set<String> excNodes = pceHardConstraints.getExcludeNodes();
+        Set<String> excSrlgLinks = pceHardConstraints.getExcludeSrlgLinks();
 
         LOG.info("mapDiversityConstraints before : ExcludeClliNodes {} \n ExcludeNodes {} \n ExcludeSrlgLinks {}",
                 excClliNodes, excNodes, excSrlgLinks);
 
-        for (Node node : allNodes) {
-            if (excClliNodes.contains(node.getNodeId().getValue())) {
-                LOG.debug("mapDiversityConstraints setExcludeCLLI for node {}", node.getNodeId().getValue());
-                pceHardConstraints.setExcludeCLLI(Arrays.asList(getCLLI(node)));
+        for (String nodeId : excClliNodes) {
+            String clli = index.getCLLI(nodeId);
+            if (clli != null) {
+                LOG.debug("mapDiversityConstraints setExcludeCLLI for node {}", nodeId);
+                pceHardConstraints.setExcludeCLLI(Arrays.asList(clli));
             }
-
-            if (excNodes.contains(node.getNodeId().getValue())) {
-                LOG.debug("mapDiversityConstraints setExcludeSupNodes for node {}", node.getNodeId().getValue());
-                pceHardConstraints.setExcludeSupNodes(Arrays.asList(getSupNetworkNode(node)));
+        }
+        for (String nodeId : excNodes) {
+            String supNode = index.getSupNetworkNodeId(nodeId);
+            if (supNode != null) {
+                LOG.debug("mapDiversityConstraints setExcludeSupNodes for node {}", nodeId);
+                pceHardConstraints.setExcludeSupNodes(Arrays.asList(supNode));
             }
         }
 
-        for (Link link : allLinks) {
-            if (excSrlgLinks.contains(link.getLinkId().getValue())) {
-                // zero SRLG means not populated as not OMS link
-                List<Long> srlg = null;
-                if (calcType(link) == OpenroadmLinkType.ROADMTOROADM) {
-                    srlg = getSRLG(link);
-                    if (!srlg.isEmpty()) {
-                        pceHardConstraints.setExcludeSRLG(srlg);
-                        LOG.debug("mapDiversityConstraints setExcludeSRLG {} for link {}",
-                                srlg, link.getLinkId().getValue());
+        if (!excSrlgLinks.isEmpty()) {
+            for (Link link : allLinks) {
+                if (excSrlgLinks.contains(link.getLinkId().getValue())) {
+                    // zero SRLG means not populated as not OMS link
+                    List<Long> srlg = null;
+                    if (calcType(link) == OpenroadmLinkType.ROADMTOROADM) {
+                        srlg = getSRLG(link);
+                        if (!srlg.isEmpty()) {
+                            pceHardConstraints.setExcludeSRLG(srlg);
+                            LOG.debug("mapDiversityConstraints setExcludeSRLG {} for link {}",
+                                    srlg, link.getLinkId().getValue());
+                        }
                     }
                 }
             }
@@ -118,6 +129,9 @@ public final class MapUtils {
 
     public static String getSupNetworkNode(Node node) {
         List<SupportingNode> supNodes = node.getSupportingNode();
+        if (supNodes == null) {
+            return null;
+        }
         for (SupportingNode snode : supNodes) {
             if (NetworkUtils.UNDERLAY_NETWORK_ID.equals(snode.getNetworkRef().getValue())) {
                 return snode.getNodeRef().getValue();
@@ -128,6 +142,9 @@ public final class MapUtils {
 
     public static String getSupClliNode(Node node) {
         List<SupportingNode> supNodes = node.getSupportingNode();
+        if (supNodes == null) {
+            return null;
+        }
         for (SupportingNode snode : supNodes) {
             if (NetworkUtils.CLLI_NETWORK_ID.equals(snode.getNetworkRef().getValue())) {
                 return snode.getNodeRef().getValue();
@@ -0,0 +1,127 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import org.opendaylight.yangtools.yang.common.Uint16;
+
+/**
+ * Tributary port and tributary slot allocation in an ODU4. The availability of a termination point is a
+ * bitmap where bit i is set when the tributary port number or tributary slot i (1 to {@value #ODU4_TRIB_SLOTS})
+ * is free, bit 0 is never used.
+ */
+public final class OtnTribAllocator {
+
+    public static final int ODU4_TRIB_SLOTS = 80;
+
+    public enum Policy {
+        /** Lowest free slots, contiguous or not. */
+        FIRST_FIT,
+        /** Highest free slots, contiguous or not. */
+        LAST_FIT,
+        /** Lowest block of consecutive free slots. */
+        CONTIGUOUS
+    }
+
+    private OtnTribAllocator() {
+    }
+
+    /**
+     * Get the bitmap of a pool of tributary ports or slots.
+     *
+     * @param pool the available tributary port numbers or slots, values outside of the ODU4 range are ignored
+     * @return the availability bitmap
+     */
+    public static BitSet toBitmap(Collection<Uint16> pool) {
+        BitSet bitmap = new BitSet(ODU4_TRIB_SLOTS + 1);
+        if (pool != null) {
+            for (Uint16 value : pool) {
+                int slot = value.toJava();
+                if (slot >= 1 && slot <= ODU4_TRIB_SLOTS) {
+                    bitmap.set(slot);
+                }
+            }
+        }
+        return bitmap;
+    }
+
+    public static List<Uint16> toList(BitSet bitmap) {
+        List<Uint16> list = new ArrayList<>(bitmap.cardinality());
+        for (int slot = bitmap.nextSetBit(1); slot >= 0; slot = bitmap.nextSetBit(slot + 1)) {
+            list.add(Uint16.valueOf(slot));
+        }
+        return list;
+    }
+
+    /**
+     * Get the slots available on all the given bitmaps.
+     *
+     * @param bitmaps the availability of each termination point, a null bitmap has no slot available
+     * @return a new bitmap, empty when there is no bitmap
+     */
+    public static BitSet intersection(Collection<BitSet> bitmaps) {
+        BitSet result = null;
+        for (BitSet bitmap : bitmaps) {
+            if (bitmap == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) bitmap.clone();
+            } else {
+                result.and(bitmap);
+            }
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    /**
+     * Choose slots among the available ones.
+     *
+     * @param available the availability bitmap, left unchanged
+     * @param nbSlot the number of slots to allocate
+     * @param policy the allocation policy
+     * @return the chosen slots, or null if there are not enough free slots
+     */
+    public static BitSet allocate(BitSet available, int nbSlot, Policy policy) {
+        if (nbSlot <= 0 || available.cardinality() < nbSlot) {
+            return null;
+        }
+        BitSet allocated = new BitSet(ODU4_TRIB_SLOTS + 1);
+        switch (policy) {
+            case FIRST_FIT:
+                for (int slot = available.nextSetBit(1); allocated.cardinality() < nbSlot;
+                        slot = available.nextSetBit(slot + 1)) {
+                    allocated.set(slot);
+                }
+                return allocated;
+            case LAST_FIT:
+                for (int slot = available.previousSetBit(ODU4_TRIB_SLOTS); allocated.cardinality() < nbSlot;
+                        slot = available.previousSetBit(slot - 1)) {
+                    allocated.set(slot);
+                }
+                return allocated;
+            case CONTIGUOUS:
+                int start = available.nextSetBit(1);
+                while (start >= 0 && start + nbSlot - 1 <= ODU4_TRIB_SLOTS) {
+                    int end = available.nextClearBit(start);
+                    if (end - start >= nbSlot) {
+                        allocated.set(start, start + nbSlot);
+                        return allocated;
+                    }
+                    start = available.nextSetBit(end);
+                }
+                return null;
+            default:
+                throw new IllegalArgumentException("unsupported allocation policy " + policy);
+        }
+    }
+}
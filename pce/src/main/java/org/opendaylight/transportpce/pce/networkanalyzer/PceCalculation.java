@@ -9,6 +9,7 @@
 package org.opendaylight.transportpce.pce.networkanalyzer;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -23,6 +24,7 @@ import org.opendaylight.transportpce.common.NetworkUtils;
 import org.opendaylight.transportpce.common.ResponseCodes;
 import org.opendaylight.transportpce.common.network.NetworkTransactionService;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.metrics.PceTrace;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
@@ -45,6 +47,14 @@ public class PceCalculation {
     /* Logging. */
     private static final Logger LOG = LoggerFactory.getLogger(PceCalculation.class);
     private NetworkTransactionService networkTransactionService = null;
+    private PceTopologySnapshotService topologySnapshotService = null;
+    // analysis of the nodes and links shared with the other requests, null when reading the datastore
+    private PceNetworkCache networkCache = null;
+    private PceTopologyIndex topologyIndex = null;
+    // same for all the links of the computation
+    private PceLink.MetricFallback metricFallback = PceLink.MetricFallback.LENGTH;
+    // nodes supported by the excluded supporting nodes and CLLIs
+    private Set<NodeId> excludedNodeIds = new HashSet<>();
 
     ///////////// data parsed from Input/////////////////
     private PathComputationRequestInput input;
@@ -65,6 +75,11 @@ public class PceCalculation {
     private PceNode aendPceNode = null;
     private PceNode zendPceNode = null;
 
+    // end nodes of all the requests of a bulk analysis, null for a single request
+    private Set<String> endNodeIds = null;
+    private final Map<String, PceNode> endPceNodes = new HashMap<>();
+    private final Set<NodeId> endXponderIds = new HashSet<>();
+
     private List<Link> allLinks = null;
     private List<Node> allNodes = null;
 
@@ -90,21 +105,55 @@ public class PceCalculation {
         parseInput();
     }
 
+    public PceCalculation(PathComputationRequestInput input, NetworkTransactionService networkTransactionService,
+            PceConstraints pceHardConstraints, PceConstraints pceSoftConstraints, PceResult rc,
+            PceTopologySnapshotService topologySnapshotService) {
+        this(input, networkTransactionService, pceHardConstraints, pceSoftConstraints, rc);
+        this.topologySnapshotService = topologySnapshotService;
+    }
+
+    /**
+     * Analysis of the network shared by several requests of the same service type. All the XPONDERs and SRGs
+     * supported by one of the end nodes are kept, the constraints of each request being applied afterwards.
+     *
+     * @param input one of the requests, giving the service type
+     * @param networkTransactionService service used to read the network
+     * @param endNodeIds supporting node ids of the A and Z ends of all the requests
+     * @param rc result of the analysis
+     * @param topologySnapshotService topology snapshot service, may be null
+     */
+    public PceCalculation(PathComputationRequestInput input, NetworkTransactionService networkTransactionService,
+            Collection<String> endNodeIds, PceResult rc, PceTopologySnapshotService topologySnapshotService) {
+        this(input, networkTransactionService, new PceConstraints(), new PceConstraints(), rc,
+            topologySnapshotService);
+        this.endNodeIds = new HashSet<>(endNodeIds);
+    }
+
     public void retrievePceNetwork() {
 
         LOG.info("In PceCalculation retrieveNetwork: ");
 
-        if (!readMdSal()) {
+        long start = System.nanoTime();
+        boolean read = readMdSal();
+        returnStructure.getTrace().record(PceTrace.Phase.READ_MD_SAL, System.nanoTime() - start);
+        if (!read) {
             returnStructure.setRC(ResponseCodes.RESPONSE_FAILED);
             return;
         }
-        MapUtils.mapDiversityConstraints(allNodes, allLinks, pceHardConstraints);
+        start = System.nanoTime();
+        MapUtils.mapDiversityConstraints(topologyIndex, allLinks, pceHardConstraints);
+        excludedNodeIds = topologyIndex.getExcludedNodes(pceHardConstraints.getExcludeSupNodes(),
+            pceHardConstraints.getExcludeCLLI());
 
-        if (!analyzeNw()) {
+        boolean analyzed = analyzeNw();
+        returnStructure.getTrace().record(PceTrace.Phase.ANALYZE_NW, System.nanoTime() - start);
+        if (!analyzed) {
             returnStructure.setRC(ResponseCodes.RESPONSE_FAILED);
             return;
         }
-        printNodesInfo(allPceNodes);
+        if (LOG.isDebugEnabled()) {
+            printNodesInfo(allPceNodes);
+        }
 
         returnStructure.setRC(ResponseCodes.RESPONSE_OK);
         return;
@@ -166,24 +215,64 @@ public class PceCalculation {
     }
 
     private boolean readMdSal() {
-        InstanceIdentifier<Network> nwInstanceIdentifier = null;
-        Network nw = null;
+        String networkId;
         if (("OC".equals(serviceFormatA)) || ("OTU".equals(serviceFormatA)) || (("Ethernet".equals(serviceFormatA))
             && (serviceRate == 100L))) {
-
-            LOG.info("readMdSal: network {}", NetworkUtils.OVERLAY_NETWORK_ID);
-            nwInstanceIdentifier = InstanceIdentifier.builder(Networks.class)
-                .child(Network.class, new NetworkKey(new NetworkId(NetworkUtils.OVERLAY_NETWORK_ID))).build();
+            networkId = NetworkUtils.OVERLAY_NETWORK_ID;
         } else if ("ODU".equals(serviceFormatA) || ("Ethernet".equals(serviceFormatA) && serviceRate == 10L)
             || ("Ethernet".equals(serviceFormatA) && serviceRate == 1L)) {
-            LOG.info("readMdSal: network {}", NetworkUtils.OTN_NETWORK_ID);
-            nwInstanceIdentifier = InstanceIdentifier.builder(Networks.class)
-                .child(Network.class, new NetworkKey(new NetworkId(NetworkUtils.OTN_NETWORK_ID))).build();
+            networkId = NetworkUtils.OTN_NETWORK_ID;
         } else {
             LOG.info("readMdSal: service-rate {} / service-format not handled {}", serviceRate, serviceFormatA);
             return false;
         }
+        LOG.info("readMdSal: network {}", networkId);
 
+        if (!readTopologySnapshot(networkId) && !readNetwork(networkId)) {
+            return false;
+        }
+        if (allNodes == null || allNodes.isEmpty()) {
+            LOG.error("readMdSal: no nodes ");
+            return false;
+        }
+        LOG.info("readMdSal: network nodes: {} nodes added", allNodes.size());
+        LOG.debug("readMdSal: network nodes: {} nodes added", allNodes);
+
+        if (allLinks == null || allLinks.isEmpty()) {
+            LOG.error("readMdSal: no links ");
+            return false;
+        }
+        LOG.info("readMdSal: network links: {} links added", allLinks.size());
+        LOG.debug("readMdSal: network links: {} links added", allLinks);
+
+        return true;
+    }
+
+    private boolean readTopologySnapshot(String networkId) {
+        if (topologySnapshotService == null) {
+            return false;
+        }
+        PceTopologySnapshot snapshot = topologySnapshotService.getSnapshot(networkId);
+        if (snapshot.isEmpty()) {
+            // listener not yet notified, fall back on a datastore read
+            LOG.debug("readTopologySnapshot: no snapshot available for network {}", networkId);
+            return false;
+        }
+        LOG.debug("readTopologySnapshot: using {} of network {}", snapshot, networkId);
+        allNodes = snapshot.getNodes();
+        allLinks = snapshot.getLinks();
+        topologyIndex = snapshot.getIndex();
+        networkCache = topologySnapshotService.getNetworkCache(networkId);
+        if (networkCache != null) {
+            networkCache.retain(snapshot);
+        }
+        return true;
+    }
+
+    private boolean readNetwork(String networkId) {
+        InstanceIdentifier<Network> nwInstanceIdentifier = InstanceIdentifier.builder(Networks.class)
+            .child(Network.class, new NetworkKey(new NetworkId(networkId))).build();
+        Network nw = null;
         try {
             Optional<Network> nwOptional =
                 networkTransactionService.read(LogicalDatastoreType.CONFIGURATION, nwInstanceIdentifier).get();
@@ -206,6 +295,7 @@ public class PceCalculation {
         }
         allNodes = nw.getNode().stream().sorted((n1, n2) -> n1.getNodeId().getValue().compareTo(n2.getNodeId()
             .getValue())).collect(Collectors.toList());
+        topologyIndex = new PceTopologyIndex(allNodes);
         Network1 nw1 = nw.augmentation(Network1.class);
         if (nw1 != null) {
             allLinks = nw1.getLink().stream().sorted((l1, l2) -> l1.getSource().getSourceTp().toString().compareTo(l2
@@ -213,20 +303,6 @@ public class PceCalculation {
         } else {
             LOG.warn("no otn links in otn-topology");
         }
-        if (allNodes == null || allNodes.isEmpty()) {
-            LOG.error("readMdSal: no nodes ");
-            return false;
-        }
-        LOG.info("readMdSal: network nodes: {} nodes added", allNodes.size());
-        LOG.debug("readMdSal: network nodes: {} nodes added", allNodes);
-
-        if (allLinks == null || allLinks.isEmpty()) {
-            LOG.error("readMdSal: no links ");
-            return false;
-        }
-        LOG.info("readMdSal: network links: {} links added", allLinks.size());
-        LOG.debug("readMdSal: network links: {} links added", allLinks);
-
         return true;
     }
 
@@ -242,7 +318,14 @@ public class PceCalculation {
 
             LOG.debug("analyzeNw: allPceNodes size {}", allPceNodes.size());
 
-            if (aendPceNode == null || zendPceNode == null) {
+            if (endNodeIds != null) {
+                aendPceNode = endPceNodes.get(anodeId);
+                zendPceNode = endPceNodes.get(znodeId);
+                if (endPceNodes.isEmpty()) {
+                    LOG.error("analyzeNw: Error in reading nodes: no end node present in the network");
+                    return false;
+                }
+            } else if (aendPceNode == null || zendPceNode == null) {
                 LOG.error("analyzeNw: Error in reading nodes: A or Z do not present in the network");
                 return false;
             }
@@ -271,7 +354,7 @@ public class PceCalculation {
                 validateOtnNode(node);
             }
 
-            LOG.info("analyzeNw: allPceNodes {}", allPceNodes);
+            LOG.debug("analyzeNw: allPceNodes {}", allPceNodes);
 
             if (aendPceNode == null || zendPceNode == null) {
                 LOG.error("analyzeNw: Error in reading nodes: A or Z do not present in the network");
@@ -331,7 +414,7 @@ public class PceCalculation {
     }
 
     private boolean validateLink(Link link) {
-        LOG.info("validateLink: link {} ", link);
+        LOG.debug("validateLink: link {} ", link);
 
         NodeId sourceId = link.getSource().getSourceNode();
         NodeId destId = link.getDestination().getDestNode();
@@ -351,7 +434,7 @@ public class PceCalculation {
 
         if (("100GE".equals(serviceType)) || ("OTU4".equals(serviceType))) {
             // 100GE or OTU4 services are handled at WDM Layer
-            PceLink pcelink = new PceLink(link, source, dest);
+            PceLink pcelink = newPceLink(link, source, dest);
             if (!pcelink.isValid()) {
                 dropOppositeLink(link);
                 LOG.error(" validateLink: Link is ignored due errors in network data or in opposite link");
@@ -421,7 +504,7 @@ public class PceCalculation {
 
         } else if (("ODU4".equals(serviceType)) || ("10GE".equals(serviceType)) || ("1GE".equals(serviceType))) {
             // ODU4, 1GE and 10GE services relying on ODU2, ODU2e or ODU0 services are handled at OTN layer
-            PceLink pceOtnLink = new PceLink(link, source, dest);
+            PceLink pceOtnLink = newPceLink(link, source, dest);
 
             if (!pceOtnLink.isOtnValid(link, serviceType)) {
                 dropOppositeLink(link);
@@ -444,7 +527,7 @@ public class PceCalculation {
 
                     allPceLinks.put(linkId, pceOtnLink);
                     source.addOutgoingLink(pceOtnLink);
-                    LOG.info("validateLink: OTN-LINK added to allPceLinks {}", pceOtnLink);
+                    LOG.debug("validateLink: OTN-LINK added to allPceLinks {}", pceOtnLink);
                     break;
                 default:
                     LOG.warn("validateLink: link type is not supported {}", pceOtnLink);
@@ -458,6 +541,11 @@ public class PceCalculation {
 
     }
 
+    private PceLink newPceLink(Link link, PceNode source, PceNode dest) {
+        return networkCache == null ? new PceLink(link, source, dest, metricFallback)
+            : networkCache.getLink(link, source, dest, metricFallback);
+    }
+
     private boolean validateNode(Node node) {
         LOG.debug("validateNode: node {} ", node);
 
@@ -469,9 +557,15 @@ public class PceCalculation {
         }
         OpenroadmNodeType nodeType = node1.getNodeType();
 
-        PceOpticalNode pceNode = new PceOpticalNode(node, nodeType, node.getNodeId(),
-            input.getServiceAEnd().getServiceFormat(), "optical");
-        pceNode.validateAZxponder(anodeId, znodeId);
+        PceOpticalNode pceNode = networkCache == null
+            ? new PceOpticalNode(node, nodeType, node.getNodeId(), input.getServiceAEnd().getServiceFormat(),
+                "optical")
+            : networkCache.getOpticalNode(node, nodeType, input.getServiceAEnd().getServiceFormat());
+        if (endNodeIds == null) {
+            pceNode.validateAZxponder(anodeId, znodeId);
+        } else {
+            pceNode.validateAZxponder(endNodeIds);
+        }
         pceNode.initWLlist();
 
         if (!pceNode.isValid()) {
@@ -482,7 +576,16 @@ public class PceCalculation {
         if (validateNodeConstraints(pceNode).equals(ConstraintTypes.HARD_EXCLUDE)) {
             return false;
         }
-        if ((pceNode.getSupNetworkNodeId().equals(anodeId) && (this.aendPceNode == null))
+        if (endNodeIds != null) {
+            String supNodeId = pceNode.getSupNetworkNodeId();
+            if (endNodeIds.contains(supNodeId) && !endPceNodes.containsKey(supNodeId)
+                && Boolean.TRUE.equals(endPceNode(nodeType, pceNode.getNodeId(), pceNode))) {
+                endPceNodes.put(supNodeId, pceNode);
+            }
+            if (nodeType == OpenroadmNodeType.XPONDER) {
+                endXponderIds.add(pceNode.getNodeId());
+            }
+        } else if ((pceNode.getSupNetworkNodeId().equals(anodeId) && (this.aendPceNode == null))
             && (Boolean.TRUE.equals(endPceNode(nodeType, pceNode.getNodeId(), pceNode)))) {
             this.aendPceNode = pceNode;
         }
@@ -498,12 +601,14 @@ public class PceCalculation {
 
     private boolean validateOtnNode(Node node) {
 
-        LOG.info("validateOtnNode: {} ", node.getNodeId().getValue());
+        LOG.debug("validateOtnNode: {} ", node.getNodeId().getValue());
         // PceOtnNode will be used in Graph algorithm
         if (node.augmentation(Node1.class) != null) {
             OpenroadmNodeType nodeType = node.augmentation(Node1.class).getNodeType();
 
-            PceOtnNode pceOtnNode = new PceOtnNode(node, nodeType, node.getNodeId(), "otn", serviceType);
+            PceOtnNode pceOtnNode = networkCache == null
+                ? new PceOtnNode(node, nodeType, node.getNodeId(), "otn", serviceType)
+                : networkCache.getOtnNode(node, nodeType, serviceType);
             pceOtnNode.validateXponder(anodeId, znodeId);
 
             if (!pceOtnNode.isValid()) {
@@ -520,7 +625,7 @@ public class PceCalculation {
                 this.zendPceNode = pceOtnNode;
             }
             allPceNodes.put(pceOtnNode.getNodeId(), pceOtnNode);
-            LOG.info("validateOtnNode: node {} is saved", node.getNodeId().getValue());
+            LOG.debug("validateOtnNode: node {} is saved", node.getNodeId().getValue());
             return true;
         } else {
             LOG.error("ValidateOtnNode: no node-type augmentation. Node {} is ignored", node.getNodeId().getValue());
@@ -538,34 +643,21 @@ public class PceCalculation {
     }
 
     private ConstraintTypes validateNodeConstraints(PceNode pcenode) {
-        if (pceHardConstraints.getExcludeSupNodes().isEmpty() && pceHardConstraints.getExcludeCLLI().isEmpty()) {
-            return ConstraintTypes.NONE;
-        }
-        if (pceHardConstraints.getExcludeSupNodes().contains(pcenode.getSupNetworkNodeId())) {
-            LOG.info("validateNodeConstraints: {}", pcenode.getNodeId().getValue());
-            return ConstraintTypes.HARD_EXCLUDE;
-        }
-        if (pceHardConstraints.getExcludeCLLI().contains(pcenode.getSupClliNodeId())) {
-            LOG.info("validateNodeConstraints: {}", pcenode.getNodeId().getValue());
+        if (excludedNodeIds.contains(pcenode.getNodeId())) {
+            LOG.debug("validateNodeConstraints: {}", pcenode.getNodeId().getValue());
             return ConstraintTypes.HARD_EXCLUDE;
         }
         return ConstraintTypes.NONE;
     }
 
     private ConstraintTypes validateLinkConstraints(PceLink link) {
-        if (pceHardConstraints.getExcludeSRLG().isEmpty()) {
-            return ConstraintTypes.NONE;
-        }
-
         // for now SRLG is the only constraint for link
         if (link.getlinkType() != OpenroadmLinkType.ROADMTOROADM) {
             return ConstraintTypes.NONE;
         }
 
-        List<Long> constraints = new ArrayList<>(pceHardConstraints.getExcludeSRLG());
-        constraints.retainAll(link.getsrlgList());
-        if (!constraints.isEmpty()) {
-            LOG.info("validateLinkConstraints: {}", link.getLinkId().getValue());
+        if (pceHardConstraints.isSrlgExcluded(link.getsrlgList())) {
+            LOG.debug("validateLinkConstraints: {}", link.getLinkId().getValue());
             return ConstraintTypes.HARD_EXCLUDE;
         }
 
@@ -619,20 +711,60 @@ public class PceCalculation {
         return this.allPceLinks;
     }
 
+    /**
+     * Get the end node of a request analyzed by a bulk analysis.
+     *
+     * @param nodeId supporting node id of the A or Z end of the request
+     * @return the XPONDER or SRG, null if none was validated
+     */
+    public PceNode getEndPceNode(String nodeId) {
+        return endPceNodes.get(nodeId);
+    }
+
+    /**
+     * Get the XPONDERs kept by a bulk analysis, each request using only its own ones.
+     *
+     * @return the node ids of the XPONDERs
+     */
+    public Set<NodeId> getEndXponderIds() {
+        return endXponderIds;
+    }
+
+    /**
+     * Get the SRGs connected to the end nodes.
+     *
+     * @return the node ids of the SRGs
+     */
+    public Set<NodeId> getAzSrgIds() {
+        return azSrgs;
+    }
+
     public String getServiceType() {
         return serviceType;
     }
 
+    public PceTopologyIndex getTopologyIndex() {
+        return topologyIndex;
+    }
+
     public PceResult getReturnStructure() {
         return returnStructure;
     }
 
+    public PceLink.MetricFallback getMetricFallback() {
+        return metricFallback;
+    }
+
+    public void setMetricFallback(PceLink.MetricFallback metricFallback) {
+        this.metricFallback = metricFallback;
+    }
+
     private static void printNodesInfo(Map<NodeId, PceNode> allpcenodes) {
         Iterator<Map.Entry<NodeId, PceNode>> nodes = allpcenodes.entrySet().iterator();
         while (nodes.hasNext()) {
             PceNode pcenode = nodes.next().getValue();
             List<PceLink> links = pcenode.getOutgoingLinks();
-            LOG.info("In printNodes in node {} : outgoing links {} ", pcenode.getNodeId().getValue(), links);
+            LOG.debug("In printNodes in node {} : outgoing links {} ", pcenode.getNodeId().getValue(), links);
         }
     }
 }
@@ -14,6 +14,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.List;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenation;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenation.FiberType;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.oms.attributes.Span;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
@@ -29,6 +30,17 @@ public class PceLink implements Serializable {
     private static final long serialVersionUID = 1L;
     /* Logging. */
     private static final Logger LOG = LoggerFactory.getLogger(PceLink.class);
+
+    /* Cost of the links without TE metric. */
+    public enum MetricFallback {
+        // link length in km, from the link-length leaf, the fiber spans or the latency
+        LENGTH,
+        // link latency
+        LATENCY,
+        // 1 for every link
+        HOP
+    }
+
     ///////////////////////// LINKS ////////////////////
     /*
      * extension of Link to include constraints and Graph weight
@@ -56,6 +68,10 @@ public class PceLink implements Serializable {
     private final Long usedBandwidth;
     private final List<Long> srlgList;
     private final double osnr;
+    // 1 over the OSNR, in linear units
+    private final double inverseOsnr;
+    private final double igpMetric;
+    private final double teMetric;
     private final transient Span omsAttributesSpan;
     private static final double CELERITY = 2.99792458 * 1e5; //meter per ms
     private static final double NOISE_MASK_A = 0.571429;
@@ -64,7 +80,19 @@ public class PceLink implements Serializable {
     private static final double LOWER_BOUND_OSNR = 0.1;
 
     public PceLink(Link link, PceNode source, PceNode dest) {
-        LOG.info("PceLink: : PceLink start ");
+        this(link, source, dest, MetricFallback.LENGTH);
+    }
+
+    /**
+     * Create a link, the metric fallback being given by the configuration of the computation.
+     *
+     * @param link the link
+     * @param source the source node
+     * @param dest the destination node
+     * @param metricFallback the cost of the link without TE metric
+     */
+    public PceLink(Link link, PceNode source, PceNode dest, MetricFallback metricFallback) {
+        LOG.debug("PceLink: : PceLink start ");
 
         this.linkId = link.getLinkId();
 
@@ -106,9 +134,42 @@ public class PceLink implements Serializable {
             this.availableBandwidth = 0L;
             this.usedBandwidth = 0L;
         }
+        this.inverseOsnr = 1 / Math.pow(10, this.osnr / 10.0);
+        // graph weights, computed once
+        this.igpMetric = calcIgpMetric(link, metricFallback);
+        this.teMetric = calcTeMetric(link);
         LOG.debug("PceLink: created PceLink  {}", linkId);
     }
 
+    /**
+     * Copy of a link without its client and weight, see {@link PceNetworkCache}.
+     *
+     * @param link the link to copy
+     */
+    PceLink(PceLink link) {
+        this.isValid = link.isValid;
+        this.linkId = link.linkId;
+        this.linkType = link.linkType;
+        this.sourceId = link.sourceId;
+        this.destId = link.destId;
+        this.sourceTP = link.sourceTP;
+        this.destTP = link.destTP;
+        this.sourceNetworkSupNodeId = link.sourceNetworkSupNodeId;
+        this.destNetworkSupNodeId = link.destNetworkSupNodeId;
+        this.sourceCLLI = link.sourceCLLI;
+        this.destCLLI = link.destCLLI;
+        this.oppositeLink = link.oppositeLink;
+        this.latency = link.latency;
+        this.availableBandwidth = link.availableBandwidth;
+        this.usedBandwidth = link.usedBandwidth;
+        this.srlgList = link.srlgList;
+        this.osnr = link.osnr;
+        this.inverseOsnr = link.inverseOsnr;
+        this.igpMetric = link.igpMetric;
+        this.teMetric = link.teMetric;
+        this.omsAttributesSpan = link.omsAttributesSpan;
+    }
+
     //Retrieve the opposite link
     private LinkId calcOpposite(Link link) {
         LinkId tmpoppositeLink = MapUtils.extractOppositeLink(link);
@@ -134,7 +195,7 @@ public class PceLink implements Serializable {
             for (int i = 0; i < this.omsAttributesSpan.getLinkConcatenation().size(); i++) {
                 //Length is expressed in meter and latency is expressed in ms according to OpenROADM MSA
                 tmp += this.omsAttributesSpan.getLinkConcatenation().get(i).getSRLGLength().toJava() / CELERITY;
-                LOG.info("In PceLink: The latency of link {} == {}",link.getLinkId(),tmp);
+                LOG.debug("In PceLink: The latency of link {} == {}",link.getLinkId(),tmp);
             }
             tmplatency = (long) Math.ceil(tmp);
         } catch (NullPointerException e) {
@@ -144,6 +205,60 @@ public class PceLink implements Serializable {
         return tmplatency;
     }
 
+    //Compute the IGP metric : there is no IGP metric in the openroadm models, it is derived from the link
+    private double calcIgpMetric(Link link, MetricFallback metricFallback) {
+        switch (metricFallback) {
+            case LATENCY:
+                return latency;
+            case HOP:
+                return 1;
+            case LENGTH:
+            default:
+                return calcLength(link);
+        }
+    }
+
+    //Compute the TE metric : if the TE metric is not defined, the IGP metric is used
+    private double calcTeMetric(Link link) {
+        Link1 link1 = link.augmentation(Link1.class);
+        if (link1 != null && link1.getTEMetric() != null) {
+            return link1.getTEMetric().doubleValue();
+        }
+        org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1 topoLink1 =
+            link.augmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1.class);
+        if (topoLink1 != null && topoLink1.getOMSAttributes() != null
+                && topoLink1.getOMSAttributes().getTEMetric() != null) {
+            return topoLink1.getOMSAttributes().getTEMetric().doubleValue();
+        }
+        return igpMetric;
+    }
+
+    //Compute the link length in km, 0 for the links inside a node
+    private double calcLength(Link link) {
+        Link1 link1 = link.augmentation(Link1.class);
+        if (link1 != null && link1.getLinkLength() != null) {
+            return link1.getLinkLength().doubleValue();
+        }
+        org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1 topoLink1 =
+            link.augmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1.class);
+        if (topoLink1 != null && topoLink1.getLinkLength() != null) {
+            return topoLink1.getLinkLength().doubleValue();
+        }
+        if (this.omsAttributesSpan != null && this.omsAttributesSpan.getLinkConcatenation() != null) {
+            double length = 0;
+            for (LinkConcatenation concatenation : this.omsAttributesSpan.getLinkConcatenation()) {
+                if (concatenation.getSRLGLength() != null) {
+                    //SRLG length is expressed in meter
+                    length += concatenation.getSRLGLength().toJava() / 1000.0;
+                }
+            }
+            if (length > 0) {
+                return length;
+            }
+        }
+        return latency * CELERITY / 1000;
+    }
+
     //Compute the OSNR of a span
     public double calcSpanOSNR() {
         try {
@@ -230,6 +345,14 @@ public class PceLink implements Serializable {
         return latency.doubleValue();
     }
 
+    public double getIgpMetric() {
+        return igpMetric;
+    }
+
+    public double getTeMetric() {
+        return teMetric;
+    }
+
     public Long getAvailableBandwidth() {
         return availableBandwidth;
     }
@@ -254,6 +377,10 @@ public class PceLink implements Serializable {
         return osnr;
     }
 
+    public double getInverseOsnr() {
+        return inverseOsnr;
+    }
+
     public String getsourceCLLI() {
         return sourceCLLI;
     }
@@ -342,7 +469,7 @@ public class PceLink implements Serializable {
 
         if ((this.availableBandwidth >= neededBW)
             && ((neededType == null) || (neededType.equals(otnLinkType)))) {
-            LOG.info("PceLink: Selected Link {} has available bandwidth and is eligible for {} creation ",
+            LOG.debug("PceLink: Selected Link {} has available bandwidth and is eligible for {} creation ",
                 linkId, serviceType);
         }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmNodeType;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.format.rev190531.ServiceFormat;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Nodes and links of a topology analyzed once for all the path computations using its
+ * {@link PceTopologySnapshot}. A snapshot keeps the Node and Link objects which did not change since the
+ * previous version, so that an entry is reused as long as the object it was built from is the one of the
+ * snapshot. The path computations get copies of the cached nodes and links, without the outgoing links,
+ * clients and validation results of the previous requests.
+ */
+public class PceNetworkCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PceNetworkCache.class);
+
+    private final Map<NodeId, CachedNode> nodes = new ConcurrentHashMap<>();
+    private final Map<LinkId, CachedLink> links = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong(-1L);
+
+    /**
+     * Drop the entries of the nodes and links removed from the topology.
+     *
+     * @param snapshot the snapshot used by a path computation
+     */
+    public void retain(PceTopologySnapshot snapshot) {
+        long previous = version.getAndSet(snapshot.getVersion());
+        if (previous == snapshot.getVersion()) {
+            return;
+        }
+        nodes.keySet().retainAll(snapshot.getNodeMap().keySet());
+        links.keySet().retainAll(snapshot.getLinkMap().keySet());
+        LOG.debug("retain: {} nodes and {} links cached for version {}", nodes.size(), links.size(),
+            snapshot.getVersion());
+    }
+
+    /**
+     * Get a node of openroadm-topology.
+     *
+     * @param node the node of the snapshot
+     * @param nodeType the node type
+     * @param serviceFormat the service format of the path computation
+     * @return a new node, to be validated
+     */
+    public PceOpticalNode getOpticalNode(Node node, OpenroadmNodeType nodeType, ServiceFormat serviceFormat) {
+        PceNode prototype = cachedNode(node).prototypes.computeIfAbsent("optical " + serviceFormat,
+            key -> PceOpticalNode.prototypeOf(node, nodeType, serviceFormat));
+        return new PceOpticalNode((PceOpticalNode) prototype);
+    }
+
+    /**
+     * Get a node of otn-topology.
+     *
+     * @param node the node of the snapshot
+     * @param nodeType the node type
+     * @param serviceType the service type of the path computation
+     * @return a new node, to be validated
+     */
+    public PceOtnNode getOtnNode(Node node, OpenroadmNodeType nodeType, String serviceType) {
+        PceNode prototype = cachedNode(node).prototypes.computeIfAbsent("otn " + serviceType,
+            key -> new PceOtnNode(node, nodeType, node.getNodeId(), "otn", serviceType));
+        return new PceOtnNode((PceOtnNode) prototype);
+    }
+
+    /**
+     * Get a link between two validated nodes.
+     *
+     * @param link the link of the snapshot
+     * @param source the source node
+     * @param dest the destination node
+     * @param metricFallback the metric fallback of the computation
+     * @return a new link without client
+     */
+    public PceLink getLink(Link link, PceNode source, PceNode dest, PceLink.MetricFallback metricFallback) {
+        CachedLink cached = links.compute(link.getLinkId(), (id, entry) -> entry != null
+            && entry.matches(link, source, dest, metricFallback) ? entry
+                : new CachedLink(link, source, dest, metricFallback));
+        return new PceLink(cached.prototype);
+    }
+
+    int size() {
+        return nodes.size() + links.size();
+    }
+
+    private CachedNode cachedNode(Node node) {
+        return nodes.compute(node.getNodeId(), (id, entry) -> entry != null && entry.node == node
+            ? entry : new CachedNode(node));
+    }
+
+    private static final class CachedNode {
+
+        private final Node node;
+        // prototypes per service format of openroadm-topology or service type of otn-topology
+        private final Map<String, PceNode> prototypes = new ConcurrentHashMap<>();
+
+        CachedNode(Node node) {
+            this.node = node;
+        }
+    }
+
+    private static final class CachedLink {
+
+        private final Link link;
+        // the link is also derived from its nodes and from the metric fallback
+        private final String sourceSupNodeId;
+        private final String destSupNodeId;
+        private final String sourceClli;
+        private final String destClli;
+        private final PceLink.MetricFallback metricFallback;
+        private final PceLink prototype;
+
+        CachedLink(Link link, PceNode source, PceNode dest, PceLink.MetricFallback metricFallback) {
+            this.link = link;
+            this.sourceSupNodeId = source.getSupNetworkNodeId();
+            this.destSupNodeId = dest.getSupNetworkNodeId();
+            this.sourceClli = source.getSupClliNodeId();
+            this.destClli = dest.getSupClliNodeId();
+            this.metricFallback = metricFallback;
+            this.prototype = new PceLink(link, source, dest, metricFallback);
+        }
+
+        boolean matches(Link other, PceNode source, PceNode dest, PceLink.MetricFallback fallback) {
+            return link == other && metricFallback == fallback
+                && Objects.equals(sourceSupNodeId, source.getSupNetworkNodeId())
+                && Objects.equals(destSupNodeId, dest.getSupNetworkNodeId())
+                && Objects.equals(sourceClli, source.getSupClliNodeId())
+                && Objects.equals(destClli, dest.getSupClliNodeId());
+        }
+    }
+}
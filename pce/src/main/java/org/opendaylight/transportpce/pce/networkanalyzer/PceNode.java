@@ -8,10 +8,10 @@
 
 package org.opendaylight.transportpce.pce.networkanalyzer;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
-import org.opendaylight.yangtools.yang.common.Uint16;
 
 public interface PceNode {
     String getPceNodeType();
@@ -34,7 +34,24 @@ public interface PceNode {
 
     boolean checkWL(long index);
 
-    Map<String, List<Uint16>> getAvailableTribPorts();
-
-    Map<String, List<Uint16>> getAvailableTribSlots();
+    /**
+     * Get the wavelengths available on this node.
+     *
+     * @return a copy of the wavelength availability, bit i being set when wavelength index i is available
+     */
+    BitSet getAvailableWavelengths();
+
+    /**
+     * Get the tributary port numbers available on the network termination points of this node.
+     *
+     * @return per termination point, the bitmap of available port numbers described in {@link OtnTribAllocator}
+     */
+    Map<String, BitSet> getAvailableTribPorts();
+
+    /**
+     * Get the tributary slots available on the network termination points of this node.
+     *
+     * @return per termination point, the bitmap of available slots described in {@link OtnTribAllocator}
+     */
+    Map<String, BitSet> getAvailableTribSlots();
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+
+/**
+ * Read only view of a {@link PceNode} for one request of a bulk path computation, or for a request computed
+ * while resources are held by {@link org.opendaylight.transportpce.pce.PceReservationLedger}. It hides the links
+ * towards the nodes not seen by the request, and the wavelengths, the XPONDER ports and the tributary ports and
+ * slots reserved by the paths previously computed. The node itself is left unchanged so that it can be shared by the
+ * other requests.
+ */
+public class PceNodeView implements PceNode {
+
+    private final PceNode node;
+    private final BitSet reservedWavelengths;
+    private final Set<String> reservedPorts;
+    private final Map<String, BitSet> reservedTribPorts;
+    private final Map<String, BitSet> reservedTribSlots;
+    private final List<PceLink> outgoingLinks = new ArrayList<>();
+
+    /**
+     * Create the view of a node.
+     *
+     * @param node the node
+     * @param visibleNodes nodes seen by the request
+     * @param reservedWavelengths indexes of the wavelengths reserved on the node
+     * @param reservedPorts ports reserved in the network, built by {@link #port}
+     */
+    public PceNodeView(PceNode node, Set<NodeId> visibleNodes, BitSet reservedWavelengths,
+            Set<String> reservedPorts) {
+        this(node, visibleNodes, reservedWavelengths, reservedPorts, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Create the view of a node with reserved tributary ports and slots.
+     *
+     * @param node the node
+     * @param visibleNodes nodes seen by the request
+     * @param reservedWavelengths indexes of the wavelengths reserved on the node
+     * @param reservedPorts ports reserved in the network, built by {@link #port}
+     * @param reservedTribPorts tributary ports reserved per termination point of the node
+     * @param reservedTribSlots tributary slots reserved per termination point of the node
+     */
+    public PceNodeView(PceNode node, Set<NodeId> visibleNodes, BitSet reservedWavelengths,
+            Set<String> reservedPorts, Map<String, BitSet> reservedTribPorts, Map<String, BitSet> reservedTribSlots) {
+        this.node = node;
+        this.reservedWavelengths = (BitSet) reservedWavelengths.clone();
+        this.reservedPorts = reservedPorts;
+        this.reservedTribPorts = reservedTribPorts;
+        this.reservedTribSlots = reservedTribSlots;
+        for (PceLink link : node.getOutgoingLinks()) {
+            if (visibleNodes.contains(link.getDestId())
+                    && !reservedPorts.contains(port(link.getSourceId(), link.getSourceTP()))
+                    && !reservedPorts.contains(port(link.getDestId(), link.getDestTP()))) {
+                outgoingLinks.add(link);
+            }
+        }
+    }
+
+    public static String port(NodeId nodeId, Object tp) {
+        return nodeId.getValue() + "/" + tp;
+    }
+
+    @Override
+    public String getPceNodeType() {
+        return node.getPceNodeType();
+    }
+
+    @Override
+    public String getSupNetworkNodeId() {
+        return node.getSupNetworkNodeId();
+    }
+
+    @Override
+    public String getSupClliNodeId() {
+        return node.getSupClliNodeId();
+    }
+
+    @Override
+    public void addOutgoingLink(PceLink outLink) {
+        throw new UnsupportedOperationException("PceNodeView is read only");
+    }
+
+    @Override
+    public String getRdmSrgClient(String tp) {
+        return node.getRdmSrgClient(tp);
+    }
+
+    @Override
+    public String getXpdrClient(String tp) {
+        return node.getXpdrClient(tp);
+    }
+
+    @Override
+    public boolean checkTP(String tp) {
+        return !reservedPorts.contains(port(getNodeId(), tp)) && node.checkTP(tp);
+    }
+
+    @Override
+    public List<PceLink> getOutgoingLinks() {
+        return outgoingLinks;
+    }
+
+    @Override
+    public NodeId getNodeId() {
+        return node.getNodeId();
+    }
+
+    @Override
+    public boolean checkWL(long index) {
+        return (index < 0 || index > Integer.MAX_VALUE || !reservedWavelengths.get((int) index))
+            && node.checkWL(index);
+    }
+
+    @Override
+    public BitSet getAvailableWavelengths() {
+        BitSet wavelengths = node.getAvailableWavelengths();
+        wavelengths.andNot(reservedWavelengths);
+        return wavelengths;
+    }
+
+    @Override
+    public Map<String, BitSet> getAvailableTribPorts() {
+        return available(node.getAvailableTribPorts(), reservedTribPorts);
+    }
+
+    @Override
+    public Map<String, BitSet> getAvailableTribSlots() {
+        return available(node.getAvailableTribSlots(), reservedTribSlots);
+    }
+
+    private static Map<String, BitSet> available(Map<String, BitSet> tpBitmaps, Map<String, BitSet> reserved) {
+        if (tpBitmaps == null || reserved.isEmpty()) {
+            return tpBitmaps;
+        }
+        Map<String, BitSet> available = new TreeMap<>();
+        for (Map.Entry<String, BitSet> tp : tpBitmaps.entrySet()) {
+            BitSet bitmap = (BitSet) tp.getValue().clone();
+            BitSet reservedBitmap = reserved.get(tp.getKey());
+            if (reservedBitmap != null) {
+                bitmap.andNot(reservedBitmap);
+            }
+            available.put(tp.getKey(), bitmap);
+        }
+        return available;
+    }
+
+    @Override
+    public String toString() {
+        return "PceNodeView [node=" + node + ", reservedWavelengths=" + reservedWavelengths
+            + ", outgoingLinks=" + outgoingLinks.size() + "]";
+    }
+}
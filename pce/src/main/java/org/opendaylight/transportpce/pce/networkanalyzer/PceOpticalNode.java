@@ -9,6 +9,9 @@
 package org.opendaylight.transportpce.pce.networkanalyzer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +26,6 @@ import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.O
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.format.rev190531.ServiceFormat;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
-import org.opendaylight.yangtools.yang.common.Uint16;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,15 +39,23 @@ public class PceOpticalNode implements PceNode {
     private final OpenroadmNodeType nodeType;
     private final ServiceFormat serviceFormat;
     private final String pceNodeType;
+    private final String supNetworkNodeId;
+    private final String supClliNodeId;
 
     // wavelength calculation per node type
-    private List<Long> availableWLindex = new ArrayList<>();
+    private BitSet availableWLindex = new BitSet();
     private Map<String, OpenroadmTpType> availableSrgPp = new TreeMap<>();
     private Map<String, OpenroadmTpType> availableSrgCp = new TreeMap<>();
     private List<String> usedXpndrNWTps = new ArrayList<>();
     private List<PceLink> outgoingLinks = new ArrayList<>();
     private Map<String, String> clientPerNwTp = new HashMap<>();
 
+    // node already analyzed by the init methods, see PceNetworkCache
+    private final PceOpticalNode prototype;
+    private boolean wlListValid;
+    private boolean srgTpsValid;
+    private boolean xndrTpsValid;
+
     public PceOpticalNode(Node node, OpenroadmNodeType nodeType, NodeId nodeId, ServiceFormat serviceFormat,
         String pceNodeType) {
         this.node = node;
@@ -53,6 +63,9 @@ public class PceOpticalNode implements PceNode {
         this.nodeType = nodeType;
         this.serviceFormat = serviceFormat;
         this.pceNodeType = pceNodeType;
+        this.prototype = null;
+        this.supNetworkNodeId = node == null ? null : MapUtils.getSupNetworkNode(node);
+        this.supClliNodeId = node == null ? null : MapUtils.getSupClliNode(node);
 
         if ((node == null) || (nodeId == null) || (nodeType == null)) {
             LOG.error("PceNode: one of parameters is not populated : nodeId, node type");
@@ -60,13 +73,65 @@ public class PceOpticalNode implements PceNode {
         }
     }
 
+    /**
+     * Copy of an analyzed node, the init methods of which reuse the wavelengths and termination points of
+     * the prototype instead of reading the node again.
+     *
+     * @param prototype node created by {@link #prototypeOf(Node, OpenroadmNodeType, ServiceFormat)}
+     */
+    PceOpticalNode(PceOpticalNode prototype) {
+        this.node = prototype.node;
+        this.nodeId = prototype.nodeId;
+        this.nodeType = prototype.nodeType;
+        this.serviceFormat = prototype.serviceFormat;
+        this.pceNodeType = prototype.pceNodeType;
+        this.supNetworkNodeId = prototype.supNetworkNodeId;
+        this.supClliNodeId = prototype.supClliNodeId;
+        this.prototype = prototype;
+        this.valid = prototype.valid;
+    }
+
+    /**
+     * Analyze a node once for several path computations. The result of each init method is kept whatever
+     * the result of the others, the prototype staying valid.
+     *
+     * @param node the node
+     * @param nodeType the node type
+     * @param serviceFormat the service format of the path computations
+     * @return the prototype of the copies used by the path computations
+     */
+    static PceOpticalNode prototypeOf(Node node, OpenroadmNodeType nodeType, ServiceFormat serviceFormat) {
+        PceOpticalNode prototype = new PceOpticalNode(node, nodeType, node.getNodeId(), serviceFormat, "optical");
+        boolean valid = prototype.isValid();
+        prototype.initWLlist();
+        prototype.wlListValid = prototype.valid;
+        prototype.valid = valid;
+        if (nodeType == OpenroadmNodeType.SRG) {
+            prototype.initSrgTps();
+            prototype.srgTpsValid = prototype.valid;
+            prototype.valid = valid;
+        } else if (nodeType == OpenroadmNodeType.XPONDER) {
+            prototype.initXndrTps();
+            prototype.xndrTpsValid = prototype.valid;
+            prototype.valid = valid;
+        }
+        return prototype;
+    }
+
     public void initSrgTps() {
+        if (this.prototype != null) {
+            boolean init = isValid();
+            this.availableSrgPp = init ? this.prototype.availableSrgPp : new TreeMap<>();
+            this.availableSrgCp = init ? this.prototype.availableSrgCp : new TreeMap<>();
+            this.valid = init && this.prototype.srgTpsValid;
+            return;
+        }
         this.availableSrgPp.clear();
         this.availableSrgCp.clear();
         if (!isValid()) {
             return;
         }
-        LOG.info("initSrgTpList: getting SRG tps from ROADM node {}", this.nodeId);
+        LOG.debug("initSrgTpList: getting SRG tps from ROADM node {}", this.nodeId);
         org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Node1 nodeTp =
                 this.node.augmentation(org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang
                     .ietf.network.topology.rev180226.Node1.class);
@@ -84,20 +149,20 @@ public class PceOpticalNode implements PceNode {
                 .augmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130
                 .TerminationPoint1.class);
             OpenroadmTpType type = cntp1.getTpType();
-            LOG.info("type = {} for tp {}", type.getName(), tp);
+            LOG.debug("type = {} for tp {}", type.getName(), tp);
 
             switch (type) {
                 case SRGTXRXCP:
                 case SRGRXCP:
                 case SRGTXCP:
-                    LOG.info("initSrgTpList: adding SRG-CP tp = {} ", tp.getTpId().getValue());
+                    LOG.debug("initSrgTpList: adding SRG-CP tp = {} ", tp.getTpId().getValue());
                     this.availableSrgCp.put(tp.getTpId().getValue(), cntp1.getTpType());
                     break;
                 case SRGRXPP:
                 case SRGTXPP:
                 case SRGTXRXPP:
                     boolean used = true;
-                    LOG.info("initSrgTpList: SRG-PP tp = {} found", tp.getTpId().getValue());
+                    LOG.debug("initSrgTpList: SRG-PP tp = {} found", tp.getTpId().getValue());
                     try {
                         List<UsedWavelength> usedWavelengths = nttp1.getPpAttributes().getUsedWavelength();
                         if (usedWavelengths.isEmpty()) {
@@ -108,7 +173,7 @@ public class PceOpticalNode implements PceNode {
                         used = false;
                     }
                     if (!used) {
-                        LOG.info("initSrgTpList: adding SRG-PP tp '{}'", tp.getTpId().getValue());
+                        LOG.debug("initSrgTpList: adding SRG-PP tp '{}'", tp.getTpId().getValue());
                         this.availableSrgPp.put(tp.getTpId().getValue(), cntp1.getTpType());
                     } else {
                         LOG.warn("initSrgTpList: SRG-PP tp = {} found is busy !!", tp.getTpId().getValue());
@@ -123,11 +188,18 @@ public class PceOpticalNode implements PceNode {
             this.valid = false;
             return;
         }
-        LOG.info("initSrgTpList: availableSrgPp size = {} && availableSrgCp size = {} in {}",
+        LOG.debug("initSrgTpList: availableSrgPp size = {} && availableSrgCp size = {} in {}",
             this.availableSrgPp.size(), this.availableSrgCp.size(), this);
     }
 
     public void initWLlist() {
+        if (this.prototype != null) {
+            boolean init = isValid();
+            // copied, the prototype being shared by the copies of the other computations
+            this.availableWLindex = init ? (BitSet) this.prototype.availableWLindex.clone() : new BitSet();
+            this.valid = init && this.prototype.wlListValid;
+            return;
+        }
         this.availableWLindex.clear();
         if (!isValid()) {
             return;
@@ -145,7 +217,7 @@ public class PceOpticalNode implements PceNode {
                 }
                 for (org.opendaylight.yang.gen.v1.http.org.openroadm.srg.rev181130.srg.node.attributes
                         .AvailableWavelengths awl : srgAvailableWL) {
-                    this.availableWLindex.add(awl.getIndex().toJava());
+                    addAvailableWL(awl.getIndex().toJava());
                     LOG.debug("initWLlist: SRG next = {} in {}", awl.getIndex(), this);
                 }
                 break;
@@ -159,15 +231,13 @@ public class PceOpticalNode implements PceNode {
                 }
                 for (org.opendaylight.yang.gen.v1.http.org.openroadm.degree.rev181130.degree.node.attributes
                             .AvailableWavelengths awl : degAvailableWL) {
-                    this.availableWLindex.add(awl.getIndex().toJava());
+                    addAvailableWL(awl.getIndex().toJava());
                     LOG.debug("initWLlist: DEGREE next = {} in {}", awl.getIndex(), this);
                 }
                 break;
             case XPONDER :
                 // HARD CODED 96
-                for (long i = 1; i <= 96; i++) {
-                    this.availableWLindex.add(i);
-                }
+                this.availableWLindex.set(1, 97);
                 break;
             default:
                 LOG.error("initWLlist: unsupported node type {} in node {}", this.nodeType, this);
@@ -177,14 +247,28 @@ public class PceOpticalNode implements PceNode {
             LOG.debug("initWLlist: There are no available wavelengths in node {}", this);
             this.valid = false;
         }
-        LOG.debug("initWLlist: availableWLindex size = {} in {}", this.availableWLindex.size(), this);
+        LOG.debug("initWLlist: availableWLindex size = {} in {}", this.availableWLindex.cardinality(), this);
+    }
+
+    private void addAvailableWL(long index) {
+        if (index < 0 || index > Integer.MAX_VALUE) {
+            LOG.warn("initWLlist: wavelength index {} out of range in {}", index, this);
+            return;
+        }
+        this.availableWLindex.set((int) index);
     }
 
     public void initXndrTps() {
-        LOG.info("PceNod: initXndrTps for node : {}", this.nodeId);
+        LOG.debug("PceNod: initXndrTps for node : {}", this.nodeId);
         if (!isValid()) {
             return;
         }
+        if (this.prototype != null) {
+            this.usedXpndrNWTps = this.prototype.usedXpndrNWTps;
+            this.clientPerNwTp = this.prototype.clientPerNwTp;
+            this.valid = this.prototype.xndrTpsValid;
+            return;
+        }
         org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Node1 nodeTp =
                 this.node.augmentation(org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang
                     .ietf.network.topology.rev180226.Node1.class);
@@ -205,7 +289,7 @@ public class PceOpticalNode implements PceNode {
             if (cntp1.getTpType() == OpenroadmTpType.XPONDERNETWORK) {
                 if (nttp1 != null && nttp1.getXpdrNetworkAttributes().getWavelength() != null) {
                     this.usedXpndrNWTps.add(tp.getTpId().getValue());
-                    LOG.info("initXndrTps: XPONDER tp = {} is used", tp.getTpId().getValue());
+                    LOG.debug("initXndrTps: XPONDER tp = {} is used", tp.getTpId().getValue());
                 } else {
                     this.valid = true;
                 }
@@ -224,7 +308,7 @@ public class PceOpticalNode implements PceNode {
                             this, tp.getTpId().getValue());
                     }
                 } else if (ServiceFormat.OTU.equals(this.serviceFormat)) {
-                    LOG.info("Infrastructure OTU4 connection");
+                    LOG.debug("Infrastructure OTU4 connection");
                     this.valid = true;
                 } else {
                     LOG.error("Service Format {} not managed yet", this.serviceFormat.getName());
@@ -238,7 +322,7 @@ public class PceOpticalNode implements PceNode {
 
     @Override
     public String getRdmSrgClient(String tp) {
-        LOG.info("getRdmSrgClient: Getting PP client for tp '{}' on node : {}", tp, this.nodeId);
+        LOG.debug("getRdmSrgClient: Getting PP client for tp '{}' on node : {}", tp, this.nodeId);
         OpenroadmTpType srgType = null;
         OpenroadmTpType cpType = this.availableSrgCp.get(tp);
         if (cpType == null) {
@@ -247,21 +331,21 @@ public class PceOpticalNode implements PceNode {
         }
         switch (cpType) {
             case SRGTXRXCP:
-                LOG.info("getRdmSrgClient: Getting BI Directional PP port ...");
+                LOG.debug("getRdmSrgClient: Getting BI Directional PP port ...");
                 srgType = OpenroadmTpType.SRGTXRXPP;
                 break;
             case SRGTXCP:
-                LOG.info("getRdmSrgClient: Getting UNI Rx PP port ...");
+                LOG.debug("getRdmSrgClient: Getting UNI Rx PP port ...");
                 srgType = OpenroadmTpType.SRGRXPP;
                 break;
             case SRGRXCP:
-                LOG.info("getRdmSrgClient: Getting UNI Tx PP port ...");
+                LOG.debug("getRdmSrgClient: Getting UNI Tx PP port ...");
                 srgType = OpenroadmTpType.SRGTXPP;
                 break;
             default:
                 break;
         }
-        LOG.info("getRdmSrgClient:  Getting client PP for CP '{}'", tp);
+        LOG.debug("getRdmSrgClient:  Getting client PP for CP '{}'", tp);
         if (!this.availableSrgPp.isEmpty()) {
             Optional<String> client = null;
             final OpenroadmTpType openType = srgType;
@@ -274,7 +358,7 @@ public class PceOpticalNode implements PceNode {
                 LOG.error("getRdmSrgClient: ROADM {} doesn't have PP Client for CP {}", this, tp);
                 return null;
             }
-            LOG.info("getRdmSrgClient: client PP {} for CP {} found !", client, tp);
+            LOG.debug("getRdmSrgClient: client PP {} for CP {} found !", client, tp);
             return client.get();
         } else {
             LOG.error("getRdmSrgClient: SRG TerminationPoint PP list is not available for node {}", this);
@@ -284,6 +368,15 @@ public class PceOpticalNode implements PceNode {
 
 
     public void validateAZxponder(String anodeId, String znodeId) {
+        validateAZxponder(Arrays.asList(anodeId, znodeId));
+    }
+
+    /**
+     * Keep the XPONDER only if it is one of the end nodes of the requests.
+     *
+     * @param endNodeIds supporting node ids of the A and Z ends of one or several requests
+     */
+    public void validateAZxponder(Collection<String> endNodeIds) {
         if (!isValid()) {
             return;
         }
@@ -291,8 +384,8 @@ public class PceOpticalNode implements PceNode {
             return;
         }
         // Detect A and Z
-        if (this.getSupNetworkNodeId().equals(anodeId) || (this.getSupNetworkNodeId().equals(znodeId))) {
-            LOG.info("validateAZxponder: A or Z node detected == {}", nodeId.getValue());
+        if (endNodeIds.contains(this.getSupNetworkNodeId())) {
+            LOG.debug("validateAZxponder: A or Z node detected == {}", nodeId.getValue());
             initXndrTps();
             return;
         }
@@ -307,7 +400,12 @@ public class PceOpticalNode implements PceNode {
 
     @Override
     public boolean checkWL(long index) {
-        return (this.availableWLindex.contains(index));
+        return index >= 0 && index <= Integer.MAX_VALUE && this.availableWLindex.get((int) index);
+    }
+
+    @Override
+    public BitSet getAvailableWavelengths() {
+        return (BitSet) this.availableWLindex.clone();
     }
 
     public boolean isValid() {
@@ -341,12 +439,12 @@ public class PceOpticalNode implements PceNode {
 
     @Override
     public String getSupNetworkNodeId() {
-        return MapUtils.getSupNetworkNode(this.node);
+        return this.supNetworkNodeId;
     }
 
     @Override
     public String getSupClliNodeId() {
-        return MapUtils.getSupClliNode(this.node);
+        return this.supClliNodeId;
     }
 
     @Override
@@ -360,12 +458,12 @@ public class PceOpticalNode implements PceNode {
     }
 
     @Override
-    public Map<String, List<Uint16>> getAvailableTribPorts() {
+    public Map<String, BitSet> getAvailableTribPorts() {
         return null;
     }
 
     @Override
-    public Map<String, List<Uint16>> getAvailableTribSlots() {
+    public Map<String, BitSet> getAvailableTribSlots() {
         return null;
     }
 }
@@ -9,6 +9,7 @@
 package org.opendaylight.transportpce.pce.networkanalyzer;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -51,10 +52,12 @@ public class PceOtnNode implements PceNode {
     private final NodeId nodeId;
     private final OpenroadmNodeType nodeType;
     private final String pceNodeType;
+    private final String supNetworkNodeId;
+    private final String supClliNodeId;
     private final String otnServiceType;
 
-    private Map<String, List<Uint16>> tpAvailableTribPort = new TreeMap<>();
-    private Map<String, List<Uint16>> tpAvailableTribSlot = new TreeMap<>();
+    private Map<String, BitSet> tpAvailableTribPort = new TreeMap<>();
+    private Map<String, BitSet> tpAvailableTribSlot = new TreeMap<>();
     private Map<String, OpenroadmTpType> availableXponderTp = new TreeMap<>();
     private List<String> usedXpdrNWTps = new ArrayList<>();
     private List<TpId> availableXpdrNWTps;
@@ -65,6 +68,8 @@ public class PceOtnNode implements PceNode {
 
     private List<PceLink> outgoingLinks = new ArrayList<>();
     private Map<String, String> clientPerNwTp = new HashMap<>();
+    // bit i set when the TP belongs to the non-blocking list i of the first ODU switching pool
+    private Map<TpId, BitSet> nonBlockingListsPerTp;
 
     public PceOtnNode(Node node, OpenroadmNodeType nodeType, NodeId nodeId, String pceNodeType, String serviceType) {
         this.node = node;
@@ -72,6 +77,8 @@ public class PceOtnNode implements PceNode {
         this.nodeType = nodeType;
         this.pceNodeType = pceNodeType;
         this.otnServiceType = serviceType;
+        this.supNetworkNodeId = node == null ? null : MapUtils.getSupNetworkNode(node);
+        this.supClliNodeId = node == null ? null : MapUtils.getSupClliNode(node);
         this.tpAvailableTribSlot.clear();
         this.usedXpdrNWTps.clear();
         this.availableXpdrNWTps = new ArrayList<>();
@@ -90,8 +97,39 @@ public class PceOtnNode implements PceNode {
         }
     }
 
+    /**
+     * Copy of a node with its own copy of the available tributary ports and slots, which the copy may change,
+     * see {@link PceNetworkCache}.
+     *
+     * @param prototype the node to copy, not yet validated
+     */
+    PceOtnNode(PceOtnNode prototype) {
+        this.node = prototype.node;
+        this.nodeId = prototype.nodeId;
+        this.nodeType = prototype.nodeType;
+        this.pceNodeType = prototype.pceNodeType;
+        this.supNetworkNodeId = prototype.supNetworkNodeId;
+        this.supClliNodeId = prototype.supClliNodeId;
+        this.otnServiceType = prototype.otnServiceType;
+        this.tpAvailableTribPort = copyOf(prototype.tpAvailableTribPort);
+        this.tpAvailableTribSlot = copyOf(prototype.tpAvailableTribSlot);
+        this.availableXpdrNWTps = new ArrayList<>();
+        this.usableXpdrNWTps = new ArrayList<>();
+        this.availableXpdrClientTps = new ArrayList<>();
+        this.usableXpdrClientTps = new ArrayList<>();
+        this.valid = prototype.valid;
+    }
+
+    private static Map<String, BitSet> copyOf(Map<String, BitSet> tpBitmaps) {
+        Map<String, BitSet> copy = new TreeMap<>();
+        for (Map.Entry<String, BitSet> tp : tpBitmaps.entrySet()) {
+            copy.put(tp.getKey(), (BitSet) tp.getValue().clone());
+        }
+        return copy;
+    }
+
     public void initXndrTps(String mode) {
-        LOG.info("PceOtnNode: initXndrTps for node {}", this.nodeId.getValue());
+        LOG.debug("PceOtnNode: initXndrTps for node {}", this.nodeId.getValue());
         this.availableXponderTp.clear();
 
         org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Node1 nodeTp
@@ -119,7 +157,7 @@ public class PceOtnNode implements PceNode {
                     continue;
                 }
                 if (checkTpForOdtuTermination(ontTp1)) {
-                    LOG.info("TP {} of XPONDER {} is validated", tp.getTpId(), node.getNodeId().getValue());
+                    LOG.debug("TP {} of XPONDER {} is validated", tp.getTpId(), node.getNodeId().getValue());
                     this.availableXpdrNWTps.add(tp.getTpId());
                 } else {
                     LOG.error("TP {} of {} does not allow ODU4 termination creation", tp.getTpId().getValue(),
@@ -135,7 +173,7 @@ public class PceOtnNode implements PceNode {
                 }
                 if ("10GE".equals(otnServiceType) && checkOdtuTTPforLoOduCreation(ontTp1, 10)
                     || "1GE".equals(otnServiceType) && checkOdtuTTPforLoOduCreation(ontTp1, 1)) {
-                    LOG.info("TP {} of XPONDER {} is validated", tp.getTpId(), node.getNodeId().getValue());
+                    LOG.debug("TP {} of XPONDER {} is validated", tp.getTpId(), node.getNodeId().getValue());
                     this.availableXpdrNWTps.add(tp.getTpId());
                 } else {
                     if ("10GE".equals(otnServiceType)) {
@@ -158,7 +196,7 @@ public class PceOtnNode implements PceNode {
                     continue;
                 }
                 if (checkClientTp(ontTp1)) {
-                    LOG.info("TP {} of XPONDER {} is validated", tp.getTpId(), node.getNodeId().getValue());
+                    LOG.debug("TP {} of XPONDER {} is validated", tp.getTpId(), node.getNodeId().getValue());
                     this.availableXpdrClientTps.add(tp.getTpId());
                 } else {
                     LOG.error("TP {} of {} does not allow lo-ODU (ODU2e or ODU0) termination creation",
@@ -183,19 +221,13 @@ public class PceOtnNode implements PceNode {
             clientTps.sort(Comparator.comparing(TpId::getValue));
             netwTps.sort(Comparator.comparing(TpId::getValue));
             for (TpId nwTp : netwTps) {
+                BitSet nwTpLists = getNonBlockingLists(nwTp);
                 for (TpId clTp : clientTps) {
-                    @Nullable
-                    List<NonBlockingList> nblList = node.augmentation(Node1.class).getSwitchingPools()
-                        .getOduSwitchingPools().get(0).getNonBlockingList();
-                    for (NonBlockingList nbl : nblList) {
-                        if (nbl.getTpList().contains(clTp) && nbl.getTpList().contains(nwTp)) {
-                            usableXpdrClientTps.add(clTp);
-                            usableXpdrNWTps.add(nwTp);
-                        }
-                        if (usableXpdrClientTps.size() >= nbClient && usableXpdrNWTps.size() >= nbNetw) {
-                            clientPerNwTp.put(nwTp.getValue(), clTp.getValue());
-                            return true;
-                        }
+                    if (nwTpLists.intersects(getNonBlockingLists(clTp))) {
+                        usableXpdrClientTps.add(clTp);
+                        usableXpdrNWTps.add(nwTp);
+                        clientPerNwTp.put(nwTp.getValue(), clTp.getValue());
+                        return true;
                     }
                 }
             }
@@ -203,12 +235,11 @@ public class PceOtnNode implements PceNode {
         }
         if (clientTps == null && netwTps != null && nbClient == 0 && nbNetw == 2) {
             netwTps.sort(Comparator.comparing(TpId::getValue));
-            @Nullable
-            List<NonBlockingList> nblList = node.augmentation(Node1.class).getSwitchingPools().getOduSwitchingPools()
-                .get(0).getNonBlockingList();
-            for (NonBlockingList nbl : nblList) {
+            int nbList = node.augmentation(Node1.class).getSwitchingPools().getOduSwitchingPools().get(0)
+                .getNonBlockingList().size();
+            for (int list = 0; list < nbList; list++) {
                 for (TpId nwTp : netwTps) {
-                    if (nbl.getTpList().contains(nwTp)) {
+                    if (getNonBlockingLists(nwTp).get(list)) {
                         usableXpdrNWTps.add(nwTp);
                     }
                     if (usableXpdrNWTps.size() >= nbNetw) {
@@ -220,6 +251,23 @@ public class PceOtnNode implements PceNode {
         return false;
     }
 
+    private BitSet getNonBlockingLists(TpId tp) {
+        if (nonBlockingListsPerTp == null) {
+            nonBlockingListsPerTp = new HashMap<>();
+            List<NonBlockingList> nblList = node.augmentation(Node1.class).getSwitchingPools()
+                .getOduSwitchingPools().get(0).getNonBlockingList();
+            for (int list = 0; list < nblList.size(); list++) {
+                if (nblList.get(list).getTpList() == null) {
+                    continue;
+                }
+                for (TpId listTp : nblList.get(list).getTpList()) {
+                    nonBlockingListsPerTp.computeIfAbsent(listTp, key -> new BitSet()).set(list);
+                }
+            }
+        }
+        return nonBlockingListsPerTp.getOrDefault(tp, new BitSet());
+    }
+
     private boolean checkTpForOdtuTermination(TerminationPoint1 ontTp1) {
         for (SupportedInterfaceCapability sic : ontTp1.getTpSupportedInterfaces().getSupportedInterfaceCapability()) {
             LOG.debug("in checkTpForOduTermination - sic = {}", sic.getIfCapType());
@@ -281,7 +329,7 @@ public class PceOtnNode implements PceNode {
         if (this.nodeId.getValue().equals(anodeId) || (this.nodeId.getValue().equals(znodeId))) {
             initXndrTps("AZ");
         } else {
-            LOG.info("validateAZxponder: XPONDER is ignored == {}", nodeId.getValue());
+            LOG.debug("validateAZxponder: XPONDER is ignored == {}", nodeId.getValue());
             valid = false;
         }
     }
@@ -330,7 +378,7 @@ public class PceOtnNode implements PceNode {
         if (!this.valid) {
             LOG.debug("validateIntermediateSwitch: Switch unusable for transit == {}", nodeId.getValue());
         } else {
-            LOG.info("validateIntermediateSwitch: Switch usable for transit == {}", nodeId.getValue());
+            LOG.debug("validateIntermediateSwitch: Switch usable for transit == {}", nodeId.getValue());
         }
     }
 
@@ -352,7 +400,7 @@ public class PceOtnNode implements PceNode {
                 List<Uint16> tpnPool = tp.augmentation(TerminationPoint1.class).getXpdrTpPortConnectionAttributes()
                     .getOdtuTpnPool().get(0).getTpnPool();
                 if (tpnPool != null) {
-                    tpAvailableTribPort.put(tp.getTpId().getValue(), tpnPool);
+                    tpAvailableTribPort.put(tp.getTpId().getValue(), OtnTribAllocator.toBitmap(tpnPool));
                 }
             }
         }
@@ -373,7 +421,7 @@ public class PceOtnNode implements PceNode {
                 @Nullable
                 List<Uint16> tsPool = tp.augmentation(TerminationPoint1.class).getXpdrTpPortConnectionAttributes()
                     .getTsPool();
-                tpAvailableTribSlot.put(tp.getTpId().getValue(), tsPool);
+                tpAvailableTribSlot.put(tp.getTpId().getValue(), OtnTribAllocator.toBitmap(tsPool));
             }
         }
     }
@@ -408,16 +456,16 @@ public class PceOtnNode implements PceNode {
     }
 
     public void printLinksOfNode() {
-        LOG.info(" outgoing links of node {} : {} ", nodeId.getValue(), this.getOutgoingLinks());
+        LOG.debug(" outgoing links of node {} : {} ", nodeId.getValue(), this.getOutgoingLinks());
     }
 
     @Override
-    public Map<String, List<Uint16>> getAvailableTribPorts() {
+    public Map<String, BitSet> getAvailableTribPorts() {
         return tpAvailableTribPort;
     }
 
     @Override
-    public Map<String, List<Uint16>> getAvailableTribSlots() {
+    public Map<String, BitSet> getAvailableTribSlots() {
         return tpAvailableTribSlot;
     }
 
@@ -436,12 +484,12 @@ public class PceOtnNode implements PceNode {
 
     @Override
     public String getSupNetworkNodeId() {
-        return MapUtils.getSupNetworkNode(this.node);
+        return this.supNetworkNodeId;
     }
 
     @Override
     public String getSupClliNodeId() {
-        return MapUtils.getSupClliNode(this.node);
+        return this.supClliNodeId;
     }
 
     @Override
@@ -463,4 +511,9 @@ public class PceOtnNode implements PceNode {
     public boolean checkWL(long index) {
         return false;
     }
+
+    @Override
+    public BitSet getAvailableWavelengths() {
+        return new BitSet();
+    }
 }
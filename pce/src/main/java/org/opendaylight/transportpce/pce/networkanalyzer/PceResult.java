@@ -11,6 +11,7 @@ package org.opendaylight.transportpce.pce.networkanalyzer;
 import java.util.List;
 import java.util.Map;
 import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.pce.metrics.PceTrace;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.format.rev190531.ServiceFormat;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.AToZDirection;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.ZToADirection;
@@ -42,9 +43,43 @@ public class PceResult {
     private AToZDirection atozdirection = null;
     private ZToADirection ztoadirection = null;
 
+    // candidate paths produced by the k shortest paths algorithm and submitted to post algo validation
+    private int generatedPaths = 0;
+    private int validatedPaths = 0;
+
+    // trace of the computation, shared by the copies of the result
+    private PceTrace trace = PceTrace.DISABLED;
+    // why the post algo validations rejected the last candidate path, null if accepted
+    private PceTrace.Rejection rejection = null;
+
     public PceResult() {
     }
 
+    /**
+     * Copy a result, the path descriptions and the tributary maps are shared.
+     *
+     * @param other result to copy
+     */
+    public PceResult(PceResult other) {
+        this.calcMessage = other.calcMessage;
+        this.calcStatus = other.calcStatus;
+        this.responseCode = other.responseCode;
+        this.resultWavelength = other.resultWavelength;
+        this.resultTribPort = other.resultTribPort;
+        this.resultTribSlot = other.resultTribSlot;
+        this.resultTribSlotNb = other.resultTribSlotNb;
+        this.serviceType = other.serviceType;
+        this.rate = other.rate;
+        this.serviceFormat = other.serviceFormat;
+        this.localCause = other.localCause;
+        this.atozdirection = other.atozdirection;
+        this.ztoadirection = other.ztoadirection;
+        this.generatedPaths = other.generatedPaths;
+        this.validatedPaths = other.validatedPaths;
+        this.trace = other.trace;
+        this.rejection = other.rejection;
+    }
+
     public void setRC(String rc) {
         switch (rc) {
             case ResponseCodes.RESPONSE_OK :
@@ -64,7 +99,8 @@ public class PceResult {
 
     public String toString() {
         return ("[" + calcMessage + "] code:[" + responseCode + "] wavelength=" + resultWavelength + " localCause="
-                + localCause + " rate=" + rate + " serviceType = " + serviceType);
+                + localCause + " rate=" + rate + " serviceType = " + serviceType + " candidatePaths="
+                + validatedPaths + "/" + generatedPaths);
     }
 
     public boolean getStatus() {
@@ -163,4 +199,35 @@ public class PceResult {
         this.serviceType = serviceType;
     }
 
+    public int getGeneratedPaths() {
+        return generatedPaths;
+    }
+
+    public void setGeneratedPaths(int generatedPaths) {
+        this.generatedPaths = generatedPaths;
+    }
+
+    public int getValidatedPaths() {
+        return validatedPaths;
+    }
+
+    public void setValidatedPaths(int validatedPaths) {
+        this.validatedPaths = validatedPaths;
+    }
+
+    public PceTrace getTrace() {
+        return trace;
+    }
+
+    public void setTrace(PceTrace trace) {
+        this.trace = trace;
+    }
+
+    public PceTrace.Rejection getRejection() {
+        return rejection;
+    }
+
+    public void setRejection(PceTrace.Rejection rejection) {
+        this.rejection = rejection;
+    }
 }
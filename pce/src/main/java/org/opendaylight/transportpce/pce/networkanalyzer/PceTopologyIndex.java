@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNode;
+
+/**
+ * Supporting nodes of the nodes of a topology, read once per topology version: node id to supporting
+ * network node and CLLI, and the nodes supported by each network node and CLLI. The exclusions of the
+ * constraints are translated into a set of node ids instead of being checked node by node.
+ */
+public final class PceTopologyIndex {
+
+    private final Map<String, String> supNetworkNodes = new HashMap<>();
+    private final Map<String, String> supCllis = new HashMap<>();
+    // CLLI used by the diversity constraints, see MapUtils.getCLLI
+    private final Map<String, String> diversityCllis = new HashMap<>();
+    private final Map<String, Set<NodeId>> nodesPerSupNetworkNode = new HashMap<>();
+    private final Map<String, Set<NodeId>> nodesPerClli = new HashMap<>();
+
+    public PceTopologyIndex(Collection<Node> nodes) {
+        for (Node node : nodes) {
+            String nodeId = node.getNodeId().getValue();
+            List<SupportingNode> supportingNodes = node.getSupportingNode();
+            if (supportingNodes == null || supportingNodes.isEmpty()) {
+                continue;
+            }
+            diversityCllis.put(nodeId, MapUtils.getCLLI(node));
+            String supNetworkNode = MapUtils.getSupNetworkNode(node);
+            if (supNetworkNode != null) {
+                supNetworkNodes.put(nodeId, supNetworkNode);
+                nodesPerSupNetworkNode.computeIfAbsent(supNetworkNode, id -> new HashSet<>()).add(node.getNodeId());
+            }
+            String clli = MapUtils.getSupClliNode(node);
+            if (clli != null) {
+                supCllis.put(nodeId, clli);
+                nodesPerClli.computeIfAbsent(clli, id -> new HashSet<>()).add(node.getNodeId());
+            }
+        }
+    }
+
+    public String getSupNetworkNodeId(String nodeId) {
+        return supNetworkNodes.get(nodeId);
+    }
+
+    public String getSupClliNodeId(String nodeId) {
+        return supCllis.get(nodeId);
+    }
+
+    /**
+     * Get the CLLI of a node excluded by a diversity constraint.
+     *
+     * @param nodeId the node id
+     * @return the id of the first supporting node, null if the node is unknown
+     */
+    public String getCLLI(String nodeId) {
+        return diversityCllis.get(nodeId);
+    }
+
+    public Set<NodeId> getNodesOfSupNetworkNode(String supNetworkNode) {
+        return Collections.unmodifiableSet(nodesPerSupNetworkNode.getOrDefault(supNetworkNode,
+            Collections.emptySet()));
+    }
+
+    public Set<NodeId> getNodesOfClli(String clli) {
+        return Collections.unmodifiableSet(nodesPerClli.getOrDefault(clli, Collections.emptySet()));
+    }
+
+    /**
+     * Get the nodes excluded by hard constraints.
+     *
+     * @param supNodes the excluded supporting network nodes
+     * @param cllis the excluded CLLIs
+     * @return the ids of the nodes supported by one of the excluded network nodes or CLLIs
+     */
+    public Set<NodeId> getExcludedNodes(Collection<String> supNodes, Collection<String> cllis) {
+        Set<NodeId> excludedNodes = new HashSet<>();
+        for (String supNode : supNodes) {
+            excludedNodes.addAll(nodesPerSupNetworkNode.getOrDefault(supNode, Collections.emptySet()));
+        }
+        for (String clli : cllis) {
+            excludedNodes.addAll(nodesPerClli.getOrDefault(clli, Collections.emptySet()));
+        }
+        return excludedNodes;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+
+/**
+ * Immutable view of one overlay topology (openroadm-topology or otn-topology) as consumed by
+ * {@link PceCalculation}. Nodes and links are kept in the order PceCalculation used to obtain by
+ * sorting the result of a full datastore read, so that path computation is deterministic whatever
+ * the source of the topology.
+ */
+public final class PceTopologySnapshot {
+
+    private static final PceTopologySnapshot EMPTY = new PceTopologySnapshot(0L, Collections.emptyMap(),
+        Collections.emptyMap());
+
+    private final long version;
+    private final Map<NodeId, Node> nodes;
+    private final Map<LinkId, Link> links;
+    private final List<Node> sortedNodes;
+    private final List<Link> sortedLinks;
+    private final PceTopologyIndex index;
+
+    private PceTopologySnapshot(long version, Map<NodeId, Node> nodes, Map<LinkId, Link> links) {
+        this.version = version;
+        this.nodes = Collections.unmodifiableMap(nodes);
+        this.links = Collections.unmodifiableMap(links);
+        this.sortedNodes = Collections.unmodifiableList(nodes.values().stream()
+            .sorted((n1, n2) -> n1.getNodeId().getValue().compareTo(n2.getNodeId().getValue()))
+            .collect(Collectors.toList()));
+        this.sortedLinks = Collections.unmodifiableList(links.values().stream()
+            .sorted((l1, l2) -> l1.getSource().getSourceTp().toString()
+                .compareTo(l2.getSource().getSourceTp().toString()))
+            .collect(Collectors.toList()));
+        this.index = new PceTopologyIndex(this.sortedNodes);
+    }
+
+    public static PceTopologySnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a snapshot from a full network, as read from the datastore.
+     *
+     * @param version version of the snapshot
+     * @param network the network, may be null if it is not present in the datastore
+     * @return the corresponding snapshot
+     */
+    public static PceTopologySnapshot of(long version, Network network) {
+        Map<NodeId, Node> nodes = new HashMap<>();
+        Map<LinkId, Link> links = new HashMap<>();
+        if (network != null) {
+            if (network.getNode() != null) {
+                for (Node node : network.getNode()) {
+                    nodes.put(node.getNodeId(), node);
+                }
+            }
+            Network1 nw1 = network.augmentation(Network1.class);
+            if (nw1 != null && nw1.getLink() != null) {
+                for (Link link : nw1.getLink()) {
+                    links.put(link.getLinkId(), link);
+                }
+            }
+        }
+        return new PceTopologySnapshot(version, nodes, links);
+    }
+
+    /**
+     * Derive a new snapshot from this one. Only the modified nodes and links are replaced, the
+     * unmodified ones are shared with the previous snapshot.
+     *
+     * @param updatedNodes nodes created or modified
+     * @param removedNodes ids of deleted nodes
+     * @param updatedLinks links created or modified
+     * @param removedLinks ids of deleted links
+     * @return a new snapshot with an incremented version
+     */
+    public PceTopologySnapshot apply(Collection<Node> updatedNodes, Collection<NodeId> removedNodes,
+            Collection<Link> updatedLinks, Collection<LinkId> removedLinks) {
+        Map<NodeId, Node> newNodes = new HashMap<>(this.nodes);
+        for (NodeId nodeId : removedNodes) {
+            newNodes.remove(nodeId);
+        }
+        for (Node node : updatedNodes) {
+            newNodes.put(node.getNodeId(), node);
+        }
+        Map<LinkId, Link> newLinks = new HashMap<>(this.links);
+        for (LinkId linkId : removedLinks) {
+            newLinks.remove(linkId);
+        }
+        for (Link link : updatedLinks) {
+            newLinks.put(link.getLinkId(), link);
+        }
+        return new PceTopologySnapshot(this.version + 1, newNodes, newLinks);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<NodeId, Node> getNodeMap() {
+        return nodes;
+    }
+
+    public Map<LinkId, Link> getLinkMap() {
+        return links;
+    }
+
+    public List<Node> getNodes() {
+        return sortedNodes;
+    }
+
+    public List<Link> getLinks() {
+        return sortedLinks;
+    }
+
+    public PceTopologyIndex getIndex() {
+        return index;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "PceTopologySnapshot version=" + version + " nodes=" + nodes.size() + " links=" + links.size();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.DataObjectModification;
+import org.opendaylight.mdsal.binding.api.DataTreeChangeListener;
+import org.opendaylight.mdsal.binding.api.DataTreeIdentifier;
+import org.opendaylight.mdsal.binding.api.DataTreeModification;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.transportpce.common.NetworkUtils;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.opendaylight.yangtools.concepts.ListenerRegistration;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an in-memory {@link PceTopologySnapshot} of openroadm-topology and otn-topology up to date by
+ * listening to the configuration datastore, so that {@link PceCalculation} does not need to read the
+ * whole network for each path computation request.
+ */
+public class PceTopologySnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PceTopologySnapshotService.class);
+
+    private final DataBroker dataBroker;
+    private final Map<String, AtomicReference<PceTopologySnapshot>> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, PceNetworkCache> networkCaches = new ConcurrentHashMap<>();
+    private final boolean networkCache;
+    private final List<ListenerRegistration<TopologyListener>> registrations = new ArrayList<>();
+
+    public PceTopologySnapshotService(DataBroker dataBroker) {
+        this(dataBroker, true);
+    }
+
+    /**
+     * Create the service.
+     *
+     * @param dataBroker the data broker
+     * @param networkCache true to share the analysis of the nodes and links of the snapshots between the path
+     *        computations
+     */
+    public PceTopologySnapshotService(DataBroker dataBroker, boolean networkCache) {
+        this.dataBroker = dataBroker;
+        this.networkCache = networkCache;
+        this.snapshots.put(NetworkUtils.OVERLAY_NETWORK_ID, new AtomicReference<>(PceTopologySnapshot.empty()));
+        this.snapshots.put(NetworkUtils.OTN_NETWORK_ID, new AtomicReference<>(PceTopologySnapshot.empty()));
+    }
+
+    /*
+     * Method called when the blueprint container is created.
+     */
+    public void init() {
+        LOG.info("PceTopologySnapshotService init ...");
+        register(NetworkUtils.OVERLAY_NETWORK_ID, InstanceIdentifiers.OVERLAY_NETWORK_II);
+        register(NetworkUtils.OTN_NETWORK_ID, InstanceIdentifiers.OTN_NETWORK_II);
+    }
+
+    /*
+     * Method called when the blueprint container is destroyed.
+     */
+    public void close() {
+        LOG.info("PceTopologySnapshotService closed");
+        for (ListenerRegistration<TopologyListener> registration : registrations) {
+            registration.close();
+        }
+        registrations.clear();
+    }
+
+    private void register(String networkId, InstanceIdentifier<Network> networkIid) {
+        registrations.add(dataBroker.registerDataTreeChangeListener(
+            DataTreeIdentifier.create(LogicalDatastoreType.CONFIGURATION, networkIid),
+            new TopologyListener(networkId, snapshots.get(networkId))));
+        LOG.info("PceTopologySnapshotService: {} change listener was successfully registered", networkId);
+    }
+
+    /**
+     * Get the latest snapshot of a topology.
+     *
+     * @param networkId openroadm-topology or otn-topology
+     * @return the snapshot, empty if the topology is unknown or not yet received
+     */
+    public PceTopologySnapshot getSnapshot(String networkId) {
+        AtomicReference<PceTopologySnapshot> snapshot = snapshots.get(networkId);
+        if (snapshot == null) {
+            return PceTopologySnapshot.empty();
+        }
+        return snapshot.get();
+    }
+
+    /**
+     * Get the cache of the nodes and links of the snapshots of a topology.
+     *
+     * @param networkId openroadm-topology or otn-topology
+     * @return the cache, null if the service was created without cache
+     */
+    public PceNetworkCache getNetworkCache(String networkId) {
+        if (!networkCache) {
+            return null;
+        }
+        return networkCaches.computeIfAbsent(networkId, id -> new PceNetworkCache());
+    }
+
+    /**
+     * Get a counter increased each time openroadm-topology or otn-topology changes.
+     *
+     * @return the sum of the versions of the snapshots
+     */
+    public long getEpoch() {
+        long epoch = 0;
+        for (AtomicReference<PceTopologySnapshot> snapshot : snapshots.values()) {
+            epoch += snapshot.get().getVersion();
+        }
+        return epoch;
+    }
+
+    static final class TopologyListener implements DataTreeChangeListener<Network> {
+
+        private final String networkId;
+        private final AtomicReference<PceTopologySnapshot> snapshot;
+
+        TopologyListener(String networkId, AtomicReference<PceTopologySnapshot> snapshot) {
+            this.networkId = networkId;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void onDataTreeChanged(Collection<DataTreeModification<Network>> changes) {
+            for (DataTreeModification<Network> change : changes) {
+                DataObjectModification<Network> rootNode = change.getRootNode();
+                PceTopologySnapshot previous = snapshot.get();
+                PceTopologySnapshot next;
+                switch (rootNode.getModificationType()) {
+                    case DELETE:
+                        next = PceTopologySnapshot.of(previous.getVersion() + 1, null);
+                        break;
+                    case WRITE:
+                        next = PceTopologySnapshot.of(previous.getVersion() + 1, rootNode.getDataAfter());
+                        break;
+                    case SUBTREE_MODIFIED:
+                        next = applyModification(previous, rootNode);
+                        break;
+                    default:
+                        LOG.warn("TopologyListener: unsupported modification type {} on {}",
+                            rootNode.getModificationType(), networkId);
+                        continue;
+                }
+                snapshot.set(next);
+                LOG.debug("TopologyListener: {} updated to {}", networkId, next);
+            }
+        }
+
+        private static PceTopologySnapshot applyModification(PceTopologySnapshot previous,
+                DataObjectModification<Network> rootNode) {
+            List<Node> updatedNodes = new ArrayList<>();
+            List<NodeId> removedNodes = new ArrayList<>();
+            for (DataObjectModification<Node> nodeMod : rootNode.getModifiedChildren(Node.class)) {
+                if (nodeMod.getModificationType() == DataObjectModification.ModificationType.DELETE) {
+                    if (nodeMod.getDataBefore() != null) {
+                        removedNodes.add(nodeMod.getDataBefore().getNodeId());
+                    }
+                } else if (nodeMod.getDataAfter() != null) {
+                    updatedNodes.add(nodeMod.getDataAfter());
+                }
+            }
+
+            List<Link> updatedLinks = new ArrayList<>();
+            List<LinkId> removedLinks = new ArrayList<>();
+            DataObjectModification<Network1> linksMod = rootNode.getModifiedAugmentation(Network1.class);
+            if (linksMod != null) {
+                if (linksMod.getModificationType() == DataObjectModification.ModificationType.SUBTREE_MODIFIED) {
+                    for (DataObjectModification<Link> linkMod : linksMod.getModifiedChildren(Link.class)) {
+                        if (linkMod.getModificationType() == DataObjectModification.ModificationType.DELETE) {
+                            if (linkMod.getDataBefore() != null) {
+                                removedLinks.add(linkMod.getDataBefore().getLinkId());
+                            }
+                        } else if (linkMod.getDataAfter() != null) {
+                            updatedLinks.add(linkMod.getDataAfter());
+                        }
+                    }
+                } else {
+                    // the whole link list has been replaced or deleted
+                    removedLinks.addAll(previous.getLinkMap().keySet());
+                    Network1 nw1 = linksMod.getDataAfter();
+                    if (nw1 != null && nw1.getLink() != null) {
+                        updatedLinks.addAll(nw1.getLink());
+                    }
+                }
+            }
+            return previous.apply(updatedNodes, removedNodes, updatedLinks, removedLinks);
+        }
+    }
+}
@@ -8,6 +8,7 @@
 package org.opendaylight.transportpce.pce.service;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.CancelResourceReserveInput;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.CancelResourceReserveOutput;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
@@ -34,4 +35,24 @@ public interface PathComputationService {
      */
     ListenableFuture<PathComputationRequestOutput> pathComputationRequest(PathComputationRequestInput input);
 
+    /**
+     * Requests the path computation of several services, the network being analyzed once for all of them.
+     * No notification is sent.
+     *
+     * @param inputs PathComputationRequestInput data of each service
+     * @param virtualReservation true so that a resource is not used by more than one of the services
+     * @return output PathComputationRequestOutput data of each service, in the order of the inputs
+     */
+    ListenableFuture<List<PathComputationRequestOutput>> pathComputationRequestBulk(
+            List<PathComputationRequestInput> inputs, boolean virtualReservation);
+
+    /**
+     * Releases the resources held for a service by its path computation, once the renderer has ended the
+     * implementation of the service. No notification is sent.
+     *
+     * @param serviceName the name of the service
+     * @return output true if resources were held for the service
+     */
+    ListenableFuture<Boolean> releaseResourceReserve(String serviceName);
+
 }
@@ -12,15 +12,23 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import org.opendaylight.mdsal.binding.api.NotificationPublishService;
 import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.pce.PceBulkPathComputation;
 import org.opendaylight.transportpce.pce.PceComplianceCheck;
 import org.opendaylight.transportpce.pce.PceComplianceCheckResult;
+import org.opendaylight.transportpce.pce.PceDependencies;
+import org.opendaylight.transportpce.pce.PceReservationLedger;
+import org.opendaylight.transportpce.pce.PceResultCache;
 import org.opendaylight.transportpce.pce.PceSendingPceRPCs;
+import org.opendaylight.transportpce.pce.gnpy.GnpyClient;
 import org.opendaylight.transportpce.pce.gnpy.GnpyResult;
+import org.opendaylight.transportpce.pce.metrics.PceMetrics;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
 import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.Response;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.CancelResourceReserveInput;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.CancelResourceReserveOutput;
@@ -56,23 +64,62 @@ public class PathComputationServiceImpl implements PathComputationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(PathComputationServiceImpl.class);
     private final NotificationPublishService notificationPublishService;
-    private NetworkTransactionService networkTransactionService;
     private final ListeningExecutorService executor;
+    private final PceDependencies dependencies;
     ServicePathRpcResult notification = null;
 
     public PathComputationServiceImpl(NetworkTransactionService networkTransactionService,
                                       NotificationPublishService notificationPublishService) {
+        this(notificationPublishService, PceDependencies.create(networkTransactionService, null, null));
+    }
+
+    public PathComputationServiceImpl(NotificationPublishService notificationPublishService,
+                                      PceDependencies dependencies) {
         this.notificationPublishService = notificationPublishService;
-        this.networkTransactionService = networkTransactionService;
+        this.dependencies = dependencies;
         this.executor = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(5));
     }
 
     public void init() {
         LOG.info("init ...");
+        if (dependencies.getMetrics() != null) {
+            dependencies.getMetrics().init();
+        }
+        if (dependencies.getGnpyClient() != null) {
+            dependencies.getGnpyClient().init();
+        }
     }
 
     public void close() {
         LOG.info("close.");
+        if (dependencies.getMetrics() != null) {
+            dependencies.getMetrics().close();
+        }
+        if (dependencies.getGnpyClient() != null) {
+            dependencies.getGnpyClient().close();
+        }
+        if (dependencies.getReservationLedger() != null) {
+            dependencies.getReservationLedger().close();
+        }
+        if (dependencies.getResultCache() != null) {
+            LOG.info("close: {}", dependencies.getResultCache());
+        }
+    }
+
+    public PceResultCache getResultCache() {
+        return dependencies.getResultCache();
+    }
+
+    public PceReservationLedger getReservationLedger() {
+        return dependencies.getReservationLedger();
+    }
+
+    public PceMetrics getMetrics() {
+        return dependencies.getMetrics();
+    }
+
+    public GnpyClient getGnpyClient() {
+        return dependencies.getGnpyClient();
     }
 
     @SuppressFBWarnings(
@@ -104,8 +151,8 @@ public class PathComputationServiceImpl implements PathComputationService {
                 String message = "";
                 sendNotifications(ServicePathNotificationTypes.CancelResourceReserve, input.getServiceName(),
                         RpcStatusEx.Pending, "Service compliant, submitting cancelResourceReserve Request ...", null);
-                PceSendingPceRPCs sendingPCE = new PceSendingPceRPCs();
-                sendingPCE.cancelResourceReserve();
+                PceSendingPceRPCs sendingPCE = new PceSendingPceRPCs(null, dependencies);
+                sendingPCE.cancelResourceReserve(input.getServiceName());
                 if (Boolean.TRUE.equals(sendingPCE.getSuccess())) {
                     message = "ResourceReserve cancelled !";
                 } else {
@@ -152,7 +199,7 @@ public class PathComputationServiceImpl implements PathComputationService {
                         RpcStatusEx.Pending, "Service compliant, submitting pathComputation Request ...", null);
                 String message = "";
                 String responseCode = "";
-                PceSendingPceRPCs sendingPCE = new PceSendingPceRPCs(input, networkTransactionService);
+                PceSendingPceRPCs sendingPCE = new PceSendingPceRPCs(input, dependencies);
                 sendingPCE.pathComputation();
                 message = sendingPCE.getMessage();
                 responseCode = sendingPCE.getResponseCode();
@@ -223,6 +270,73 @@ public class PathComputationServiceImpl implements PathComputationService {
         });
     }
 
+    @Override
+    public ListenableFuture<List<PathComputationRequestOutput>> pathComputationRequestBulk(
+            List<PathComputationRequestInput> inputs, boolean virtualReservation) {
+        LOG.info("pathComputationRequestBulk: {} requests", inputs.size());
+        return executor.submit(new Callable<List<PathComputationRequestOutput>>() {
+
+            @Override
+            public List<PathComputationRequestOutput> call() {
+                PathComputationRequestOutput[] outputs = new PathComputationRequestOutput[inputs.size()];
+                List<PathComputationRequestInput> compliantInputs = new ArrayList<>();
+                List<Integer> compliantIndexes = new ArrayList<>();
+                for (int i = 0; i < inputs.size(); i++) {
+                    PceComplianceCheckResult check = PceComplianceCheck.check(inputs.get(i));
+                    if (check.hasPassed()) {
+                        compliantInputs.add(inputs.get(i));
+                        compliantIndexes.add(i);
+                    } else {
+                        LOG.error("Path not calculated, service {} not compliant : {}",
+                            inputs.get(i).getServiceName(), check.getMessage());
+                        outputs[i] = createOutput(inputs.get(i), "Path not calculated", check.getMessage(), null);
+                    }
+                }
+                PceBulkPathComputation bulk = new PceBulkPathComputation(compliantInputs, dependencies);
+                bulk.setVirtualReservation(virtualReservation);
+                List<PceResult> results = bulk.pathComputation();
+                for (int i = 0; i < results.size(); i++) {
+                    PceResult rc = results.get(i);
+                    outputs[compliantIndexes.get(i)] = createOutput(compliantInputs.get(i), rc.getResponseCode(),
+                        rc.getMessage(), rc.getStatus() ? rc : null);
+                }
+                return Arrays.asList(outputs);
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Boolean> releaseResourceReserve(String serviceName) {
+        LOG.info("releaseResourceReserve: {}", serviceName);
+        return executor.submit(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() {
+                PceReservationLedger reservationLedger = dependencies.getReservationLedger();
+                return reservationLedger != null && reservationLedger.release(serviceName);
+            }
+        });
+    }
+
+    @SuppressFBWarnings(
+        value = "UPM_UNCALLED_PRIVATE_METHOD",
+        justification = "false positive, this method is used by public method pathComputationRequestBulk")
+    private static PathComputationRequestOutput createOutput(PathComputationRequestInput input, String responseCode,
+            String message, PceResult rc) {
+        PathComputationRequestOutputBuilder output = new PathComputationRequestOutputBuilder()
+            .setConfigurationResponseCommon(new ConfigurationResponseCommonBuilder().setAckFinalIndicator("Yes")
+                .setRequestId(input.getServiceHandlerHeader().getRequestId()).setResponseCode(responseCode)
+                .setResponseMessage(message).build());
+        if (rc != null) {
+            output.setResponseParameters(new ResponseParametersBuilder().setPathDescription(new org.opendaylight.yang
+                .gen.v1.http.org.transportpce.b.c._interface.service.types.rev200128.response.parameters.sp.response
+                .parameters.PathDescriptionBuilder()
+                    .setAToZDirection(rc.getAtoZDirection()).setZToADirection(rc.getZtoADirection()).build())
+                .build());
+        }
+        return output.build();
+    }
+
     public GnpyResponse generateGnpyResponse(Response responseGnpy, String pathDir) {
         ResponseType respType = null;
         boolean feasible = true;
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.constraints.PceConstraintsCalc;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.computation.request.input.ServiceZEndBuilder;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.atoz.direction.AToZ;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.pce.resource.resource.resource.TerminationPoint;
+
+public class PceBulkPathComputationTest extends AbstractTest {
+
+    private static final int ROADMS = 12;
+    private static final int REQUESTS_PER_ROADM = 10;
+
+    private NetworkTransactionImpl networkTransaction;
+    private PceDependencies dependencies;
+
+    @Before
+    public void setUp() throws Exception {
+        new OpenRoadmTopologyGenerator(ROADMS, 0.0, 1).writeTo(getDataBroker());
+        networkTransaction = new NetworkTransactionImpl(new RequestProcessor(getDataBroker()));
+        dependencies = PceDependencies.builder(networkTransaction).build();
+    }
+
+    @Test
+    public void bulkMatchesIndividualPathComputation() {
+        List<PathComputationRequestInput> inputs = createRequests();
+        PceBulkPathComputation bulk = new PceBulkPathComputation(inputs, dependencies);
+        bulk.setParallelism(4);
+        List<PceResult> results = bulk.pathComputation();
+
+        Assert.assertEquals(inputs.size(), results.size());
+        for (PceResult result : results) {
+            Assert.assertTrue(result.getStatus());
+        }
+        // individual computation of a sample of the requests
+        for (int i = 0; i < inputs.size(); i += 3) {
+            PceConstraintsCalc constraints = new PceConstraintsCalc(inputs.get(i), networkTransaction);
+            PceSendingPceRPCs sendingPce = new PceSendingPceRPCs(inputs.get(i), dependencies);
+            sendingPce.pathComputationWithConstraints(constraints.getPceHardConstraints(),
+                constraints.getPceSoftConstraints());
+            PceResult expected = sendingPce.getReturnStructure();
+            Assert.assertTrue("request " + i, expected.getStatus());
+            Assert.assertEquals("request " + i, expected.getResultWavelength(), results.get(i).getResultWavelength());
+            Assert.assertEquals("request " + i, expected.getAtoZDirection(), results.get(i).getAtoZDirection());
+            Assert.assertEquals("request " + i, expected.getZtoADirection(), results.get(i).getZtoADirection());
+        }
+    }
+
+    @Test
+    public void virtualReservationUsesResourcesOnce() {
+        List<PathComputationRequestInput> inputs = createRequests();
+        PceBulkPathComputation bulk = new PceBulkPathComputation(inputs, dependencies);
+        bulk.setVirtualReservation(true);
+        List<PceResult> results = bulk.pathComputation();
+
+        Assert.assertEquals(inputs.size(), results.size());
+        Set<String> usedResources = new HashSet<>();
+        int feasible = 0;
+        for (PceResult result : results) {
+            if (!result.getStatus()) {
+                continue;
+            }
+            feasible++;
+            long wavelength = result.getResultWavelength();
+            Set<String> resources = new HashSet<>();
+            for (AToZ atoz : result.getAtoZDirection().getAToZ()) {
+                if (atoz.getResource().getResource() instanceof TerminationPoint) {
+                    TerminationPoint tp = (TerminationPoint) atoz.getResource().getResource();
+                    // an XPONDER port is used by one service, a ROADM port by one service per wavelength
+                    resources.add(tp.getTpNodeId() + "/" + tp.getTpId()
+                        + (tp.getTpNodeId().startsWith("XPONDER") ? "" : "/" + wavelength));
+                }
+            }
+            for (String resource : resources) {
+                Assert.assertTrue(resource + " used twice", usedResources.add(resource));
+            }
+        }
+        // nothing is reserved before the first request, then each XPONDER has 2 network ports
+        Assert.assertTrue(results.get(0).getStatus());
+        Assert.assertTrue(feasible > 0);
+        Assert.assertTrue(feasible <= ROADMS * OpenRoadmTopologyGenerator.XPONDER_PORTS / 2);
+    }
+
+    @Test
+    public void unknownEndNodeFailsOnlyItsRequest() {
+        List<PathComputationRequestInput> inputs = new ArrayList<>();
+        inputs.add(OpenRoadmTopologyGenerator.createRequest(1, 5));
+        PathComputationRequestInput unknown = OpenRoadmTopologyGenerator.createRequest(2, 6);
+        inputs.add(new PathComputationRequestInputBuilder(unknown)
+            .setServiceZEnd(new ServiceZEndBuilder(unknown.getServiceZEnd()).setNodeId("XPONDER-UNKNOWN").build())
+            .build());
+        inputs.add(OpenRoadmTopologyGenerator.createRequest(3, 7));
+        List<PceResult> results = new PceBulkPathComputation(inputs, dependencies).pathComputation();
+
+        Assert.assertEquals(3, results.size());
+        Assert.assertTrue(results.get(0).getStatus());
+        Assert.assertFalse(results.get(1).getStatus());
+        Assert.assertTrue(results.get(2).getStatus());
+    }
+
+    // 120 requests between each ROADM and the following ones of the ring
+    private static List<PathComputationRequestInput> createRequests() {
+        List<PathComputationRequestInput> inputs = new ArrayList<>();
+        for (int roadm = 1; roadm <= ROADMS; roadm++) {
+            for (int offset = 1; offset <= REQUESTS_PER_ROADM; offset++) {
+                inputs.add(OpenRoadmTopologyGenerator.createRequest(roadm, (roadm + offset - 1) % ROADMS + 1));
+            }
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.jgrapht.GraphPath;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.GraphWalk;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.NetworkTransactionService;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.graph.PceGraphEdge;
+import org.opendaylight.transportpce.pce.graph.PostAlgoPathValidator;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.description.list.PathDescriptions;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.atoz.direction.AToZ;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.pce.resource.resource.resource.TerminationPoint;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yangtools.util.concurrent.FluentFutures;
+import org.opendaylight.yangtools.yang.common.Uint16;
+
+public class PceReservationLedgerTest extends AbstractTest {
+
+    private static final int ROADMS = 6;
+
+    private NetworkTransactionImpl networkTransaction;
+    private final AtomicLong clock = new AtomicLong();
+    private PceReservationLedger ledger;
+
+    @Before
+    public void setUp() throws Exception {
+        new OpenRoadmTopologyGenerator(ROADMS, 0.0, 1).writeTo(getDataBroker());
+        networkTransaction = new NetworkTransactionImpl(new RequestProcessor(getDataBroker()));
+        ledger = new PceReservationLedger(networkTransaction, () -> 0, clock::get, TimeUnit.SECONDS.toNanos(60));
+    }
+
+    @Test
+    public void heldResourcesHiddenFromOtherServices() throws Exception {
+        PceSendingPceRPCs first = compute("service-1", 1, 4);
+        PceSendingPceRPCs second = compute("service-2", 1, 4);
+        Assert.assertTrue(first.getSuccess());
+        Assert.assertTrue(second.getSuccess());
+        Assert.assertNotEquals(first.getReturnStructure().getResultWavelength(),
+            second.getReturnStructure().getResultWavelength());
+        Assert.assertTrue(ledger.isHeld("service-1"));
+        Assert.assertTrue(ledger.isHeld("service-2"));
+        // the keyed list is stored without its order
+        Assert.assertEquals(new HashSet<>(first.getReturnStructure().getAtoZDirection().getAToZ()),
+            new HashSet<>(readPathDescription("service-1").get().getAToZDirection().getAToZ()));
+        Set<String> resources = resources(first.getReturnStructure());
+        resources.retainAll(resources(second.getReturnStructure()));
+        Assert.assertTrue(resources.toString(), resources.isEmpty());
+
+        // both network ports of the XPONDER are held
+        Assert.assertFalse(compute("service-3", 1, 4).getSuccess());
+        Assert.assertFalse(ledger.isHeld("service-3"));
+        // a new computation of a service keeps its own resources
+        Assert.assertTrue(compute("service-2", 1, 4).getSuccess());
+        Assert.assertEquals(2, ledger.size());
+
+        PceSendingPceRPCs cancel = new PceSendingPceRPCs(null, PceDependencies.builder(networkTransaction)
+            .setReservationLedger(ledger).build());
+        cancel.cancelResourceReserve("service-1");
+        Assert.assertTrue(cancel.getSuccess());
+        Assert.assertFalse(ledger.isHeld("service-1"));
+        Assert.assertFalse(readPathDescription("service-1").isPresent());
+        PceSendingPceRPCs third = compute("service-3", 1, 4);
+        Assert.assertTrue(third.getSuccess());
+        Assert.assertEquals(first.getReturnStructure().getResultWavelength(),
+            third.getReturnStructure().getResultWavelength());
+    }
+
+    @Test
+    public void cancelWithoutHold() {
+        PceSendingPceRPCs cancel = new PceSendingPceRPCs(null, PceDependencies.builder(networkTransaction)
+            .setReservationLedger(ledger).build());
+        long start = System.nanoTime();
+        cancel.cancelResourceReserve("unknown");
+        Assert.assertTrue(cancel.getSuccess());
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        Assert.assertFalse(ledger.release("unknown"));
+    }
+
+    @Test
+    public void noHoldWithoutResourceReserve() throws Exception {
+        Assert.assertTrue(compute("feasibility-1", 1, 4, null, false).getSuccess());
+        Assert.assertTrue(compute("feasibility-2", 1, 4, null, false).getSuccess());
+        Assert.assertEquals(0, ledger.size());
+        Assert.assertFalse(readPathDescription("feasibility-1").isPresent());
+
+        // the resources held by the services are still hidden
+        Assert.assertTrue(compute("service-1", 1, 4).getSuccess());
+        Assert.assertTrue(compute("service-2", 1, 4).getSuccess());
+        Assert.assertFalse(compute("feasibility-3", 1, 4, null, false).getSuccess());
+        Assert.assertEquals(2, ledger.size());
+    }
+
+    @Test
+    public void holdsExpire() throws Exception {
+        Assert.assertTrue(compute("service-1", 2, 5).getSuccess());
+        Assert.assertTrue(compute("service-2", 2, 5).getSuccess());
+        Assert.assertFalse(compute("service-3", 2, 5).getSuccess());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        Assert.assertEquals(2, ledger.size());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(0, ledger.size());
+        ledger.flush();
+        Assert.assertFalse(readPathDescription("service-1").isPresent());
+        Assert.assertTrue(compute("service-3", 2, 5).getSuccess());
+        Assert.assertEquals(1, ledger.size());
+    }
+
+    @Test
+    public void holdGivenUpWhenNotWritten() throws Exception {
+        NetworkTransactionService failingTransaction = Mockito.mock(NetworkTransactionService.class);
+        Mockito.doReturn(FluentFutures.immediateFailedFluentFuture(new IllegalStateException("commit failed")))
+            .when(failingTransaction).commit();
+        ledger = new PceReservationLedger(failingTransaction, () -> 0, clock::get, TimeUnit.SECONDS.toNanos(60));
+        PceSendingPceRPCs sendingPce = compute("service-1", 1, 4);
+        Assert.assertFalse(sendingPce.getSuccess());
+        Assert.assertFalse(ledger.isHeld("service-1"));
+        Mockito.verify(failingTransaction, Mockito.times(PceReservationLedger.MAX_WRITE_ATTEMPTS)).commit();
+        ledger.close();
+    }
+
+    @Test
+    public void cachedResultHeldOrComputedAgain() throws Exception {
+        PceResultCache cache = new PceResultCache(ledger::getReservationEpoch, 10);
+        PceSendingPceRPCs first = compute("service-1", 1, 4, cache);
+        Assert.assertTrue(first.getSuccess());
+        Assert.assertEquals(1, cache.size());
+
+        // a new computation of the service holds the cached result again
+        PceSendingPceRPCs again = compute("service-1", 1, 4, cache);
+        Assert.assertTrue(again.getSuccess());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(first.getReturnStructure().getResultWavelength(),
+            again.getReturnStructure().getResultWavelength());
+        Assert.assertEquals(1, ledger.size());
+
+        // the cached result is held by service-1, service-2 is computed again
+        PceSendingPceRPCs second = compute("service-2", 1, 4, cache);
+        Assert.assertTrue(second.getSuccess());
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertNotEquals(first.getReturnStructure().getResultWavelength(),
+            second.getReturnStructure().getResultWavelength());
+        Assert.assertTrue(ledger.isHeld("service-1"));
+        Assert.assertTrue(ledger.isHeld("service-2"));
+    }
+
+    @Test
+    public void staleTopologyComputedAgain() throws Exception {
+        AtomicLong topologyEpoch = new AtomicLong();
+        AtomicInteger changes = new AtomicInteger(1);
+        // the topology changes once during the first computation
+        ledger = new PceReservationLedger(networkTransaction, () -> {
+            long epoch = topologyEpoch.get();
+            if (changes.getAndDecrement() > 0) {
+                topologyEpoch.incrementAndGet();
+            }
+            return epoch;
+        }, clock::get, TimeUnit.SECONDS.toNanos(60));
+        Assert.assertTrue(compute("service-1", 1, 3).getSuccess());
+        Assert.assertTrue(ledger.isHeld("service-1"));
+
+        // the topology changes during every computation
+        changes.set(Integer.MAX_VALUE);
+        PceSendingPceRPCs stale = compute("service-2", 1, 3);
+        Assert.assertFalse(stale.getSuccess());
+        Assert.assertFalse(ledger.isHeld("service-2"));
+        Assert.assertFalse(readPathDescription("service-2").isPresent());
+    }
+
+    @Test
+    public void parallelComputationsAndCancels() throws Exception {
+        Map<String, PceResult> held = new ConcurrentHashMap<>();
+        AtomicInteger cancels = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            Random random = new Random(thread);
+            int offset = thread;
+            futures.add(executor.submit(() -> {
+                for (int request = 0; request < 12; request++) {
+                    String serviceName = "service-" + offset + "-" + request;
+                    int aroadm = random.nextInt(ROADMS) + 1;
+                    int zroadm = (aroadm + random.nextInt(ROADMS - 1)) % ROADMS + 1;
+                    PceSendingPceRPCs sendingPce = compute(serviceName, aroadm, zroadm);
+                    if (Boolean.TRUE.equals(sendingPce.getSuccess())) {
+                        held.put(serviceName, sendingPce.getReturnStructure());
+                        if (random.nextInt(3) == 0) {
+                            new PceSendingPceRPCs(null, PceDependencies.builder(networkTransaction)
+                                .setReservationLedger(ledger).build()).cancelResourceReserve(serviceName);
+                            held.remove(serviceName);
+                            cancels.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Assert.assertTrue(cancels.get() > 0);
+        Assert.assertFalse(held.isEmpty());
+        Assert.assertEquals(held.size(), ledger.size());
+        Map<String, String> usedResources = new HashMap<>();
+        for (Map.Entry<String, PceResult> service : held.entrySet()) {
+            Assert.assertTrue(ledger.isHeld(service.getKey()));
+            for (String resource : resources(service.getValue())) {
+                String other = usedResources.put(resource, service.getKey());
+                Assert.assertNull(resource + " given to " + service.getKey() + " and " + other, other);
+            }
+        }
+    }
+
+    @Test
+    public void tribPortHeldOnOtnLinks() {
+        ledger = new PceReservationLedger(null, () -> 0, clock::get, TimeUnit.SECONDS.toNanos(60));
+        Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+        List<PceGraphEdge> edges = otnPath(allPceNodes);
+        List<PceLink> path = new ArrayList<>();
+        edges.forEach(edge -> path.add(edge.link()));
+
+        PceResult first = otnResult(edges, 1, 1);
+        Assert.assertEquals(PceReservationLedger.Commit.HELD,
+            ledger.commit("service-1", 0, path, first, Collections.emptySet()));
+        // same tributary port, other tributary slot
+        Assert.assertEquals(PceReservationLedger.Commit.CONFLICT,
+            ledger.commit("service-2", 0, path, otnResult(edges, 1, 2), Collections.emptySet()));
+        Assert.assertEquals(PceReservationLedger.Commit.HELD,
+            ledger.commit("service-2", 0, path, otnResult(edges, 2, 2), Collections.emptySet()));
+
+        Map<NodeId, PceNode> nodes = ledger.hideHeldResources(allPceNodes, "service-3");
+        for (PceNode node : nodes.values()) {
+            for (BitSet tribPorts : node.getAvailableTribPorts().values()) {
+                Assert.assertEquals(3, tribPorts.nextSetBit(0));
+            }
+            for (BitSet tribSlots : node.getAvailableTribSlots().values()) {
+                Assert.assertEquals(3, tribSlots.nextSetBit(0));
+            }
+        }
+        // a service sees its own resources
+        nodes = ledger.hideHeldResources(allPceNodes, "service-1");
+        for (PceNode node : nodes.values()) {
+            for (BitSet tribPorts : node.getAvailableTribPorts().values()) {
+                Assert.assertEquals(1, tribPorts.nextSetBit(0));
+            }
+        }
+    }
+
+    @Test
+    public void parallelOtnComputations() throws Exception {
+        ledger = new PceReservationLedger(null, () -> 0, clock::get, TimeUnit.SECONDS.toNanos(60));
+        Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+        List<PceGraphEdge> edges = otnPath(allPceNodes);
+        List<PceLink> path = new ArrayList<>();
+        edges.forEach(edge -> path.add(edge.link()));
+        Map<String, PceResult> held = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            futures.add(executor.submit(() -> {
+                for (int request = 0; request < 20; request++) {
+                    String serviceName = "service-" + offset + "-" + request;
+                    // computed again while another service takes the chosen resources in the meantime
+                    PceReservationLedger.Commit commit = PceReservationLedger.Commit.CONFLICT;
+                    while (commit == PceReservationLedger.Commit.CONFLICT) {
+                        Map<NodeId, PceNode> nodes = ledger.hideHeldResources(allPceNodes, serviceName);
+                        PceResult result = new PostAlgoPathValidator().checkPath(walk(edges), nodes,
+                            new PceResult(), new PceConstraints(), "1GE");
+                        if (!ResponseCodes.RESPONSE_OK.equals(result.getResponseCode())) {
+                            break;
+                        }
+                        commit = ledger.commit(serviceName, 0, path, result, Collections.emptySet());
+                        if (commit == PceReservationLedger.Commit.HELD) {
+                            held.put(serviceName, result);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // 80 tributary ports on the path, one per service
+        Assert.assertEquals(80, held.size());
+        Assert.assertEquals(80, ledger.size());
+        Map<String, String> usedResources = new HashMap<>();
+        for (Map.Entry<String, PceResult> service : held.entrySet()) {
+            for (PceGraphEdge edge : edges) {
+                String linkId = edge.link().getLinkId().getValue();
+                List<String> resources = new ArrayList<>();
+                resources.add(linkId + "/port/" + service.getValue().getResultTribPort().get(linkId));
+                service.getValue().getResultTribSlot().get(linkId)
+                    .forEach(slot -> resources.add(linkId + "/slot/" + slot));
+                for (String resource : resources) {
+                    String other = usedResources.put(resource, service.getKey());
+                    Assert.assertNull(resource + " given to " + service.getKey() + " and " + other, other);
+                }
+            }
+        }
+    }
+
+    // A -> B -> C, 80 tributary ports and slots free on each termination point
+    private static List<PceGraphEdge> otnPath(Map<NodeId, PceNode> allPceNodes) {
+        PceTestNode nodeA = otnNode("A", allPceNodes, "XPDR1-NETWORK1");
+        PceTestNode nodeB = otnNode("B", allPceNodes, "XPDR1-NETWORK1", "XPDR1-NETWORK2");
+        PceTestNode nodeC = otnNode("C", allPceNodes, "XPDR1-NETWORK1");
+        List<PceGraphEdge> edges = new ArrayList<>();
+        edges.add(otnEdge(nodeA, "XPDR1-NETWORK1", nodeB, "XPDR1-NETWORK1"));
+        edges.add(otnEdge(nodeB, "XPDR1-NETWORK2", nodeC, "XPDR1-NETWORK1"));
+        return edges;
+    }
+
+    private static PceTestNode otnNode(String nodeId, Map<NodeId, PceNode> allPceNodes, String... tps) {
+        PceTestNode pceNode = new PceTestNode(nodeId, new BitSet());
+        for (String tp : tps) {
+            BitSet bitmap = new BitSet();
+            bitmap.set(1, 81);
+            pceNode.tribPorts().put(tp, bitmap);
+            pceNode.tribSlots().put(tp, (BitSet) bitmap.clone());
+        }
+        allPceNodes.put(pceNode.getNodeId(), pceNode);
+        return pceNode;
+    }
+
+    private static PceGraphEdge otnEdge(PceTestNode source, String sourceTp, PceTestNode dest, String destTp) {
+        PceLink link = new PceLink(NodeUtils.createRoadmToRoadm(source.getNodeId().getValue(),
+            dest.getNodeId().getValue(), sourceTp, destTp).build(), source, dest);
+        source.addOutgoingLink(link);
+        return new PceGraphEdge(link);
+    }
+
+    private static GraphPath<String, PceGraphEdge> walk(List<PceGraphEdge> edges) {
+        return new GraphWalk<>(new DefaultDirectedWeightedGraph<>(PceGraphEdge.class), "A", "C", null,
+            edges, edges.size());
+    }
+
+    private static PceResult otnResult(List<PceGraphEdge> edges, int tribPort, int tribSlot) {
+        Map<String, Uint16> tribPorts = new HashMap<>();
+        Map<String, List<Uint16>> tribSlots = new HashMap<>();
+        for (PceGraphEdge edge : edges) {
+            tribPorts.put(edge.link().getLinkId().getValue(), Uint16.valueOf(tribPort));
+            tribSlots.put(edge.link().getLinkId().getValue(), Collections.singletonList(Uint16.valueOf(tribSlot)));
+        }
+        PceResult result = new PceResult();
+        result.setResultTribPort(tribPorts);
+        result.setResultTribSlot(tribSlots);
+        return result;
+    }
+
+    private Optional<PathDescriptions> readPathDescription(String serviceName) throws Exception {
+        return getDataBroker().newReadOnlyTransaction().read(LogicalDatastoreType.CONFIGURATION,
+            PceReservationLedger.pathDescriptionIid(serviceName)).get();
+    }
+
+    private PceSendingPceRPCs compute(String serviceName, int aroadm, int zroadm) throws Exception {
+        return compute(serviceName, aroadm, zroadm, null, true);
+    }
+
+    private PceSendingPceRPCs compute(String serviceName, int aroadm, int zroadm, PceResultCache cache)
+            throws Exception {
+        return compute(serviceName, aroadm, zroadm, cache, true);
+    }
+
+    private PceSendingPceRPCs compute(String serviceName, int aroadm, int zroadm, PceResultCache cache,
+            boolean resourceReserve) throws Exception {
+        PathComputationRequestInput input = new PathComputationRequestInputBuilder(
+            OpenRoadmTopologyGenerator.createRequest(aroadm, zroadm)).setServiceName(serviceName)
+            .setResourceReserve(resourceReserve).build();
+        PceSendingPceRPCs sendingPce = new PceSendingPceRPCs(input, PceDependencies.builder(networkTransaction)
+            .setResultCache(cache).setReservationLedger(ledger).build());
+        sendingPce.pathComputation();
+        return sendingPce;
+    }
+
+    // an XPONDER port is used by one service, a ROADM port by one service per wavelength
+    private static Set<String> resources(PceResult result) {
+        long wavelength = result.getResultWavelength();
+        Set<String> resources = new HashSet<>();
+        for (AToZ atoz : result.getAtoZDirection().getAToZ()) {
+            if (atoz.getResource().getResource() instanceof TerminationPoint) {
+                TerminationPoint tp = (TerminationPoint) atoz.getResource().getResource();
+                resources.add(tp.getTpNodeId() + "/" + tp.getTpId()
+                    + (tp.getTpNodeId().startsWith("XPONDER") ? "" : "/" + wavelength));
+            }
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.binding.api.WriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints.ResourcePair;
+import org.opendaylight.transportpce.pce.constraints.PceConstraintsCalc;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.PceTestData;
+import org.opendaylight.transportpce.pce.utils.PceTestUtils;
+import org.opendaylight.transportpce.pce.utils.TransactionUtils;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkKey;
+
+public class PceResultCacheTest extends AbstractTest {
+
+    private PceTopologySnapshotService snapshotService;
+
+    @Before
+    public void setUp() throws ExecutionException, InterruptedException {
+        PceTestUtils.writeNetworkIntoDataStore(this.getDataBroker(), this.getDataStoreContextUtil(),
+                TransactionUtils.getNetworkForSpanLoss());
+        snapshotService = new PceTopologySnapshotService(this.getDataBroker());
+        snapshotService.init();
+    }
+
+    @After
+    public void tearDown() {
+        snapshotService.close();
+    }
+
+    @Test
+    public void leastRecentlyUsedResultIsEvicted() {
+        PceResultCache cache = new PceResultCache(() -> 0L, 2);
+        cache.put("a", cache.getEpoch(), result("path a"));
+        cache.put("b", cache.getEpoch(), result("path b"));
+        Assert.assertEquals("path a", cache.get("a").getMessage());
+        cache.put("c", cache.getEpoch(), result("path c"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("path a", cache.get("a").getMessage());
+        Assert.assertEquals("path c", cache.get("c").getMessage());
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(3, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void resultOfAnOlderEpochIsNeverReturned() {
+        AtomicLong topologyEpoch = new AtomicLong();
+        AtomicLong reservationEpoch = new AtomicLong();
+        PceResultCache cache = new PceResultCache(() -> topologyEpoch.get() + reservationEpoch.get(), 10);
+        cache.put("a", cache.getEpoch(), result("path a"));
+        topologyEpoch.incrementAndGet();
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(1, cache.getInvalidations());
+
+        // computed before the topology change, stored after it
+        long epoch = cache.getEpoch();
+        topologyEpoch.incrementAndGet();
+        cache.put("a", epoch, result("path a"));
+        Assert.assertNull(cache.get("a"));
+
+        cache.put("a", cache.getEpoch(), result("path a"));
+        reservationEpoch.incrementAndGet();
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void cachedResultIsACopy() {
+        PceResultCache cache = new PceResultCache(() -> 0L, 10);
+        PceResult result = result("path a");
+        cache.put("a", cache.getEpoch(), result);
+        result.setRC(ResponseCodes.RESPONSE_FAILED);
+        cache.get("a").setRC(ResponseCodes.RESPONSE_FAILED);
+        Assert.assertTrue(cache.get("a").getStatus());
+    }
+
+    @Test
+    public void keyIsNormalized() {
+        PceConstraints constraints1 = new PceConstraints();
+        constraints1.setExcludeNodes(Arrays.asList("node1", "node2"));
+        constraints1.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "node3"));
+        constraints1.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "node4"));
+        PceConstraints constraints2 = new PceConstraints();
+        constraints2.setExcludeNodes(Arrays.asList("node2", "node1"));
+        constraints2.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "node3"));
+        constraints2.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "node4"));
+        PathComputationRequestInput input = PceTestData.getPCE_test1_request_54();
+        Assert.assertEquals(PceResultCache.key(input, constraints1, null),
+            PceResultCache.key(input, constraints2, null));
+
+        PceConstraints constraints3 = new PceConstraints();
+        constraints3.setExcludeNodes(Arrays.asList("node1", "node2"));
+        constraints3.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "node4"));
+        constraints3.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "node3"));
+        Assert.assertNotEquals(PceResultCache.key(input, constraints1, null),
+            PceResultCache.key(input, constraints3, null));
+        Assert.assertNotEquals(PceResultCache.key(input, constraints1, null),
+            PceResultCache.key(PceTestData.getPCERequest(), constraints1, null));
+    }
+
+    @Test
+    public void topologyChangeInvalidatesResults() throws Exception {
+        PceResultCache cache = new PceResultCache(snapshotService);
+        cache.put("a", cache.getEpoch(), result("path a"));
+        Assert.assertNotNull(cache.get("a"));
+
+        Link link = NodeUtils.createRoadmToRoadm("ROADM-C1-DEG1", "ROADM-A1-DEG2", "DEG1-TTP-TXRX",
+                "DEG2-TTP-TXRX").build();
+        writeLink(link);
+        Assert.assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void pathComputationReusesResultUntilTopologyChange() throws Exception {
+        NetworkTransactionImpl networkTransaction = new NetworkTransactionImpl(new RequestProcessor(
+            this.getDataBroker()));
+        PathComputationRequestInput input = PceTestData.getPCE_test1_request_54();
+        PceConstraintsCalc constraints = new PceConstraintsCalc(input, networkTransaction);
+        PceResultCache cache = new PceResultCache(snapshotService);
+        cache.put(PceResultCache.key(input, constraints.getPceHardConstraints(),
+            constraints.getPceSoftConstraints()), cache.getEpoch(), result("cached path"));
+
+        PceSendingPceRPCs sendingPCE = new PceSendingPceRPCs(input, PceDependencies.builder(networkTransaction)
+            .setTopologySnapshotService(snapshotService).setResultCache(cache).build());
+        sendingPCE.pathComputation();
+        Assert.assertEquals("cached path", sendingPCE.getMessage());
+        Assert.assertEquals(1, cache.getHits());
+
+        Link link = NodeUtils.createRoadmToRoadm("ROADM-C1-DEG1", "ROADM-A1-DEG2", "DEG1-TTP-TXRX",
+                "DEG2-TTP-TXRX").build();
+        writeLink(link);
+        sendingPCE = new PceSendingPceRPCs(input, PceDependencies.builder(networkTransaction)
+            .setTopologySnapshotService(snapshotService).setResultCache(cache).build());
+        sendingPCE.pathComputation();
+        Assert.assertNotEquals("cached path", sendingPCE.getMessage());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    private void writeLink(Link link) throws ExecutionException, InterruptedException {
+        WriteTransaction wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifiers.OVERLAY_NETWORK_II
+            .augmentation(Network1.class).child(Link.class, new LinkKey(link.getLinkId())), link);
+        wt.commit().get();
+    }
+
+    private static PceResult result(String message) {
+        PceResult result = new PceResult();
+        result.setRC(ResponseCodes.RESPONSE_OK);
+        result.setCalcMessage(message);
+        return result;
+    }
+}
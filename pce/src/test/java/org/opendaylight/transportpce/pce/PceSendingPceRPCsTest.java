@@ -7,6 +7,7 @@
  */
 package org.opendaylight.transportpce.pce;
 
+import java.net.HttpURLConnection;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -14,6 +15,9 @@ import org.opendaylight.mdsal.binding.api.DataBroker;
 import org.opendaylight.transportpce.common.DataStoreContext;
 import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
 import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.gnpy.GnpyClient;
+import org.opendaylight.transportpce.pce.gnpy.GnpyStubServer;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
 import org.opendaylight.transportpce.pce.utils.PceTestData;
 import org.opendaylight.transportpce.pce.utils.PceTestUtils;
 import org.opendaylight.transportpce.pce.utils.TransactionUtils;
@@ -72,4 +76,65 @@ public class PceSendingPceRPCsTest extends AbstractTest {
         Assert.assertNull(pceSendingPceRPCs.getGnpyZtoA());
     }
 
+    @Test
+    public void pathComputationWithGnpy() throws Exception {
+        new OpenRoadmTopologyGenerator(4, 0.0, 1).writeTo(dataBroker);
+        try (GnpyStubServer server = new GnpyStubServer()) {
+            GnpyClient client = server.startClient(5000);
+            try {
+                Assert.assertTrue(client.isAvailable());
+                pceSendingPceRPCs = new PceSendingPceRPCs(OpenRoadmTopologyGenerator.createRequest(1, 3),
+                    PceDependencies.builder(networkTransaction).setGnpyClient(client).build());
+                pceSendingPceRPCs.pathComputation();
+                Assert.assertTrue(pceSendingPceRPCs.getSuccess());
+                Assert.assertNotNull(pceSendingPceRPCs.getGnpyAtoZ());
+                Assert.assertNotNull(pceSendingPceRPCs.getGnpyZtoA());
+                Assert.assertEquals(2, server.getRequests().size());
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void pathComputationWithGnpyTimeout() throws Exception {
+        new OpenRoadmTopologyGenerator(4, 0.0, 1).writeTo(dataBroker);
+        try (GnpyStubServer server = new GnpyStubServer()) {
+            GnpyClient client = server.startClient(200);
+            try {
+                Assert.assertTrue(client.isAvailable());
+                server.enqueue(HttpURLConnection.HTTP_CREATED, GnpyStubServer.read(GnpyStubServer.GOLDEN_PATH), 3000);
+                pceSendingPceRPCs = new PceSendingPceRPCs(OpenRoadmTopologyGenerator.createRequest(1, 3),
+                    PceDependencies.builder(networkTransaction).setGnpyClient(client).build());
+                pceSendingPceRPCs.pathComputation();
+                Assert.assertTrue(pceSendingPceRPCs.getSuccess());
+                Assert.assertNotNull(pceSendingPceRPCs.getPathDescription().getAToZDirection());
+                Assert.assertNull(pceSendingPceRPCs.getGnpyAtoZ());
+                Assert.assertEquals(1, client.getTimeouts());
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void pathComputationWithGnpyServerError() throws Exception {
+        new OpenRoadmTopologyGenerator(4, 0.0, 1).writeTo(dataBroker);
+        try (GnpyStubServer server = new GnpyStubServer()) {
+            GnpyClient client = server.startClient(5000);
+            try {
+                Assert.assertTrue(client.isAvailable());
+                server.enqueue(HttpURLConnection.HTTP_UNAVAILABLE, "", 0);
+                pceSendingPceRPCs = new PceSendingPceRPCs(OpenRoadmTopologyGenerator.createRequest(1, 3),
+                    PceDependencies.builder(networkTransaction).setGnpyClient(client).build());
+                pceSendingPceRPCs.pathComputation();
+                Assert.assertTrue(pceSendingPceRPCs.getSuccess());
+                Assert.assertNotNull(pceSendingPceRPCs.getPathDescription().getAToZDirection());
+                Assert.assertNull(pceSendingPceRPCs.getGnpyAtoZ());
+                Assert.assertEquals(1, client.getFailures());
+            } finally {
+                client.close();
+            }
+        }
+    }
 }
@@ -9,7 +9,11 @@
 package org.opendaylight.transportpce.pce.constraints;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -125,6 +129,95 @@ public class PceConstraintsTest extends AbstractTest {
 
     }
 
+    @Test
+    public void duplicatedExclusionsAreIgnoredTest() {
+        pceConstraints.setExcludeSupNodes(Arrays.asList("node1", "node2"));
+        pceConstraints.setExcludeSupNodes(Arrays.asList("node2"));
+        pceConstraints.setExcludeCLLI(Arrays.asList("clli1", "clli1"));
+        pceConstraints.setExcludeNodes(Arrays.asList("node1", "node1"));
+        pceConstraints.setExcludeClliNodes(Arrays.asList("node1", "node1"));
+        pceConstraints.setExcludeSrlgLinks(Arrays.asList("link1", "link1"));
+        pceConstraints.setExcludeSRLG(Arrays.asList(3L, 1L, 3L));
+        pceConstraints.setExcludeSRLG(Arrays.asList(2L, 1L));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("node1", "node2")), pceConstraints.getExcludeSupNodes());
+        Assert.assertEquals(Collections.singleton("clli1"), pceConstraints.getExcludeCLLI());
+        Assert.assertEquals(Collections.singleton("node1"), pceConstraints.getExcludeNodes());
+        Assert.assertEquals(Collections.singleton("node1"), pceConstraints.getExcludeClliNodes());
+        Assert.assertEquals(Collections.singleton("link1"), pceConstraints.getExcludeSrlgLinks());
+        Assert.assertEquals(Arrays.asList(1L, 2L, 3L), pceConstraints.getExcludeSRLG());
+    }
+
+    @Test
+    public void isSrlgExcludedTest() {
+        Assert.assertFalse(pceConstraints.isSrlgExcluded(Arrays.asList(1L, 2L)));
+        List<Long> srlgs = new ArrayList<>();
+        for (long srlg = 0; srlg < 5000; srlg += 2) {
+            srlgs.add(srlg);
+        }
+        Collections.shuffle(srlgs, new Random(1));
+        pceConstraints.setExcludeSRLG(srlgs);
+        Assert.assertTrue(pceConstraints.isSrlgExcluded(Arrays.asList(1L, 4998L)));
+        Assert.assertTrue(pceConstraints.isSrlgExcluded(Arrays.asList(0L)));
+        Assert.assertFalse(pceConstraints.isSrlgExcluded(Arrays.asList(1L, 4999L, 5000L)));
+        Assert.assertFalse(pceConstraints.isSrlgExcluded(Collections.emptyList()));
+        Assert.assertFalse(pceConstraints.isSrlgExcluded(null));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void exclusionsCannotBeModifiedTest() {
+        pceConstraints.setExcludeNodes(Arrays.asList("node1"));
+        pceConstraints.getExcludeNodes().add("node2");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void excludedSrlgsCannotBeModifiedTest() {
+        pceConstraints.setExcludeSRLG(Arrays.asList(1L));
+        pceConstraints.getExcludeSRLG().set(0, 2L);
+    }
+
+    @Test
+    public void canonicalFormTest() {
+        PceConstraints other = new PceConstraints();
+        Assert.assertEquals(pceConstraints, other);
+        Assert.assertEquals(pceConstraints.hashCode(), other.hashCode());
+
+        pceConstraints.setExcludeSupNodes(Arrays.asList("node1", "node2"));
+        pceConstraints.setExcludeSRLG(Arrays.asList(1L, 2L));
+        pceConstraints.setExcludeCLLI(Arrays.asList("clli1"));
+        pceConstraints.setListToInclude(new PceConstraints.ResourcePair(PceConstraints.ResourceType.NODE, "node3"));
+        pceConstraints.setListToInclude(new PceConstraints.ResourcePair(PceConstraints.ResourceType.SRLG, "4"));
+        Assert.assertNotEquals(pceConstraints, other);
+
+        // the order of the exclusions does not matter
+        other.setListToInclude(new PceConstraints.ResourcePair(PceConstraints.ResourceType.NODE, "node3"));
+        other.setListToInclude(new PceConstraints.ResourcePair(PceConstraints.ResourceType.SRLG, "4"));
+        other.setExcludeCLLI(Arrays.asList("clli1"));
+        other.setExcludeSRLG(Arrays.asList(2L, 1L, 2L));
+        other.setExcludeSupNodes(Arrays.asList("node2"));
+        Assert.assertNotEquals(pceConstraints, other);
+        other.setExcludeSupNodes(Arrays.asList("node1"));
+        Assert.assertEquals(pceConstraints, other);
+        Assert.assertEquals(pceConstraints.hashCode(), other.hashCode());
+        Assert.assertEquals(pceConstraints.getCanonicalForm(), other.getCanonicalForm());
+
+        // the nodes resolved by the network analysis are not part of it
+        other.setIncludePceNode(new PceOpticalNode(null, null, null, null, null));
+        Assert.assertEquals(pceConstraints, other);
+
+        // the order of the resources to include matters
+        PceConstraints reversed = new PceConstraints();
+        reversed.setListToInclude(new PceConstraints.ResourcePair(PceConstraints.ResourceType.SRLG, "4"));
+        reversed.setListToInclude(new PceConstraints.ResourcePair(PceConstraints.ResourceType.NODE, "node3"));
+        reversed.setExcludeCLLI(Arrays.asList("clli1"));
+        reversed.setExcludeSRLG(Arrays.asList(1L, 2L));
+        reversed.setExcludeSupNodes(Arrays.asList("node1", "node2"));
+        Assert.assertNotEquals(pceConstraints, reversed);
+
+        other.setMaxLatency(10L);
+        Assert.assertNotEquals(pceConstraints, other);
+        Assert.assertNotEquals(pceConstraints.getCanonicalForm(), other.getCanonicalForm());
+    }
+
 }
 
 
@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GnpyClientTest {
+
+    private static final String REQUEST = "{\"gnpy-api\":{}}";
+
+    private GnpyStubServer server;
+    private GnpyClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new GnpyStubServer();
+    }
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+    }
+
+    private GnpyClient start(long timeout, int maxConcurrency, long probePeriod) {
+        return start(server.getUri(), timeout, maxConcurrency, probePeriod);
+    }
+
+    private GnpyClient start(URI uri, long timeout, int maxConcurrency, long probePeriod) {
+        client = new GnpyClient(uri, GnpyStubServer.CREDENTIALS, timeout, maxConcurrency, probePeriod);
+        client.init();
+        return client;
+    }
+
+    @Test
+    public void replayedResult() throws Exception {
+        start(5000, 4, 0);
+        Assert.assertEquals(GnpyClient.State.UNKNOWN, client.getCircuitState());
+        // without probe, the server is tried
+        Assert.assertTrue(client.isAvailable());
+        Assert.assertEquals(GnpyStubServer.read(GnpyStubServer.GOLDEN_PATH), client.send(REQUEST));
+        server.enqueue(HttpURLConnection.HTTP_OK, GnpyStubServer.read(GnpyStubServer.GOLDEN_NO_PATH), 0);
+        Assert.assertEquals(GnpyStubServer.read(GnpyStubServer.GOLDEN_NO_PATH), client.send(REQUEST));
+        Assert.assertEquals(List.of(REQUEST, REQUEST), server.getRequests());
+        Assert.assertTrue(client.isAvailable());
+        Assert.assertEquals(2, client.getCalls());
+        Assert.assertEquals(2, client.getLatencyHistogram().getCount());
+        Assert.assertEquals(0, client.getFailures());
+    }
+
+    @Test
+    public void notStarted() {
+        client = new GnpyClient(server.getUri(), GnpyStubServer.CREDENTIALS, 5000, 4, 0);
+        Assert.assertFalse(client.isAvailable());
+        Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        Assert.assertTrue(server.getRequests().isEmpty());
+    }
+
+    @Test
+    public void probe() throws Exception {
+        start(5000, 4, 0);
+        Assert.assertTrue(client.probe());
+        Assert.assertTrue(client.isAvailable());
+        server.setHeadStatus(HttpURLConnection.HTTP_UNAVAILABLE);
+        Assert.assertFalse(client.probe());
+        Assert.assertEquals(GnpyClient.State.OPEN, client.getCircuitState());
+        GnpyException exception = Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        Assert.assertEquals("In GnpyClient: the GNPy server is unavailable", exception.getMessage());
+        Assert.assertTrue(server.getRequests().isEmpty());
+        Assert.assertEquals(1, client.getRejectedCalls());
+    }
+
+    @Test
+    public void backgroundProbe() throws Exception {
+        start(5000, 4, 20);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!client.isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(client.isAvailable());
+        server.setHeadStatus(HttpURLConnection.HTTP_NOT_FOUND);
+        while (client.isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(GnpyClient.State.OPEN, client.getCircuitState());
+    }
+
+    @Test
+    public void serverErrorsOpenCircuit() throws Exception {
+        start(5000, 4, 0);
+        client.probe();
+        for (int i = 0; i < GnpyClient.FAILURE_THRESHOLD; i++) {
+            Assert.assertTrue(client.isAvailable());
+            server.enqueue(HttpURLConnection.HTTP_INTERNAL_ERROR, "", 0);
+            GnpyException exception = Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+            Assert.assertEquals("In GnpyClient: could not connect to GNPy - response code: 500",
+                exception.getMessage());
+        }
+        Assert.assertEquals(GnpyClient.State.OPEN, client.getCircuitState());
+        Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        Assert.assertEquals(GnpyClient.FAILURE_THRESHOLD, server.getRequests().size());
+        Assert.assertEquals(GnpyClient.FAILURE_THRESHOLD, client.getFailures());
+        Assert.assertEquals(1, client.getRejectedCalls());
+
+        Assert.assertTrue(client.probe());
+        Assert.assertEquals(GnpyStubServer.read(GnpyStubServer.GOLDEN_PATH), client.send(REQUEST));
+    }
+
+    @Test
+    public void trialOnceCoolDownIsOver() throws Exception {
+        client = new GnpyClient(server.getUri(), GnpyStubServer.CREDENTIALS, 5000, 4, 0, 100);
+        client.init();
+        for (int i = 0; i < GnpyClient.FAILURE_THRESHOLD; i++) {
+            server.enqueue(HttpURLConnection.HTTP_INTERNAL_ERROR, "", 0);
+            Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        }
+        Assert.assertEquals(GnpyClient.State.OPEN, client.getCircuitState());
+        Assert.assertFalse(client.isAvailable());
+
+        // a failed trial opens the circuit again
+        Thread.sleep(150);
+        Assert.assertTrue(client.isAvailable());
+        Assert.assertEquals(GnpyClient.State.HALF_OPEN, client.getCircuitState());
+        Assert.assertFalse(client.isAvailable());
+        server.enqueue(HttpURLConnection.HTTP_INTERNAL_ERROR, "", 0);
+        Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        Assert.assertEquals(GnpyClient.State.OPEN, client.getCircuitState());
+        Assert.assertFalse(client.isAvailable());
+
+        // a successful trial closes it
+        Thread.sleep(150);
+        Assert.assertTrue(client.isAvailable());
+        Assert.assertEquals(GnpyStubServer.read(GnpyStubServer.GOLDEN_PATH), client.send(REQUEST));
+        Assert.assertEquals(GnpyClient.State.CLOSED, client.getCircuitState());
+        Assert.assertTrue(client.isAvailable());
+    }
+
+    @Test
+    public void queuedCallsRejectedWithoutNesting() throws Exception {
+        start(5000, 1, 0);
+        server.enqueue(HttpURLConnection.HTTP_INTERNAL_ERROR, "", 300);
+        CompletableFuture<String> first = client.sendAsync(REQUEST);
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            queued.add(client.sendAsync(REQUEST));
+        }
+        server.setHeadStatus(HttpURLConnection.HTTP_UNAVAILABLE);
+        Assert.assertFalse(client.probe());
+        Assert.assertThrows(ExecutionException.class, first::get);
+        for (CompletableFuture<String> result : queued) {
+            ExecutionException exception = Assert.assertThrows(ExecutionException.class, result::get);
+            Assert.assertEquals("In GnpyClient: the GNPy server is unavailable", exception.getCause().getMessage());
+        }
+        Assert.assertEquals(1, server.getRequests().size());
+        Assert.assertEquals(10000, client.getRejectedCalls());
+    }
+
+    @Test
+    public void clientErrorsKeepCircuitClosed() throws Exception {
+        start(5000, 4, 0);
+        client.probe();
+        for (int i = 0; i < GnpyClient.FAILURE_THRESHOLD; i++) {
+            server.enqueue(HttpURLConnection.HTTP_BAD_REQUEST, "{}", 0);
+            Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        }
+        Assert.assertTrue(client.isAvailable());
+        Assert.assertEquals(0, client.getFailures());
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        start(200, 4, 0);
+        server.enqueue(HttpURLConnection.HTTP_CREATED, "{}", 3000);
+        long start = System.nanoTime();
+        GnpyException exception = Assert.assertThrows(GnpyException.class, () -> client.send(REQUEST));
+        Assert.assertTrue(exception.getCause() instanceof HttpTimeoutException);
+        Assert.assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        Assert.assertEquals(1, client.getTimeouts());
+        Assert.assertEquals(1, client.getFailures());
+    }
+
+    @Test
+    public void unreachableServer() throws Exception {
+        URI uri = server.getUri();
+        server.close();
+        start(uri, 1000, 4, 0);
+        Assert.assertFalse(client.probe());
+        Assert.assertFalse(client.isAvailable());
+    }
+
+    @Test
+    public void boundedConcurrency() throws Exception {
+        start(5000, 2, 0);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            server.enqueue(HttpURLConnection.HTTP_CREATED, "{\"result\":" + i + "}", 100);
+            results.add(client.sendAsync(REQUEST));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+        Assert.assertEquals(8, server.getRequests().size());
+        Assert.assertEquals(2, server.getMaxActiveRequests());
+        Assert.assertEquals(8, client.getCalls());
+        Assert.assertEquals(8, client.getLatencyHistogram().getCount());
+        Assert.assertTrue(client.getLatencyHistogram().getMax() >= 100_000);
+    }
+}
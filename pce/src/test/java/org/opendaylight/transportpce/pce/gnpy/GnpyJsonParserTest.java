@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import com.google.gson.stream.JsonReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.mdsal.binding.dom.codec.impl.BindingNormalizedNodeCodecRegistry;
+import org.opendaylight.mdsal.binding.generator.impl.ModuleInfoBackedContext;
+import org.opendaylight.mdsal.binding.generator.util.BindingRuntimeContext;
+import org.opendaylight.mdsal.binding.spec.reflect.BindingReflections;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.Result;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.SNRBandwidth;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.properties.PathProperties;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.Response;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.response.response.type.NoPathCase;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.result.response.response.type.PathCase;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONCodecFactorySupplier;
+import org.opendaylight.yangtools.yang.data.codec.gson.JsonParserStream;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class GnpyJsonParserTest {
+
+    private static final String GOLDEN_PATH = "src/test/resources/gnpyData/gnpy-result-path.json";
+    private static final String GOLDEN_NO_PATH = "src/test/resources/gnpyData/gnpy-result-no-path.json";
+
+    @Test
+    public void goldenPath() throws Exception {
+        String json = Files.readString(Paths.get(GOLDEN_PATH), StandardCharsets.UTF_8);
+        Result result = GnpyJsonParser.parseResult(new StringReader(json));
+        assertSameResult(codecResult(json), result);
+        Response response = result.getResponse().get(0);
+        Assert.assertEquals(1L, response.getResponseId().longValue());
+        PathCase pathCase = (PathCase) response.getResponseType();
+        Assert.assertEquals(6, pathCase.getPathProperties().getPathMetric().size());
+        Assert.assertEquals(SNRBandwidth.class, pathCase.getPathProperties().getPathMetric().get(0).getMetricType());
+        Assert.assertEquals(new BigDecimal("20.38"),
+            pathCase.getPathProperties().getPathMetric().get(0).getAccumulativeValue());
+        Assert.assertEquals(6, pathCase.getPathProperties().getPathRouteObjects().size());
+    }
+
+    @Test
+    public void goldenNoPath() throws Exception {
+        String json = Files.readString(Paths.get(GOLDEN_NO_PATH), StandardCharsets.UTF_8);
+        Result result = GnpyJsonParser.parseResult(new StringReader(json));
+        assertSameResult(codecResult(json), result);
+        NoPathCase noPathCase = (NoPathCase) result.getResponse().get(0).getResponseType();
+        Assert.assertEquals("NO_COMPUTED_SNR", noPathCase.getNoPath().getNoPath());
+        Assert.assertEquals(3, noPathCase.getNoPath().getPathProperties().getPathRouteObjects().size());
+    }
+
+    @Test
+    public void qualifiedAndUnknownMembers() throws Exception {
+        Result result = GnpyJsonParser.parseResult(new StringReader("{\"gnpy-path-computation-simplified:result\": "
+            + "{\"response\": [{\"response-id\": 3, \"extra\": {\"a\": [1, 2]}, "
+            + "\"path-properties\": {\"path-metric\": [{\"metric-type\": "
+            + "\"gnpy-path-computation-simplified:SNR-bandwidth\", \"accumulative-value\": 1}]}}]}}"));
+        PathCase pathCase = (PathCase) result.getResponse().get(0).getResponseType();
+        Assert.assertEquals(SNRBandwidth.class, pathCase.getPathProperties().getPathMetric().get(0).getMetricType());
+    }
+
+    @Test
+    public void invalidResults() {
+        for (String json : new String[] {"{}", "{\"result\": ", "[]",
+            "{\"result\": {\"response\": [{\"path-properties\": {\"path-metric\": [{\"metric-type\": \"BER\"}]}}]}}",
+            "{\"result\": {\"response\": [{\"path-properties\": {\"path-route-objects\": [{\"path-route-object\": "
+                + "{\"num-unnum-hop\": {\"hop-type\": \"ANY\"}}}]}}]}}"}) {
+            try {
+                GnpyJsonParser.parseResult(new StringReader(json));
+                Assert.fail(json);
+            } catch (GnpyException e) {
+                Assert.assertTrue(e.getMessage().startsWith("In GnpyJsonParser"));
+            }
+        }
+    }
+
+    // path-metric is a keyed list, that the codec returns in no particular order
+    private static void assertSameResult(Result expected, Result actual) {
+        Assert.assertEquals(expected.getResponse().size(), actual.getResponse().size());
+        for (int i = 0; i < expected.getResponse().size(); i++) {
+            Response expectedResponse = expected.getResponse().get(i);
+            Response actualResponse = actual.getResponse().get(i);
+            Assert.assertEquals(expectedResponse.getResponseId(), actualResponse.getResponseId());
+            PathProperties expectedProperties = pathProperties(expectedResponse);
+            PathProperties actualProperties = pathProperties(actualResponse);
+            Assert.assertEquals(new HashSet<>(expectedProperties.getPathMetric()),
+                new HashSet<>(actualProperties.getPathMetric()));
+            Assert.assertEquals(expectedProperties.getPathRouteObjects(), actualProperties.getPathRouteObjects());
+            if (expectedResponse.getResponseType() instanceof NoPathCase) {
+                Assert.assertEquals(((NoPathCase) expectedResponse.getResponseType()).getNoPath().getNoPath(),
+                    ((NoPathCase) actualResponse.getResponseType()).getNoPath().getNoPath());
+            }
+        }
+    }
+
+    private static PathProperties pathProperties(Response response) {
+        if (response.getResponseType() instanceof NoPathCase) {
+            return ((NoPathCase) response.getResponseType()).getNoPath().getPathProperties();
+        }
+        return ((PathCase) response.getResponseType()).getPathProperties();
+    }
+
+    // Parsing through the binding codec, as GNPy responses were analyzed before
+    private static Result codecResult(String json) throws Exception {
+        ModuleInfoBackedContext moduleContext = ModuleInfoBackedContext.create();
+        moduleContext.addModuleInfos(Collections.singleton(BindingReflections.getModuleInfo(Result.class)));
+        SchemaContext schemaContext = moduleContext.tryToCreateSchemaContext().get();
+        NormalizedNodeResult result = new NormalizedNodeResult();
+        try (JsonParserStream jsonParser = JsonParserStream.create(ImmutableNormalizedNodeStreamWriter.from(result),
+                JSONCodecFactorySupplier.DRAFT_LHOTKA_NETMOD_YANG_JSON_02.getShared(schemaContext), schemaContext)) {
+            jsonParser.parse(new JsonReader(new StringReader(json)));
+        }
+        BindingNormalizedNodeCodecRegistry codecRegistry = new BindingNormalizedNodeCodecRegistry(
+            BindingRuntimeContext.create(moduleContext, schemaContext));
+        return (Result) codecRegistry.fromNormalizedNode(YangInstanceIdentifier.of(Result.QNAME), result.getResult())
+            .getValue();
+    }
+}
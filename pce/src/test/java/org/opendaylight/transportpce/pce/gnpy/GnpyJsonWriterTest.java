@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import com.google.gson.JsonParser;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.utils.GnpyApiGenerator;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.GnpyApi;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.GnpyApiBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.gnpy.api.ServiceFileBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.gnpy.api.TopologyFileBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Transceiver;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.EdfaBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ElementsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.elements.MetadataBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.TePathDisjointness;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.synchronization.info.SynchronizationBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.synchronization.info.synchronization.SvecBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.Uint32;
+
+public class GnpyJsonWriterTest {
+
+    private static final String GOLDEN_REQUEST = "src/test/resources/gnpyData/gnpy-request.json";
+    private static final JsonParser JSON = new JsonParser();
+
+    @Test
+    public void goldenRequest() throws Exception {
+        GnpyApi gnpyApi = GnpyApiGenerator.generate(12, 1);
+        String golden = Files.readString(Paths.get(GOLDEN_REQUEST), StandardCharsets.UTF_8).trim();
+        Assert.assertEquals(golden, codecJson(gnpyApi));
+        Assert.assertEquals(golden, indentedJson(gnpyApi));
+        Assert.assertEquals(JSON.parse(golden), JSON.parse(GnpyJsonWriter.toJson(gnpyApi)));
+    }
+
+    @Test
+    public void largeRequest() throws Exception {
+        GnpyApi gnpyApi = GnpyApiGenerator.generate(500, 2);
+        Assert.assertEquals(500 + 4, gnpyApi.getTopologyFile().getElements().size());
+        Assert.assertEquals(codecJson(gnpyApi), indentedJson(gnpyApi));
+    }
+
+    @Test
+    public void emptyContainersLeftOut() throws Exception {
+        GnpyApi gnpyApi = new GnpyApiBuilder()
+            .setTopologyFile(new TopologyFileBuilder().setElements(List.of(new ElementsBuilder().setUid("10.0.0.1")
+                .setType(Transceiver.class).setMetadata(new MetadataBuilder().build())
+                .setElementType(new EdfaBuilder().build()).build())).setConnections(List.of()).build())
+            .setServiceFile(new ServiceFileBuilder().setSynchronization(List.of(new SynchronizationBuilder()
+                .setSynchronizationId(Uint32.valueOf(0)).setSvec(new SvecBuilder().setRelaxable(true)
+                    .setDisjointness(new TePathDisjointness(true, true, false))
+                    .setRequestIdNumber(List.of(Uint32.valueOf(1), Uint32.valueOf(2))).build()).build()))
+                .build())
+            .build();
+        Assert.assertEquals(codecJson(gnpyApi), indentedJson(gnpyApi));
+        Assert.assertEquals("{\"gnpy-api\":{\"topology-file\":{\"elements\":[{\"uid\":\"10.0.0.1\","
+            + "\"type\":\"Transceiver\"}]},\"service-file\":{\"synchronization\":[{\"synchronization-id\":0,"
+            + "\"svec\":{\"relaxable\":true,\"disjointness\":\"node link\",\"request-id-number\":[1,2]}}]}}}",
+            GnpyJsonWriter.toJson(gnpyApi));
+    }
+
+    // Serialization through the binding codec with the module prefixes stripped, as it was sent to GNPy before
+    private static String codecJson(GnpyApi gnpyApi) throws Exception {
+        return new ServiceDataStoreOperationsImpl(null)
+            .createJsonStringFromDataObject(InstanceIdentifier.create(GnpyApi.class), gnpyApi)
+            .replace("gnpy-eqpt-config:", "")
+            .replace("gnpy-path-computation-simplified:", "")
+            .replace("gnpy-network-topology:", "");
+    }
+
+    private static String indentedJson(GnpyApi gnpyApi) throws GnpyException {
+        StringWriter out = new StringWriter();
+        GnpyJsonWriter.write(gnpyApi, out, "  ");
+        return out.toString();
+    }
+}
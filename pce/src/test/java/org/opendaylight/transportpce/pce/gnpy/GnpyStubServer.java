@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local GNPy server replaying recorded responses, by default the result of gnpy-result-path.json.
+ */
+public class GnpyStubServer implements AutoCloseable {
+
+    static final String PATH = "/gnpy/api/v1.0/files";
+    public static final String CREDENTIALS = "gnpy:gnpy";
+    public static final String GOLDEN_PATH = "src/test/resources/gnpyData/gnpy-result-path.json";
+    public static final String GOLDEN_NO_PATH = "src/test/resources/gnpyData/gnpy-result-no-path.json";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final List<String> requests = new ArrayList<>();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    private final String defaultResult;
+    private volatile int headStatus = HttpURLConnection.HTTP_OK;
+
+    public GnpyStubServer() throws IOException {
+        defaultResult = read(GOLDEN_PATH);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static String read(String file) throws IOException {
+        return Files.readString(Paths.get(file), StandardCharsets.UTF_8);
+    }
+
+    public URI getUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+            + PATH);
+    }
+
+    /**
+     * Create and start a client of this server, probed once and without background probe.
+     *
+     * @param timeout the timeout of the calls, in milliseconds
+     * @return the client
+     */
+    public GnpyClient startClient(long timeout) {
+        GnpyClient client = new GnpyClient(getUri(), CREDENTIALS, timeout, GnpyClient.DEFAULT_CONCURRENCY, 0);
+        client.init();
+        client.probe();
+        return client;
+    }
+
+    /**
+     * Queue the reply to the next request not already answered.
+     *
+     * @param status the HTTP status
+     * @param body the body
+     * @param delay the time waited before replying, in milliseconds
+     */
+    public void enqueue(int status, String body, long delay) {
+        replies.add(new Reply(status, body, delay));
+    }
+
+    public void setHeadStatus(int headStatus) {
+        this.headStatus = headStatus;
+    }
+
+    public List<String> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    public int getMaxActiveRequests() {
+        return maxActiveRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            // the request is read first, the server closing the connection of a request not fully read
+            String request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (!("Basic " + Base64.getEncoder()
+                    .encodeToString(CREDENTIALS.getBytes(StandardCharsets.UTF_8))).equals(authorization)) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAUTHORIZED, -1);
+                return;
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(headStatus, -1);
+                return;
+            }
+            int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                synchronized (requests) {
+                    requests.add(request);
+                }
+                Reply reply = replies.poll();
+                if (reply == null) {
+                    reply = new Reply(HttpURLConnection.HTTP_CREATED, defaultResult, 0);
+                }
+                if (reply.delay > 0) {
+                    Thread.sleep(reply.delay);
+                }
+                byte[] body = reply.body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                if (body.length == 0) {
+                    exchange.sendResponseHeaders(reply.status, -1);
+                    return;
+                }
+                exchange.sendResponseHeaders(reply.status, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static final class Reply {
+        private final int status;
+        private final String body;
+        private final long delay;
+
+        Reply(int status, String body, long delay) {
+            this.status = status;
+            this.body = body;
+            this.delay = delay;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.gnpy;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.binding.api.WriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Connections;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ConnectionsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Elements;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ElementsBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.link.types.rev181130.RatioDB;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.node.types.rev181130.NodeIdType;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.AmplifiedLink;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.AmplifiedLinkBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.amplified.link.SectionElementBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.amplified.link.section.element.section.element.IlaBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.amplified.link.section.element.section.element.SpanBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenation;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenationBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1Builder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.OMSAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkKey;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.Uint32;
+
+public class GnpyTopologyCacheTest extends AbstractTest {
+
+    private static final int ROADMS = 6;
+
+    private OpenRoadmTopologyGenerator generator;
+    private GnpyTopologyCache cache;
+
+    @Before
+    public void setUp() throws ExecutionException, InterruptedException {
+        generator = new OpenRoadmTopologyGenerator(ROADMS, 0.0, 1);
+        generator.writeTo(getDataBroker());
+        cache = new GnpyTopologyCache(getDataBroker());
+        cache.init();
+    }
+
+    @After
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    public void initialTopologyMatchesFreshBuild() throws Exception {
+        GnpyTopoImpl topology = cache.getTopology();
+        assertSameAsFreshBuild();
+        long omsLinks = omsLinks().size();
+        Assert.assertEquals(2 * ROADMS + omsLinks, topology.getElements().size());
+        Assert.assertEquals(ROADMS, topology.getTrxList().size());
+        Assert.assertEquals(omsLinks, topology.getMapLinkFiber().size());
+        // one connection per XPONDER input or output link, two per OMS link through its fiber
+        Assert.assertEquals(2 * OpenRoadmTopologyGenerator.XPONDER_PORTS * ROADMS + 2 * omsLinks,
+            topology.getConnections().size());
+        Assert.assertSame(topology, cache.getTopology());
+    }
+
+    @Test
+    public void nodeAndLinkChanges() throws Exception {
+        List<Link> omsLinks = omsLinks();
+        Link keptLink = omsLinks.get(0);
+        Link removedLink = omsLinks.get(1);
+        final IpAddress keptFiber = fiberIp(keptLink);
+
+        delete(linkIid(removedLink.getLinkId()));
+        Assert.assertFalse(cache.getTopology().getMapLinkFiber().containsKey(removedLink.getLinkId().getValue()));
+        assertSameAsFreshBuild();
+
+        Link amplifiedLink = amplifiedLink(keptLink);
+        put(linkIid(amplifiedLink.getLinkId()), amplifiedLink);
+        GnpyTopoImpl topology = cache.getTopology();
+        Assert.assertEquals(2, topology.getMapLinkFiber().get(amplifiedLink.getLinkId().getValue()).size());
+        Assert.assertTrue(topology.getMapNodeRefIp().containsKey("ILA-ROADM-1"));
+        assertSameAsFreshBuild();
+
+        put(linkIid(removedLink.getLinkId()), removedLink);
+        Assert.assertNotNull(fiberIp(removedLink));
+        assertSameAsFreshBuild();
+
+        String xponder = OpenRoadmTopologyGenerator.xponderId(ROADMS);
+        for (Link link : generator.getOpenRoadmTopology().augmentation(Network1.class).getLink()) {
+            if (link.getSource().getSourceNode().getValue().startsWith(xponder)
+                    || link.getDestination().getDestNode().getValue().startsWith(xponder)) {
+                delete(linkIid(link.getLinkId()));
+            }
+        }
+        delete(InstanceIdentifiers.OVERLAY_NETWORK_II.child(Node.class, new NodeKey(new NodeId(xponder + "-XPDR1"))));
+        Assert.assertFalse(cache.getTopology().getTrxList().contains(xponder));
+        assertSameAsFreshBuild();
+
+        String roadm = OpenRoadmTopologyGenerator.roadmId(2);
+        Node device = generator.getOpenRoadmNetwork().getNode().stream()
+            .filter(node -> node.getNodeId().getValue().equals(roadm)).findFirst().get();
+        org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1 device1 = device.augmentation(
+            org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1.class);
+        put(InstanceIdentifiers.UNDERLAY_NETWORK_II.child(Node.class, device.key()), new NodeBuilder(device)
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1Builder(device1)
+                    .setIp(new IpAddress(new Ipv4Address("192.168.0.2"))).build())
+            .build());
+        Assert.assertEquals("192.168.0.2", cache.getTopology().getMapNodeRefIp().get(roadm).getIpv4Address()
+            .getValue());
+        assertSameAsFreshBuild();
+
+        Assert.assertEquals(keptFiber, fiberIp(keptLink));
+    }
+
+    @Test
+    public void modifiedLinkKeepsItsFiber() throws Exception {
+        Link link = omsLinks().get(0);
+        IpAddress fiber = fiberIp(link);
+        long version = cache.getVersion();
+        Link1 link1 = link.augmentation(Link1.class);
+        put(linkIid(link.getLinkId()), new LinkBuilder(link).addAugmentation(Link1.class, new Link1Builder(link1)
+            .setOMSAttributes(new OMSAttributesBuilder(link1.getOMSAttributes())
+                .setSpan(new org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks
+                    .network.link.oms.attributes.SpanBuilder(link1.getOMSAttributes().getSpan())
+                    .setSpanlossCurrent(new RatioDB(BigDecimal.valueOf(99))).build())
+                .build())
+            .build()).build());
+        Assert.assertTrue(cache.getVersion() > version);
+        Assert.assertEquals(fiber, fiberIp(link));
+        assertSameAsFreshBuild();
+    }
+
+    @Test(expected = GnpyException.class)
+    public void deletedNetwork() throws Exception {
+        delete(InstanceIdentifiers.UNDERLAY_NETWORK_II);
+        cache.getTopology();
+    }
+
+    private void assertSameAsFreshBuild() throws GnpyException {
+        GnpyTopoImpl cached = normalize(cache.getTopology());
+        GnpyTopoImpl fresh = normalize(new GnpyTopoImpl(new NetworkTransactionImpl(
+            new RequestProcessor(getDataBroker()))));
+        Assert.assertEquals(fresh.getElements(), cached.getElements());
+        Assert.assertEquals(fresh.getConnections(), cached.getConnections());
+        Assert.assertEquals(fresh.getMapDisgNodeRefNode(), cached.getMapDisgNodeRefNode());
+        Assert.assertEquals(fresh.getMapNodeRefIp(), cached.getMapNodeRefIp());
+        Assert.assertEquals(fresh.getMapLinkFiber(), cached.getMapLinkFiber());
+        Assert.assertEquals(fresh.getMapFiberIp(), cached.getMapFiberIp());
+        Assert.assertEquals(fresh.getTrxList(), cached.getTrxList());
+    }
+
+    /*
+     * Rename the identifiers of the fibers and edfas in the order of the elements, the fresh topologies
+     * numbering them from scratch.
+     */
+    private static GnpyTopoImpl normalize(GnpyTopoImpl topology) {
+        Map<String, String> uids = new HashMap<>();
+        for (Elements element : topology.getElements()) {
+            if (element.getUid().startsWith("243.") || element.getUid().startsWith("244.")) {
+                uids.put(element.getUid(), "240.0.0." + uids.size());
+            }
+        }
+        List<Elements> elements = topology.getElements().stream()
+            .map(element -> new ElementsBuilder(element).withKey(null)
+                .setUid(uids.getOrDefault(element.getUid(), element.getUid())).build())
+            .collect(Collectors.toList());
+        List<Connections> connections = topology.getConnections().stream()
+            .map(connection -> new ConnectionsBuilder(connection)
+                .setFromNode(uids.getOrDefault(connection.getFromNode(), connection.getFromNode()))
+                .setToNode(uids.getOrDefault(connection.getToNode(), connection.getToNode())).build())
+            .collect(Collectors.toList());
+        return new GnpyTopoImpl(elements, connections, topology.getMapDisgNodeRefNode(),
+            rename(topology.getMapNodeRefIp(), uids), topology.getMapLinkFiber(),
+            rename(topology.getMapFiberIp(), uids), topology.getTrxList());
+    }
+
+    private static Map<String, IpAddress> rename(Map<String, IpAddress> ips, Map<String, String> uids) {
+        Map<String, IpAddress> renamed = new HashMap<>();
+        ips.forEach((key, ip) -> renamed.put(key, new IpAddress(new Ipv4Address(uids.getOrDefault(
+            ip.getIpv4Address().getValue(), ip.getIpv4Address().getValue())))));
+        return renamed;
+    }
+
+    private IpAddress fiberIp(Link link) throws GnpyException {
+        return cache.getTopology().getMapFiberIp().get(link.getLinkId().getValue());
+    }
+
+    private List<Link> omsLinks() {
+        return generator.getOpenRoadmTopology().augmentation(Network1.class).getLink().stream()
+            .filter(link -> link.augmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.common.network
+                .rev181130.Link1.class).getLinkType() == OpenroadmLinkType.ROADMTOROADM)
+            .sorted((l1, l2) -> l1.getLinkId().getValue().compareTo(l2.getLinkId().getValue()))
+            .collect(Collectors.toList());
+    }
+
+    // fiber, in-line amplifier and fiber in parallel of an OMS link
+    private static Link amplifiedLink(Link omsLink) {
+        LinkConcatenation concatenation = new LinkConcatenationBuilder().setSRLGId(Uint32.valueOf(1000))
+            .setSRLGLength(Uint32.valueOf(40000)).setFiberType(LinkConcatenation.FiberType.Smf).build();
+        org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.amplified.link.attributes.amplified.link
+            .section.element.section.element.span.Span span = new org.opendaylight.yang.gen.v1.http.org.openroadm
+            .link.rev181130.amplified.link.attributes.amplified.link.section.element.section.element.span
+            .SpanBuilder().setSpanlossCurrent(new RatioDB(BigDecimal.TEN))
+            .setLinkConcatenation(List.of(concatenation)).build();
+        List<AmplifiedLink> sections = List.of(
+            new AmplifiedLinkBuilder().setSectionEltNumber(1).setSectionElement(new SectionElementBuilder()
+                .setSectionElement(new SpanBuilder().setSpan(span).build()).build()).build(),
+            new AmplifiedLinkBuilder().setSectionEltNumber(2).setSectionElement(new SectionElementBuilder()
+                .setSectionElement(new IlaBuilder().setIla(new org.opendaylight.yang.gen.v1.http.org.openroadm.link
+                    .rev181130.amplified.link.attributes.amplified.link.section.element.section.element.ila
+                    .IlaBuilder().setNodeId(new NodeIdType("ILA-ROADM-1")).setGain(new RatioDB(BigDecimal.TEN))
+                    .setTilt(new RatioDB(BigDecimal.ZERO)).setOutVoaAtt(new RatioDB(BigDecimal.ONE)).build())
+                    .build()).build()).build(),
+            new AmplifiedLinkBuilder().setSectionEltNumber(3).setSectionElement(new SectionElementBuilder()
+                .setSectionElement(new SpanBuilder().setSpan(span).build()).build()).build());
+        LinkId linkId = new LinkId(omsLink.getLinkId().getValue() + "-AMPLIFIED");
+        return new LinkBuilder(omsLink).setLinkId(linkId).withKey(new LinkKey(linkId))
+            .addAugmentation(Link1.class, new Link1Builder().setOMSAttributes(new OMSAttributesBuilder()
+                .setAmplifiedLink(new org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130
+                    .networks.network.link.oms.attributes.AmplifiedLinkBuilder().setAmplifiedLink(sections).build())
+                .build()).build())
+            .build();
+    }
+
+    private static InstanceIdentifier<Link> linkIid(LinkId linkId) {
+        return InstanceIdentifiers.OVERLAY_NETWORK_II.augmentation(Network1.class)
+            .child(Link.class, new LinkKey(linkId));
+    }
+
+    private <T extends DataObject> void put(InstanceIdentifier<T> iid, T data)
+            throws ExecutionException, InterruptedException {
+        WriteTransaction wt = getDataBroker().newWriteOnlyTransaction();
+        wt.put(LogicalDatastoreType.CONFIGURATION, iid, data);
+        wt.commit().get();
+    }
+
+    private void delete(InstanceIdentifier<?> iid) throws ExecutionException, InterruptedException {
+        WriteTransaction wt = getDataBroker().newWriteOnlyTransaction();
+        wt.delete(LogicalDatastoreType.CONFIGURATION, iid);
+        wt.commit().get();
+    }
+}
@@ -7,34 +7,47 @@
  */
 package org.opendaylight.transportpce.pce.gnpy;
 
+import java.net.HttpURLConnection;
+import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
 import org.opendaylight.transportpce.common.network.RequestProcessor;
 import org.opendaylight.transportpce.pce.constraints.PceConstraints;
 import org.opendaylight.transportpce.pce.constraints.PceConstraintsCalc;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
 import org.opendaylight.transportpce.pce.utils.PceTestData;
 import org.opendaylight.transportpce.pce.utils.PceTestUtils;
 import org.opendaylight.transportpce.pce.utils.TransactionUtils;
 import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
 
 public class GnpyUtilitiesImplTest extends AbstractTest {
 
     private GnpyUtilitiesImpl gnpyUtilitiesImpl;
     private NetworkTransactionImpl networkTransaction;
+    private GnpyStubServer server;
+    private GnpyClient client;
 
     @Before
     public void setUp()throws Exception {
         PceTestUtils.writeNetworkIntoDataStore(this.getDataBroker(), this.getDataStoreContextUtil(),
                 TransactionUtils.getNetworkForSpanLoss());
         networkTransaction = new NetworkTransactionImpl(new RequestProcessor(this.getDataBroker()));
+        server = new GnpyStubServer();
+        client = server.startClient(5000);
+    }
 
-
+    @After
+    public void tearDown() {
+        client.close();
+        server.close();
     }
 
     @Test(expected = Exception.class)
     public void askNewPathFromGnpyTest() throws Exception {
-        gnpyUtilitiesImpl = new GnpyUtilitiesImpl(networkTransaction, PceTestData.getPCERequest());
+        gnpyUtilitiesImpl = new GnpyUtilitiesImpl(networkTransaction, PceTestData.getPCERequest(), null, client);
         PceConstraintsCalc constraints =
                 new PceConstraintsCalc(PceTestData.getPCE_simpletopology_test1_request(), networkTransaction);
         PceConstraints pceHardConstraints = constraints.getPceHardConstraints();
@@ -43,9 +56,33 @@ public class GnpyUtilitiesImplTest extends AbstractTest {
 
     @Test(expected = Exception.class)
     public void gnpyResponseOneDirectionTest() throws Exception {
-        gnpyUtilitiesImpl = new GnpyUtilitiesImpl(networkTransaction, PceTestData.getPCERequest());
+        gnpyUtilitiesImpl = new GnpyUtilitiesImpl(networkTransaction, PceTestData.getPCERequest(), null, client);
         gnpyUtilitiesImpl.gnpyResponseOneDirection(null);
     }
 
+    @Test
+    public void askNewPathFromGnpyNoPathTest() throws Exception {
+        server.enqueue(HttpURLConnection.HTTP_CREATED, GnpyStubServer.read(GnpyStubServer.GOLDEN_NO_PATH), 0);
+        new OpenRoadmTopologyGenerator(4, 0.0, 1).writeTo(this.getDataBroker());
+        PathComputationRequestInput input = OpenRoadmTopologyGenerator.createRequest(1, 3);
+        gnpyUtilitiesImpl = new GnpyUtilitiesImpl(networkTransaction, input, null, client);
+        PceConstraintsCalc constraints = new PceConstraintsCalc(input, networkTransaction);
+        Assert.assertNull(gnpyUtilitiesImpl.askNewPathFromGnpy(constraints.getPceHardConstraints()));
+        Assert.assertEquals(1, server.getRequests().size());
+        Assert.assertTrue(server.getRequests().get(0).contains("\"path-request\""));
+    }
+
+    @Test
+    public void askNewPathFromGnpyServerErrorTest() throws Exception {
+        server.enqueue(HttpURLConnection.HTTP_INTERNAL_ERROR, "", 0);
+        new OpenRoadmTopologyGenerator(4, 0.0, 1).writeTo(this.getDataBroker());
+        PathComputationRequestInput input = OpenRoadmTopologyGenerator.createRequest(1, 3);
+        gnpyUtilitiesImpl = new GnpyUtilitiesImpl(networkTransaction, input, null, client);
+        PceConstraintsCalc constraints = new PceConstraintsCalc(input, networkTransaction);
+        GnpyException exception = Assert.assertThrows(GnpyException.class,
+            () -> gnpyUtilitiesImpl.askNewPathFromGnpy(constraints.getPceHardConstraints()));
+        Assert.assertEquals("In GnpyClient: could not connect to GNPy - response code: 500", exception.getMessage());
+    }
+
 
 }
@@ -8,8 +8,11 @@
 
 package org.opendaylight.transportpce.pce.gnpy;
 
+import java.io.IOException;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
 import org.opendaylight.transportpce.test.AbstractTest;
@@ -21,6 +24,9 @@ public class ServiceDataStoreOperationsImplTest extends AbstractTest {
     NetworkTransactionImpl networkTransaction = Mockito.mock(NetworkTransactionImpl.class);
     OrgOpenroadmDevice orgOpenroadmDevice = Mockito.mock(OrgOpenroadmDevice.class);
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     @Before
     public void setUp() {
         serviceDataStoreOperations = new ServiceDataStoreOperationsImpl(networkTransaction);
@@ -28,13 +34,13 @@ public class ServiceDataStoreOperationsImplTest extends AbstractTest {
 
     // TODO: fix augmentation issue
     @Test
-    public void createXMLFromDeviceTest() throws GnpyException {
+    public void createXMLFromDeviceTest() throws GnpyException, IOException {
         serviceDataStoreOperations.createXMLFromDevice(this.getDataStoreContextUtil(),
-                orgOpenroadmDevice, "some-output");
+                orgOpenroadmDevice, tempFolder.newFile("some-output").getPath());
     }
 
     @Test
-    public void writeStringFile() throws GnpyException {
-        serviceDataStoreOperations.writeStringFile("filename","data");
+    public void writeStringFile() throws GnpyException, IOException {
+        serviceDataStoreOperations.writeStringFile("filename", tempFolder.newFile("data").getPath());
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
+
+public class OsnrModelTest {
+
+    // legacy constants of PostAlgoPathValidator
+    private static final double MIN_OSNR_W100G = 17;
+    private static final double SYS_MARGIN = 0;
+
+    private static final Object[][] THRESHOLDS = {
+        {OsnrModel.RATE_100G, OsnrModel.DP_QPSK, 17.0},
+        {OsnrModel.RATE_200G, OsnrModel.DP_QPSK, 20.0},
+        {OsnrModel.RATE_200G, OsnrModel.DP_16QAM, 23.0},
+        {OsnrModel.RATE_400G, OsnrModel.DP_16QAM, 24.0},
+    };
+
+    private final Random random = new Random(17L);
+
+    @Test
+    public void sameOsnrAsLegacyFormula() {
+        OsnrModel model = OsnrModel.DEFAULT;
+        for (int hops : new int[] {0, 1, 5, 20, 100}) {
+            for (int run = 0; run < 100; run++) {
+                List<Double> linkOsnrs = new ArrayList<>();
+                double inverseOsnr = model.getStartInverseOsnr();
+                for (int hop = 0; hop < hops; hop++) {
+                    double linkOsnr = 0.1 + 32.9 * random.nextDouble();
+                    linkOsnrs.add(linkOsnr);
+                    inverseOsnr += OsnrModel.inverseOsnr(linkOsnr);
+                }
+                double legacyOsnr = legacyPathOsnr(linkOsnrs);
+                Assert.assertEquals(legacyOsnr, OsnrModel.toDb(inverseOsnr), 0);
+                Assert.assertEquals(legacyOsnr + SYS_MARGIN > MIN_OSNR_W100G,
+                    model.isOsnrSufficient(OsnrModel.toDb(inverseOsnr), OsnrModel.RATE_100G, OsnrModel.DP_QPSK));
+            }
+        }
+    }
+
+    @Test
+    public void sameOsnrAsLegacyFormulaOnLinks() {
+        PceTestNode node = new PceTestNode("node", new BitSet());
+        List<PceLink> links = new ArrayList<>();
+        List<Double> linkOsnrs = new ArrayList<>();
+        for (int hop = 0; hop < 10; hop++) {
+            PceLink link = new PceLink(NodeUtils.createRoadmToRoadm("node-" + hop, "node-" + (hop + 1),
+                "DEG1-TTP-TXRX", "DEG2-TTP-TXRX").build(), node, node);
+            Assert.assertEquals(1 / Math.pow(10, link.getosnr() / 10.0), link.getInverseOsnr(), 0);
+            links.add(link);
+            linkOsnrs.add(link.getosnr());
+            Assert.assertEquals(legacyPathOsnr(linkOsnrs), OsnrModel.DEFAULT.getPathOsnr(links), 0);
+        }
+    }
+
+    @Test
+    public void thresholdsPerRateAndModulation() {
+        OsnrModel model = OsnrModel.DEFAULT;
+        for (Object[] threshold : THRESHOLDS) {
+            String rate = (String) threshold[0];
+            String modulation = (String) threshold[1];
+            double minOsnr = (Double) threshold[2];
+            Assert.assertEquals(rate + " " + modulation, minOsnr, model.getMinOsnr(rate, modulation), 0);
+            Assert.assertTrue(model.isOsnrSufficient(minOsnr + 0.01, rate, modulation));
+            Assert.assertFalse(model.isOsnrSufficient(minOsnr, rate, modulation));
+        }
+        Assert.assertEquals(17.0, model.getMinOsnr("100g", "DP-QPSK"), 0);
+        Assert.assertNull(model.getMinOsnr(OsnrModel.RATE_400G, OsnrModel.DP_QPSK));
+        Assert.assertFalse(model.isOsnrSufficient(40, OsnrModel.RATE_400G, OsnrModel.DP_QPSK));
+    }
+
+    @Test
+    public void thresholdsAndMarginFromConfiguration() {
+        OsnrModel model = OsnrModel.create("400G/dp-16qam=26, 400G/dp-qpsk=21,invalid,100G/x=y", -1.5);
+        Assert.assertEquals(26.0, model.getMinOsnr(OsnrModel.RATE_400G, OsnrModel.DP_16QAM), 0);
+        Assert.assertEquals(21.0, model.getMinOsnr(OsnrModel.RATE_400G, OsnrModel.DP_QPSK), 0);
+        Assert.assertEquals(17.0, model.getMinOsnr(OsnrModel.RATE_100G, OsnrModel.DP_QPSK), 0);
+        Assert.assertEquals(5, model.getThresholds().size());
+        Assert.assertEquals(-1.5, model.getMargin(), 0);
+        Assert.assertFalse(model.isOsnrSufficient(27, OsnrModel.RATE_400G, OsnrModel.DP_16QAM));
+        Assert.assertTrue(model.isOsnrSufficient(27.6, OsnrModel.RATE_400G, OsnrModel.DP_16QAM));
+
+        Assert.assertEquals(OsnrModel.DEFAULT.getThresholds(), OsnrModel.create(null, 0).getThresholds());
+        Assert.assertEquals(0, OsnrModel.DEFAULT.getMargin(), 0);
+        Assert.assertEquals(Collections.emptyMap(), OsnrModel.parseThresholds(" "));
+    }
+
+    @Test
+    public void customTable() {
+        OsnrModel model = new OsnrModel(Map.of(OsnrModel.key("800G", "dp-64qam"), 30.0), 2);
+        Assert.assertTrue(model.isOsnrSufficient(28.5, "800G", "dp-64qam"));
+        Assert.assertFalse(model.isOsnrSufficient(28.5, OsnrModel.RATE_100G, OsnrModel.DP_QPSK));
+    }
+
+    // OSNR computed by PostAlgoPathValidator.checkOSNR before the model
+    private static double legacyPathOsnr(List<Double> linkOsnrsDb) {
+        double inverseLocalOsnr = legacyInverseOsnr(OsnrModel.TRX_OSNR) + legacyInverseOsnr(OsnrModel.ADD_OSNR);
+        for (double linkOsnrDb : linkOsnrsDb) {
+            inverseLocalOsnr += legacyInverseOsnr(linkOsnrDb);
+        }
+        return 10 * Math.log10(1 / inverseLocalOsnr);
+    }
+
+    private static double legacyInverseOsnr(double linkOsnrDb) {
+        double linkOsnrLu = Math.pow(10, (linkOsnrDb / 10.0));
+        return (1L / linkOsnrLu);
+    }
+}
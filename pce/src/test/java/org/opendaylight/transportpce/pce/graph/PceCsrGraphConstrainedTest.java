@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import org.jgrapht.GraphPath;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints.ResourcePair;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.utils.PceTestTopology;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp.PceMetric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PceCsrGraphConstrainedTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PceCsrGraphConstrainedTest.class);
+
+    private static final ToDoubleFunction<PceLink> HOP_COUNT = link -> 1;
+
+    @Test
+    public void latencyBudgetIsApplied() {
+        for (long seed = 1; seed <= 10; seed++) {
+            PceTestTopology topology = PceTestTopology.generate(10, 5, 1.0, seed);
+            PceCsrGraph graph = new PceCsrGraph(topology.getAllPceNodes(), HOP_COUNT);
+            double budget = latency(graph.getPaths("XPDR-A", "XPDR-Z", 1, 50).get(0)) * 0.9;
+            PceConstraints constraints = new PceConstraints();
+            constraints.setMaxLatency((long) budget);
+            assertSameAsFiltered(graph, constraints, path -> latency(path) < (long) budget);
+        }
+    }
+
+    @Test
+    public void includeIsApplied() {
+        for (long seed = 1; seed <= 10; seed++) {
+            PceTestTopology topology = PceTestTopology.generate(10, 5, 1.0, seed);
+            PceCsrGraph graph = new PceCsrGraph(topology.getAllPceNodes(), HOP_COUNT);
+            PceConstraints constraints = new PceConstraints();
+            constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "ROADM-2"));
+            constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.CLLI, "CLLI-7"));
+            assertSameAsFiltered(graph, constraints, path -> {
+                // ROADM-2 then ROADM-7 must be crossed
+                int roadm2 = -1;
+                int roadm7 = -1;
+                List<String> vertices = path.getVertexList();
+                for (int i = 0; i < vertices.size(); i++) {
+                    if (roadm2 < 0 && vertices.get(i).startsWith("ROADM-2-")) {
+                        roadm2 = i;
+                    }
+                    if (vertices.get(i).startsWith("ROADM-7-")) {
+                        roadm7 = i;
+                    }
+                }
+                return roadm2 >= 0 && roadm7 > roadm2;
+            });
+        }
+    }
+
+    @Test
+    public void wavelengthContinuityIsApplied() {
+        for (long seed = 1; seed <= 10; seed++) {
+            PceTestTopology topology = PceTestTopology.generate(10, 5, 0.5, seed);
+            PceCsrGraph graph = new PceCsrGraph(topology.getAllPceNodes(), HOP_COUNT);
+            assertSameAsFiltered(graph, new PceConstraints(),
+                path -> PostAlgoPathValidator.chooseWavelength(path, topology.getAllPceNodes()) >= 0);
+        }
+    }
+
+    /*
+     * Synthetic harness: requests with a latency budget, a node to include and sparse wavelengths,
+     * computed by validating the k shortest paths afterwards and by the constrained search.
+     */
+    @Test
+    public void compareWithPostValidation() {
+        Random random = new Random(1);
+        int requests = 0;
+        int postSuccess = 0;
+        int constrainedSuccess = 0;
+        long postTime = 0;
+        long constrainedTime = 0;
+        for (long seed = 1; seed <= 20; seed++) {
+            PceTestTopology topology = PceTestTopology.generate(12, 12, 0.7, seed);
+            PceCsrGraph latencyGraph = new PceCsrGraph(topology.getAllPceNodes(), PceLink::getLatency);
+            double minLatency = latency(latencyGraph.getPaths("XPDR-A", "XPDR-Z", 1, 50).get(0));
+            for (int i = 0; i < 5; i++) {
+                PceConstraints constraints = new PceConstraints();
+                constraints.setPceMetrics(PceMetric.HopCount);
+                constraints.setMaxLatency((long) (minLatency * (1.05 + random.nextDouble() / 2)));
+                for (int include = random.nextInt(3); include > 0; include--) {
+                    constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE,
+                        "ROADM-" + (1 + random.nextInt(11))));
+                }
+                requests++;
+                PceGraph constrained = topology.pceGraph(constraints, PceGraph.GraphEngine.CONSTRAINED);
+                constrainedTime += PceTestTopology.timeCalcPath(constrained);
+                PceGraph post = topology.pceGraph(constraints, PceGraph.GraphEngine.CSR);
+                postTime += PceTestTopology.timeCalcPath(post);
+                boolean constrainedFound = constrained.getReturnStructure().getStatus();
+                if (constrainedFound) {
+                    constrainedSuccess++;
+                }
+                if (post.getReturnStructure().getStatus()) {
+                    postSuccess++;
+                    Assert.assertTrue(constrainedFound);
+                    Assert.assertTrue(constrained.getPathAtoZ().size() <= post.getPathAtoZ().size());
+                }
+            }
+        }
+        LOG.info("compareWithPostValidation: {} requests, post validation {} found in {} us, constrained search "
+            + "{} found in {} us", requests, postSuccess, postTime / 1000, constrainedSuccess,
+            constrainedTime / 1000);
+        Assert.assertTrue(constrainedSuccess > postSuccess);
+    }
+
+    // the constrained paths must be the unconstrained ones meeting the constraints, in the same order
+    private static void assertSameAsFiltered(PceCsrGraph graph, PceConstraints constraints,
+            Predicate<GraphPath<String, PceGraphEdge>> filter) {
+        List<GraphPath<String, PceGraphEdge>> expected = new ArrayList<>();
+        for (GraphPath<String, PceGraphEdge> path : graph.getPaths("XPDR-A", "XPDR-Z", 300, 50)) {
+            if (filter.test(path)) {
+                expected.add(path);
+            }
+        }
+        List<GraphPath<String, PceGraphEdge>> actual =
+            graph.getPaths("XPDR-A", "XPDR-Z", 10, 50, constraints);
+        for (GraphPath<String, PceGraphEdge> path : actual) {
+            Assert.assertTrue("path does not meet the constraints " + path, filter.test(path));
+        }
+        int compared = Math.min(expected.size(), 10);
+        Assert.assertTrue(actual.size() >= compared);
+        for (int i = 0; i < compared; i++) {
+            Assert.assertEquals(expected.get(i).getWeight(), actual.get(i).getWeight(), 1e-9);
+        }
+    }
+
+    private static long latency(GraphPath<String, PceGraphEdge> path) {
+        long latency = 0;
+        for (PceGraphEdge edge : path.getEdgeList()) {
+            latency += edge.link().getLatency();
+        }
+        return latency;
+    }
+}
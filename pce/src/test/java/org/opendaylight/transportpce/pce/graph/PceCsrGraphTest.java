@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.lang.management.ManagementFactory;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.KShortestSimplePaths;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
+import org.opendaylight.transportpce.pce.utils.PceTestTopology;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1Builder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp.PceMetric;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PceCsrGraphTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PceCsrGraphTest.class);
+
+    private static final ToDoubleFunction<PceLink> HOP_COUNT = link -> 1;
+    private static final ToDoubleFunction<PceLink> PROPAGATION_DELAY = PceLink::getLatency;
+
+    @Test
+    public void sameKshortestPathsAsJgrapht() {
+        for (long seed = 1; seed <= 20; seed++) {
+            int roadms = 4 + (int) (seed % 8);
+            PceTestTopology topology = PceTestTopology.generate(roadms, roadms / 2, 1.0, seed);
+            for (ToDoubleFunction<PceLink> weight : List.of(HOP_COUNT, PROPAGATION_DELAY)) {
+                List<GraphPath<String, PceGraphEdge>> expected = jgraphtPaths(topology, weight, 10, 50);
+                List<GraphPath<String, PceGraphEdge>> actual = new PceCsrGraph(topology.getAllPceNodes(), weight)
+                    .getPaths("XPDR-A", "XPDR-Z", 10, 50);
+                String message = "seed " + seed + " expected " + expected + " actual " + actual;
+                Assert.assertEquals(message, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    Assert.assertEquals(message, expected.get(i).getWeight(), actual.get(i).getWeight(), 1e-9);
+                    assertValidPath(actual.get(i), weight);
+                }
+                Assert.assertEquals(message, expected.get(0).getWeight(), actual.get(0).getWeight(), 1e-9);
+                if (weight == PROPAGATION_DELAY && expected.size() > 1
+                        && expected.get(0).getWeight() < expected.get(1).getWeight()) {
+                    Assert.assertEquals(message, expected.get(0).getVertexList(), actual.get(0).getVertexList());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hopLimitIsApplied() {
+        PceTestTopology topology = PceTestTopology.generate(10, 0, 1.0, 7L);
+        // on a 10 ROADM ring, A and Z are 5 ROADMs away: 2 xponder links, add, drop, 5 spans, 4 express
+        Assert.assertTrue(new PceCsrGraph(topology.getAllPceNodes(), HOP_COUNT)
+            .getPaths("XPDR-A", "XPDR-Z", 10, 12).isEmpty());
+        List<GraphPath<String, PceGraphEdge>> paths = new PceCsrGraph(topology.getAllPceNodes(), HOP_COUNT)
+            .getPaths("XPDR-A", "XPDR-Z", 10, 13);
+        Assert.assertFalse(paths.isEmpty());
+        for (GraphPath<String, PceGraphEdge> path : paths) {
+            Assert.assertTrue(path.getLength() <= 13);
+        }
+    }
+
+    @Test
+    public void turnRulesAreApplied() {
+        // A -> B -> C with ADDLINK then DROPLINK, which is not a valid turn
+        Map<NodeId, PceNode> allPceNodes = new LinkedHashMap<>();
+        PceTestNode nodeA = addNode(allPceNodes, "A");
+        PceTestNode nodeB = addNode(allPceNodes, "B");
+        PceTestNode nodeC = addNode(allPceNodes, "C");
+        addLink(nodeA, nodeB, OpenroadmLinkType.ADDLINK);
+        addLink(nodeB, nodeC, OpenroadmLinkType.DROPLINK);
+        Assert.assertTrue(new PceCsrGraph(allPceNodes, HOP_COUNT).getPaths("A", "C", 10, 50).isEmpty());
+
+        addLink(nodeB, nodeC, OpenroadmLinkType.ROADMTOROADM);
+        // parallel link is ignored as in the JGraphT graph
+        Assert.assertTrue(new PceCsrGraph(allPceNodes, HOP_COUNT).getPaths("A", "C", 10, 50).isEmpty());
+
+        PceTestNode nodeD = addNode(allPceNodes, "D");
+        addLink(nodeB, nodeD, OpenroadmLinkType.ROADMTOROADM);
+        addLink(nodeD, nodeC, OpenroadmLinkType.DROPLINK);
+        List<GraphPath<String, PceGraphEdge>> paths =
+            new PceCsrGraph(allPceNodes, HOP_COUNT).getPaths("A", "C", 10, 50);
+        Assert.assertEquals(1, paths.size());
+        Assert.assertEquals(List.of("A", "B", "D", "C"), paths.get(0).getVertexList());
+        Assert.assertTrue(new PceCsrGraph(allPceNodes, HOP_COUNT).getPaths("A", "unknown", 10, 50).isEmpty());
+    }
+
+    @Test
+    public void pceGraphEnginesChooseSamePath() {
+        for (long seed = 1; seed <= 5; seed++) {
+            PceTestTopology topology = PceTestTopology.generate(12, 6, 0.5, seed);
+            PceConstraints constraints = new PceConstraints();
+            constraints.setPceMetrics(PceMetric.PropagationDelay);
+            PceGraph jgraphtGraph = topology.pceGraph(constraints, PceGraph.GraphEngine.JGRAPHT);
+            PceGraph csrGraph = topology.pceGraph(constraints, PceGraph.GraphEngine.CSR);
+            Assert.assertEquals(jgraphtGraph.calcPath(), csrGraph.calcPath());
+            Assert.assertEquals(jgraphtGraph.getReturnStructure().getResultWavelength(),
+                csrGraph.getReturnStructure().getResultWavelength());
+            if (jgraphtGraph.getPathAtoZ() != null) {
+                Assert.assertEquals(latency(jgraphtGraph.getPathAtoZ()), latency(csrGraph.getPathAtoZ()));
+            }
+        }
+    }
+
+    @Test
+    public void pathIteratorYieldsSamePathsAsGetPaths() {
+        PceTestTopology topology = PceTestTopology.generate(10, 5, 1.0, 3L);
+        PceCsrGraph graph = new PceCsrGraph(topology.getAllPceNodes(), PROPAGATION_DELAY);
+        List<GraphPath<String, PceGraphEdge>> expected = graph.getPaths("XPDR-A", "XPDR-Z", 20, 50);
+        Iterator<GraphPath<String, PceGraphEdge>> iterator = graph.pathIterator("XPDR-A", "XPDR-Z", 50);
+        for (GraphPath<String, PceGraphEdge> path : expected) {
+            Assert.assertTrue(iterator.hasNext());
+            Assert.assertEquals(path.getEdgeList(), iterator.next().getEdgeList());
+        }
+        Assert.assertFalse(graph.pathIterator("XPDR-A", "unknown", 50).hasNext());
+    }
+
+    @Test
+    public void lazyValidationChoosesSamePathAsEager() {
+        int eagerGenerated = 0;
+        int lazyGenerated = 0;
+        for (long seed = 1; seed <= 10; seed++) {
+            // sparse wavelengths so that the first paths are often dropped by the wavelength continuity check
+            PceTestTopology topology = PceTestTopology.generate(12, 6, 0.5, seed);
+            PceConstraints constraints = new PceConstraints();
+            constraints.setPceMetrics(PceMetric.PropagationDelay);
+            PceGraph eager = topology.pceGraph(constraints, PceGraph.GraphEngine.CSR);
+            eager.setLazyPathValidation(false);
+            PceGraph lazy = topology.pceGraph(constraints, PceGraph.GraphEngine.CSR);
+            lazy.setLazyPathValidation(true);
+            Assert.assertEquals(eager.calcPath(), lazy.calcPath());
+            PceResult eagerResult = eager.getReturnStructure();
+            PceResult lazyResult = lazy.getReturnStructure();
+            Assert.assertEquals(eagerResult.getResultWavelength(), lazyResult.getResultWavelength());
+            Assert.assertEquals(eager.getPathAtoZ(), lazy.getPathAtoZ());
+            Assert.assertEquals(eagerResult.getValidatedPaths(), lazyResult.getValidatedPaths());
+            Assert.assertEquals(lazyResult.getValidatedPaths(), lazyResult.getGeneratedPaths());
+            Assert.assertTrue(eagerResult.getGeneratedPaths() >= eagerResult.getValidatedPaths());
+            eagerGenerated += eagerResult.getGeneratedPaths();
+            lazyGenerated += lazyResult.getGeneratedPaths();
+        }
+        LOG.info("lazyValidationChoosesSamePathAsEager: {} paths generated by eager, {} by lazy",
+            eagerGenerated, lazyGenerated);
+        Assert.assertTrue(lazyGenerated < eagerGenerated);
+    }
+
+    @Test
+    public void compareEngines() {
+        // KShortestSimplePaths cost grows very fast with the mesh degree, keep the topologies small
+        for (int roadms : new int[] {8, 12, 16}) {
+            PceTestTopology topology = PceTestTopology.generate(roadms, roadms / 2, 1.0, roadms);
+            int iterations = 5;
+            // warm up
+            jgraphtPaths(topology, PROPAGATION_DELAY, 10, 50);
+            new PceCsrGraph(topology.getAllPceNodes(), PROPAGATION_DELAY).getPaths("XPDR-A", "XPDR-Z", 10, 50);
+
+            long jgraphtBytes = allocatedBytes();
+            long jgraphtStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                jgraphtPaths(topology, PROPAGATION_DELAY, 10, 50);
+            }
+            jgraphtBytes = allocatedBytes() - jgraphtBytes;
+            long jgraphtTime = System.nanoTime() - jgraphtStart;
+
+            long csrBytes = allocatedBytes();
+            long csrStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                new PceCsrGraph(topology.getAllPceNodes(), PROPAGATION_DELAY).getPaths("XPDR-A", "XPDR-Z", 10, 50);
+            }
+            csrBytes = allocatedBytes() - csrBytes;
+            long csrTime = System.nanoTime() - csrStart;
+            LOG.info("compareEngines: {} roadms {} links, jgrapht {} us {} kB, csr {} us {} kB per request",
+                roadms, topology.getLinks().size(), jgraphtTime / iterations / 1000,
+                jgraphtBytes / iterations / 1024, csrTime / iterations / 1000, csrBytes / iterations / 1024);
+        }
+    }
+
+    private static List<GraphPath<String, PceGraphEdge>> jgraphtPaths(PceTestTopology topology,
+            ToDoubleFunction<PceLink> weight, int kpaths, int maxHops) {
+        DefaultDirectedWeightedGraph<String, PceGraphEdge> graph =
+            new DefaultDirectedWeightedGraph<>(PceGraphEdge.class);
+        for (PceNode node : topology.getAllPceNodes().values()) {
+            graph.addVertex(node.getNodeId().getValue());
+        }
+        for (PceNode node : topology.getAllPceNodes().values()) {
+            for (PceLink link : node.getOutgoingLinks()) {
+                PceGraphEdge edge = new PceGraphEdge(link);
+                graph.addEdge(link.getSourceId().getValue(), link.getDestId().getValue(), edge);
+                graph.setEdgeWeight(edge, weight.applyAsDouble(link));
+            }
+        }
+        return new KShortestSimplePaths<>(graph, maxHops, new InAlgoPathValidator())
+            .getPaths("XPDR-A", "XPDR-Z", kpaths);
+    }
+
+    private static void assertValidPath(GraphPath<String, PceGraphEdge> path, ToDoubleFunction<PceLink> weight) {
+        List<PceGraphEdge> edges = path.getEdgeList();
+        Set<String> vertices = new HashSet<>(path.getVertexList());
+        Assert.assertEquals("path is not simple " + path, path.getVertexList().size(), vertices.size());
+        Assert.assertEquals(edges.size() + 1, path.getVertexList().size());
+        double total = 0;
+        for (int i = 0; i < edges.size(); i++) {
+            PceLink link = edges.get(i).link();
+            Assert.assertEquals(path.getVertexList().get(i), link.getSourceId().getValue());
+            Assert.assertEquals(path.getVertexList().get(i + 1), link.getDestId().getValue());
+            if (i > 0) {
+                Assert.assertTrue(InAlgoPathValidator.checkTurn(edges.get(i - 1).link().getlinkType(),
+                    link.getlinkType()));
+            }
+            total += weight.applyAsDouble(link);
+        }
+        Assert.assertEquals(total, path.getWeight(), 1e-9);
+    }
+
+    private static long latency(List<PceLink> path) {
+        long latency = 0;
+        for (PceLink link : path) {
+            latency += link.getLatency();
+        }
+        return latency;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static PceTestNode addNode(Map<NodeId, PceNode> allPceNodes, String nodeId) {
+        BitSet wavelengths = new BitSet();
+        wavelengths.set(1, 97);
+        PceTestNode node = new PceTestNode(nodeId, wavelengths);
+        allPceNodes.put(node.getNodeId(), node);
+        return node;
+    }
+
+    private static void addLink(PceTestNode source, PceTestNode dest, OpenroadmLinkType type) {
+        source.addOutgoingLink(new PceLink(NodeUtils.createLinkBuilder(source.getNodeId().getValue(),
+            dest.getNodeId().getValue(), "TP-" + type.getName(), "TP", new Link1Builder().setLinkType(type)).build(),
+            source, dest));
+    }
+}
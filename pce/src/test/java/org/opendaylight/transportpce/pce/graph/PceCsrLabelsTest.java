@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PceCsrLabelsTest {
+
+    @Test
+    public void dominatedLabelsAreDiscarded() {
+        PceCsrLabels labels = new PceCsrLabels(2);
+        labels.clear();
+        Assert.assertTrue(labels.add(0, -1, 10, 10, 0b11, 0, 0, 1));
+        // heavier with less wavelengths: dominated
+        Assert.assertFalse(labels.add(0, -1, 12, 10, 0b01, 0, 0, 1));
+        // heavier but with more wavelengths: kept
+        Assert.assertTrue(labels.add(0, -1, 12, 10, 0b111, 0, 0, 1));
+        // same label on another edge: kept
+        Assert.assertTrue(labels.add(1, -1, 12, 10, 0b01, 0, 0, 1));
+        // lighter with the same resources: dominates the first label
+        Assert.assertTrue(labels.add(0, -1, 8, 10, 0b11, 0, 0, 1));
+
+        Assert.assertEquals(8, labels.weight(labels.poll()), 0);
+        Assert.assertEquals(12, labels.weight(labels.poll()), 0);
+        Assert.assertEquals(12, labels.weight(labels.poll()), 0);
+        Assert.assertEquals(-1, labels.poll());
+        Assert.assertTrue(labels.isEmpty());
+    }
+
+    @Test
+    public void clearResetsLabels() {
+        PceCsrLabels labels = new PceCsrLabels(1);
+        labels.clear();
+        for (int i = 0; i < 5000; i++) {
+            // more included resources each time, nothing is dominated
+            Assert.assertTrue(labels.add(0, i - 1, 5000 - i, 0, 1, 0, i, 1));
+        }
+        int previous = labels.poll();
+        Assert.assertEquals(1, labels.weight(previous), 0);
+        Assert.assertEquals(4998, labels.pred(previous));
+        labels.clear();
+        Assert.assertTrue(labels.isEmpty());
+        Assert.assertTrue(labels.add(0, -1, 100, 0, 1, 0, 0, 1));
+        Assert.assertEquals(100, labels.weight(labels.poll()), 0);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.graph.PceDisjointPathPair.Disjointness;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceCalculation;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNodeView;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+
+public class PceDisjointPathPairTest extends AbstractTest {
+
+    // {ROADM, ROADM, length in km}: the shortest path 1-2-3-4 cuts both 1-2-4 and 1-3-4
+    private static final int[][] TRAP = {{1, 2, 10}, {2, 3, 10}, {3, 4, 10}, {1, 3, 30}, {2, 4, 30}};
+    // same trap with a longer route through ROADM 5, 1-2 and 3-4 sharing SRLG 100
+    private static final int[][] SRLG_TRAP = {{1, 2, 10, 100}, {2, 3, 10}, {3, 4, 10, 100}, {1, 3, 30},
+        {2, 4, 30}, {1, 5, 50}, {5, 4, 50}};
+
+    private final PceConstraints constraints = new PceConstraints();
+    private Map<NodeId, PceNode> allPceNodes;
+
+    public PceDisjointPathPairTest() {
+        constraints.setPceMetrics(RoutingConstraintsSp.PceMetric.TEMetric);
+    }
+
+    @Test
+    public void sequentialComputationFailsOnTrapTest() throws Exception {
+        createNetwork(4, TRAP);
+        PceGraph graph = new PceGraph(xponder(1), xponder(4), allPceNodes, constraints, null, new PceResult(),
+            "100GE");
+        Assert.assertTrue(graph.calcPath());
+        Assert.assertEquals(Set.of("1-2", "2-3", "3-4"), fibers(graph.getPathAtoZ()));
+
+        // remove the degrees of the first path
+        Set<NodeId> visibleNodes = new HashSet<>(allPceNodes.keySet());
+        for (PceLink link : graph.getPathAtoZ()) {
+            if (link.getlinkType() == OpenroadmLinkType.ROADMTOROADM) {
+                visibleNodes.remove(link.getSourceId());
+                visibleNodes.remove(link.getDestId());
+            }
+        }
+        Map<NodeId, PceNode> nodes = new HashMap<>();
+        for (NodeId nodeId : visibleNodes) {
+            nodes.put(nodeId, new PceNodeView(allPceNodes.get(nodeId), visibleNodes, new BitSet(),
+                Collections.emptySet()));
+        }
+        PceGraph secondGraph = new PceGraph(nodes.get(xponder(1).getNodeId()), nodes.get(xponder(4).getNodeId()),
+            nodes, constraints, null, new PceResult(), "100GE");
+        Assert.assertFalse(secondGraph.calcPath());
+    }
+
+    @Test
+    public void linkDisjointPairOnTrapTest() throws Exception {
+        createNetwork(4, TRAP);
+        PceDisjointPathPair pair = computePair(Disjointness.LINK);
+        Assert.assertEquals(Set.of(Set.of("1-2", "2-4"), Set.of("1-3", "3-4")),
+            Set.of(fibers(pair.getWorkingPath()), fibers(pair.getProtectPath())));
+        Assert.assertEquals(1L, pair.getWorkingResult().getResultWavelength());
+        Assert.assertEquals(1L, pair.getProtectResult().getResultWavelength());
+        // the ports of the XPONDERs are not shared
+        Assert.assertNotEquals(pair.getWorkingPath().get(0).getSourceTP(),
+            pair.getProtectPath().get(0).getSourceTP());
+    }
+
+    @Test
+    public void nodeDisjointPairOnTrapTest() throws Exception {
+        createNetwork(4, TRAP);
+        PceDisjointPathPair pair = computePair(Disjointness.NODE);
+        Set<String> workingRoadms = roadms(pair.getWorkingPath());
+        workingRoadms.retainAll(roadms(pair.getProtectPath()));
+        Assert.assertEquals(Set.of(OpenRoadmTopologyGenerator.roadmId(1), OpenRoadmTopologyGenerator.roadmId(4)),
+            workingRoadms);
+    }
+
+    @Test
+    public void srlgDisjointPairTest() throws Exception {
+        createNetwork(5, SRLG_TRAP);
+        PceDisjointPathPair linkPair = computePair(Disjointness.LINK);
+        Assert.assertTrue(srlgs(linkPair.getWorkingPath()).contains(100L));
+        Assert.assertTrue(srlgs(linkPair.getProtectPath()).contains(100L));
+
+        PceDisjointPathPair srlgPair = computePair(Disjointness.SRLG);
+        Assert.assertTrue(Collections.disjoint(srlgs(srlgPair.getWorkingPath()),
+            srlgs(srlgPair.getProtectPath())));
+        Assert.assertTrue(fibers(srlgPair.getProtectPath()).containsAll(Set.of("1-5", "4-5")));
+    }
+
+    @Test
+    public void wavelengthOnBothPathsTest() throws Exception {
+        createNetwork(5, SRLG_TRAP);
+        // no wavelength left on the degree of ROADM 2 towards ROADM 4
+        NodeId degree = new NodeId(OpenRoadmTopologyGenerator.roadmId(2) + "-DEG3");
+        BitSet allWavelengths = new BitSet();
+        allWavelengths.set(1, PostAlgoPathValidator.MAX_WAWELENGTH + 1);
+        allPceNodes.put(degree, new PceNodeView(allPceNodes.get(degree), allPceNodes.keySet(), allWavelengths,
+            Collections.emptySet()));
+
+        PceDisjointPathPair pair = computePair(Disjointness.LINK);
+        Assert.assertFalse(fibers(pair.getWorkingPath()).contains("2-4"));
+        Assert.assertFalse(fibers(pair.getProtectPath()).contains("2-4"));
+        Assert.assertTrue(pair.getWorkingResult().getResultWavelength() > 0);
+        Assert.assertTrue(pair.getProtectResult().getResultWavelength() > 0);
+    }
+
+    @Test
+    public void noDisjointPairTest() throws Exception {
+        createNetwork(4, new int[][] {{1, 2, 10}, {2, 3, 10}, {3, 4, 10}});
+        PceDisjointPathPair pair = new PceDisjointPathPair(xponder(1), xponder(4), allPceNodes, constraints, null,
+            "100GE", Disjointness.LINK);
+        Assert.assertFalse(pair.calcPaths());
+        Assert.assertNull(pair.getWorkingPath());
+    }
+
+    private void createNetwork(int roadms, int[][] spans) throws Exception {
+        new OpenRoadmTopologyGenerator(roadms, spans).writeTo(getDataBroker());
+        PceCalculation calculation = new PceCalculation(OpenRoadmTopologyGenerator.createRequest(1, 4),
+            new NetworkTransactionImpl(new RequestProcessor(getDataBroker())), constraints, null, new PceResult());
+        calculation.retrievePceNetwork();
+        Assert.assertTrue(calculation.getReturnStructure().getStatus());
+        allPceNodes = new HashMap<>(calculation.getAllPceNodes());
+    }
+
+    private PceDisjointPathPair computePair(Disjointness disjointness) {
+        PceDisjointPathPair pair = new PceDisjointPathPair(xponder(1), xponder(4), allPceNodes, constraints, null,
+            "100GE", disjointness);
+        Assert.assertTrue(pair.calcPaths());
+        return pair;
+    }
+
+    private PceNode xponder(int roadm) {
+        return allPceNodes.get(new NodeId(OpenRoadmTopologyGenerator.xponderId(roadm) + "-XPDR1"));
+    }
+
+    // ROADM-TO-ROADM links of a path, as "lowest ROADM-highest ROADM"
+    private static Set<String> fibers(List<PceLink> path) {
+        Set<String> fibers = new HashSet<>();
+        for (PceLink link : path) {
+            if (link.getlinkType() == OpenroadmLinkType.ROADMTOROADM) {
+                String source = link.getsourceNetworkSupNodeId().replace("ROADM-", "");
+                String dest = link.getdestNetworkSupNodeId().replace("ROADM-", "");
+                fibers.add(source.compareTo(dest) < 0 ? source + "-" + dest : dest + "-" + source);
+            }
+        }
+        return fibers;
+    }
+
+    private static Set<String> roadms(List<PceLink> path) {
+        Set<String> roadms = new HashSet<>();
+        for (PceLink link : path) {
+            if (link.getlinkType() == OpenroadmLinkType.ROADMTOROADM) {
+                roadms.add(link.getsourceNetworkSupNodeId());
+                roadms.add(link.getdestNetworkSupNodeId());
+            }
+        }
+        return roadms;
+    }
+
+    private static Set<Long> srlgs(List<PceLink> path) {
+        Set<Long> srlgs = new HashSet<>();
+        for (PceLink link : path) {
+            if (link.getlinkType() == OpenroadmLinkType.ROADMTOROADM) {
+                srlgs.addAll(link.getsrlgList());
+            }
+        }
+        return srlgs;
+    }
+}
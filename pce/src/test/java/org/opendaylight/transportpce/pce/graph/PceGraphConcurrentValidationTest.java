@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints.ResourcePair;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.PceTestTopology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PceGraphConcurrentValidationTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PceGraphConcurrentValidationTest.class);
+
+    @Test
+    public void concurrentValidationChoosesSamePath() {
+        Random random = new Random(1);
+        for (long seed = 1; seed <= 10; seed++) {
+            PceTestTopology topology = PceTestTopology.generate(8, 6, 0.3 + random.nextDouble() / 3, seed);
+            PceConstraints constraints = new PceConstraints();
+            if (random.nextBoolean()) {
+                constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE,
+                    "ROADM-" + (1 + random.nextInt(9))));
+            }
+            for (PceGraph.GraphEngine engine : PceGraph.GraphEngine.values()) {
+                PceGraph sequential = topology.pceGraph(constraints, engine);
+                sequential.setValidationParallelism(1);
+                sequential.calcPath();
+                for (int parallelism : new int[] {2, 4, 16}) {
+                    PceGraph concurrent = topology.pceGraph(constraints, engine);
+                    concurrent.setValidationParallelism(parallelism);
+                    concurrent.calcPath();
+                    assertSameResult(sequential, concurrent);
+                }
+            }
+        }
+    }
+
+    /*
+     * Wall-clock comparison of the sequential and concurrent validations of k candidates, most of them
+     * being dropped because a node to include is missing.
+     */
+    @Test
+    public void compareWithSequentialValidation() {
+        for (int kpaths : new int[] {10, 100}) {
+            long sequentialTime = 0;
+            long concurrentTime = 0;
+            for (long seed = 1; seed <= 5; seed++) {
+                PceTestTopology topology = PceTestTopology.generate(10, 10, 0.5, seed);
+                PceConstraints constraints = new PceConstraints();
+                constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "ROADM-3"));
+                constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "ROADM-9"));
+                PceGraph sequential = topology.pceGraph(constraints, PceGraph.GraphEngine.CSR);
+                sequential.setKpathsToBring(kpaths);
+                sequential.setValidationParallelism(1);
+                sequential.setLazyPathValidation(false);
+                sequentialTime += PceTestTopology.timeCalcPath(sequential);
+                PceGraph concurrent = topology.pceGraph(constraints, PceGraph.GraphEngine.CSR);
+                concurrent.setKpathsToBring(kpaths);
+                concurrent.setValidationParallelism(Runtime.getRuntime().availableProcessors() * 2);
+                concurrent.setLazyPathValidation(false);
+                concurrentTime += PceTestTopology.timeCalcPath(concurrent);
+                assertSameResult(sequential, concurrent);
+            }
+            LOG.info("compareWithSequentialValidation: k = {}, sequential {} us, concurrent {} us on {} processors",
+                kpaths, sequentialTime / 1000, concurrentTime / 1000, Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private static void assertSameResult(PceGraph expected, PceGraph actual) {
+        PceResult expectedResult = expected.getReturnStructure();
+        PceResult actualResult = actual.getReturnStructure();
+        Assert.assertEquals(expectedResult.getStatus(), actualResult.getStatus());
+        Assert.assertEquals(expectedResult.getLocalCause(), actualResult.getLocalCause());
+        Assert.assertEquals(expectedResult.getValidatedPaths(), actualResult.getValidatedPaths());
+        Assert.assertEquals(expected.getPathAtoZ(), actual.getPathAtoZ());
+        if (expectedResult.getStatus()) {
+            Assert.assertEquals(expectedResult.getResultWavelength(), actualResult.getResultWavelength());
+        }
+    }
+}
@@ -8,6 +8,11 @@
 
 package org.opendaylight.transportpce.pce.graph;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.Assert;
@@ -20,7 +25,10 @@ import org.opendaylight.transportpce.pce.networkanalyzer.PceOpticalNode;
 import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
 import org.opendaylight.transportpce.pce.utils.NodeUtils;
 import org.opendaylight.transportpce.pce.utils.PceTestData;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
 import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1Builder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmNodeType;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.format.rev190531.ServiceFormat;
 import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp;
@@ -108,7 +116,7 @@ public class PceGraphTest {
         Assert.assertEquals(pceGraph.calcPath(), false);
     }
 
-    @Test(expected = Exception.class)
+    @Test
     public void clacPath10GE() {
         pceGraph = new PceGraph(pceOpticalNode, pceOpticalNode2, allPceNodes,
                 pceHardConstraints,
@@ -117,5 +125,54 @@ public class PceGraphTest {
 
         Assert.assertEquals(pceGraph.calcPath(), false);
     }
-}
 
+    @Test
+    public void eachMetricChoosesItsPath() {
+        // four routes from A to Z, each one the best for one metric
+        Map<NodeId, PceNode> nodes = new LinkedHashMap<>();
+        for (String nodeId : List.of("A", "Z", "B", "C", "D", "E")) {
+            nodes.put(new NodeId(nodeId), new PceTestNode(nodeId, new BitSet()));
+        }
+        addLink(nodes, "A", "Z", 100, 100, 100);
+        addLink(nodes, "A", "B", 10, 300, 300);
+        addLink(nodes, "B", "Z", 10, 300, 300);
+        addLink(nodes, "A", "C", 50, 20, 200);
+        addLink(nodes, "C", "Z", 50, 20, 200);
+        addLink(nodes, "A", "D", 60, 100, 10);
+        addLink(nodes, "D", "E", 60, 100, 10);
+        addLink(nodes, "E", "Z", 60, 100, 10);
+
+        Assert.assertEquals(List.of("A", "Z"), computePath(nodes, RoutingConstraintsSp.PceMetric.HopCount));
+        Assert.assertEquals(List.of("A", "B", "Z"),
+            computePath(nodes, RoutingConstraintsSp.PceMetric.PropagationDelay));
+        Assert.assertEquals(List.of("A", "C", "Z"), computePath(nodes, RoutingConstraintsSp.PceMetric.IGPMetric));
+        Assert.assertEquals(List.of("A", "D", "E", "Z"),
+            computePath(nodes, RoutingConstraintsSp.PceMetric.TEMetric));
+    }
+
+    private static void addLink(Map<NodeId, PceNode> nodes, String source, String dest, long latency, long length,
+            long teMetric) {
+        Link1Builder link1Builder = new Link1Builder()
+                .setLinkType(OpenroadmLinkType.ROADMTOROADM)
+                .setLinkLatency(latency)
+                .setLinkLength(BigDecimal.valueOf(length))
+                .setTEMetric(teMetric);
+        PceNode sourceNode = nodes.get(new NodeId(source));
+        sourceNode.addOutgoingLink(new PceLink(NodeUtils.createLinkBuilder(source, dest, "DEG1-TTP-TXRX",
+                "DEG1-TTP-TXRX", link1Builder).build(), sourceNode, nodes.get(new NodeId(dest))));
+    }
+
+    private static List<String> computePath(Map<NodeId, PceNode> nodes, RoutingConstraintsSp.PceMetric metric) {
+        PceConstraints constraints = new PceConstraints();
+        constraints.setPceMetrics(metric);
+        PceGraph graph = new PceGraph(nodes.get(new NodeId("A")), nodes.get(new NodeId("Z")), nodes,
+                constraints, null, new PceResult(), "ODU4");
+        Assert.assertTrue(graph.calcPath());
+        List<String> path = new ArrayList<>();
+        path.add(graph.getPathAtoZ().get(0).getSourceId().getValue());
+        for (PceLink pceLink : graph.getPathAtoZ()) {
+            path.add(pceLink.getDestId().getValue());
+        }
+        return path;
+    }
+}
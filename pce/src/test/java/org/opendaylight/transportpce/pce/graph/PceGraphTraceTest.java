@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints.ResourcePair;
+import org.opendaylight.transportpce.pce.metrics.PceTrace;
+import org.opendaylight.transportpce.pce.metrics.PceTrace.Phase;
+import org.opendaylight.transportpce.pce.metrics.PceTrace.Rejection;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.PceTestTopology;
+
+public class PceGraphTraceTest {
+
+    @Test
+    public void phasesRecorded() {
+        for (PceGraph.GraphEngine engine : PceGraph.GraphEngine.values()) {
+            PceTrace trace = new PceTrace("service");
+            PceGraph graph = PceTestTopology.generate(8, 4, 0.5, 1).pceGraph(new PceConstraints(), "100GE",
+                engine, trace);
+            graph.setValidationParallelism(1);
+            Assert.assertTrue(graph.calcPath());
+            Map<Phase, Long> phases = trace.getPhaseNanos();
+            Assert.assertEquals(List.of(Phase.GRAPH_BUILD, Phase.K_PATHS, Phase.POST_VALIDATION),
+                List.copyOf(phases.keySet()));
+            phases.values().forEach(nanos -> Assert.assertTrue(nanos >= 0));
+        }
+    }
+
+    @Test
+    public void nodeToIncludeMissing() {
+        PceConstraints constraints = new PceConstraints();
+        constraints.setListToInclude(new ResourcePair(PceConstraints.ResourceType.NODE, "ROADM-99"));
+        for (int parallelism : new int[] {1, 4}) {
+            PceTrace trace = new PceTrace("service");
+            PceGraph graph = PceTestTopology.generate(8, 4, 0.9, 1).pceGraph(constraints, "100GE",
+                PceGraph.GraphEngine.CSR, trace);
+            graph.setValidationParallelism(parallelism);
+            Assert.assertFalse(graph.calcPath());
+            assertRejections(trace, Rejection.HD_NODE_INCLUDE, graph.getReturnStructure().getValidatedPaths());
+        }
+    }
+
+    @Test
+    public void latencyTooHigh() {
+        PceConstraints constraints = new PceConstraints();
+        constraints.setMaxLatency(1L);
+        PceTrace trace = new PceTrace("service");
+        PceGraph graph = PceTestTopology.generate(6, 2, 0.9, 2).pceGraph(constraints, "100GE",
+            PceGraph.GraphEngine.JGRAPHT, trace);
+        Assert.assertFalse(graph.calcPath());
+        Assert.assertEquals(PceResult.LocalCause.TOO_HIGH_LATENCY, graph.getReturnStructure().getLocalCause());
+        assertRejections(trace, Rejection.TOO_HIGH_LATENCY, graph.getReturnStructure().getValidatedPaths());
+    }
+
+    @Test
+    public void noWavelengthAvailable() {
+        PceTrace trace = new PceTrace("service");
+        PceGraph graph = PceTestTopology.generate(6, 2, 0.0, 3).pceGraph(new PceConstraints(), "100GE",
+            PceGraph.GraphEngine.JGRAPHT, trace);
+        Assert.assertFalse(graph.calcPath());
+        assertRejections(trace, Rejection.NO_WAVELENGTH, graph.getReturnStructure().getValidatedPaths());
+    }
+
+    @Test
+    public void noTributaryPort() {
+        PceTrace trace = new PceTrace("service");
+        PceGraph graph = PceTestTopology.generate(6, 2, 0.9, 4).pceGraph(new PceConstraints(), "10GE",
+            PceGraph.GraphEngine.JGRAPHT, trace);
+        Assert.assertFalse(graph.calcPath());
+        assertRejections(trace, Rejection.NO_TRIB_PORT, graph.getReturnStructure().getValidatedPaths());
+    }
+
+    @Test
+    public void endNodesDisconnected() {
+        PceTestTopology topology = PceTestTopology.generate(6, 2, 0.9, 5);
+        PceTrace trace = new PceTrace("service");
+        PceResult result = new PceResult();
+        result.setTrace(trace);
+        PceGraph graph = new PceGraph(topology.getAendNode(), topology.getZendNode(),
+            Map.of(topology.getAendNode().getNodeId(), topology.getAendNode(), topology.getZendNode().getNodeId(),
+                topology.getZendNode()), new PceConstraints(), null, result, "100GE");
+        Assert.assertFalse(graph.calcPath());
+        assertRejections(trace, Rejection.NO_PATH, 1);
+        Assert.assertEquals("XPDR-A -> XPDR-Z", trace.getRejections().get(0).getCandidate());
+    }
+
+    @Test
+    public void untracedComputation() {
+        PceGraph graph = PceTestTopology.generate(6, 2, 0.0, 3).pceGraph(new PceConstraints(),
+            PceGraph.GraphEngine.JGRAPHT);
+        Assert.assertFalse(graph.calcPath());
+        Assert.assertTrue(PceTrace.DISABLED.getPhaseNanos().isEmpty());
+        Assert.assertEquals(0, PceTrace.DISABLED.getRejectionCount());
+    }
+
+    private static void assertRejections(PceTrace trace, Rejection reason, int count) {
+        Assert.assertTrue(count > 0);
+        Assert.assertEquals(count, trace.getRejectionCount());
+        Assert.assertEquals(List.of(reason), trace.getRejections().stream().map(PceTrace.RejectedCandidate::getReason)
+            .distinct().collect(Collectors.toList()));
+    }
+}
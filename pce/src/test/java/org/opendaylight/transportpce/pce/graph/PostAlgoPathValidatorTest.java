@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.jgrapht.GraphPath;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.GraphWalk;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.networkanalyzer.OtnTribAllocator;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class PostAlgoPathValidatorTest {
+    private static final Logger LOG = LoggerFactory.getLogger(PostAlgoPathValidatorTest.class);
+
+    private static final int MAX_WAVELENGTH = 96;
+
+    private final Random random = new Random(4242L);
+
+    @Test
+    public void chooseWavelengthSameAsLegacyOnRandomPaths() {
+        for (int hops : new int[] {1, 10, 50, 200}) {
+            for (int run = 0; run < 50; run++) {
+                // the higher the density, the more likely a common wavelength is found on long paths
+                double density = 0.5 + 0.5 * random.nextDouble();
+                Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+                Map<NodeId, List<Long>> legacyLists = new HashMap<>();
+                GraphPath<String, PceGraphEdge> path = buildPath(hops, density, allPceNodes, legacyLists);
+                Assert.assertEquals("hops " + hops + " run " + run,
+                    legacyChooseWavelength(path, legacyLists),
+                    PostAlgoPathValidator.chooseWavelength(path, allPceNodes));
+            }
+        }
+    }
+
+    @Test
+    public void chooseWavelengthIgnoresIndexesOutOfGrid() {
+        BitSet wl = new BitSet();
+        wl.set(0);
+        wl.set(97);
+        Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+        List<PceGraphEdge> edges = new ArrayList<>();
+        edges.add(buildEdge("node-0", wl, allPceNodes));
+        Assert.assertEquals(Long.valueOf(-1L),
+            PostAlgoPathValidator.chooseWavelength(buildWalk(edges), allPceNodes));
+
+        wl.set(96);
+        allPceNodes.clear();
+        edges.clear();
+        edges.add(buildEdge("node-0", wl, allPceNodes));
+        Assert.assertEquals(Long.valueOf(96L),
+            PostAlgoPathValidator.chooseWavelength(buildWalk(edges), allPceNodes));
+    }
+
+    @Test
+    public void chooseWavelengthTiming() {
+        for (int hops : new int[] {10, 50, 200}) {
+            Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+            Map<NodeId, List<Long>> legacyLists = new HashMap<>();
+            // only the last wavelength is free everywhere, which is the worst case for the legacy loop
+            GraphPath<String, PceGraphEdge> path = buildPath(hops, 1.0, allPceNodes, legacyLists);
+            for (List<Long> list : legacyLists.values()) {
+                list.removeIf(index -> index < MAX_WAVELENGTH);
+            }
+            for (PceNode pceNode : allPceNodes.values()) {
+                ((PceTestNode) pceNode).wavelengths().clear(1, MAX_WAVELENGTH);
+            }
+            int iterations = 10000;
+            long legacyStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                legacyChooseWavelength(path, legacyLists);
+            }
+            long legacyTime = System.nanoTime() - legacyStart;
+            long bitSetStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                PostAlgoPathValidator.chooseWavelength(path, allPceNodes);
+            }
+            long bitSetTime = System.nanoTime() - bitSetStart;
+            LOG.info("chooseWavelengthTiming: {} hops, legacy {} ns/path, bitset {} ns/path", hops,
+                legacyTime / iterations, bitSetTime / iterations);
+            Assert.assertEquals(legacyChooseWavelength(path, legacyLists),
+                PostAlgoPathValidator.chooseWavelength(path, allPceNodes));
+        }
+    }
+
+    @Test
+    public void tribPortAndSlotsCommonToThePath() {
+        // A -> B -> C, the slots 5 to 11 and 13 to 30 being free on the 4 termination points
+        Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+        PceTestNode nodeA = otnNode("A", allPceNodes);
+        PceTestNode nodeB = otnNode("B", allPceNodes);
+        PceTestNode nodeC = otnNode("C", allPceNodes);
+        nodeA.tribSlots().put("XPDR1-NETWORK1", bitmap(1, 40));
+        nodeB.tribSlots().put("XPDR1-NETWORK1", bitmap(5, 80));
+        nodeB.tribSlots().get("XPDR1-NETWORK1").clear(12);
+        nodeB.tribSlots().put("XPDR1-NETWORK2", bitmap(1, 30));
+        nodeC.tribSlots().put("XPDR1-NETWORK1", bitmap(1, 80));
+        nodeA.tribPorts().put("XPDR1-NETWORK1", bitmap(3, 80));
+        nodeB.tribPorts().put("XPDR1-NETWORK1", bitmap(1, 80));
+        nodeB.tribPorts().put("XPDR1-NETWORK2", bitmap(2, 3));
+        nodeC.tribPorts().put("XPDR1-NETWORK1", bitmap(1, 80));
+        List<PceGraphEdge> edges = new ArrayList<>();
+        edges.add(otnEdge(nodeA, "XPDR1-NETWORK1", nodeB, "XPDR1-NETWORK1"));
+        edges.add(otnEdge(nodeB, "XPDR1-NETWORK2", nodeC, "XPDR1-NETWORK1"));
+
+        PceResult result = new PostAlgoPathValidator().checkPath(buildWalk(edges), allPceNodes, new PceResult(),
+            new PceConstraints(), "10GE");
+        Assert.assertEquals(ResponseCodes.RESPONSE_OK, result.getResponseCode());
+        Assert.assertEquals(2, result.getResultTribSlot().size());
+        for (PceGraphEdge edge : edges) {
+            String linkId = edge.link().getLinkId().getValue();
+            Assert.assertEquals(Uint16.valueOf(3), result.getResultTribPort().get(linkId));
+            Assert.assertEquals(OtnTribAllocator.toList(bitmap(13, 22)), result.getResultTribSlot().get(linkId));
+        }
+
+        // 1GE still fits in the remaining slots, 10GE does not
+        nodeB.tribSlots().put("XPDR1-NETWORK2", bitmap(1, 12));
+        result = new PostAlgoPathValidator().checkPath(buildWalk(edges), allPceNodes, new PceResult(),
+            new PceConstraints(), "10GE");
+        Assert.assertEquals(ResponseCodes.RESPONSE_FAILED, result.getResponseCode());
+        result = new PostAlgoPathValidator().checkPath(buildWalk(edges), allPceNodes, new PceResult(),
+            new PceConstraints(), "1GE");
+        Assert.assertEquals(ResponseCodes.RESPONSE_OK, result.getResponseCode());
+        Assert.assertEquals(List.of(Uint16.valueOf(5)), result.getResultTribSlot().get(
+            edges.get(0).link().getLinkId().getValue()));
+    }
+
+    private static PceTestNode otnNode(String nodeId, Map<NodeId, PceNode> allPceNodes) {
+        PceTestNode pceNode = new PceTestNode(nodeId, new BitSet());
+        allPceNodes.put(pceNode.getNodeId(), pceNode);
+        return pceNode;
+    }
+
+    private static PceGraphEdge otnEdge(PceTestNode source, String sourceTp, PceTestNode dest, String destTp) {
+        return new PceGraphEdge(new PceLink(NodeUtils.createRoadmToRoadm(source.getNodeId().getValue(),
+            dest.getNodeId().getValue(), sourceTp, destTp).build(), source, dest));
+    }
+
+    private static BitSet bitmap(int first, int last) {
+        BitSet bitmap = new BitSet();
+        bitmap.set(first, last + 1);
+        return bitmap;
+    }
+
+    private GraphPath<String, PceGraphEdge> buildPath(int hops, double density, Map<NodeId, PceNode> allPceNodes,
+            Map<NodeId, List<Long>> legacyLists) {
+        List<PceGraphEdge> edges = new ArrayList<>();
+        for (int i = 0; i < hops; i++) {
+            BitSet wl = new BitSet();
+            List<Long> list = new ArrayList<>();
+            for (int index = 1; index <= MAX_WAVELENGTH; index++) {
+                if (random.nextDouble() < density) {
+                    wl.set(index);
+                    list.add((long) index);
+                }
+            }
+            String nodeId = "node-" + i;
+            edges.add(buildEdge(nodeId, wl, allPceNodes));
+            legacyLists.put(new NodeId(nodeId), list);
+        }
+        return buildWalk(edges);
+    }
+
+    private static PceGraphEdge buildEdge(String nodeId, BitSet wl, Map<NodeId, PceNode> allPceNodes) {
+        PceTestNode pceNode = new PceTestNode(nodeId, wl);
+        allPceNodes.put(pceNode.getNodeId(), pceNode);
+        PceLink pceLink = new PceLink(NodeUtils.createRoadmToRoadm(nodeId, nodeId + "-next",
+            "DEG1-TTP-TXRX", "DEG2-TTP-TXRX").build(), pceNode, pceNode);
+        return new PceGraphEdge(pceLink);
+    }
+
+    private static GraphPath<String, PceGraphEdge> buildWalk(List<PceGraphEdge> edges) {
+        return new GraphWalk<>(new DefaultDirectedWeightedGraph<>(PceGraphEdge.class), "A", "Z", null,
+            edges, edges.size());
+    }
+
+    // algorithm used before wavelength availability was stored as a BitSet
+    private static Long legacyChooseWavelength(GraphPath<String, PceGraphEdge> path,
+            Map<NodeId, List<Long>> legacyLists) {
+        for (long i = 1; i <= MAX_WAVELENGTH; i++) {
+            boolean completed = true;
+            for (PceGraphEdge edge : path.getEdgeList()) {
+                if (!legacyLists.get(edge.link().getSourceId()).contains(i)) {
+                    completed = false;
+                    break;
+                }
+            }
+            if (completed) {
+                return i;
+            }
+        }
+        return -1L;
+    }
+}
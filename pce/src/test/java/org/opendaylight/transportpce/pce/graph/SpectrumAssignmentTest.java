@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.graph;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.common.fixedflex.FixedFlexImpl;
+import org.opendaylight.transportpce.pce.graph.SpectrumAssignment.Policy;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+
+public class SpectrumAssignmentTest {
+
+    private static final int FLEX_SLOTS = 768;
+    // 100G on 37.5 GHz and 400G on 75 GHz
+    private static final Map<String, Integer> FLEX_WIDTHS = Map.of("100GE", 6, "400GE", 12);
+
+    private final Random random = new Random(4242L);
+
+    @Test
+    public void fixedGridSameAsFirstWavelength() {
+        SpectrumAssignment fixedGrid = SpectrumAssignment.fixedGrid();
+        Assert.assertEquals(SpectrumAssignment.SLOTS_PER_WAVELENGTH, fixedGrid.getSlotWidth("OTU4"));
+        for (int run = 0; run < 10000; run++) {
+            BitSet wavelengths = new BitSet();
+            double density = random.nextDouble() / 4;
+            for (int wl = 0; wl <= PostAlgoPathValidator.MAX_WAWELENGTH + 1; wl++) {
+                if (random.nextDouble() < density) {
+                    wavelengths.set(wl);
+                }
+            }
+            int expected = wavelengths.nextSetBit(1);
+            if (expected > PostAlgoPathValidator.MAX_WAWELENGTH) {
+                expected = -1;
+            }
+            Assert.assertEquals(wavelengths.toString(), expected, fixedGrid.assignWavelength(wavelengths));
+            int slot = fixedGrid.assign(SpectrumAssignment.toSlots(wavelengths),
+                SpectrumAssignment.SLOTS_PER_WAVELENGTH);
+            Assert.assertEquals(expected < 0 ? -1 : (expected - 1) * SpectrumAssignment.SLOTS_PER_WAVELENGTH + 1,
+                slot);
+        }
+    }
+
+    @Test
+    public void fixedGridKeepsChannelAlignment() {
+        BitSet slots = new BitSet();
+        // slots 5 to 20: only wavelength 2 (slots 9 to 16) is completely free
+        slots.set(5, 21);
+        SpectrumAssignment fixedGrid = SpectrumAssignment.fixedGrid();
+        Assert.assertEquals(9, fixedGrid.assign(slots, SpectrumAssignment.SLOTS_PER_WAVELENGTH));
+        Assert.assertEquals(5, new SpectrumAssignment(FLEX_SLOTS, 1, Policy.FIRST_FIT, FLEX_WIDTHS)
+            .assign(slots, SpectrumAssignment.SLOTS_PER_WAVELENGTH));
+        Assert.assertEquals(-1, fixedGrid.assign(slots, 16));
+    }
+
+    @Test
+    public void firstFitTest() {
+        SpectrumAssignment engine = new SpectrumAssignment(FLEX_SLOTS, 1, Policy.FIRST_FIT, FLEX_WIDTHS);
+        BitSet slots = ranges(1, 4, 10, 30, 40, 46);
+        Assert.assertEquals(1, engine.assign(slots, 4));
+        Assert.assertEquals(10, engine.assign(slots, engine.getSlotWidth("100GE")));
+        Assert.assertEquals(10, engine.assign(slots, engine.getSlotWidth("400GE")));
+        Assert.assertEquals(-1, engine.assign(slots, 22));
+        Assert.assertEquals(-1, engine.getSlotWidth("1GE"));
+    }
+
+    @Test
+    public void bestFitTest() {
+        SpectrumAssignment engine = new SpectrumAssignment(FLEX_SLOTS, 1, Policy.BEST_FIT, FLEX_WIDTHS);
+        BitSet slots = ranges(1, 4, 10, 30, 40, 46);
+        Assert.assertEquals(1, engine.assign(slots, 4));
+        // 40 to 46 is the smallest range of 6 slots
+        Assert.assertEquals(40, engine.assign(slots, 6));
+        Assert.assertEquals(10, engine.assign(slots, 12));
+        Assert.assertEquals(slots, ranges(1, 4, 10, 30, 40, 46));
+    }
+
+    @Test
+    public void minFragmentationTest() {
+        SpectrumAssignment engine = new SpectrumAssignment(FLEX_SLOTS, 1, Policy.MIN_FRAGMENTATION, FLEX_WIDTHS);
+        // filling the range of 4 slots removes a fragment
+        BitSet slots = ranges(1, 30, 41, 44, 100, 120);
+        Assert.assertEquals(41, engine.assign(slots, 4));
+        // cutting the range of 21 slots keeps the largest one
+        Assert.assertEquals(100, engine.assign(slots, 6));
+    }
+
+    @Test
+    public void minFragmentationNeverWorseThanFirstFit() {
+        SpectrumAssignment firstFit = new SpectrumAssignment(FLEX_SLOTS, 1, Policy.FIRST_FIT, FLEX_WIDTHS);
+        SpectrumAssignment minFragmentation = new SpectrumAssignment(FLEX_SLOTS, 1, Policy.MIN_FRAGMENTATION,
+            FLEX_WIDTHS);
+        for (int run = 0; run < 2000; run++) {
+            BitSet slots = randomOccupancy();
+            int width = 1 + random.nextInt(16);
+            int first = firstFit.assign(slots, width);
+            int best = minFragmentation.assign(slots, width);
+            Assert.assertEquals(first < 0, best < 0);
+            if (first >= 0) {
+                Assert.assertTrue(slots.get(best) && slots.nextClearBit(best) >= best + width);
+                Assert.assertTrue(fragmentationAfter(slots, best, width) <= fragmentationAfter(slots, first, width));
+            }
+        }
+    }
+
+    @Test
+    public void fragmentationTest() {
+        Assert.assertEquals(0, SpectrumAssignment.fragmentation(new BitSet()), 0);
+        Assert.assertEquals(0, SpectrumAssignment.fragmentation(ranges(1, 768)), 0);
+        Assert.assertEquals(0.5, SpectrumAssignment.fragmentation(ranges(1, 10, 21, 30)), 1e-9);
+        BitSet alternate = new BitSet();
+        for (int slot = 1; slot <= 100; slot += 2) {
+            alternate.set(slot);
+        }
+        Assert.assertEquals(0.98, SpectrumAssignment.fragmentation(alternate), 1e-9);
+    }
+
+    @Test
+    public void linkFragmentationTest() {
+        BitSet sourceWl = new BitSet();
+        sourceWl.set(1, 11);
+        BitSet destWl = new BitSet();
+        destWl.set(1, 97);
+        destWl.clear(4);
+        Map<NodeId, PceNode> allPceNodes = new HashMap<>();
+        PceTestNode source = new PceTestNode("ROADM-A-DEG1", sourceWl);
+        PceTestNode dest = new PceTestNode("ROADM-B-DEG1", destWl);
+        allPceNodes.put(source.getNodeId(), source);
+        allPceNodes.put(dest.getNodeId(), dest);
+        PceLink link = new PceLink(NodeUtils.createRoadmToRoadm("ROADM-A-DEG1", "ROADM-B-DEG1", "DEG1-TTP-TXRX",
+            "DEG1-TTP-TXRX").build(), source, dest);
+        // wavelengths 1 to 3 and 5 to 10
+        Assert.assertEquals(1 - 6.0 / 9, SpectrumAssignment.fragmentation(link, allPceNodes), 1e-9);
+    }
+
+    @Test
+    public void centerFrequencyTest() {
+        for (int wl = 1; wl <= PostAlgoPathValidator.MAX_WAWELENGTH; wl++) {
+            Assert.assertEquals(new FixedFlexImpl(wl).getCenterFrequency(), SpectrumAssignment.centerFrequency(
+                (wl - 1) * SpectrumAssignment.SLOTS_PER_WAVELENGTH + 1, SpectrumAssignment.SLOTS_PER_WAVELENGTH),
+                1e-9);
+        }
+        Assert.assertEquals(196.10938, SpectrumAssignment.centerFrequency(3, 1), 1e-9);
+    }
+
+    private BitSet randomOccupancy() {
+        BitSet slots = new BitSet();
+        int slot = 1;
+        while (slot <= FLEX_SLOTS) {
+            int length = 1 + random.nextInt(24);
+            if (random.nextBoolean()) {
+                slots.set(slot, Math.min(slot + length, FLEX_SLOTS + 1));
+            }
+            slot += length;
+        }
+        return slots;
+    }
+
+    private static double fragmentationAfter(BitSet slots, int first, int width) {
+        BitSet after = (BitSet) slots.clone();
+        after.clear(first, first + width);
+        return SpectrumAssignment.fragmentation(after);
+    }
+
+    private static BitSet ranges(int... bounds) {
+        BitSet slots = new BitSet();
+        for (int i = 0; i < bounds.length; i += 2) {
+            slots.set(bounds[i], bounds[i + 1] + 1);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PceLatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverAllValues() {
+        Assert.assertEquals(0, PceLatencyHistogram.index(0));
+        long previousHighest = -1;
+        for (int i = 0; i < PceLatencyHistogram.index(Long.MAX_VALUE); i++) {
+            long highest = PceLatencyHistogram.highestValue(i);
+            if (i >= PceLatencyHistogram.SUB_BUCKETS && i < 2 * PceLatencyHistogram.SUB_BUCKETS) {
+                Assert.assertEquals(i, highest);
+            }
+            if (highest > previousHighest) {
+                // first and last values of the bucket
+                Assert.assertEquals(i, PceLatencyHistogram.index(previousHighest + 1));
+                Assert.assertEquals(i, PceLatencyHistogram.index(highest));
+                // relative error below 1/SUB_BUCKETS
+                Assert.assertTrue(highest - previousHighest - 1 <= (previousHighest + 1) / PceLatencyHistogram
+                    .SUB_BUCKETS);
+                previousHighest = highest;
+            }
+        }
+        Assert.assertEquals(Long.MAX_VALUE, PceLatencyHistogram.highestValue(
+            PceLatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void percentilesOfUniformValues() {
+        PceLatencyHistogram histogram = new PceLatencyHistogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(10000, histogram.getCount());
+        Assert.assertEquals(5000, histogram.getMean());
+        Assert.assertEquals(10000, histogram.getMax());
+        Assert.assertEquals(10000, histogram.getPercentile(100));
+        assertNear(5000, histogram.getPercentile(50));
+        assertNear(9000, histogram.getPercentile(90));
+        assertNear(9900, histogram.getPercentile(99));
+        Assert.assertEquals(1, histogram.getPercentile(0));
+
+        histogram.record(-5);
+        Assert.assertEquals(0, histogram.getPercentile(0));
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void concurrentRecords() throws Exception {
+        PceLatencyHistogram histogram = new PceLatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            Random random = new Random(thread);
+            futures.add(executor.submit(() -> {
+                long max = 0;
+                for (int i = 0; i < 100000; i++) {
+                    long value = random.nextInt(1000000);
+                    histogram.record(value);
+                    max = Math.max(max, value);
+                }
+                return max;
+            }));
+        }
+        long max = 0;
+        for (Future<Long> future : futures) {
+            max = Math.max(max, future.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+        Assert.assertEquals(800000, histogram.getCount());
+        Assert.assertEquals(max, histogram.getMax());
+        Assert.assertEquals(max, histogram.getPercentile(100));
+        assertNear(500000, histogram.getPercentile(50));
+    }
+
+    private static void assertNear(long expected, long actual) {
+        Assert.assertTrue(actual + " instead of " + expected,
+            Math.abs(actual - expected) <= expected / PceLatencyHistogram.SUB_BUCKETS + 1);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.PceDependencies;
+import org.opendaylight.transportpce.pce.metrics.PceTrace.Phase;
+import org.opendaylight.transportpce.pce.metrics.PceTrace.Rejection;
+import org.opendaylight.transportpce.pce.service.PathComputationServiceImpl;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.PceComputationMetrics;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.PhaseLatency;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.metrics.rev201018.pce.computation.metrics.RequestTrace;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestOutput;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.constraints.sp.co.routing.or.general.GeneralBuilder;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.constraints.sp.co.routing.or.general.general.LatencyBuilder;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.routing.constraints.sp.HardConstraintsBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class PceMetricsTest extends AbstractTest {
+
+    private PathComputationServiceImpl pathComputationService;
+
+    @Before
+    public void setUp() throws Exception {
+        new OpenRoadmTopologyGenerator(4, 0.0, 1).writeTo(getDataBroker());
+        // no GNPy server in the tests
+        pathComputationService = new PathComputationServiceImpl(getNotificationPublishService(),
+            PceDependencies.create(new NetworkTransactionImpl(new RequestProcessor(getDataBroker())), null, null)
+                .toBuilder().setGnpyClient(null).build());
+        pathComputationService.init();
+    }
+
+    @After
+    public void tearDown() {
+        pathComputationService.close();
+    }
+
+    @Test
+    public void phasesOfComputationRecorded() throws Exception {
+        Assert.assertEquals(ResponseCodes.RESPONSE_OK, compute("service-1", request(1, 3)));
+        PceMetrics metrics = pathComputationService.getMetrics();
+        PceTrace trace = metrics.getTrace("service-1");
+        // GNPy is not called without GNPy client
+        Set<Phase> phases = EnumSet.complementOf(EnumSet.of(Phase.GNPY));
+        Assert.assertEquals(phases, trace.getPhaseNanos().keySet());
+        Assert.assertEquals(0, trace.getRejectionCount());
+        for (Phase phase : Phase.values()) {
+            Assert.assertEquals(phases.contains(phase) ? 1 : 0, metrics.getHistogram(phase).getCount());
+        }
+        Assert.assertEquals(1, metrics.getComputations());
+        Assert.assertEquals(0, metrics.getFailedComputations());
+
+        metrics.export();
+        PceComputationMetrics stored = readMetrics();
+        Assert.assertEquals(phases.size(), stored.getPhaseLatency().size());
+        for (PhaseLatency latency : stored.getPhaseLatency()) {
+            Assert.assertEquals(1, latency.getCount().longValue());
+            Assert.assertTrue(latency.getMaxUs().longValue() >= latency.getP50Us().longValue());
+        }
+        RequestTrace requestTrace = stored.getRequestTrace().get(0);
+        Assert.assertEquals("service-1", requestTrace.getServiceName());
+        Assert.assertTrue(requestTrace.isSuccess());
+        Assert.assertEquals(phases.size(), requestTrace.getPhaseDuration().size());
+    }
+
+    @Test
+    public void rejectionsOfFailedComputation() throws Exception {
+        PathComputationRequestInput input = new PathComputationRequestInputBuilder(request(1, 3))
+            .setHardConstraints(new HardConstraintsBuilder().setCoRoutingOrGeneral(new GeneralBuilder()
+                .setLatency(new LatencyBuilder().setMaxLatency(1L).build()).build()).build())
+            .build();
+        Assert.assertEquals(ResponseCodes.RESPONSE_FAILED, compute("service-1", input));
+        PceMetrics metrics = pathComputationService.getMetrics();
+        PceTrace trace = metrics.getTrace("service-1");
+        Assert.assertTrue(trace.getRejectionCount() > 0);
+        Assert.assertEquals(Set.of(Rejection.TOO_HIGH_LATENCY), trace.getRejections().stream()
+            .map(PceTrace.RejectedCandidate::getReason).collect(Collectors.toSet()));
+        Assert.assertEquals(1, metrics.getFailedComputations());
+
+        metrics.export();
+        RequestTrace requestTrace = readMetrics().getRequestTrace().get(0);
+        Assert.assertFalse(requestTrace.isSuccess());
+        Assert.assertEquals(Math.min(trace.getRejectionCount(), PceTrace.MAX_REJECTIONS),
+            requestTrace.getRejection().size());
+        requestTrace.getRejection().forEach(rejection ->
+            Assert.assertEquals(Rejection.TOO_HIGH_LATENCY.name(), rejection.getReason()));
+    }
+
+    @Test
+    public void latestTracesKept() throws Exception {
+        PceMetrics metrics = new PceMetrics(new NetworkTransactionImpl(new RequestProcessor(getDataBroker())), 2, 0);
+        for (int i = 1; i <= 3; i++) {
+            PceTrace trace = new PceTrace("service-" + i);
+            trace.record(Phase.READ_MD_SAL, 1000L * i);
+            metrics.publish(trace, true, "Path is calculated by PCE");
+        }
+        Assert.assertNull(metrics.getTrace("service-1"));
+        Assert.assertNotNull(metrics.getTrace("service-3"));
+        Assert.assertEquals(2, metrics.getRecentTraces().length);
+        Assert.assertEquals(3, metrics.getHistogram(Phase.READ_MD_SAL).getMax());
+        // written by the export only
+        Assert.assertFalse(readMetricsIfPresent().isPresent());
+        metrics.export();
+        Set<String> stored = new HashSet<>();
+        readMetrics().getRequestTrace().forEach(trace -> stored.add(trace.getServiceName()));
+        Assert.assertEquals(Set.of("service-2", "service-3"), stored);
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getComputations());
+        Assert.assertEquals(0, metrics.getRecentTraces().length);
+        metrics.export();
+        Assert.assertFalse(readMetricsIfPresent().isPresent());
+    }
+
+    @Test
+    public void exposedThroughJmx() throws Exception {
+        compute("service-1", request(1, 3));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(PceMetrics.OBJECT_NAME);
+        Assert.assertEquals(1L, server.getAttribute(name, "Computations"));
+        String[] latencies = (String[]) server.getAttribute(name, "PhaseLatencies");
+        Assert.assertEquals(Phase.values().length - 1, latencies.length);
+        Assert.assertTrue(latencies[0].startsWith(Phase.READ_MD_SAL.name()));
+        String[] traces = (String[]) server.getAttribute(name, "RecentTraces");
+        Assert.assertTrue(traces[0].startsWith("[OK] service-1"));
+        pathComputationService.close();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    private String compute(String serviceName, PathComputationRequestInput input) throws Exception {
+        PathComputationRequestOutput output = pathComputationService.pathComputationRequest(
+            new PathComputationRequestInputBuilder(input).setServiceName(serviceName).build()).get();
+        return output.getConfigurationResponseCommon().getResponseCode();
+    }
+
+    private static PathComputationRequestInput request(int aroadm, int zroadm) {
+        return OpenRoadmTopologyGenerator.createRequest(aroadm, zroadm);
+    }
+
+    private PceComputationMetrics readMetrics() throws Exception {
+        return readMetricsIfPresent().get();
+    }
+
+    private Optional<PceComputationMetrics> readMetricsIfPresent() throws Exception {
+        return getDataBroker().newReadOnlyTransaction().read(LogicalDatastoreType.OPERATIONAL,
+            InstanceIdentifier.create(PceComputationMetrics.class)).get();
+    }
+}
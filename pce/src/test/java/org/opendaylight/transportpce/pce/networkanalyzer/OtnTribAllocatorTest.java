@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.networkanalyzer.OtnTribAllocator.Policy;
+import org.opendaylight.transportpce.pce.utils.TribSlotListChooser;
+import org.opendaylight.yangtools.yang.common.Uint16;
+
+public class OtnTribAllocatorTest {
+
+    // ODU0, ODU2/ODU2e (8 slots in an ODU4) and 10GE as counted by PostAlgoPathValidator
+    private static final int[] SLOT_NUMBERS = {1, 2, 8, 10};
+    private static final int WINDOW = 16;
+
+    private final Random random = new Random(4242L);
+
+    @Test
+    public void contiguousSameAsListOnAllWindowMaps() {
+        List<Uint16> allSlots = slots(1, OtnTribAllocator.ODU4_TRIB_SLOTS);
+        // every availability map of the lowest and of the highest slots
+        for (int offset : new int[] {0, OtnTribAllocator.ODU4_TRIB_SLOTS - WINDOW}) {
+            for (int mask = 0; mask < 1 << WINDOW; mask++) {
+                List<Uint16> pool = new ArrayList<>();
+                for (int bit = 0; bit < WINDOW; bit++) {
+                    if ((mask & 1 << bit) != 0) {
+                        pool.add(Uint16.valueOf(offset + bit + 1));
+                    }
+                }
+                compareWithList(pool, allSlots);
+            }
+        }
+    }
+
+    @Test
+    public void contiguousSameAsListOnRandomMaps() {
+        for (int run = 0; run < 20000; run++) {
+            // from highly fragmented to almost free maps
+            double density = random.nextDouble();
+            compareWithList(randomPool(density), randomPool(density));
+        }
+    }
+
+    @Test
+    public void firstAndLastFitTest() {
+        for (int run = 0; run < 5000; run++) {
+            List<Uint16> pool = randomPool(random.nextDouble());
+            BitSet available = OtnTribAllocator.toBitmap(pool);
+            for (int nbSlot : SLOT_NUMBERS) {
+                BitSet first = OtnTribAllocator.allocate(available, nbSlot, Policy.FIRST_FIT);
+                BitSet last = OtnTribAllocator.allocate(available, nbSlot, Policy.LAST_FIT);
+                if (pool.size() < nbSlot) {
+                    Assert.assertNull(first);
+                    Assert.assertNull(last);
+                } else {
+                    Assert.assertEquals(pool.subList(0, nbSlot), OtnTribAllocator.toList(first));
+                    Assert.assertEquals(pool.subList(pool.size() - nbSlot, pool.size()),
+                        OtnTribAllocator.toList(last));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void contiguousBlockTest() {
+        BitSet available = OtnTribAllocator.toBitmap(slots(1, 7));
+        available.or(OtnTribAllocator.toBitmap(slots(9, 16)));
+        available.or(OtnTribAllocator.toBitmap(slots(71, 80)));
+        Assert.assertEquals(slots(9, 16), OtnTribAllocator.toList(
+            OtnTribAllocator.allocate(available, 8, Policy.CONTIGUOUS)));
+        Assert.assertEquals(slots(71, 80), OtnTribAllocator.toList(
+            OtnTribAllocator.allocate(available, 10, Policy.CONTIGUOUS)));
+        Assert.assertNull(OtnTribAllocator.allocate(available, 11, Policy.CONTIGUOUS));
+        // enough free slots, but not consecutive ones
+        Assert.assertEquals(11, OtnTribAllocator.allocate(available, 11, Policy.FIRST_FIT).cardinality());
+    }
+
+    @Test
+    public void bitmapTest() {
+        List<Uint16> pool = Arrays.asList(Uint16.valueOf(0), Uint16.valueOf(3), Uint16.valueOf(3),
+            Uint16.valueOf(80), Uint16.valueOf(81));
+        Assert.assertEquals(Arrays.asList(Uint16.valueOf(3), Uint16.valueOf(80)),
+            OtnTribAllocator.toList(OtnTribAllocator.toBitmap(pool)));
+        Assert.assertTrue(OtnTribAllocator.toBitmap(null).isEmpty());
+    }
+
+    @Test
+    public void intersectionTest() {
+        BitSet first = OtnTribAllocator.toBitmap(slots(1, 40));
+        BitSet second = OtnTribAllocator.toBitmap(slots(30, 80));
+        BitSet third = OtnTribAllocator.toBitmap(slots(35, 36));
+        Assert.assertEquals(slots(35, 36), OtnTribAllocator.toList(
+            OtnTribAllocator.intersection(Arrays.asList(first, second, third))));
+        Assert.assertEquals(slots(1, 40), OtnTribAllocator.toList(first));
+        Assert.assertTrue(OtnTribAllocator.intersection(Arrays.asList(first, null)).isEmpty());
+        Assert.assertTrue(OtnTribAllocator.intersection(Collections.emptyList()).isEmpty());
+    }
+
+    private static void compareWithList(List<Uint16> srcPool, List<Uint16> destPool) {
+        BitSet available = OtnTribAllocator.intersection(
+            Arrays.asList(OtnTribAllocator.toBitmap(srcPool), OtnTribAllocator.toBitmap(destPool)));
+        for (int nbSlot : SLOT_NUMBERS) {
+            BitSet allocated = OtnTribAllocator.allocate(available, nbSlot, Policy.CONTIGUOUS);
+            List<Uint16> expected = TribSlotListChooser.chooseTribSlot(srcPool, destPool, nbSlot);
+            Assert.assertEquals(srcPool + " " + destPool + " " + nbSlot, expected,
+                allocated == null ? Collections.emptyList() : OtnTribAllocator.toList(allocated));
+        }
+        BitSet port = OtnTribAllocator.allocate(available, 1, Policy.FIRST_FIT);
+        Assert.assertEquals(TribSlotListChooser.chooseTribPort(srcPool, destPool),
+            port == null ? null : Uint16.valueOf(port.nextSetBit(0)));
+    }
+
+    private List<Uint16> randomPool(double density) {
+        List<Uint16> pool = new ArrayList<>();
+        for (int slot = 1; slot <= OtnTribAllocator.ODU4_TRIB_SLOTS; slot++) {
+            if (random.nextDouble() < density) {
+                pool.add(Uint16.valueOf(slot));
+            }
+        }
+        return pool;
+    }
+
+    private static List<Uint16> slots(int first, int last) {
+        List<Uint16> slots = new ArrayList<>();
+        for (int slot = first; slot <= last; slot++) {
+            slots.add(Uint16.valueOf(slot));
+        }
+        return slots;
+    }
+}
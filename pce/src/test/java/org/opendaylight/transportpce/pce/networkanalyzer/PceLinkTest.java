@@ -118,6 +118,43 @@ public class PceLinkTest extends AbstractTest {
         pceLink = new PceLink(link, pceOpticalNode, pceOpticalNode);
     }
 
+    @Test
+    public void testMetricsFromLinkAugmentation() {
+        Link link = createLinkBuilder("srcNode", "destNode", "srcTp", "destTp", new Link1Builder()
+                .setLinkLatency(100L)
+                .setLinkLength(BigDecimal.valueOf(80))
+                .setTEMetric(40L)
+                .setLinkType(OpenroadmLinkType.ROADMTOROADM)).build();
+        Node node = getNodeBuilder(geSupportingNodes()).build();
+        PceOpticalNode pceOpticalNode = new PceOpticalNode(node,
+                OpenroadmNodeType.SRG, new NodeId("optical"), ServiceFormat.OMS, "test");
+        pceLink = new PceLink(link, pceOpticalNode, pceOpticalNode);
+        Assert.assertEquals(80, pceLink.getIgpMetric(), 0);
+        Assert.assertEquals(40, pceLink.getTeMetric(), 0);
+    }
+
+    @Test
+    public void testMetricsFallback() {
+        Link link = createRoadmToRoadm("srcNode", "destNode", "srcTp", "destTp").build();
+        Node node = getNodeBuilder(geSupportingNodes()).build();
+        PceOpticalNode pceOpticalNode = new PceOpticalNode(node,
+                OpenroadmNodeType.SRG, new NodeId("optical"), ServiceFormat.OMS, "test");
+
+        // no link length: the 20 m of the fiber span are used, and the TE metric is the IGP metric
+        pceLink = new PceLink(link, pceOpticalNode, pceOpticalNode);
+        Assert.assertEquals(0.02, pceLink.getIgpMetric(), 1e-9);
+        Assert.assertEquals(0.02, pceLink.getTeMetric(), 1e-9);
+        Link xponderLink = createXponderLink("srcNode", "destNode", "srcTp", "destTp").build();
+        Assert.assertEquals(0, new PceLink(xponderLink, pceOpticalNode, pceOpticalNode).getTeMetric(), 0);
+
+        Assert.assertEquals(100, new PceLink(link, pceOpticalNode, pceOpticalNode, PceLink.MetricFallback.LATENCY)
+            .getTeMetric(), 0);
+        Assert.assertEquals(1, new PceLink(link, pceOpticalNode, pceOpticalNode, PceLink.MetricFallback.HOP)
+            .getIgpMetric(), 0);
+        Assert.assertEquals(1, new PceLink(xponderLink, pceOpticalNode, pceOpticalNode, PceLink.MetricFallback.HOP)
+            .getTeMetric(), 0);
+    }
+
     @Test
     public void testCalcSpanOSNR() {
         Link link = createRoadmToRoadm("srcNode",
@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.binding.api.WriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.transportpce.common.NetworkUtils;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.PceDependencies;
+import org.opendaylight.transportpce.pce.PceSendingPceRPCs;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmNodeType;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.format.rev190531.ServiceFormat;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+
+public class PceNetworkCacheTest extends AbstractTest {
+
+    private static final int ROADMS = 8;
+
+    private PceTopologySnapshotService cachedService;
+    private PceTopologySnapshotService uncachedService;
+    private NetworkTransactionImpl networkTransaction;
+
+    @Before
+    public void setUp() throws Exception {
+        new OpenRoadmTopologyGenerator(ROADMS, 0.5, 1).writeTo(getDataBroker());
+        networkTransaction = new NetworkTransactionImpl(new RequestProcessor(getDataBroker()));
+        cachedService = new PceTopologySnapshotService(getDataBroker(), true);
+        cachedService.init();
+        uncachedService = new PceTopologySnapshotService(getDataBroker(), false);
+        uncachedService.init();
+    }
+
+    @After
+    public void tearDown() {
+        cachedService.close();
+        uncachedService.close();
+    }
+
+    @Test
+    public void sameResultsWithAndWithoutCache() {
+        List<PathComputationRequestInput> requests = Arrays.asList(OpenRoadmTopologyGenerator.createRequest(1, 5),
+            OpenRoadmTopologyGenerator.createRequest(2, 3), OpenRoadmTopologyGenerator.createRequest(4, 8),
+            OpenRoadmTopologyGenerator.createOtnRequest(1, 2));
+        // the second round only uses cached nodes and links
+        for (int round = 0; round < 2; round++) {
+            for (PathComputationRequestInput request : requests) {
+                assertSameAnalysis(request);
+                assertSamePath(request);
+            }
+        }
+        Assert.assertTrue(computePath(requests.get(0), cachedService).getStatus());
+        Assert.assertNull(uncachedService.getNetworkCache(NetworkUtils.OVERLAY_NETWORK_ID));
+        Assert.assertTrue(cachedService.getNetworkCache(NetworkUtils.OVERLAY_NETWORK_ID).size() > 0);
+        Assert.assertTrue(cachedService.getNetworkCache(NetworkUtils.OTN_NETWORK_ID).size() > 0);
+    }
+
+    @Test
+    public void sameResultsAfterTopologyChange() throws Exception {
+        PathComputationRequestInput request = OpenRoadmTopologyGenerator.createRequest(1, 5);
+        assertSamePath(request);
+        // new Node and Link objects with other used wavelengths
+        new OpenRoadmTopologyGenerator(ROADMS, 0.9, 2).writeTo(getDataBroker());
+        assertSameAnalysis(request);
+        assertSamePath(request);
+
+        PceNetworkCache cache = cachedService.getNetworkCache(NetworkUtils.OVERLAY_NETWORK_ID);
+        final int size = cache.size();
+        WriteTransaction wt = getDataBroker().newWriteOnlyTransaction();
+        wt.delete(LogicalDatastoreType.CONFIGURATION, InstanceIdentifiers.OVERLAY_NETWORK_II.child(Node.class,
+            new NodeKey(new NodeId(OpenRoadmTopologyGenerator.roadmId(8) + "-SRG1"))));
+        wt.commit().get();
+        assertSameAnalysis(request);
+        Assert.assertEquals(size - 1, cache.size());
+    }
+
+    @Test
+    public void copiesDoNotShareRequestState() {
+        PceNetworkCache cache = new PceNetworkCache();
+        PceTopologySnapshot snapshot = cachedService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID);
+        cache.retain(snapshot);
+        Node srg = snapshot.getNodeMap().get(new NodeId(OpenRoadmTopologyGenerator.roadmId(1) + "-SRG1"));
+        PceOpticalNode first = cache.getOpticalNode(srg, OpenroadmNodeType.SRG, ServiceFormat.Ethernet);
+        first.initWLlist();
+        first.initSrgTps();
+        PceOpticalNode second = cache.getOpticalNode(srg, OpenroadmNodeType.SRG, ServiceFormat.Ethernet);
+        Assert.assertNotSame(first, second);
+        // the SRG TPs are only visible once initialized, as with a new node
+        Assert.assertNull(second.getRdmSrgClient("SRG1-CP-TXRX"));
+        Assert.assertTrue(second.getAvailableWavelengths().isEmpty());
+        second.initWLlist();
+        Assert.assertEquals(first.getAvailableWavelengths(), second.getAvailableWavelengths());
+
+        PceLink link = snapshot.getLinks().stream()
+            .filter(l -> srg.getNodeId().equals(l.getSource().getSourceNode()))
+            .map(l -> cache.getLink(l, first, second, PceLink.MetricFallback.LENGTH)).findFirst().get();
+        link.setClient("client");
+        first.addOutgoingLink(link);
+        Assert.assertTrue(second.getOutgoingLinks().isEmpty());
+        Assert.assertEquals("", cache.getLink(snapshot.getLinkMap().get(link.getLinkId()), first, second,
+            PceLink.MetricFallback.LENGTH).getClient());
+    }
+
+    @Test
+    public void otnCopiesDoNotShareTribBitmaps() {
+        PceNetworkCache cache = new PceNetworkCache();
+        PceTopologySnapshot snapshot = cachedService.getSnapshot(NetworkUtils.OTN_NETWORK_ID);
+        cache.retain(snapshot);
+        Node xponder = snapshot.getNodeMap().get(new NodeId(OpenRoadmTopologyGenerator.xponderId(1) + "-XPDR1"));
+        PceOtnNode first = cache.getOtnNode(xponder, OpenroadmNodeType.MUXPDR, "10GE");
+        first.getAvailableTribPorts().put("test-tp", new BitSet());
+        first.getAvailableTribSlots().put("test-tp", new BitSet());
+        PceOtnNode second = cache.getOtnNode(xponder, OpenroadmNodeType.MUXPDR, "10GE");
+        Assert.assertNotSame(first, second);
+        Assert.assertFalse(second.getAvailableTribPorts().containsKey("test-tp"));
+        Assert.assertFalse(second.getAvailableTribSlots().containsKey("test-tp"));
+        for (String tp : second.getAvailableTribPorts().keySet()) {
+            Assert.assertNotSame(first.getAvailableTribPorts().get(tp), second.getAvailableTribPorts().get(tp));
+        }
+    }
+
+    private void assertSameAnalysis(PathComputationRequestInput request) {
+        PceCalculation cached = analyze(request, cachedService);
+        PceCalculation uncached = analyze(request, uncachedService);
+        Assert.assertEquals(uncached.getReturnStructure().getStatus(), cached.getReturnStructure().getStatus());
+        Assert.assertEquals(uncached.getAllPceNodes().keySet(), cached.getAllPceNodes().keySet());
+        for (Map.Entry<NodeId, PceNode> node : uncached.getAllPceNodes().entrySet()) {
+            PceNode cachedNode = cached.getAllPceNodes().get(node.getKey());
+            Assert.assertEquals(node.getValue().getAvailableWavelengths(), cachedNode.getAvailableWavelengths());
+            Assert.assertEquals(node.getValue().getAvailableTribSlots(), cachedNode.getAvailableTribSlots());
+            Assert.assertEquals(node.getValue().getOutgoingLinks().size(), cachedNode.getOutgoingLinks().size());
+        }
+        Assert.assertEquals(uncached.getAllPceLinks().keySet(), cached.getAllPceLinks().keySet());
+        for (Map.Entry<LinkId, PceLink> link : uncached.getAllPceLinks().entrySet()) {
+            PceLink cachedLink = cached.getAllPceLinks().get(link.getKey());
+            Assert.assertEquals(link.getValue().getClient(), cachedLink.getClient());
+            Assert.assertEquals(link.getValue().getLatency(), cachedLink.getLatency());
+            Assert.assertEquals(link.getValue().getosnr(), cachedLink.getosnr(), 0);
+            Assert.assertEquals(link.getValue().getIgpMetric(), cachedLink.getIgpMetric(), 0);
+            Assert.assertEquals(link.getValue().getsrlgList(), cachedLink.getsrlgList());
+        }
+    }
+
+    private void assertSamePath(PathComputationRequestInput request) {
+        PceResult cached = computePath(request, cachedService);
+        PceResult uncached = computePath(request, uncachedService);
+        Assert.assertEquals(uncached.getStatus(), cached.getStatus());
+        Assert.assertEquals(uncached.getResultWavelength(), cached.getResultWavelength());
+        Assert.assertEquals(uncached.getResultTribSlot(), cached.getResultTribSlot());
+        Assert.assertEquals(uncached.getAtoZDirection(), cached.getAtoZDirection());
+        Assert.assertEquals(uncached.getZtoADirection(), cached.getZtoADirection());
+    }
+
+    private PceCalculation analyze(PathComputationRequestInput request, PceTopologySnapshotService service) {
+        PceCalculation calculation = new PceCalculation(request, networkTransaction, new PceConstraints(),
+            new PceConstraints(), new PceResult(), service);
+        calculation.retrievePceNetwork();
+        return calculation;
+    }
+
+    private PceResult computePath(PathComputationRequestInput request, PceTopologySnapshotService service) {
+        PceSendingPceRPCs sendingPCE = new PceSendingPceRPCs(request,
+            PceDependencies.builder(networkTransaction).setTopologySnapshotService(service).build());
+        sendingPCE.pathComputationWithConstraints(new PceConstraints(), new PceConstraints());
+        return sendingPCE.getReturnStructure();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import com.google.common.collect.ImmutableList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.pce.utils.PceTestNode;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+
+public class PceNodeViewTest extends AbstractTest {
+
+    private static final NodeId SRG = new NodeId("ROADM-1-SRG1");
+    private static final NodeId XPONDER = new NodeId("XPONDER-1-XPDR1");
+
+    private PceCalculation analysis;
+
+    @Before
+    public void setUp() throws Exception {
+        new OpenRoadmTopologyGenerator(5, 0.0, 1).writeTo(getDataBroker());
+        analysis = new PceCalculation(OpenRoadmTopologyGenerator.createRequest(1, 2),
+            new NetworkTransactionImpl(new RequestProcessor(getDataBroker())),
+            ImmutableList.of(OpenRoadmTopologyGenerator.xponderId(1), OpenRoadmTopologyGenerator.xponderId(2)),
+            new PceResult(), null);
+        analysis.retrievePceNetwork();
+        Assert.assertTrue(analysis.getReturnStructure().getStatus());
+    }
+
+    @Test
+    public void hiddenNodesTest() {
+        PceNode srg = analysis.getAllPceNodes().get(SRG);
+        Set<NodeId> visibleNodes = new HashSet<>(analysis.getAllPceNodes().keySet());
+        visibleNodes.remove(XPONDER);
+        PceNodeView view = new PceNodeView(srg, visibleNodes, new BitSet(), Collections.emptySet());
+        Assert.assertTrue(srg.getOutgoingLinks().stream().anyMatch(link -> XPONDER.equals(link.getDestId())));
+        Assert.assertFalse(view.getOutgoingLinks().isEmpty());
+        Assert.assertTrue(view.getOutgoingLinks().stream().noneMatch(link -> XPONDER.equals(link.getDestId())));
+        Assert.assertEquals(srg.getNodeId(), view.getNodeId());
+    }
+
+    @Test
+    public void reservedWavelengthTest() {
+        PceNode srg = analysis.getAllPceNodes().get(SRG);
+        BitSet reserved = new BitSet();
+        reserved.set(1);
+        PceNodeView view = new PceNodeView(srg, analysis.getAllPceNodes().keySet(), reserved,
+            Collections.emptySet());
+        Assert.assertTrue(srg.checkWL(1));
+        Assert.assertFalse(view.checkWL(1));
+        Assert.assertTrue(view.checkWL(2));
+        Assert.assertFalse(view.getAvailableWavelengths().get(1));
+        Assert.assertTrue(srg.getAvailableWavelengths().get(1));
+    }
+
+    @Test
+    public void reservedPortTest() {
+        Set<String> reservedPorts = Collections.singleton(PceNodeView.port(XPONDER, "XPDR1-NETWORK1"));
+        PceNodeView xponder = new PceNodeView(analysis.getAllPceNodes().get(XPONDER),
+            analysis.getAllPceNodes().keySet(), new BitSet(), reservedPorts);
+        PceNodeView srg = new PceNodeView(analysis.getAllPceNodes().get(SRG), analysis.getAllPceNodes().keySet(),
+            new BitSet(), reservedPorts);
+        Assert.assertFalse(xponder.checkTP("XPDR1-NETWORK1"));
+        Assert.assertEquals(1, xponder.getOutgoingLinks().size());
+        Assert.assertEquals(1, srg.getOutgoingLinks().stream()
+            .filter(link -> XPONDER.equals(link.getDestId())).count());
+    }
+
+    @Test
+    public void reservedTribSlotTest() {
+        PceTestNode node = new PceTestNode("node", new BitSet());
+        BitSet slots = new BitSet();
+        slots.set(1, 81);
+        node.tribSlots().put("XPDR1-NETWORK1", slots);
+        node.tribSlots().put("XPDR1-NETWORK2", (BitSet) slots.clone());
+        BitSet reserved = new BitSet();
+        reserved.set(1, 9);
+        PceNodeView view = new PceNodeView(node, Collections.emptySet(), new BitSet(), Collections.emptySet(),
+            Collections.emptyMap(), Collections.singletonMap("XPDR1-NETWORK1", reserved));
+        Assert.assertEquals(9, view.getAvailableTribSlots().get("XPDR1-NETWORK1").nextSetBit(0));
+        Assert.assertEquals(72, view.getAvailableTribSlots().get("XPDR1-NETWORK1").cardinality());
+        Assert.assertEquals(slots, view.getAvailableTribSlots().get("XPDR1-NETWORK2"));
+        Assert.assertEquals(80, node.getAvailableTribSlots().get("XPDR1-NETWORK1").cardinality());
+    }
+
+    @Test
+    public void reservedTribPortTest() {
+        PceTestNode node = new PceTestNode("node", new BitSet());
+        BitSet ports = new BitSet();
+        ports.set(1, 81);
+        node.tribPorts().put("XPDR1-NETWORK1", ports);
+        BitSet reserved = new BitSet();
+        reserved.set(1);
+        PceNodeView view = new PceNodeView(node, Collections.emptySet(), new BitSet(), Collections.emptySet(),
+            Collections.singletonMap("XPDR1-NETWORK1", reserved), Collections.emptyMap());
+        Assert.assertEquals(2, view.getAvailableTribPorts().get("XPDR1-NETWORK1").nextSetBit(0));
+        Assert.assertEquals(79, view.getAvailableTribPorts().get("XPDR1-NETWORK1").cardinality());
+        Assert.assertEquals(80, node.getAvailableTribPorts().get("XPDR1-NETWORK1").cardinality());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyTest() {
+        PceNode srg = analysis.getAllPceNodes().get(SRG);
+        new PceNodeView(srg, analysis.getAllPceNodes().keySet(), new BitSet(), Collections.emptySet())
+            .addOutgoingLink(srg.getOutgoingLinks().get(0));
+    }
+}
@@ -100,6 +100,9 @@ public class PceOpticalNodeTest extends AbstractTest {
         pceOpticalNode = new PceOpticalNode(node,
                 OpenroadmNodeType.DEGREE, new NodeId("optical"), ServiceFormat.OMS, "test");
         pceOpticalNode.initWLlist();
+        Assert.assertTrue(pceOpticalNode.checkWL(20));
+        Assert.assertFalse(pceOpticalNode.checkWL(21));
+        Assert.assertEquals(1, pceOpticalNode.getAvailableWavelengths().cardinality());
     }
 
     @Test
@@ -107,6 +110,11 @@ public class PceOpticalNodeTest extends AbstractTest {
         pceOpticalNode = new PceOpticalNode(node,
                 OpenroadmNodeType.XPONDER, new NodeId("optical"), ServiceFormat.OMS, "test");
         pceOpticalNode.initWLlist();
+        Assert.assertFalse(pceOpticalNode.checkWL(0));
+        Assert.assertTrue(pceOpticalNode.checkWL(1));
+        Assert.assertTrue(pceOpticalNode.checkWL(96));
+        Assert.assertFalse(pceOpticalNode.checkWL(97));
+        Assert.assertEquals(96, pceOpticalNode.getAvailableWavelengths().cardinality());
     }
 
     @Test
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+
+public class PceTopologyIndexTest {
+
+    private static final int ROADMS = 500;
+
+    private static List<Node> nodes;
+
+    @BeforeClass
+    public static void setUp() {
+        nodes = new ArrayList<>(new OpenRoadmTopologyGenerator(ROADMS, 0.0, 1).getOpenRoadmTopology().getNode());
+    }
+
+    @Test
+    public void supportingNodesOfGeneratedTopology() {
+        PceTopologyIndex index = new PceTopologyIndex(nodes);
+        String srg = OpenRoadmTopologyGenerator.roadmId(1) + "-SRG1";
+        Assert.assertEquals(OpenRoadmTopologyGenerator.roadmId(1), index.getSupNetworkNodeId(srg));
+        Assert.assertEquals(OpenRoadmTopologyGenerator.clli(1), index.getSupClliNodeId(srg));
+        Assert.assertTrue(index.getNodesOfSupNetworkNode(OpenRoadmTopologyGenerator.roadmId(1))
+            .contains(new NodeId(srg)));
+        Assert.assertTrue(index.getNodesOfClli(OpenRoadmTopologyGenerator.clli(1)).contains(new NodeId(srg)));
+        Assert.assertNull(index.getSupNetworkNodeId("unknown"));
+        Assert.assertTrue(index.getNodesOfClli("unknown").isEmpty());
+        Assert.assertTrue(index.getExcludedNodes(Collections.emptyList(), Collections.emptyList()).isEmpty());
+        Assert.assertEquals(index.getNodesOfClli(OpenRoadmTopologyGenerator.clli(1)), index.getExcludedNodes(
+            Collections.emptyList(), Collections.singletonList(OpenRoadmTopologyGenerator.clli(1))));
+    }
+
+    @Test
+    public void sameExclusionsAsNodeByNodeChecks() {
+        PceConstraints indexed = createConstraints();
+        PceTopologyIndex index = new PceTopologyIndex(nodes);
+        MapUtils.mapDiversityConstraints(index, Collections.emptyList(), indexed);
+        Set<NodeId> excluded = index.getExcludedNodes(indexed.getExcludeSupNodes(), indexed.getExcludeCLLI());
+
+        PceConstraints reference = createConstraints();
+        Set<NodeId> referenceExcluded = excludeNodeByNode(reference);
+        Assert.assertEquals(new HashSet<>(reference.getExcludeSupNodes()),
+            new HashSet<>(indexed.getExcludeSupNodes()));
+        Assert.assertEquals(new HashSet<>(reference.getExcludeCLLI()), new HashSet<>(indexed.getExcludeCLLI()));
+        Assert.assertEquals(referenceExcluded, excluded);
+        Assert.assertTrue(excluded.size() > ROADMS / 2);
+        Assert.assertTrue(excluded.size() < nodes.size());
+    }
+
+    @Test
+    public void excludeHundredsOfNodesAndCllis() {
+        PceTopologyIndex index = new PceTopologyIndex(nodes);
+        // warm up
+        for (int i = 0; i < 5; i++) {
+            MapUtils.mapDiversityConstraints(index, Collections.emptyList(), createConstraints());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            PceConstraints constraints = createConstraints();
+            MapUtils.mapDiversityConstraints(index, Collections.emptyList(), constraints);
+            Set<NodeId> excluded = index.getExcludedNodes(constraints.getExcludeSupNodes(),
+                constraints.getExcludeCLLI());
+            int count = 0;
+            for (Node node : nodes) {
+                if (excluded.contains(node.getNodeId())) {
+                    count++;
+                }
+            }
+            Assert.assertEquals(excluded.size(), count);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue("100 exclusions of " + nodes.size() + " nodes took " + elapsed + " ms", elapsed < 5000);
+    }
+
+    // node diversity with every other ROADM and CLLI diversity with every third ROADM
+    private static PceConstraints createConstraints() {
+        List<String> excludeNodes = new ArrayList<>();
+        List<String> excludeClliNodes = new ArrayList<>();
+        for (int roadm = 1; roadm <= ROADMS; roadm++) {
+            if (roadm % 2 == 0) {
+                excludeNodes.add(OpenRoadmTopologyGenerator.roadmId(roadm) + "-SRG1");
+            }
+            if (roadm % 3 == 0) {
+                excludeClliNodes.add(OpenRoadmTopologyGenerator.roadmId(roadm) + "-SRG1");
+            }
+        }
+        PceConstraints constraints = new PceConstraints();
+        constraints.setExcludeNodes(excludeNodes);
+        constraints.setExcludeClliNodes(excludeClliNodes);
+        return constraints;
+    }
+
+    // exclusions computed as before the index, one node after the other
+    private static Set<NodeId> excludeNodeByNode(PceConstraints constraints) {
+        for (Node node : nodes) {
+            if (constraints.getExcludeClliNodes().contains(node.getNodeId().getValue())) {
+                constraints.setExcludeCLLI(Collections.singletonList(MapUtils.getCLLI(node)));
+            }
+            if (constraints.getExcludeNodes().contains(node.getNodeId().getValue())) {
+                constraints.setExcludeSupNodes(Collections.singletonList(MapUtils.getSupNetworkNode(node)));
+            }
+        }
+        Set<NodeId> excluded = new HashSet<>();
+        for (Node node : nodes) {
+            if (constraints.getExcludeSupNodes().contains(MapUtils.getSupNetworkNode(node))
+                    || constraints.getExcludeCLLI().contains(MapUtils.getSupClliNode(node))) {
+                excluded.add(node.getNodeId());
+            }
+        }
+        return excluded;
+    }
+}
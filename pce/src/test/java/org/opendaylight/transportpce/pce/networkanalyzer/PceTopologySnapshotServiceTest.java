@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.networkanalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.binding.api.ReadTransaction;
+import org.opendaylight.mdsal.binding.api.WriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.InstanceIdentifiers;
+import org.opendaylight.transportpce.common.NetworkUtils;
+import org.opendaylight.transportpce.pce.utils.NodeUtils;
+import org.opendaylight.transportpce.pce.utils.PceTestUtils;
+import org.opendaylight.transportpce.pce.utils.TransactionUtils;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NetworkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class PceTopologySnapshotServiceTest extends AbstractTest {
+
+    private PceTopologySnapshotService snapshotService;
+
+    @Before
+    public void setUp() throws ExecutionException, InterruptedException {
+        PceTestUtils.writeNetworkIntoDataStore(this.getDataBroker(), this.getDataStoreContextUtil(),
+                TransactionUtils.getNetworkForSpanLoss());
+        snapshotService = new PceTopologySnapshotService(this.getDataBroker());
+        snapshotService.init();
+    }
+
+    @After
+    public void tearDown() {
+        snapshotService.close();
+    }
+
+    @Test
+    public void initialSnapshotMatchesDatastore() throws ExecutionException, InterruptedException {
+        assertSnapshotMatchesDatastore();
+        Assert.assertTrue(snapshotService.getSnapshot(NetworkUtils.OTN_NETWORK_ID).isEmpty());
+    }
+
+    @Test
+    public void addModifyDeleteNode() throws ExecutionException, InterruptedException {
+        long version = snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID).getVersion();
+
+        Node node = new NodeBuilder().setNodeId(new NodeId("node 1")).withKey(new NodeKey(new NodeId("node 1")))
+                .setSupportingNode(NodeUtils.geSupportingNodes()).build();
+        WriteTransaction wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.put(LogicalDatastoreType.CONFIGURATION, nodeIid(node.getNodeId()), node);
+        wt.commit().get();
+        Assert.assertTrue(snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID).getVersion() > version);
+        Assert.assertEquals(3, snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID).getNodes().size());
+        assertSnapshotMatchesDatastore();
+
+        List<SupportingNode> supportingNodes = new ArrayList<>(node.getSupportingNode());
+        supportingNodes.add(new SupportingNodeBuilder().setNetworkRef(new NetworkId("other-network"))
+                .setNodeRef(new NodeId("node 3")).build());
+        Node modifiedNode = new NodeBuilder(node).setSupportingNode(supportingNodes).build();
+        wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.merge(LogicalDatastoreType.CONFIGURATION, nodeIid(node.getNodeId()), modifiedNode);
+        wt.commit().get();
+        Assert.assertEquals(3, snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID)
+                .getNodeMap().get(node.getNodeId()).getSupportingNode().size());
+        assertSnapshotMatchesDatastore();
+
+        wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.delete(LogicalDatastoreType.CONFIGURATION, nodeIid(new NodeId("ROADM-A1-DEG2")));
+        wt.commit().get();
+        Assert.assertFalse(snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID)
+                .getNodeMap().containsKey(new NodeId("ROADM-A1-DEG2")));
+        assertSnapshotMatchesDatastore();
+    }
+
+    @Test
+    public void addDeleteLink() throws ExecutionException, InterruptedException {
+        Link link = NodeUtils.createRoadmToRoadm("ROADM-C1-DEG1", "ROADM-A1-DEG2", "DEG1-TTP-TXRX",
+                "DEG2-TTP-TXRX").build();
+        WriteTransaction wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.put(LogicalDatastoreType.CONFIGURATION, linkIid(link), link);
+        wt.commit().get();
+        Assert.assertTrue(snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID)
+                .getLinkMap().containsKey(link.getLinkId()));
+        assertSnapshotMatchesDatastore();
+
+        wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.delete(LogicalDatastoreType.CONFIGURATION, linkIid(link));
+        wt.commit().get();
+        Assert.assertFalse(snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID)
+                .getLinkMap().containsKey(link.getLinkId()));
+        assertSnapshotMatchesDatastore();
+    }
+
+    @Test
+    public void deleteNetwork() throws ExecutionException, InterruptedException {
+        WriteTransaction wt = this.getDataBroker().newWriteOnlyTransaction();
+        wt.delete(LogicalDatastoreType.CONFIGURATION, InstanceIdentifiers.OVERLAY_NETWORK_II);
+        wt.commit().get();
+        Assert.assertTrue(snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID).isEmpty());
+    }
+
+    private void assertSnapshotMatchesDatastore() throws ExecutionException, InterruptedException {
+        PceTopologySnapshot snapshot = snapshotService.getSnapshot(NetworkUtils.OVERLAY_NETWORK_ID);
+        Network network;
+        try (ReadTransaction rt = this.getDataBroker().newReadOnlyTransaction()) {
+            Optional<Network> nw = rt.read(LogicalDatastoreType.CONFIGURATION,
+                    InstanceIdentifiers.OVERLAY_NETWORK_II).get();
+            network = nw.get();
+        }
+        PceTopologySnapshot fresh = PceTopologySnapshot.of(0L, network);
+        Assert.assertEquals(fresh.getNodeMap(), snapshot.getNodeMap());
+        Assert.assertEquals(fresh.getLinkMap(), snapshot.getLinkMap());
+        Assert.assertEquals(fresh.getNodes(), snapshot.getNodes());
+        Assert.assertEquals(fresh.getLinks(), snapshot.getLinks());
+    }
+
+    private static InstanceIdentifier<Node> nodeIid(NodeId nodeId) {
+        return InstanceIdentifiers.OVERLAY_NETWORK_II.child(Node.class, new NodeKey(nodeId));
+    }
+
+    private static InstanceIdentifier<Link> linkIid(Link link) {
+        return InstanceIdentifiers.OVERLAY_NETWORK_II.augmentation(Network1.class)
+                .child(Link.class, new LinkKey(link.getLinkId()));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.ResponseCodes;
+import org.opendaylight.transportpce.common.network.NetworkTransactionImpl;
+import org.opendaylight.transportpce.common.network.RequestProcessor;
+import org.opendaylight.transportpce.pce.PceDependencies;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceTopologySnapshotService;
+import org.opendaylight.transportpce.pce.utils.OpenRoadmTopologyGenerator;
+import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.CancelResourceReserveInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestOutput;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathDescriptionList;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.AToZDirection;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.path.description.atoz.direction.AToZ;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.pathdescription.rev171017.pce.resource.resource.resource.TerminationPoint;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.service.types.rev200128.service.handler.header.ServiceHandlerHeaderBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+public class PathComputationServiceConcurrencyTest extends AbstractTest {
+
+    private static final int ROADMS = 4;
+    private static final int CLIENTS = 16;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    private PceTopologySnapshotService snapshotService;
+    private PathComputationServiceImpl pathComputationService;
+
+    @Before
+    public void setUp() throws Exception {
+        new OpenRoadmTopologyGenerator(ROADMS, 0.0, 1).writeTo(getDataBroker());
+        snapshotService = new PceTopologySnapshotService(getDataBroker());
+        snapshotService.init();
+        pathComputationService = new PathComputationServiceImpl(getNotificationPublishService(),
+            PceDependencies.create(new NetworkTransactionImpl(new RequestProcessor(getDataBroker())),
+                snapshotService, null));
+    }
+
+    @After
+    public void tearDown() {
+        pathComputationService.close();
+        snapshotService.close();
+    }
+
+    @Test
+    public void noResourceGivenTwiceToConcurrentRequests() throws Exception {
+        // resource in use -> service using it, a service being removed before its resources are released
+        Map<String, String> usedResources = new ConcurrentHashMap<>();
+        Map<String, Set<String>> services = new ConcurrentHashMap<>();
+        List<String> duplicates = new ArrayList<>();
+        AtomicInteger computed = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            Random random = new Random(client);
+            int clientId = client;
+            futures.add(clients.submit(() -> {
+                int successes = 0;
+                for (int request = 0; request < REQUESTS_PER_CLIENT; request++) {
+                    String serviceName = "service-" + clientId + "-" + request;
+                    int aroadm = random.nextInt(ROADMS) + 1;
+                    int zroadm = (aroadm + random.nextInt(ROADMS - 1)) % ROADMS + 1;
+                    PathComputationRequestOutput output = pathComputationService.pathComputationRequest(
+                        new PathComputationRequestInputBuilder(OpenRoadmTopologyGenerator.createRequest(aroadm,
+                            zroadm)).setServiceName(serviceName).setResourceReserve(true).build()).get();
+                    if (!ResponseCodes.RESPONSE_OK.equals(
+                            output.getConfigurationResponseCommon().getResponseCode())) {
+                        continue;
+                    }
+                    computed.incrementAndGet();
+                    Set<String> resources = resources(output.getResponseParameters().getPathDescription()
+                        .getAToZDirection());
+                    for (String resource : resources) {
+                        String other = usedResources.putIfAbsent(resource, serviceName);
+                        if (other != null) {
+                            synchronized (duplicates) {
+                                duplicates.add(resource + " given to " + other + " and " + serviceName);
+                            }
+                        }
+                    }
+                    services.put(serviceName, resources);
+                    // every other service is cancelled, its resources being held by the others otherwise
+                    if (successes++ % 2 == 0) {
+                        services.remove(serviceName);
+                        usedResources.keySet().removeAll(resources);
+                        pathComputationService.cancelResourceReserve(new CancelResourceReserveInputBuilder()
+                            .setServiceName(serviceName)
+                            .setServiceHandlerHeader(new ServiceHandlerHeaderBuilder().setRequestId(serviceName)
+                                .build())
+                            .build()).get();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        clients.shutdown();
+
+        Assert.assertTrue(duplicates.toString(), duplicates.isEmpty());
+        Assert.assertTrue(computed.get() > services.size());
+        Assert.assertEquals(services.size(), pathComputationService.getReservationLedger().size());
+        for (String serviceName : services.keySet()) {
+            Assert.assertTrue(pathComputationService.getReservationLedger().isHeld(serviceName));
+        }
+        PathDescriptionList pathDescriptions = getDataBroker().newReadOnlyTransaction()
+            .read(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(PathDescriptionList.class)).get()
+            .get();
+        Set<String> pathNames = new HashSet<>();
+        pathDescriptions.getPathDescriptions().forEach(path -> pathNames.add(path.getPathName()));
+        Assert.assertEquals(services.keySet(), pathNames);
+    }
+
+    // an XPONDER port is used by one service, a ROADM port by one service per wavelength
+    private static Set<String> resources(AToZDirection atozDirection) {
+        long wavelength = atozDirection.getAToZWavelengthNumber().toJava();
+        Set<String> resources = new HashSet<>();
+        for (AToZ atoz : atozDirection.getAToZ()) {
+            if (atoz.getResource().getResource() instanceof TerminationPoint) {
+                TerminationPoint tp = (TerminationPoint) atoz.getResource().getResource();
+                resources.add(tp.getTpNodeId() + "/" + tp.getTpId()
+                    + (tp.getTpNodeId().startsWith("XPONDER") ? "" : "/" + wavelength));
+            }
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.GnpyApi;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.GnpyApiBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.gnpy.api.ServiceFileBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.api.rev190103.gnpy.api.TopologyFileBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Coordinate;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Km;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.edfa.params.OperationalBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.EdfaBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.FiberRoadmBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.FusedBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.TransceiverBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.ParamsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.FiberBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.element.type.choice.element.type.fiberroadm.params.fiberroadm.RoadmBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.location.attributes.LocationBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Connections;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ConnectionsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.Elements;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.ElementsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.topo.elements.MetadataBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.RouteIncludeEro;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.TeHopType;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.common.constraints_config.TeBandwidthBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.HopAttributeBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.LabelBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.NumUnnumHopBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.explicit.route.hop.type.label.LabelHopBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.generic.path.constraints.PathConstraintsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.gnpy.specific.parameters.EffectiveFreqSlotBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.TspBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.hop.attribute.hop.type.tsp.TransponderBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.path.route.objects.ExplicitRouteObjectsBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.path.route.objects.explicit.route.objects.RouteObjectIncludeExclude;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.path.route.objects.explicit.route.objects.RouteObjectIncludeExcludeBuilder;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.service.PathRequest;
+import org.opendaylight.yang.gen.v1.gnpy.path.rev200202.service.PathRequestBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+
+/**
+ * Synthetic GNPy API requests: a chain of sites, each one made of a transceiver, a ROADM, a booster
+ * amplifier, a fiber span, a fused element and a preamplifier, with one path request from the first
+ * to the last transceiver going through every ROADM.
+ */
+public final class GnpyApiGenerator {
+
+    private static final int ELEMENTS_PER_SITE = 6;
+
+    private GnpyApiGenerator() {
+    }
+
+    /**
+     * Generate a request.
+     *
+     * @param elements number of topology elements, rounded up to a whole number of sites
+     * @param seed seed of the random fiber and amplifier parameters
+     * @return the request
+     */
+    public static GnpyApi generate(int elements, long seed) {
+        Random random = new Random(seed);
+        int sites = Math.max(2, (elements + ELEMENTS_PER_SITE - 1) / ELEMENTS_PER_SITE);
+        List<Elements> elementList = new ArrayList<>();
+        List<Connections> connections = new ArrayList<>();
+        List<RouteObjectIncludeExclude> routeObjects = new ArrayList<>();
+        for (int site = 0; site < sites; site++) {
+            MetadataBuilder metadata = new MetadataBuilder().setLocation(new LocationBuilder()
+                .setCity("City-" + site).setRegion("Region-" + site % 4)
+                .setLatitude(new Coordinate(BigDecimal.valueOf(site, 1)))
+                .setLongitude(new Coordinate(BigDecimal.valueOf(-site, 2))).build());
+            elementList.add(new ElementsBuilder().setUid(ip(1, site))
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Transceiver.class)
+                .setMetadata(metadata.build()).setElementType(new TransceiverBuilder().build()).build());
+            elementList.add(new ElementsBuilder().setUid(ip(2, site))
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Roadm.class)
+                .setMetadata(metadata.build())
+                .setElementType(new FiberRoadmBuilder().setParams(new ParamsBuilder().setFiberroadm(
+                    new RoadmBuilder().setTargetPchOutDb(BigDecimal.valueOf(-20)).build()).build()).build())
+                .build());
+            elementList.add(new ElementsBuilder().setUid(ip(3, site))
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Edfa.class)
+                .setTypeVariety("openroadm_mw_mw_booster").setMetadata(metadata.build())
+                .setElementType(new EdfaBuilder().setOperational(new OperationalBuilder()
+                    .setGainTarget(decimal(random, 2000)).setTiltTarget(BigDecimal.valueOf(0, 2))
+                    .setOutVoa(decimal(random, 300)).build()).build())
+                .build());
+            elementList.add(new ElementsBuilder().setUid(ip(4, site))
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Fiber.class)
+                .setTypeVariety("SSMF").setMetadata(metadata.build())
+                .setElementType(new FiberRoadmBuilder().setParams(new ParamsBuilder().setFiberroadm(
+                    new FiberBuilder().setLength(decimal(random, 10000)).setLengthUnits(Km.class)
+                        .setLossCoef(BigDecimal.valueOf(20, 2)).setAttIn(BigDecimal.valueOf(0))
+                        .setConIn(decimal(random, 100)).setConOut(decimal(random, 100)).build()).build()).build())
+                .build());
+            elementList.add(new ElementsBuilder().setUid(ip(5, site))
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Fused.class)
+                .setMetadata(metadata.build()).setElementType(new FusedBuilder().build()).build());
+            elementList.add(new ElementsBuilder().setUid(ip(6, site))
+                .setType(org.opendaylight.yang.gen.v1.gnpy.gnpy.network.topology.rev181214.Edfa.class)
+                .setTypeVariety("openroadm_mw_mw_preamp").setMetadata(metadata.build())
+                .setElementType(new EdfaBuilder().setOperational(new OperationalBuilder()
+                    .setGainTarget(decimal(random, 2000)).setTiltTarget(BigDecimal.valueOf(0, 2))
+                    .setOutVoa(decimal(random, 300)).build()).build())
+                .build());
+            connections.add(connection(ip(1, site), ip(2, site)));
+            connections.add(connection(ip(2, site), ip(1, site)));
+            connections.add(connection(ip(2, site), ip(3, site)));
+            connections.add(connection(ip(3, site), ip(4, site)));
+            connections.add(connection(ip(4, site), ip(5, site)));
+            connections.add(connection(ip(5, site), ip(6, site)));
+            if (site + 1 < sites) {
+                connections.add(connection(ip(6, site), ip(2, site + 1)));
+            }
+            routeObjects.add(new RouteObjectIncludeExcludeBuilder().setIndex(Long.valueOf(routeObjects.size()))
+                .setExplicitRouteUsage(RouteIncludeEro.class)
+                .setType(new NumUnnumHopBuilder().setNumUnnumHop(new org.opendaylight.yang.gen.v1.gnpy.path.rev200202
+                    .explicit.route.hop.type.num.unnum.hop.NumUnnumHopBuilder()
+                    .setNodeId(ip(2, site)).setLinkTpId(Integer.toString(site)).setHopType(TeHopType.STRICT).build())
+                    .build())
+                .build());
+        }
+        routeObjects.add(new RouteObjectIncludeExcludeBuilder().setIndex(Long.valueOf(routeObjects.size()))
+            .setExplicitRouteUsage(RouteIncludeEro.class)
+            .setType(new LabelBuilder().setLabelHop(new LabelHopBuilder().setN(-284).setM(4).build()).build())
+            .build());
+        routeObjects.add(new RouteObjectIncludeExcludeBuilder().setIndex(Long.valueOf(routeObjects.size()))
+            .setExplicitRouteUsage(RouteIncludeEro.class)
+            .setType(new HopAttributeBuilder().setHopType(new TspBuilder().setTransponder(new TransponderBuilder()
+                .setTransponderType("openroadm-beta1").setTransponderMode("W100G").build()).build()).build())
+            .build());
+        PathRequest pathRequest = new PathRequestBuilder().setRequestId(Long.valueOf(1)).setBidirectional(false)
+            .setSource(new IpAddress(new Ipv4Address(ip(1, 0))))
+            .setDestination(new IpAddress(new Ipv4Address(ip(1, sites - 1))))
+            .setSrcTpId("srcTpId".getBytes(StandardCharsets.UTF_8))
+            .setDstTpId("dstTpId".getBytes(StandardCharsets.UTF_8))
+            .setExplicitRouteObjects(new ExplicitRouteObjectsBuilder().setRouteObjectIncludeExclude(routeObjects)
+                .build())
+            .setPathConstraints(new PathConstraintsBuilder().setTeBandwidth(new TeBandwidthBuilder()
+                .setTechnology("flexi-grid").setTrxType("openroadm-beta1").setTrxMode("W100G")
+                .setEffectiveFreqSlot(List.of(new EffectiveFreqSlotBuilder().setN(-284).setM(4).build()))
+                .setSpacing(new BigDecimal("50000000000.0")).setMaxNbOfChannel(Long.valueOf(80))
+                .setOutputPower(new BigDecimal("0.00126")).setPathBandwidth(new BigDecimal("100")).build())
+                .build())
+            .build();
+        return new GnpyApiBuilder()
+            .setTopologyFile(new TopologyFileBuilder().setElements(elementList).setConnections(connections).build())
+            .setServiceFile(new ServiceFileBuilder().setPathRequest(List.of(pathRequest)).build())
+            .build();
+    }
+
+    private static String ip(int element, int site) {
+        return "10." + element + "." + site / 256 + "." + site % 256;
+    }
+
+    private static BigDecimal decimal(Random random, int hundredths) {
+        return BigDecimal.valueOf(random.nextInt(hundredths), 2);
+    }
+
+    private static Connections connection(String from, String to) {
+        return new ConnectionsBuilder().setFromNode(from).setToNode(to).build();
+    }
+}
@@ -0,0 +1,662 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.utils;
+
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import org.opendaylight.mdsal.binding.api.DataBroker;
+import org.opendaylight.mdsal.binding.api.WriteTransaction;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.transportpce.common.NetworkUtils;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInput;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.computation.request.input.ServiceAEndBuilder;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.path.computation.request.input.ServiceZEndBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.link.types.rev181130.RatioDB;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.degree.rev181130.degree.node.attributes.AvailableWavelengths;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.degree.rev181130.degree.node.attributes.AvailableWavelengthsBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.degree.rev181130.degree.node.attributes.AvailableWavelengthsKey;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenation;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenationBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenationKey;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Node1;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Node1Builder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.OMSAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.oms.attributes.SpanBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.node.DegreeAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.node.SrgAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.types.rev181130.xpdr.odu.switching.pools.OduSwitchingPoolsBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.types.rev181130.xpdr.odu.switching.pools.odu.switching.pools.NonBlockingList;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.types.rev181130.xpdr.odu.switching.pools.odu.switching.pools.NonBlockingListBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmNodeType;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmTpType;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.xpdr.tp.supported.interfaces.SupportedInterfaceCapabilityBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.otn.common.types.rev181130.ODU2e;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.otn.common.types.rev181130.ODU4;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.networks.network.node.SwitchingPoolsBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.networks.network.node.XpdrAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.networks.network.node.termination.point.TpSupportedInterfacesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.networks.network.node.termination.point.XpdrTpPortConnectionAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.port.types.rev181130.If10GEODU2e;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.port.types.rev181130.IfOCHOTU4ODU4;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.format.rev190531.ServiceFormat;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.switching.pool.types.rev181130.SwitchingPoolTypes;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.routing.constraints.rev171017.RoutingConstraintsSp.PceMetric;
+import org.opendaylight.yang.gen.v1.http.org.transportpce.b.c._interface.service.types.rev200128.service.handler.header.ServiceHandlerHeaderBuilder;
+import org.opendaylight.yang.gen.v1.http.transportpce.topology.rev200129.OtnLinkType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.IpAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NetworkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.Networks;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.Network;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.NetworkBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.NetworkKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.Node;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.networks.network.node.SupportingNodeKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.LinkId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Network1Builder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.TpId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.Link;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.link.DestinationBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.link.SourceBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.node.TerminationPoint;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.node.TerminationPointBuilder;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.node.TerminationPointKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deterministic generator of openroadm-topology and otn-topology networks, used to test and benchmark the PCE
+ * without device simulators.
+ *
+ * <p>
+ * The ROADMs are connected in a ring, completed by random chords up to the requested average nodal
+ * degree. Each ROADM has one degree per neighbour, one SRG and one XPONDER with {@link #XPONDER_PORTS}
+ * network ports plugged on the SRG. Each OMS link gets a single fiber span with its own SRLG, a length
+ * between {@link #MIN_SPAN_LENGTH} and {@link #MAX_SPAN_LENGTH} km and the matching span loss, and the
+ * requested ratio of its 96 wavelengths is removed from the available wavelengths of both degrees.
+ * The otn-topology holds one MUXPDR per ROADM and an OTU4 link between the XPONDERs of consecutive
+ * ROADMs of the ring, the requested ratio of them being already used by an ODU4, except the link
+ * between the first two ROADMs. The openroadm-network holds the ROADM and XPONDER devices supporting
+ * the nodes of openroadm-topology, each with its own IP address.
+ * </p>
+ */
+public final class OpenRoadmTopologyGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OpenRoadmTopologyGenerator.class);
+
+    public static final int MIN_ROADMS = 3;
+    public static final int MAX_ROADMS = 2000;
+    public static final int XPONDER_PORTS = 2;
+    public static final int MIN_SPAN_LENGTH = 20;
+    public static final int MAX_SPAN_LENGTH = 120;
+    private static final int NB_WAVELENGTHS = 96;
+    private static final double SPAN_LOSS_PER_KM = 0.25;
+    private static final long OTU4_BANDWIDTH = 100000L;
+    private static final String LINK_ID_FORMAT = "%1$s-%2$sto%3$s-%4$s";
+    private static final String OTN_LINK_ID_FORMAT = "%5$s-%1$s-%2$sto%3$s-%4$s";
+
+    private final int roadms;
+    private final double occupancy;
+    private final Random random;
+    // neighbours of each ROADM, the index in the list + 1 being the degree number
+    private final List<List<Integer>> neighbours = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> nodeIndexes = new HashMap<>();
+    private final List<Link> links = new ArrayList<>();
+    private final List<Node> otnNodes = new ArrayList<>();
+    private final List<Link> otnLinks = new ArrayList<>();
+    // length and SRLG of the OMS links of a given mesh
+    private final Map<Long, int[]> spanAttributes = new HashMap<>();
+
+    /**
+     * Generate the topologies.
+     *
+     * @param roadms number of ROADMs, between {@link #MIN_ROADMS} and {@link #MAX_ROADMS}
+     * @param nodalDegree average number of neighbours of a ROADM, at least 2
+     * @param occupancy ratio of the wavelengths and OTU4 links already used, between 0 inclusive and 1 exclusive
+     * @param seed seed of the generator, the same seed giving the same topologies
+     */
+    public OpenRoadmTopologyGenerator(int roadms, double nodalDegree, double occupancy, long seed) {
+        if (roadms < MIN_ROADMS || roadms > MAX_ROADMS) {
+            throw new IllegalArgumentException("number of ROADMs " + roadms + " not in [" + MIN_ROADMS + ", "
+                + MAX_ROADMS + "]");
+        }
+        if (nodalDegree < 2 || nodalDegree >= roadms) {
+            throw new IllegalArgumentException("nodal degree " + nodalDegree + " not in [2, " + roadms + "[");
+        }
+        if (occupancy < 0 || occupancy >= 1) {
+            throw new IllegalArgumentException("occupancy " + occupancy + " not in [0, 1[");
+        }
+        this.roadms = roadms;
+        this.occupancy = occupancy;
+        this.random = new Random(seed);
+        createMesh(nodalDegree);
+        createTopologies();
+    }
+
+    /**
+     * Generate the topologies of a given mesh, without any used wavelength or OTU4 bandwidth.
+     *
+     * @param roadms number of ROADMs, between {@link #MIN_ROADMS} and {@link #MAX_ROADMS}
+     * @param spans one {ROADM, ROADM, length in km, SRLG} array per OMS link, the OMS links without SRLG
+     *     having their own one
+     */
+    public OpenRoadmTopologyGenerator(int roadms, int[]... spans) {
+        if (roadms < MIN_ROADMS || roadms > MAX_ROADMS) {
+            throw new IllegalArgumentException("number of ROADMs " + roadms + " not in [" + MIN_ROADMS + ", "
+                + MAX_ROADMS + "]");
+        }
+        this.roadms = roadms;
+        this.occupancy = 0;
+        this.random = new Random(0);
+        Set<Long> edges = new HashSet<>();
+        for (int roadm = 0; roadm < roadms; roadm++) {
+            neighbours.add(new ArrayList<>());
+        }
+        for (int[] span : spans) {
+            addEdge(edges, span[0] - 1, span[1] - 1);
+            spanAttributes.put(edgeKey(span[0] - 1, span[1] - 1), Arrays.copyOfRange(span, 2, span.length));
+        }
+        createTopologies();
+    }
+
+    private void createTopologies() {
+        for (int roadm = 1; roadm <= roadms; roadm++) {
+            createRoadm(roadm);
+            createXponder(roadm);
+            createOtnXponder(roadm);
+        }
+        createOmsLinks();
+        createOtu4Links();
+        LOG.info("OpenRoadmTopologyGenerator: {} ROADMs, openroadm-topology of {} nodes and {} links, "
+            + "otn-topology of {} nodes and {} links", roadms, nodes.size(), links.size(), otnNodes.size(),
+            otnLinks.size());
+    }
+
+    public OpenRoadmTopologyGenerator(int roadms, double occupancy, long seed) {
+        this(roadms, Math.min(3, roadms - 1), occupancy, seed);
+    }
+
+    public int getRoadms() {
+        return roadms;
+    }
+
+    public Network getOpenRoadmTopology() {
+        return createNetwork(NetworkUtils.OVERLAY_NETWORK_ID, nodes, links);
+    }
+
+    public Network getOtnTopology() {
+        return createNetwork(NetworkUtils.OTN_NETWORK_ID, otnNodes, otnLinks);
+    }
+
+    /**
+     * Build openroadm-network, with a ROADM and an XPONDER device per ROADM of openroadm-topology.
+     *
+     * @return the network
+     */
+    public Network getOpenRoadmNetwork() {
+        List<Node> devices = new ArrayList<>();
+        for (int roadm = 1; roadm <= roadms; roadm++) {
+            devices.add(createDevice(roadmId(roadm), OpenroadmNodeType.ROADM, deviceIp(roadm, 1)));
+            devices.add(createDevice(xponderId(roadm), OpenroadmNodeType.XPONDER, deviceIp(roadm, 2)));
+        }
+        return new NetworkBuilder()
+            .setNetworkId(new NetworkId(NetworkUtils.UNDERLAY_NETWORK_ID))
+            .withKey(new NetworkKey(new NetworkId(NetworkUtils.UNDERLAY_NETWORK_ID)))
+            .setNode(devices)
+            .build();
+    }
+
+    /**
+     * Write openroadm-topology, otn-topology and openroadm-network into the configuration datastore.
+     *
+     * @param dataBroker data broker, typically the one of a DataStoreContextImpl
+     * @throws ExecutionException if the commit fails
+     * @throws InterruptedException if interrupted while waiting for the commit
+     */
+    public void writeTo(DataBroker dataBroker) throws ExecutionException, InterruptedException {
+        WriteTransaction wt = dataBroker.newWriteOnlyTransaction();
+        for (Network network : new Network[] {getOpenRoadmTopology(), getOtnTopology(),
+                getOpenRoadmNetwork()}) {
+            wt.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.builder(Networks.class)
+                .child(Network.class, network.key()).build(), network);
+        }
+        wt.commit().get();
+    }
+
+    public static String roadmId(int roadm) {
+        return "ROADM-" + roadm;
+    }
+
+    public static String xponderId(int roadm) {
+        return "XPONDER-" + roadm;
+    }
+
+    public static String clli(int roadm) {
+        return "CLLI-" + roadm;
+    }
+
+    /**
+     * Build a 100GE request between the XPONDERs of two ROADMs, computed on openroadm-topology.
+     *
+     * @param aroadm ROADM of the A end
+     * @param zroadm ROADM of the Z end
+     * @return the request
+     */
+    public static PathComputationRequestInput createRequest(int aroadm, int zroadm) {
+        return buildRequest(xponderId(aroadm), clli(aroadm), xponderId(zroadm), clli(zroadm),
+            ServiceFormat.Ethernet);
+    }
+
+    /**
+     * Build an ODU4 request between the XPONDERs of two ROADMs, computed on otn-topology.
+     *
+     * @param aroadm ROADM of the A end
+     * @param zroadm ROADM of the Z end
+     * @return the request
+     */
+    public static PathComputationRequestInput createOtnRequest(int aroadm, int zroadm) {
+        return buildRequest(xponderId(aroadm) + "-XPDR1", clli(aroadm), xponderId(zroadm) + "-XPDR1",
+            clli(zroadm), ServiceFormat.ODU);
+    }
+
+    private static PathComputationRequestInput buildRequest(String anode, String aclli, String znode,
+            String zclli, ServiceFormat format) {
+        return new PathComputationRequestInputBuilder()
+            .setServiceName("benchmark-" + anode + "-" + znode)
+            .setResourceReserve(false)
+            .setPceMetric(PceMetric.HopCount)
+            .setServiceHandlerHeader(new ServiceHandlerHeaderBuilder().setRequestId("benchmark").build())
+            .setServiceAEnd(new ServiceAEndBuilder().setServiceFormat(format).setServiceRate(Uint32.valueOf(100))
+                .setClli(aclli).setNodeId(anode).build())
+            .setServiceZEnd(new ServiceZEndBuilder().setServiceFormat(format).setServiceRate(Uint32.valueOf(100))
+                .setClli(zclli).setNodeId(znode).build())
+            .build();
+    }
+
+    // ring of ROADMs completed by random chords
+    private void createMesh(double nodalDegree) {
+        Set<Long> edges = new HashSet<>();
+        for (int roadm = 0; roadm < roadms; roadm++) {
+            neighbours.add(new ArrayList<>());
+        }
+        for (int roadm = 0; roadm < roadms; roadm++) {
+            addEdge(edges, roadm, (roadm + 1) % roadms);
+        }
+        long target = Math.round(roadms * nodalDegree / 2);
+        for (int attempt = 0; edges.size() < target && attempt < 100 * target; attempt++) {
+            addEdge(edges, random.nextInt(roadms), random.nextInt(roadms));
+        }
+    }
+
+    private void addEdge(Set<Long> edges, int roadm1, int roadm2) {
+        if (roadm1 == roadm2 || !edges.add(edgeKey(roadm1, roadm2))) {
+            return;
+        }
+        neighbours.get(roadm1).add(roadm2 + 1);
+        neighbours.get(roadm2).add(roadm1 + 1);
+    }
+
+    private long edgeKey(int roadm1, int roadm2) {
+        return (long) Math.min(roadm1, roadm2) * roadms + Math.max(roadm1, roadm2);
+    }
+
+    private void createRoadm(int roadm) {
+        String roadmId = roadmId(roadm);
+        int degrees = neighbours.get(roadm - 1).size();
+        for (int deg = 1; deg <= degrees; deg++) {
+            List<TerminationPoint> tps = new ArrayList<>();
+            tps.add(createTp("DEG" + deg + "-TTP-TXRX", OpenroadmTpType.DEGREETXRXTTP));
+            tps.add(createTp("DEG" + deg + "-CTP-TXRX", OpenroadmTpType.DEGREETXRXCTP));
+            // the available wavelengths are set with the OMS links
+            nodeIndexes.put(roadmId + "-DEG" + deg, nodes.size());
+            nodes.add(createNode(roadmId + "-DEG" + deg, roadmId, clli(roadm), OpenroadmNodeType.DEGREE, tps)
+                .build());
+        }
+
+        List<TerminationPoint> srgTps = new ArrayList<>();
+        srgTps.add(createTp("SRG1-CP-TXRX", OpenroadmTpType.SRGTXRXCP));
+        for (int pp = 1; pp <= XPONDER_PORTS; pp++) {
+            srgTps.add(createTp("SRG1-PP" + pp + "-TXRX", OpenroadmTpType.SRGTXRXPP));
+        }
+        List<org.opendaylight.yang.gen.v1.http.org.openroadm.srg.rev181130.srg.node.attributes
+            .AvailableWavelengths> srgWavelengths = new ArrayList<>();
+        for (int index = 1; index <= NB_WAVELENGTHS; index++) {
+            srgWavelengths.add(new org.opendaylight.yang.gen.v1.http.org.openroadm.srg.rev181130.srg.node.attributes
+                .AvailableWavelengthsBuilder()
+                .setIndex(Uint32.valueOf(index))
+                .withKey(new org.opendaylight.yang.gen.v1.http.org.openroadm.srg.rev181130.srg.node.attributes
+                    .AvailableWavelengthsKey(Uint32.valueOf(index)))
+                .build());
+        }
+        nodes.add(createNode(roadmId + "-SRG1", roadmId, clli(roadm), OpenroadmNodeType.SRG, srgTps)
+            .addAugmentation(Node1.class, new Node1Builder().setSrgAttributes(new SrgAttributesBuilder()
+                .setAvailableWavelengths(srgWavelengths).build()).build())
+            .build());
+
+        for (int deg = 1; deg <= degrees; deg++) {
+            for (int otherDeg = 1; otherDeg <= degrees; otherDeg++) {
+                if (deg != otherDeg) {
+                    links.add(createLink(roadmId + "-DEG" + deg, "DEG" + deg + "-CTP-TXRX",
+                        roadmId + "-DEG" + otherDeg, "DEG" + otherDeg + "-CTP-TXRX", OpenroadmLinkType.EXPRESSLINK)
+                        .build());
+                }
+            }
+            links.add(createLink(roadmId + "-SRG1", "SRG1-CP-TXRX", roadmId + "-DEG" + deg, "DEG" + deg
+                + "-CTP-TXRX", OpenroadmLinkType.ADDLINK).build());
+            links.add(createLink(roadmId + "-DEG" + deg, "DEG" + deg + "-CTP-TXRX", roadmId + "-SRG1",
+                "SRG1-CP-TXRX", OpenroadmLinkType.DROPLINK).build());
+        }
+    }
+
+    private void createXponder(int roadm) {
+        String nodeId = xponderId(roadm) + "-XPDR1";
+        List<TerminationPoint> tps = new ArrayList<>();
+        for (int port = 1; port <= XPONDER_PORTS; port++) {
+            tps.add(createXponderTp("XPDR1-NETWORK" + port, OpenroadmTpType.XPONDERNETWORK, "XPDR1-CLIENT" + port)
+                .build());
+            tps.add(createXponderTp("XPDR1-CLIENT" + port, OpenroadmTpType.XPONDERCLIENT, "XPDR1-NETWORK" + port)
+                .build());
+            links.add(createLink(nodeId, "XPDR1-NETWORK" + port, roadmId(roadm) + "-SRG1", "SRG1-PP" + port
+                + "-TXRX", OpenroadmLinkType.XPONDEROUTPUT).build());
+            links.add(createLink(roadmId(roadm) + "-SRG1", "SRG1-PP" + port + "-TXRX", nodeId, "XPDR1-NETWORK"
+                + port, OpenroadmLinkType.XPONDERINPUT).build());
+        }
+        nodes.add(createNode(nodeId, xponderId(roadm), clli(roadm), OpenroadmNodeType.XPONDER, tps).build());
+    }
+
+    private void createOmsLinks() {
+        int srlg = 0;
+        for (int roadm = 1; roadm <= roadms; roadm++) {
+            List<Integer> roadmNeighbours = neighbours.get(roadm - 1);
+            for (int deg = 1; deg <= roadmNeighbours.size(); deg++) {
+                int neighbour = roadmNeighbours.get(deg - 1);
+                if (neighbour < roadm) {
+                    continue;
+                }
+                srlg++;
+                int length = MIN_SPAN_LENGTH + random.nextInt(MAX_SPAN_LENGTH - MIN_SPAN_LENGTH + 1);
+                int[] attributes = spanAttributes.get(edgeKey(roadm - 1, neighbour - 1));
+                if (attributes != null && attributes.length > 0) {
+                    length = attributes[0];
+                }
+                int spanSrlg = attributes != null && attributes.length > 1 ? attributes[1] : srlg;
+                int neighbourDeg = neighbours.get(neighbour - 1).indexOf(roadm) + 1;
+                BitSet usedWavelengths = new BitSet();
+                while (usedWavelengths.cardinality() < Math.round(occupancy * NB_WAVELENGTHS)) {
+                    usedWavelengths.set(1 + random.nextInt(NB_WAVELENGTHS));
+                }
+                String src = roadmId(roadm) + "-DEG" + deg;
+                String dest = roadmId(neighbour) + "-DEG" + neighbourDeg;
+                links.add(createOmsLink(src, "DEG" + deg + "-TTP-TXRX", dest, "DEG" + neighbourDeg + "-TTP-TXRX",
+                    spanSrlg, length));
+                links.add(createOmsLink(dest, "DEG" + neighbourDeg + "-TTP-TXRX", src, "DEG" + deg + "-TTP-TXRX",
+                    spanSrlg, length));
+                setDegreeWavelengths(src, deg, usedWavelengths);
+                setDegreeWavelengths(dest, neighbourDeg, usedWavelengths);
+            }
+        }
+    }
+
+    private void setDegreeWavelengths(String nodeId, int deg, BitSet usedWavelengths) {
+        List<AvailableWavelengths> wavelengths = new ArrayList<>();
+        for (int index = 1; index <= NB_WAVELENGTHS; index++) {
+            if (!usedWavelengths.get(index)) {
+                wavelengths.add(new AvailableWavelengthsBuilder()
+                    .setIndex(Uint32.valueOf(index))
+                    .withKey(new AvailableWavelengthsKey(Uint32.valueOf(index)))
+                    .build());
+            }
+        }
+        int index = nodeIndexes.get(nodeId);
+        nodes.set(index, new NodeBuilder(nodes.get(index))
+            .addAugmentation(Node1.class, new Node1Builder().setDegreeAttributes(new DegreeAttributesBuilder()
+                .setDegreeNumber(Uint16.valueOf(deg))
+                .setAvailableWavelengths(wavelengths).build()).build())
+            .build());
+    }
+
+    private static Link createOmsLink(String srcNode, String srcTp, String destNode, String destTp, int srlg,
+            int length) {
+        LinkConcatenation concatenation = new LinkConcatenationBuilder()
+            .withKey(new LinkConcatenationKey(Uint32.valueOf(srlg)))
+            .setSRLGId(Uint32.valueOf(srlg))
+            .setSRLGLength(Uint32.valueOf(length * 1000L))
+            .setFiberType(LinkConcatenation.FiberType.Smf)
+            .build();
+        LinkBuilder linkBuilder = createLink(srcNode, srcTp, destNode, destTp, OpenroadmLinkType.ROADMTOROADM);
+        return linkBuilder
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.Link1Builder()
+                    .setOMSAttributes(new OMSAttributesBuilder()
+                        .setOppositeLink(linkId(destNode, destTp, srcNode, srcTp))
+                        .setTEMetric(Uint32.valueOf(length))
+                        .setSpan(new SpanBuilder()
+                            .setSpanlossCurrent(new RatioDB(BigDecimal.valueOf(length * SPAN_LOSS_PER_KM)))
+                            .setLinkConcatenation(ImmutableList.of(concatenation))
+                            .build())
+                        .build())
+                    .build())
+            .build();
+    }
+
+    private void createOtnXponder(int roadm) {
+        String nodeId = xponderId(roadm) + "-XPDR1";
+        List<TerminationPoint> tps = new ArrayList<>();
+        List<NonBlockingList> nblList = new ArrayList<>();
+        for (int port = 1; port <= XPONDER_PORTS; port++) {
+            tps.add(createOtnTp("XPDR1-NETWORK" + port, OpenroadmTpType.XPONDERNETWORK, "XPDR1-CLIENT" + port,
+                ODU4.class, true));
+            tps.add(createOtnTp("XPDR1-CLIENT" + port, OpenroadmTpType.XPONDERCLIENT, "XPDR1-NETWORK" + port,
+                ODU2e.class, false));
+            nblList.add(new NonBlockingListBuilder()
+                .setNblNumber(Uint16.valueOf(port))
+                .setTpList(ImmutableList.of(new TpId("XPDR1-CLIENT" + port), new TpId("XPDR1-NETWORK" + port)))
+                .setAvailableInterconnectBandwidth(Uint32.valueOf(100))
+                .setInterconnectBandwidthUnit(Uint32.valueOf(1000000000))
+                .build());
+        }
+        List<SupportingNode> supportingNodes = new ArrayList<>(createSupportingNodes(xponderId(roadm),
+            clli(roadm)));
+        supportingNodes.add(createSupportingNode(NetworkUtils.OVERLAY_NETWORK_ID, nodeId));
+        otnNodes.add(new NodeBuilder()
+            .setNodeId(new NodeId(nodeId))
+            .withKey(new NodeKey(new NodeId(nodeId)))
+            .setSupportingNode(supportingNodes)
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1Builder()
+                    .setNodeType(OpenroadmNodeType.MUXPDR).build())
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.Node1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.Node1Builder()
+                    .setXpdrAttributes(new XpdrAttributesBuilder().setXpdrNumber(Uint16.valueOf(1)).build())
+                    .setSwitchingPools(new SwitchingPoolsBuilder().setOduSwitchingPools(ImmutableList.of(
+                        new OduSwitchingPoolsBuilder()
+                            .setSwitchingPoolNumber(Uint16.valueOf(1))
+                            .setSwitchingPoolType(SwitchingPoolTypes.NonBlocking)
+                            .setNonBlockingList(nblList)
+                            .build()))
+                        .build())
+                    .build())
+            .addAugmentation(
+                org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Node1.class,
+                new org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226
+                    .Node1Builder().setTerminationPoint(tps).build())
+            .build());
+    }
+
+    // OTU4 links between the XPONDERs of consecutive ROADMs of the ring, the one from ROADM 1 is kept free
+    private void createOtu4Links() {
+        for (int roadm = 1; roadm <= roadms; roadm++) {
+            String src = xponderId(roadm) + "-XPDR1";
+            String dest = xponderId(roadm % roadms + 1) + "-XPDR1";
+            long used = random.nextDouble() < occupancy && roadm > 1 ? OTU4_BANDWIDTH : 0L;
+            otnLinks.add(createOtu4Link(src, "XPDR1-NETWORK2", dest, "XPDR1-NETWORK1", used));
+            otnLinks.add(createOtu4Link(dest, "XPDR1-NETWORK1", src, "XPDR1-NETWORK2", used));
+        }
+    }
+
+    private static Link createOtu4Link(String srcNode, String srcTp, String destNode, String destTp,
+            long usedBandwidth) {
+        LinkId linkId = new LinkId(String.format(OTN_LINK_ID_FORMAT, srcNode, srcTp, destNode, destTp, "OTU4"));
+        return new LinkBuilder()
+            .setLinkId(linkId)
+            .withKey(new LinkKey(linkId))
+            .setSource(new SourceBuilder().setSourceNode(new NodeId(srcNode)).setSourceTp(srcTp).build())
+            .setDestination(new DestinationBuilder().setDestNode(new NodeId(destNode)).setDestTp(destTp).build())
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1Builder()
+                    .setLinkType(OpenroadmLinkType.OTNLINK)
+                    .setOppositeLink(new LinkId(String.format(OTN_LINK_ID_FORMAT, destNode, destTp, srcNode, srcTp,
+                        "OTU4")))
+                    .build())
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.Link1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.Link1Builder()
+                    .setLinkType(OpenroadmLinkType.OTNLINK)
+                    .setAvailableBandwidth(Uint32.valueOf(OTU4_BANDWIDTH - usedBandwidth))
+                    .setUsedBandwidth(Uint32.valueOf(usedBandwidth))
+                    .build())
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.transportpce.topology.rev200129.Link1.class,
+                new org.opendaylight.yang.gen.v1.http.transportpce.topology.rev200129.Link1Builder()
+                    .setOtnLinkType(OtnLinkType.OTU4).build())
+            .build();
+    }
+
+    private static Network createNetwork(String networkId, List<Node> nodes, List<Link> links) {
+        return new NetworkBuilder()
+            .setNetworkId(new NetworkId(networkId))
+            .withKey(new NetworkKey(new NetworkId(networkId)))
+            .setNode(nodes)
+            .addAugmentation(Network1.class, new Network1Builder().setLink(links).build())
+            .build();
+    }
+
+    private static NodeBuilder createNode(String nodeId, String supportingNodeId, String clli,
+            OpenroadmNodeType nodeType, List<TerminationPoint> tps) {
+        return new NodeBuilder()
+            .setNodeId(new NodeId(nodeId))
+            .withKey(new NodeKey(new NodeId(nodeId)))
+            .setSupportingNode(createSupportingNodes(supportingNodeId, clli))
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1Builder()
+                    .setNodeType(nodeType).build())
+            .addAugmentation(
+                org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.Node1.class,
+                new org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226
+                    .Node1Builder().setTerminationPoint(tps).build());
+    }
+
+    private static Node createDevice(String nodeId, OpenroadmNodeType nodeType, String ipAddress) {
+        return new NodeBuilder()
+            .setNodeId(new NodeId(nodeId))
+            .withKey(new NodeKey(new NodeId(nodeId)))
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Node1Builder()
+                    .setNodeType(nodeType).build())
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.network.rev181130.Node1Builder()
+                    .setIp(new IpAddress(new Ipv4Address(ipAddress))).setShelf("1").build())
+            .build();
+    }
+
+    private static String deviceIp(int roadm, int device) {
+        return "10." + roadm / 256 + "." + roadm % 256 + "." + device;
+    }
+
+    private static List<SupportingNode> createSupportingNodes(String supportingNodeId, String clli) {
+        return ImmutableList.of(createSupportingNode(NetworkUtils.UNDERLAY_NETWORK_ID, supportingNodeId),
+            createSupportingNode(NetworkUtils.CLLI_NETWORK_ID, clli));
+    }
+
+    private static SupportingNode createSupportingNode(String networkId, String nodeId) {
+        return new SupportingNodeBuilder()
+            .withKey(new SupportingNodeKey(new NetworkId(networkId), new NodeId(nodeId)))
+            .setNetworkRef(new NetworkId(networkId))
+            .setNodeRef(new NodeId(nodeId))
+            .build();
+    }
+
+    private static TerminationPoint createTp(String tpId, OpenroadmTpType tpType) {
+        return new TerminationPointBuilder()
+            .setTpId(new TpId(tpId))
+            .withKey(new TerminationPointKey(new TpId(tpId)))
+            .addAugmentation(
+                org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.TerminationPoint1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130
+                    .TerminationPoint1Builder().setTpType(tpType).build())
+            .build();
+    }
+
+    private static TerminationPointBuilder createXponderTp(String tpId, OpenroadmTpType tpType,
+            String connectionMapPort) {
+        return new TerminationPointBuilder(createTp(tpId, tpType))
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.transportpce.topology.rev200129.TerminationPoint1.class,
+                new org.opendaylight.yang.gen.v1.http.transportpce.topology.rev200129.TerminationPoint1Builder()
+                    .setAssociatedConnectionMapPort(connectionMapPort).build());
+    }
+
+    private static TerminationPoint createOtnTp(String tpId, OpenroadmTpType tpType, String connectionMapPort,
+            Class<? extends org.opendaylight.yang.gen.v1.http.org.openroadm.otn.common.types.rev181130
+                .OduRateIdentity> rate, boolean network) {
+        return createXponderTp(tpId, tpType, connectionMapPort)
+            .addAugmentation(
+                org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130.TerminationPoint1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.otn.network.topology.rev181130
+                    .TerminationPoint1Builder()
+                    .setTpSupportedInterfaces(new TpSupportedInterfacesBuilder()
+                        .setSupportedInterfaceCapability(ImmutableList.of(new SupportedInterfaceCapabilityBuilder()
+                            .setIfCapType(network ? IfOCHOTU4ODU4.class : If10GEODU2e.class).build()))
+                        .build())
+                    .setXpdrTpPortConnectionAttributes(new XpdrTpPortConnectionAttributesBuilder()
+                        .setRate(rate).build())
+                    .build())
+            .build();
+    }
+
+    private static LinkId linkId(String srcNode, String srcTp, String destNode, String destTp) {
+        return new LinkId(String.format(LINK_ID_FORMAT, srcNode, srcTp, destNode, destTp));
+    }
+
+    private static LinkBuilder createLink(String srcNode, String srcTp, String destNode, String destTp,
+            OpenroadmLinkType linkType) {
+        LinkId linkId = linkId(srcNode, srcTp, destNode, destTp);
+        return new LinkBuilder()
+            .setLinkId(linkId)
+            .withKey(new LinkKey(linkId))
+            .setSource(new SourceBuilder().setSourceNode(new NodeId(srcNode)).setSourceTp(srcTp).build())
+            .setDestination(new DestinationBuilder().setDestNode(new NodeId(destNode)).setDestTp(destTp).build())
+            .addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1.class,
+                new org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1Builder()
+                    .setLinkType(linkType)
+                    .setOppositeLink(linkId(destNode, destTp, srcNode, srcTp))
+                    .build());
+    }
+}
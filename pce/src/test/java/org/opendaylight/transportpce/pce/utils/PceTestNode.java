@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+
+/**
+ * Lightweight PceNode for graph tests, which does not need an openroadm-topology node.
+ */
+public class PceTestNode implements PceNode {
+
+    private final NodeId nodeId;
+    private final String supNodeId;
+    private final String clli;
+    private final BitSet availableWavelengths;
+    private final List<PceLink> outgoingLinks = new ArrayList<>();
+    private final Map<String, BitSet> tribPorts = new HashMap<>();
+    private final Map<String, BitSet> tribSlots = new HashMap<>();
+
+    public PceTestNode(String nodeId, String supNodeId, String clli, BitSet availableWavelengths) {
+        this.nodeId = new NodeId(nodeId);
+        this.supNodeId = supNodeId;
+        this.clli = clli;
+        this.availableWavelengths = availableWavelengths;
+    }
+
+    public PceTestNode(String nodeId, BitSet availableWavelengths) {
+        this(nodeId, nodeId, nodeId, availableWavelengths);
+    }
+
+    /**
+     * Direct access to the wavelengths of the node, to modify them.
+     *
+     * @return the wavelength set of the node
+     */
+    public BitSet wavelengths() {
+        return availableWavelengths;
+    }
+
+    /**
+     * Direct access to the tributary ports of the node, to modify them.
+     *
+     * @return the tributary port bitmaps per termination point
+     */
+    public Map<String, BitSet> tribPorts() {
+        return tribPorts;
+    }
+
+    /**
+     * Direct access to the tributary slots of the node, to modify them.
+     *
+     * @return the tributary slot bitmaps per termination point
+     */
+    public Map<String, BitSet> tribSlots() {
+        return tribSlots;
+    }
+
+    @Override
+    public boolean checkWL(long index) {
+        return index >= 0 && index <= Integer.MAX_VALUE && availableWavelengths.get((int) index);
+    }
+
+    @Override
+    public BitSet getAvailableWavelengths() {
+        return (BitSet) availableWavelengths.clone();
+    }
+
+    @Override
+    public NodeId getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String getPceNodeType() {
+        return "optical";
+    }
+
+    @Override
+    public String getSupNetworkNodeId() {
+        return supNodeId;
+    }
+
+    @Override
+    public String getSupClliNodeId() {
+        return clli;
+    }
+
+    @Override
+    public void addOutgoingLink(PceLink outLink) {
+        outgoingLinks.add(outLink);
+    }
+
+    @Override
+    public String getRdmSrgClient(String tp) {
+        return null;
+    }
+
+    @Override
+    public String getXpdrClient(String tp) {
+        return null;
+    }
+
+    @Override
+    public boolean checkTP(String tp) {
+        return true;
+    }
+
+    @Override
+    public List<PceLink> getOutgoingLinks() {
+        return outgoingLinks;
+    }
+
+    @Override
+    public Map<String, BitSet> getAvailableTribPorts() {
+        return tribPorts;
+    }
+
+    @Override
+    public Map<String, BitSet> getAvailableTribSlots() {
+        return tribSlots;
+    }
+
+    @Override
+    public String toString() {
+        return "PceTestNode " + nodeId.getValue();
+    }
+}
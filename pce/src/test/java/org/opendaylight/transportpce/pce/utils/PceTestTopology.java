@@ -0,0 +1,237 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.opendaylight.transportpce.pce.constraints.PceConstraints;
+import org.opendaylight.transportpce.pce.graph.PceGraph;
+import org.opendaylight.transportpce.pce.metrics.PceTrace;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceLink;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceNode;
+import org.opendaylight.transportpce.pce.networkanalyzer.PceResult;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.link.types.rev181130.RatioDB;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.network.rev181130.Link1Builder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenation;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.link.rev181130.span.attributes.LinkConcatenationBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.OMSAttributesBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.oms.attributes.Span;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130.networks.network.link.oms.attributes.SpanBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.network.types.rev181130.OpenroadmLinkType;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.rev180226.NodeId;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.network.topology.rev180226.networks.network.LinkBuilder;
+
+/**
+ * Synthetic openroadm-topology for graph tests: a ring of ROADMs with random chords. Each ROADM
+ * has one degree per neighbour, fully meshed with express links, and one SRG connected to every
+ * degree with add and drop links. A xponder is connected to the first ROADM and another one to the
+ * ROADM opposite on the ring.
+ */
+public final class PceTestTopology {
+
+    private static final int MAX_WAVELENGTH = 96;
+
+    private final Map<NodeId, PceNode> allPceNodes = new LinkedHashMap<>();
+    private final List<PceLink> links = new ArrayList<>();
+    private final Random random;
+    private final double wavelengthDensity;
+    private PceTestNode aendNode;
+    private PceTestNode zendNode;
+
+    private PceTestTopology(long seed, double wavelengthDensity) {
+        this.random = new Random(seed);
+        this.wavelengthDensity = wavelengthDensity;
+    }
+
+    /**
+     * Generate a topology.
+     *
+     * @param roadms number of ROADMs on the ring, at least 3
+     * @param chords number of additional ROADM to ROADM adjacencies
+     * @param wavelengthDensity probability for each wavelength to be available on each node
+     * @param seed seed of the random generator
+     * @return the topology
+     */
+    public static PceTestTopology generate(int roadms, int chords, double wavelengthDensity, long seed) {
+        PceTestTopology topology = new PceTestTopology(seed, wavelengthDensity);
+        topology.build(roadms, chords);
+        return topology;
+    }
+
+    public Map<NodeId, PceNode> getAllPceNodes() {
+        return allPceNodes;
+    }
+
+    public List<PceLink> getLinks() {
+        return Collections.unmodifiableList(links);
+    }
+
+    public PceTestNode getAendNode() {
+        return aendNode;
+    }
+
+    public PceTestNode getZendNode() {
+        return zendNode;
+    }
+
+    /**
+     * Graph of a 100GE request between the two xponders of the topology, not traced.
+     *
+     * @param constraints hard constraints of the request
+     * @param engine graph engine
+     * @return the graph, the path not being computed
+     */
+    public PceGraph pceGraph(PceConstraints constraints, PceGraph.GraphEngine engine) {
+        return pceGraph(constraints, "100GE", engine, PceTrace.DISABLED);
+    }
+
+    /**
+     * Graph of a request between the two xponders of the topology.
+     *
+     * @param constraints hard constraints of the request
+     * @param serviceType service type of the request
+     * @param engine graph engine
+     * @param trace trace of the computation
+     * @return the graph, the path not being computed
+     */
+    public PceGraph pceGraph(PceConstraints constraints, String serviceType, PceGraph.GraphEngine engine,
+            PceTrace trace) {
+        PceResult result = new PceResult();
+        result.setTrace(trace);
+        PceGraph graph = new PceGraph(aendNode, zendNode, allPceNodes, constraints, null, result, serviceType);
+        graph.setGraphEngine(engine);
+        return graph;
+    }
+
+    /**
+     * Compute the path of a graph.
+     *
+     * @param graph the graph
+     * @return the duration of the computation in nanoseconds
+     */
+    public static long timeCalcPath(PceGraph graph) {
+        long start = System.nanoTime();
+        graph.calcPath();
+        return System.nanoTime() - start;
+    }
+
+    private void build(int roadms, int chords) {
+        List<int[]> adjacencies = new ArrayList<>();
+        Set<Long> known = new HashSet<>();
+        for (int r = 0; r < roadms; r++) {
+            addAdjacency(adjacencies, known, r, (r + 1) % roadms);
+        }
+        int attempts = 0;
+        while (adjacencies.size() < roadms + chords && attempts < 100 * (chords + 1)) {
+            attempts++;
+            addAdjacency(adjacencies, known, random.nextInt(roadms), random.nextInt(roadms));
+        }
+
+        List<List<PceTestNode>> degrees = new ArrayList<>();
+        List<PceTestNode> srgs = new ArrayList<>();
+        for (int r = 0; r < roadms; r++) {
+            degrees.add(new ArrayList<>());
+            srgs.add(addNode("ROADM-" + r + "-SRG1", r));
+        }
+        for (int[] adjacency : adjacencies) {
+            PceTestNode deg1 = addDegree(degrees, adjacency[0]);
+            PceTestNode deg2 = addDegree(degrees, adjacency[1]);
+            long latency = 1L + random.nextInt(100);
+            addLink(deg1, deg2, "DEG-TTP-TXRX", OpenroadmLinkType.ROADMTOROADM, latency);
+            addLink(deg2, deg1, "DEG-TTP-TXRX", OpenroadmLinkType.ROADMTOROADM, latency);
+        }
+        for (int r = 0; r < roadms; r++) {
+            PceTestNode srg = srgs.get(r);
+            for (PceTestNode deg : degrees.get(r)) {
+                addLink(srg, deg, "SRG-CP-TXRX", OpenroadmLinkType.ADDLINK, 0L);
+                addLink(deg, srg, "DEG-CTP-TXRX", OpenroadmLinkType.DROPLINK, 0L);
+                for (PceTestNode other : degrees.get(r)) {
+                    if (other != deg) {
+                        addLink(deg, other, "DEG-CTP-TXRX", OpenroadmLinkType.EXPRESSLINK, 0L);
+                    }
+                }
+            }
+        }
+        aendNode = addXponder("XPDR-A", srgs.get(0));
+        zendNode = addXponder("XPDR-Z", srgs.get(roadms / 2));
+    }
+
+    private static void addAdjacency(List<int[]> adjacencies, Set<Long> known, int r1, int r2) {
+        if (r1 == r2) {
+            return;
+        }
+        long key = ((long) Math.min(r1, r2) << 32) | Math.max(r1, r2);
+        if (known.add(key)) {
+            adjacencies.add(new int[] {r1, r2});
+        }
+    }
+
+    private PceTestNode addDegree(List<List<PceTestNode>> degrees, int roadm) {
+        List<PceTestNode> roadmDegrees = degrees.get(roadm);
+        PceTestNode degree = addNode("ROADM-" + roadm + "-DEG" + (roadmDegrees.size() + 1), roadm);
+        roadmDegrees.add(degree);
+        return degree;
+    }
+
+    private PceTestNode addXponder(String nodeId, PceTestNode srg) {
+        BitSet wavelengths = new BitSet();
+        wavelengths.set(1, MAX_WAVELENGTH + 1);
+        PceTestNode xponder = new PceTestNode(nodeId, wavelengths);
+        allPceNodes.put(xponder.getNodeId(), xponder);
+        addLink(xponder, srg, "XPDR-NETWORK1", OpenroadmLinkType.XPONDEROUTPUT, 0L);
+        addLink(srg, xponder, "SRG-PP1-TXRX", OpenroadmLinkType.XPONDERINPUT, 0L);
+        return xponder;
+    }
+
+    private PceTestNode addNode(String nodeId, int roadm) {
+        BitSet wavelengths = new BitSet();
+        for (int index = 1; index <= MAX_WAVELENGTH; index++) {
+            if (random.nextDouble() < wavelengthDensity) {
+                wavelengths.set(index);
+            }
+        }
+        PceTestNode node = new PceTestNode(nodeId, "ROADM-" + roadm, "CLLI-" + roadm, wavelengths);
+        allPceNodes.put(node.getNodeId(), node);
+        return node;
+    }
+
+    private void addLink(PceTestNode source, PceTestNode dest, String tp, OpenroadmLinkType type, long latency) {
+        Link1Builder link1Builder = new Link1Builder().setLinkType(type);
+        if (type == OpenroadmLinkType.ROADMTOROADM) {
+            link1Builder.setLinkLatency(latency);
+        }
+        LinkBuilder linkBuilder = NodeUtils.createLinkBuilder(source.getNodeId().getValue(),
+            dest.getNodeId().getValue(), tp + "-" + links.size(), tp, link1Builder);
+        if (type == OpenroadmLinkType.ROADMTOROADM) {
+            // span loss between 5 and 25 dB, so that the span OSNR is between 27 and 33 dB
+            Span span = new SpanBuilder()
+                .setSpanlossCurrent(new RatioDB(BigDecimal.valueOf(5 + random.nextInt(21))))
+                .setLinkConcatenation(List.of(new LinkConcatenationBuilder()
+                    .setFiberType(LinkConcatenation.FiberType.Smf)
+                    .setSRLGId(Long.valueOf(links.size()))
+                    .setSRLGLength(latency)
+                    .build()))
+                .build();
+            linkBuilder.addAugmentation(org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130
+                .Link1.class, new org.opendaylight.yang.gen.v1.http.org.openroadm.network.topology.rev181130
+                .Link1Builder().setOMSAttributes(new OMSAttributesBuilder().setSpan(span).build()).build());
+        }
+        PceLink link = new PceLink(linkBuilder.build(), source, dest);
+        source.addOutgoingLink(link);
+        links.add(link);
+    }
+}
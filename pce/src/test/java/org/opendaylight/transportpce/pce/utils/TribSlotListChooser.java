@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2020 Orange, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.transportpce.pce.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.opendaylight.yangtools.yang.common.Uint16;
+
+/**
+ * Former list based choice of the tributary port and slots of a link, kept as a reference for the
+ * bitmap allocator.
+ */
+public final class TribSlotListChooser {
+
+    private TribSlotListChooser() {
+    }
+
+    public static Uint16 chooseTribPort(List<Uint16> srcTpnPool, List<Uint16> destTpnPool) {
+        List<Uint16> commonEdgeTpnPool = new ArrayList<>();
+        for (Uint16 integer : srcTpnPool) {
+            if (destTpnPool.contains(integer)) {
+                commonEdgeTpnPool.add(integer);
+            }
+        }
+        Collections.sort(commonEdgeTpnPool);
+        return commonEdgeTpnPool.isEmpty() ? null : commonEdgeTpnPool.get(0);
+    }
+
+    public static List<Uint16> chooseTribSlot(List<Uint16> srcTsPool, List<Uint16> destTsPool, int nbSlot) {
+        List<Uint16> commonEdgeTsPool = new ArrayList<>();
+        List<Uint16> tribSlotList = new ArrayList<>();
+        for (Uint16 integer : srcTsPool) {
+            if (destTsPool.contains(integer)) {
+                commonEdgeTsPool.add(integer);
+            }
+        }
+        Collections.sort(commonEdgeTsPool);
+        boolean discontinue = true;
+        int index = 0;
+        while (discontinue && (commonEdgeTsPool.size() - index >= nbSlot)) {
+            discontinue = false;
+            Integer val = commonEdgeTsPool.get(index).toJava();
+            for (int i = 0; i < nbSlot; i++) {
+                if (commonEdgeTsPool.get(index + i).equals(Uint16.valueOf(val + i))) {
+                    tribSlotList.add(commonEdgeTsPool.get(index + i));
+                } else {
+                    discontinue = true;
+                    tribSlotList.clear();
+                    index += i;
+                    break;
+                }
+            }
+        }
+        return tribSlotList;
+    }
+}
@@ -7,10 +7,15 @@
  */
 package org.opendaylight.transportpce.servicehandler.impl;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import org.opendaylight.mdsal.binding.api.DataBroker;
 import org.opendaylight.mdsal.binding.api.NotificationPublishService;
@@ -61,6 +66,7 @@ import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.Service
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckBulkInput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckBulkOutput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckInput;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckInputBuilder;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckOutput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceReconfigureInput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceReconfigureOutput;
@@ -80,6 +86,11 @@ import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.TempSer
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.TempServiceDeleteOutput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.delete.input.ServiceDeleteReqInfo.TailRetention;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.delete.input.ServiceDeleteReqInfoBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.feasibility.check.bulk.input.ServiceRequestList;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.feasibility.check.bulk.output.ServiceResponseList;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.feasibility.check.bulk.output.ServiceResponseListBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.feasibility.check.outputs.ServiceAEndBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.feasibility.check.outputs.ServiceZEndBuilder;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.list.Services;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.DateAndTime;
 import org.opendaylight.yangtools.yang.common.RpcResult;
@@ -231,7 +242,7 @@ public class ServicehandlerImpl implements OrgOpenroadmServiceService {
         this.rendererListenerImpl.setserviceDataStoreOperations(serviceDataStoreOperations);
         this.rendererListenerImpl.setServiceInput(new ServiceInput(input));
         LOG.info("Commencing PCE");
-        PathComputationRequestOutput output = this.pceServiceWrapper.performPCE(input, true);
+        PathComputationRequestOutput output = this.pceServiceWrapper.performPCE(input, false);
         if (output != null) {
             LOG.info("Service compliant, serviceFeasibilityCheck in progress...");
             ConfigurationResponseCommon common = output.getConfigurationResponseCommon();
@@ -570,8 +581,66 @@ public class ServicehandlerImpl implements OrgOpenroadmServiceService {
     @Override
     public ListenableFuture<RpcResult<ServiceFeasibilityCheckBulkOutput>> serviceFeasibilityCheckBulk(
         ServiceFeasibilityCheckBulkInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        LOG.info("RPC service feasibility check bulk received");
+        List<ServiceRequestList> serviceRequestList = input.nonnullServiceRequestList();
+        if (serviceRequestList.isEmpty()) {
+            return ModelMappingUtils.createCreateServiceReply(input, Collections.emptyList(),
+                    ResponseCodes.FINAL_ACK_YES, "Service request list is empty", ResponseCodes.RESPONSE_FAILED);
+        }
+        // the services are checked together, a resource being used by one of them at most
+        List<ServiceFeasibilityCheckInput> feasibilityInputs = new ArrayList<>();
+        for (ServiceRequestList serviceRequest : serviceRequestList) {
+            ServiceFeasibilityCheckInput feasibilityInput = new ServiceFeasibilityCheckInputBuilder(serviceRequest)
+                    .setCommonId(serviceRequest.getCommonId())
+                    .setSdncRequestHeader(input.getSdncRequestHeader()).build();
+            OperationResult validationResult = ServiceCreateValidation.validateServiceCreateRequest(
+                    new ServiceInput(feasibilityInput), RpcActions.ServiceFeasibilityCheck);
+            if (!validationResult.isSuccess()) {
+                LOG.warn("Aborting service feasibility check bulk because validation of service {} failed: {}",
+                        serviceRequest.getCommonId(), validationResult.getResultMessage());
+                return ModelMappingUtils.createCreateServiceReply(input, Collections.emptyList(),
+                        ResponseCodes.FINAL_ACK_YES, "Service " + serviceRequest.getCommonId() + ": "
+                                + validationResult.getResultMessage(), ResponseCodes.RESPONSE_FAILED);
+            }
+            feasibilityInputs.add(feasibilityInput);
+        }
+        LOG.info("Commencing PCE for {} services", feasibilityInputs.size());
+        ListenableFuture<RpcResult<ServiceFeasibilityCheckBulkOutput>> reply =
+            Futures.transformAsync(this.pceServiceWrapper.performBulkPCE(feasibilityInputs),
+                outputs -> createFeasibilityCheckBulkReply(input, feasibilityInputs, outputs),
+                MoreExecutors.directExecutor());
+        return Futures.catchingAsync(reply, Exception.class, e -> {
+            LOG.error("PCE calculation failed for service feasibility check bulk", e);
+            return ModelMappingUtils.createCreateServiceReply(input, Collections.emptyList(),
+                    ResponseCodes.FINAL_ACK_YES, "PCE calculation failed", ResponseCodes.RESPONSE_FAILED);
+        }, MoreExecutors.directExecutor());
+    }
+
+    private static ListenableFuture<RpcResult<ServiceFeasibilityCheckBulkOutput>> createFeasibilityCheckBulkReply(
+            ServiceFeasibilityCheckBulkInput input, List<ServiceFeasibilityCheckInput> feasibilityInputs,
+            List<PathComputationRequestOutput> outputs) {
+        List<ServiceResponseList> serviceResponseList = new ArrayList<>();
+        List<String> notFeasible = new ArrayList<>();
+        for (int i = 0; i < feasibilityInputs.size(); i++) {
+            ServiceFeasibilityCheckInput feasibilityInput = feasibilityInputs.get(i);
+            PathComputationRequestOutput output = outputs.get(i);
+            if (output != null && output.getConfigurationResponseCommon() != null
+                    && ResponseCodes.RESPONSE_OK.equals(output.getConfigurationResponseCommon().getResponseCode())) {
+                serviceResponseList.add(new ServiceResponseListBuilder()
+                        .setServiceAEnd(new ServiceAEndBuilder(feasibilityInput.getServiceAEnd()).build())
+                        .setServiceZEnd(new ServiceZEndBuilder(feasibilityInput.getServiceZEnd()).build())
+                        .build());
+            } else {
+                notFeasible.add(feasibilityInput.getCommonId());
+            }
+        }
+        String message = serviceResponseList.size() + " of " + feasibilityInputs.size() + " services feasible";
+        if (notFeasible.isEmpty()) {
+            return ModelMappingUtils.createCreateServiceReply(input, serviceResponseList, ResponseCodes.FINAL_ACK_YES,
+                    message, ResponseCodes.RESPONSE_OK);
+        }
+        return ModelMappingUtils.createCreateServiceReply(input, serviceResponseList, ResponseCodes.FINAL_ACK_YES,
+                message + ", not feasible: " + String.join(", ", notFeasible), ResponseCodes.RESPONSE_FAILED);
     }
 
 }
@@ -73,6 +73,7 @@ public class RendererListenerImpl implements TransportpceRendererListener {
                                 LOG.warn("Service status not updated in datastore !");
                             }
                         }
+                        this.pceServiceWrapper.releasePCEResource(serviceName);
                     } else if (serviceRpcResultSp.getStatus() == RpcStatusEx.Failed) {
                         LOG.error("Renderer implementation failed !");
                         OperationResult deleteServicePathOperationResult =
@@ -93,6 +94,7 @@ public class RendererListenerImpl implements TransportpceRendererListener {
                                 LOG.warn("Service was not removed from datastore!");
                             }
                         }
+                        this.pceServiceWrapper.releasePCEResource(serviceName);
                     }
                     break;
                 /* service-delete. */
@@ -12,6 +12,8 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executors;
 import org.opendaylight.mdsal.binding.api.NotificationPublishService;
 import org.opendaylight.transportpce.common.ResponseCodes;
@@ -185,6 +187,28 @@ public class PCEServiceWrapper {
                 .build();
     }
 
+    /**
+     * Compute the paths of several services at once, a resource being used by one of them at most.
+     *
+     * @param serviceFeasibilityCheckInputs the services
+     * @return the PCE output of each service, in the order of the services
+     */
+    public ListenableFuture<List<PathComputationRequestOutput>> performBulkPCE(
+            List<ServiceFeasibilityCheckInput> serviceFeasibilityCheckInputs) {
+        LOG.info("performing bulk PCE for {} services ...", serviceFeasibilityCheckInputs.size());
+        List<PathComputationRequestInput> pathComputationRequestInputs = new ArrayList<>();
+        for (ServiceFeasibilityCheckInput input : serviceFeasibilityCheckInputs) {
+            MappingConstraints mappingConstraints = new MappingConstraints(input.getHardConstraints(),
+                    input.getSoftConstraints());
+            mappingConstraints.serviceToServicePathConstarints();
+            pathComputationRequestInputs.add(createPceRequestInput(input.getCommonId(), input.getSdncRequestHeader(),
+                    mappingConstraints.getServicePathHardConstraints(),
+                    mappingConstraints.getServicePathSoftConstraints(), false, input.getServiceAEnd(),
+                    input.getServiceZEnd()));
+        }
+        return this.pathComputationService.pathComputationRequestBulk(pathComputationRequestInputs, true);
+    }
+
     private PathComputationRequestInput createPceRequestInput(String serviceName,
             SdncRequestHeader serviceHandler, HardConstraints hardConstraints,
             SoftConstraints softConstraints, Boolean reserveResource, ServiceEndpoint serviceAEnd,
@@ -304,6 +328,29 @@ public class PCEServiceWrapper {
         }
     }
 
+    /**
+     * Release the resources held by the PCE for a service once the renderer has ended its implementation,
+     * without notification: the service then uses the resources of the topology, or no resource at all.
+     *
+     * @param serviceName the name of the service
+     */
+    public void releasePCEResource(String serviceName) {
+        LOG.info("Releasing the PCE resources of {}", serviceName);
+        FutureCallback<Boolean> pceCallback = new FutureCallback<Boolean>() {
+
+            @Override
+            public void onSuccess(Boolean released) {
+                LOG.info("PCE resources of {} released : {}", serviceName, released);
+            }
+
+            @Override
+            public void onFailure(Throwable arg0) {
+                LOG.warn("PCE resources of {} not released, they are held until they expire", serviceName, arg0);
+            }
+        };
+        Futures.addCallback(this.pathComputationService.releaseResourceReserve(serviceName), pceCallback, executor);
+    }
+
     private static PathComputationRequestOutput returnPCEFailed() {
         ConfigurationResponseCommon configurationResponseCommon = new ConfigurationResponseCommonBuilder()
                 .setAckFinalIndicator(ResponseCodes.FINAL_ACK_YES).setResponseCode(ResponseCodes.RESPONSE_FAILED)
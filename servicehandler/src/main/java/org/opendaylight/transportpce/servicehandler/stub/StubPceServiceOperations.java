@@ -7,9 +7,12 @@
  */
 package org.opendaylight.transportpce.servicehandler.stub;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import org.opendaylight.mdsal.binding.api.NotificationPublishService;
@@ -191,6 +194,33 @@ public class StubPceServiceOperations implements PathComputationService {
         });
     }
 
+    @Override
+    public ListenableFuture<List<PathComputationRequestOutput>> pathComputationRequestBulk(
+            List<PathComputationRequestInput> inputs, boolean virtualReservation) {
+        return executor.submit(new Callable<List<PathComputationRequestOutput>>() {
+            @Override
+            public List<PathComputationRequestOutput> call() throws Exception {
+                String message = pceFailed ? "pce failed !" : "path computated !";
+                String responseCode = pceFailed ? ResponseCodes.RESPONSE_FAILED : ResponseCodes.RESPONSE_OK;
+                List<PathComputationRequestOutput> outputs = new ArrayList<>();
+                for (PathComputationRequestInput input : inputs) {
+                    outputs.add(new PathComputationRequestOutputBuilder()
+                            .setConfigurationResponseCommon(new ConfigurationResponseCommonBuilder()
+                                    .setAckFinalIndicator(ResponseCodes.FINAL_ACK_YES)
+                                    .setRequestId(input.getServiceHandlerHeader().getRequestId())
+                                    .setResponseCode(responseCode).setResponseMessage(message).build())
+                            .build());
+                }
+                return outputs;
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Boolean> releaseResourceReserve(String serviceName) {
+        return Futures.immediateFuture(false);
+    }
+
     private static PathDescription createPathDescription(long azRate, long azWaveLength, long zaRate,
             long zaWaveLength) {
         AToZDirection atozDirection =
@@ -8,11 +8,13 @@
 package org.opendaylight.transportpce.servicehandler.impl;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
@@ -32,6 +34,9 @@ import org.opendaylight.transportpce.servicehandler.listeners.RendererListenerIm
 import org.opendaylight.transportpce.servicehandler.service.ServiceDataStoreOperationsImpl;
 import org.opendaylight.transportpce.servicehandler.utils.ServiceDataUtils;
 import org.opendaylight.transportpce.test.AbstractTest;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestOutput;
+import org.opendaylight.yang.gen.v1.http.org.opendaylight.transportpce.pce.rev200128.PathComputationRequestOutputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.common.service.types.rev190531.configuration.response.common.ConfigurationResponseCommonBuilder;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.common.types.rev190531.RpcStatus;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceCreateInput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceCreateInputBuilder;
@@ -39,6 +44,9 @@ import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.Service
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceDeleteInput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceDeleteInputBuilder;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceDeleteOutput;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckBulkInput;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckBulkInputBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckBulkOutput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckInput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckInputBuilder;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.ServiceFeasibilityCheckOutput;
@@ -58,6 +66,7 @@ import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.TempSer
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.TempServiceDeleteInputBuilder;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.TempServiceDeleteOutput;
 import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.delete.input.ServiceDeleteReqInfoBuilder;
+import org.opendaylight.yang.gen.v1.http.org.openroadm.service.rev190531.service.feasibility.check.bulk.input.ServiceRequestListBuilder;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 
 public class ServicehandlerImplTest extends AbstractTest  {
@@ -256,6 +265,52 @@ public class ServicehandlerImplTest extends AbstractTest  {
                 ResponseCodes.RESPONSE_OK, rpcResult.getResult().getConfigurationResponseCommon().getResponseCode());
     }
 
+    @Test
+    public void serviceFeasibilityCheckBulkShouldBeFailedWithEmptyInput()
+            throws ExecutionException, InterruptedException {
+        ServicehandlerImpl servicehandlerImpl =
+                new ServicehandlerImpl(getNewDataBroker(), pathComputationService, rendererServiceOperations,
+                        notificationPublishService, pceListenerImpl, rendererListenerImpl, null);
+        RpcResult<ServiceFeasibilityCheckBulkOutput> rpcResult =
+            servicehandlerImpl.serviceFeasibilityCheckBulk(new ServiceFeasibilityCheckBulkInputBuilder().build()).get();
+        Assert.assertEquals(
+            ResponseCodes.RESPONSE_FAILED, rpcResult.getResult().getConfigurationResponseCommon().getResponseCode());
+    }
+
+    @Test
+    public void serviceFeasibilityCheckBulkShouldBeSuccessfulWhenAllServicesFeasible()
+            throws ExecutionException, InterruptedException {
+        Mockito.when(pathComputationService.pathComputationRequestBulk(any(), anyBoolean())).thenReturn(
+            Futures.immediateFuture(Arrays.asList(buildPceOutput(ResponseCodes.RESPONSE_OK),
+                buildPceOutput(ResponseCodes.RESPONSE_OK))));
+        ServicehandlerImpl servicehandlerImpl =
+                new ServicehandlerImpl(getNewDataBroker(), pathComputationService, rendererServiceOperations,
+                        notificationPublishService, pceListenerImpl, rendererListenerImpl, null);
+        RpcResult<ServiceFeasibilityCheckBulkOutput> rpcResult =
+            servicehandlerImpl.serviceFeasibilityCheckBulk(buildServiceFeasibilityCheckBulkInput()).get();
+        Assert.assertEquals(
+            ResponseCodes.RESPONSE_OK, rpcResult.getResult().getConfigurationResponseCommon().getResponseCode());
+        Assert.assertEquals(2, rpcResult.getResult().getServiceResponseList().size());
+    }
+
+    @Test
+    public void serviceFeasibilityCheckBulkShouldReportServicesNotFeasible()
+            throws ExecutionException, InterruptedException {
+        Mockito.when(pathComputationService.pathComputationRequestBulk(any(), anyBoolean())).thenReturn(
+            Futures.immediateFuture(Arrays.asList(buildPceOutput(ResponseCodes.RESPONSE_OK),
+                buildPceOutput(ResponseCodes.RESPONSE_FAILED))));
+        ServicehandlerImpl servicehandlerImpl =
+                new ServicehandlerImpl(getNewDataBroker(), pathComputationService, rendererServiceOperations,
+                        notificationPublishService, pceListenerImpl, rendererListenerImpl, null);
+        RpcResult<ServiceFeasibilityCheckBulkOutput> rpcResult =
+            servicehandlerImpl.serviceFeasibilityCheckBulk(buildServiceFeasibilityCheckBulkInput()).get();
+        Assert.assertEquals(
+            ResponseCodes.RESPONSE_FAILED, rpcResult.getResult().getConfigurationResponseCommon().getResponseCode());
+        Assert.assertEquals(1, rpcResult.getResult().getServiceResponseList().size());
+        Assert.assertTrue(rpcResult.getResult().getConfigurationResponseCommon().getResponseMessage()
+            .contains("service 2"));
+    }
+
     @Test
     public void serviceReconfigureShouldBeFailedWithEmptyInput() throws ExecutionException, InterruptedException {
         ServicehandlerImpl servicehandlerImpl =
@@ -632,4 +687,20 @@ public class ServicehandlerImplTest extends AbstractTest  {
                 ResponseCodes.RESPONSE_OK, rpcResult.getResult().getConfigurationResponseCommon().getResponseCode());
     }
 
+    private static ServiceFeasibilityCheckBulkInput buildServiceFeasibilityCheckBulkInput() {
+        ServiceFeasibilityCheckInput input = ServiceDataUtils.buildServiceFeasibilityCheckInput();
+        return new ServiceFeasibilityCheckBulkInputBuilder()
+            .setSdncRequestHeader(input.getSdncRequestHeader())
+            .setServiceRequestList(Arrays.asList(
+                new ServiceRequestListBuilder(input).setCommonId("service 1").build(),
+                new ServiceRequestListBuilder(input).setCommonId("service 2").build()))
+            .build();
+    }
+
+    private static PathComputationRequestOutput buildPceOutput(String responseCode) {
+        return new PathComputationRequestOutputBuilder()
+            .setConfigurationResponseCommon(new ConfigurationResponseCommonBuilder()
+                .setAckFinalIndicator(ResponseCodes.FINAL_ACK_YES).setResponseCode(responseCode).build())
+            .build();
+    }
 }
@@ -11,6 +11,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.junit.Assert;
 import org.junit.Before;
@@ -121,6 +122,15 @@ public class PCEServiceWrapperTest extends AbstractTest {
         verify(this.pathComputationServiceMock).cancelResourceReserve(any(CancelResourceReserveInput.class));
     }
 
+    @Test
+    public void releasePCEResourceValid() {
+        Mockito.when(this.pathComputationServiceMock.releaseResourceReserve("service 1"))
+                .thenReturn(Futures.immediateFuture(true));
+        this.pceServiceWrapperMock.releasePCEResource("service 1");
+        verify(this.pathComputationServiceMock).releaseResourceReserve("service 1");
+        verifyZeroInteractions(this.notificationPublishServiceMock);
+    }
+
     @Test
     public void performPCEValid() {
         ConfigurationResponseCommon configurationResponseCommon = new ConfigurationResponseCommonBuilder()